@@ -41,20 +41,44 @@ public class AutomationAccessibilityService extends AccessibilityService {
     private static final String QUARK_BROWSER_PACKAGE = "com.quark.browser";
 
     private static AutomationAccessibilityService instance;
-    private boolean isRunning = false;
-    private boolean hasClickedScreenRecord = false;
-    private boolean hasSelectedDouyin = false; // 是否已勾选抖音
+    private volatile boolean isRunning = false; // 后台流程线程与批量任务线程都会读取
     private String remark = "";
     private String infringementUrl = ""; // 侵权链接
     private String videoKeywords = ""; // 🆕 视频文案关键词
     private int videoDurationSeconds = 60; // 🆕 视频时长(秒),默认60秒
+    private PurchaseIntentMatcher purchaseIntentMatcher = null; // 评论购买意图匹配器（首次评论取证时构建）
+    private CaptchaSolverChain captchaSolverChain = null; // 滑块验证码解算链（首次遇到验证码时构建）
+    private CoverIndex coverIndex = null; // 封面观察记录索引（跨次取证保留，首次使用时打开）
+    private BatchTaskQueue batchTaskQueue = null; // 批量取证任务队列（首次使用时从检查点恢复）
     // 📄 PDF生成相关
-    private java.util.List<android.net.Uri> sessionScreenshotUris = new java.util.ArrayList<>();
+    // 本次取证已提交保存的截图（按截图顺序；后台保存完成后得到Uri/保存时间/SHA-256）
+    private final java.util.List<java.util.concurrent.CompletableFuture<SavedScreenshot>> sessionScreenshotSaves =
+        java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+    // 本次取证的PDF报告：截图保存完成后就在后台写成页面，生成PDF时只剩收尾（首张截图时创建）
+    private EvidenceReportBuilder evidenceReport = null;
+    private volatile String lastEvidencePdfName = null; // 本次启动后成功保存的取证PDF文件名（批量任务据此判断成败）
+    private static final int PDF_PAGE_WIDTH = 1080;
+    private static final int PDF_PAGE_HEIGHT = 2400;
+    private static final int PDF_IMAGE_WIDTH = 720; // 页面图片像素宽度（按此解码采样，控制内存与报告体积）
+    private static final long FACE_SCAN_INTERVAL_MS = 350; // 人脸扫描截屏间隔（系统限制约333ms一次）
+    private static final int FACE_SCAN_QUEUE_CAPACITY = 2; // 待检测帧队列容量（满时丢弃最旧帧）
+    private static final int FACE_RANK_OVERSAMPLE = 3;     // 人脸候选帧数 = 目标截图数 × 该倍数，排序后只保存最好的
+    private static final String VIDEO_SEEKBAR_ID = "com.ss.android.ugc.aweme:id/6n0"; // 抖音播放器进度条
+    private static final long VIDEO_WAIT_SLACK_MS = 30000; // 等待播放进度时在视频时长之外最多多等的时间（暂停/缓冲）
+    private static final long VIDEO_OPEN_TIMEOUT_MS = 3500;   // 点击视频卡片后等待播放页稳定的最长时间
+    private static final long VIDEO_OPEN_START_MS = 1500;     // 点击后等待页面开始跳转（第一个抖音事件）的最长时间
+    private static final long PAGE_QUIET_MS = 800;            // 连续这么久没有界面事件视为页面已稳定
+    // 当前视频的播放进度跟踪（播放期间由 onAccessibilityEvent 喂入进度条事件）
+    private volatile VideoProgressTracker videoProgressTracker = null;
+    private volatile OcrHelper.Region videoTimerRegion = null; // 时间条OCR区域（首次在底部500px找到后缓存）
+    // 截图回调/编码/保存都在后台线程完成，不占用主线程
+    private final ScreenshotPipeline screenshotPipeline = new ScreenshotPipeline();
     private String originalName = ""; // 原创名称
     private String infringerName = ""; // 侵权人账号名称
     private android.graphics.Bitmap referenceCoverBitmap = null; // 侵权视频参考封面（备用，保留）
     private String coverImageKey = null; // 🆕 侵权视频封面唯一Key（从用户输入的封面URL提取，支持jpeg_m_MD5格式和TOS格式，用于创作灵感精确对比）
     private String targetVideoPlayCount = ""; // 🆕 创作灵感中侵权视频的播放量，用于达人视频列表中匹配（如"368.55万"）
+    private String targetVideoSales = ""; // 创作灵感中匹配侵权视频的销量文本（写入取证报告目录页）
     private int salesThreshold = -1; // 🆕 销量筛选阈值（-1=不筛选，>0=跳过销量<阈值的侵权视频，除非只有1个匹配）
 
     // 🧪 测试模式标志
@@ -62,19 +86,30 @@ public class AutomationAccessibilityService extends AccessibilityService {
     private Thread testModeThread = null;   // 测试模式后台线程引用，用于停止时interrupt
     private volatile Thread normalModeThread = null; // 正常模式后台线程引用，用于停止时interrupt
 
-    // 权利卫士取证阶段标志位
-    private boolean isRightsGuardEvidencePhase = false; // 是否处于权利卫士取证阶段(权利卫士打开抖音后)
-    private boolean hasStartedDouyinAutomation = false; // 是否已开始抖音自动化
-    private boolean hasClickedDouyinMe = false; // 是否已点击抖音"我"按钮
     private boolean isScreenshotTestMode = false; // 📸 第二张截图测试模式：走完整流程，点击"我"后停止
-    private boolean hasClickedDouyinMore = false; // 是否已点击抖音"更多"按钮
-    private boolean hasClickedDouyinSettings = false; // 是否已点击抖音"设置"按钮
-    private boolean hasScrolledToAboutSection = false; // 是否已滑动到"关于"部分
+
+    // 正常取证流程状态机（替代原先分散的 hasClickedScreenRecord/hasSelectedDouyin/isRightsGuardEvidencePhase 等标志位）
+    private static final String SCREEN_RECORDER_ACTIVITY = "cn.tsa.rights.viewer.screen.ScreenRecorderActivity";
+    private static final long SCREEN_RECORD_CLICK_DELAY_MS = 2000;   // 首页加载后再点"录屏取证"
+    private static final long SCREEN_SHARE_CHECK_DELAY_MS = 300;     // 录屏授权弹窗事件合并窗口
+    private volatile EvidenceFlowState flowState = EvidenceFlowState.IDLE;
+    private boolean flowActionScheduled = false; // 当前状态的延迟动作是否已排队（仅主线程读写）
+    private final android.os.Handler mainHandler = new android.os.Handler(android.os.Looper.getMainLooper());
+    private final Runnable flowTimeoutRunnable = this::onFlowStateTimeout;
+    private final Runnable screenRecordClickRunnable = this::runScheduledScreenRecordClick;
+    private final Runnable screenShareCheckRunnable = this::runScheduledScreenShareCheck;
+
+    // 事件驱动的页面就绪等待器（由 onAccessibilityEvent 喂事件，替代固定 sleep 轮询）
+    private final PageWaiter pageWaiter = new PageWaiter(() -> getRootInActiveWindow());
 
     // 日志收集
-    private static final StringBuilder logBuilder = new StringBuilder();
-    private static final int MAX_LOG_LENGTH = 50000; // 最大日志长度
+    private static final int MAX_LOG_LINES = 2000; // 内存中保留的最大日志行数
+    private static final LogStore logStore = new LogStore(MAX_LOG_LINES);
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
+    // 日志文件由后台线程批量写入，防止APP被杀掉后日志丢失，又不阻塞打日志的线程
+    private static final LogFileWriter logFileWriter = new LogFileWriter(
+        new java.io.File(android.os.Environment.getExternalStorageDirectory(), "权利卫士取证/logs"),
+        "automation_");
 
     @Override
     public void onCreate() {
@@ -82,6 +117,9 @@ public class AutomationAccessibilityService extends AccessibilityService {
         instance = this;
         logD("无障碍服务已创建");
 
+        // 预热共享OCR识别器，模型加载只在服务生命周期内发生一次
+        OcrHelper.warmUp();
+
         // 🔧 注意: AccessibilityService是系统管理的特殊Service,不需要调用startForeground()
         // 系统会自动保持它运行,调用startForeground()反而会导致崩溃
 
@@ -111,49 +149,28 @@ public class AutomationAccessibilityService extends AccessibilityService {
             return;
         }
 
-        String packageName = event.getPackageName() != null ? event.getPackageName().toString() : "";
-        int eventType = event.getEventType();
-
-        // 处理系统UI的录屏权限弹窗
-        if (SYSTEM_UI_PACKAGE.equals(packageName)) {
-            if (eventType == AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED ||
-                eventType == AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED) {
-                handleSystemScreenShareDialog();
-            }
-            return;
+        // 唤醒正在等待页面就绪的后台步骤
+        pageWaiter.onEvent(event);
+        VideoProgressTracker progress = videoProgressTracker;
+        if (progress != null) {
+            progress.onEvent(event);
         }
 
-        // 🆕 处理抖音事件(仅在权利卫士取证阶段)
-        if (DOUYIN_PACKAGE.equals(packageName) && isRightsGuardEvidencePhase) {
-            if (eventType == AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED) {
-                // 只在窗口状态变化时触发一次
-                if (!hasStartedDouyinAutomation) {
-                    hasStartedDouyinAutomation = true;
-                    startDouyinAutomation();
-                }
-            }
-            return;
-        }
+        String packageName = event.getPackageName() != null ? event.getPackageName().toString() : "";
+        int eventType = event.getEventType();
 
-        // 只处理权利卫士应用的事件
-        if (!TARGET_PACKAGE.equals(packageName)) {
+        // 只把当前流程状态关心的事件交给它的处理方法，其余事件直接丢弃
+        EvidenceFlowState state = flowState;
+        int source = flowSourceOf(packageName);
+        if (!state.accepts(source, eventType)) {
             return;
         }
 
-        Log.d(TAG, "收到事件: " + AccessibilityEvent.eventTypeToString(eventType));
-
-        // 处理窗口状态变化事件
-        if (eventType == AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED) {
-            handleWindowStateChanged(event);
-        }
-
-        // 处理窗口内容变化事件
-        if (eventType == AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED) {
-            handleWindowContentChanged();
-
-            // 检查是否是应用验真界面
-            handleAppVerificationDialog();
+        String className = event.getClassName() != null ? event.getClassName().toString() : "";
+        if (source == EvidenceFlowState.Source.RIGHTS_GUARD) {
+            Log.d(TAG, "收到事件: " + AccessibilityEvent.eventTypeToString(eventType) + " [" + state.name() + "] " + className);
         }
+        handleFlowEvent(state, source, className);
     }
 
     @Override
@@ -166,6 +183,32 @@ public class AutomationAccessibilityService extends AccessibilityService {
         super.onDestroy();
         instance = null;
 
+        // 取消流程状态机排队中的超时/延迟动作
+        mainHandler.removeCallbacksAndMessages(null);
+
+        // 释放共享OCR识别器
+        OcrHelper.shutdown();
+
+        // 写出缓冲中的日志
+        logFileWriter.flushAndWait(1000);
+
+        // 不再接收新截图；已提交的保存任务继续完成
+        screenshotPipeline.shutdown();
+
+        if (captchaSolverChain != null) {
+            captchaSolverChain.shutdown();
+        }
+
+        synchronized (this) {
+            if (coverIndex != null) {
+                coverIndex.close();
+                coverIndex = null;
+            }
+            if (batchTaskQueue != null) {
+                batchTaskQueue.stop();
+            }
+        }
+
         // 停止悬浮窗服务
         stopFloatingWindow();
 
@@ -232,8 +275,15 @@ public class AutomationAccessibilityService extends AccessibilityService {
             this.originalName = this.remark;
             this.infringerName = "";
         }
-        // 清空本次取证截图URI列表
-        this.sessionScreenshotUris.clear();
+        // 清空本次取证截图URI列表，放弃上一轮未生成的报告
+        this.targetVideoSales = "";
+        synchronized (sessionScreenshotSaves) {
+            this.sessionScreenshotSaves.clear();
+            if (evidenceReport != null) {
+                evidenceReport.abandon();
+                evidenceReport = null;
+            }
+        }
         logD("📝 设置备注: " + this.remark);
         logD("  原创名称: " + this.originalName + " | 侵权人: " + this.infringerName);
     }
@@ -291,7 +341,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
             logD("📝 封面URL为空，跳过Key提取");
             return;
         }
-        String key = extractImageKey(url);
+        String key = TextParsers.extractImageKey(url);
         if (key != null) {
             this.coverImageKey = key;
             logD("✅ 封面Key提取成功: " + key);
@@ -310,77 +360,46 @@ public class AutomationAccessibilityService extends AccessibilityService {
     }
 
     /**
-     * 🆕 从字节跳动CDN URL或Key字符串中提取图片唯一标识符
-     * 支持两种格式：
-     *   1. jpeg_m_格式：提取32位十六进制MD5
-     *      输入: "jpeg_m_7028a541c836f6261c9f16a74a112c81_sx_469823_www1259-1259~tplv-..."
-     *      输出: "7028a541c836f6261c9f16a74a112c81"
-     *   2. TOS格式（tos-cn-v-xxxx/KEY）：提取URL路径最后一段中 ~ 或 ? 之前的内容
-     *      输入: "https://p6-compass-sign.byteimg.com/tos-cn-v-0051/o8zGIDs4tmqAGZeCQpyuD14Q349LgNAdHeBsHg~tplv-..."
-     *      输出: "o8zGIDs4tmqAGZeCQpyuD14Q349LgNAdHeBsHg"
-     *      也支持节点Text直接就是 "KEY?params" 格式，此时截取 ? 之前部分。
-     */
-    private String extractImageKey(String input) {
-        if (input == null || input.isEmpty()) return null;
-
-        // 优先匹配 jpeg_m_ 格式（32位十六进制MD5）
-        java.util.regex.Pattern md5Pattern = java.util.regex.Pattern.compile("jpeg_m_([0-9a-f]{32})");
-        java.util.regex.Matcher md5Matcher = md5Pattern.matcher(input);
-        if (md5Matcher.find()) return md5Matcher.group(1);
-
-        // 也支持 webp_m_ 格式（结构相同）
-        java.util.regex.Pattern webpPattern = java.util.regex.Pattern.compile("webp_m_([0-9a-f]{32})");
-        java.util.regex.Matcher webpMatcher = webpPattern.matcher(input);
-        if (webpMatcher.find()) return webpMatcher.group(1);
-
-        // TOS格式：取路径最后一段（/ 之后），再截取 ~ 或 ? 之前的部分
-        // 例：tos-cn-v-0051/o8zGIDs4...~tplv-... 或 节点Text: o8zGIDs4...?params
-        String segment = input;
-        int slashIdx = input.lastIndexOf('/');
-        if (slashIdx >= 0 && slashIdx < input.length() - 1) {
-            segment = input.substring(slashIdx + 1);
-        }
-        // 截断 ~ 之后的模板参数
-        int tildeIdx = segment.indexOf('~');
-        if (tildeIdx > 0) segment = segment.substring(0, tildeIdx);
-        // 截断 ? 之后的查询参数
-        int queryIdx = segment.indexOf('?');
-        if (queryIdx > 0) segment = segment.substring(0, queryIdx);
-
-        // 过滤掉太短（<10字符）或包含空格（可能是普通文字）的结果
-        if (segment.length() >= 10 && !segment.contains(" ") && !segment.contains(".png")
-                && !segment.contains(".jpg") && !segment.contains(".svg")) {
-            return segment;
+     * 清空上一个案件的取证参数（每个案件 applyTo 之前调用）
+     * applyTo 对缺失的链接/关键词/封面URL不调用 setter，不清空的话会沿用上一个案件的值
+     */
+    public void resetCaseState() {
+        this.infringementUrl = "";
+        this.videoKeywords = "";
+        this.coverImageKey = null;
+        this.targetVideoPlayCount = "";
+        this.targetVideoSales = "";
+        this.salesThreshold = -1;
+        if (referenceCoverBitmap != null && !referenceCoverBitmap.isRecycled()) {
+            referenceCoverBitmap.recycle();
         }
-        return null;
+        this.referenceCoverBitmap = null;
+        logD("🧹 已清空上一个案件的取证参数");
     }
 
     /**
-     * 🆕 递归遍历无障碍树，收集所有 android.widget.Image 节点中的图片Key
+     * 🆕 遍历无障碍树，收集所有 android.widget.Image 节点中的图片Key
      * 同时检测是否与 coverImageKey 匹配（支持 jpeg_m_ MD5格式和TOS格式）
      */
-    private void collectImageNodeMd5s(android.view.accessibility.AccessibilityNodeInfo node,
+    private void collectImageNodeMd5s(android.view.accessibility.AccessibilityNodeInfo root,
                                        java.util.List<String> allKeys,
                                        java.util.List<String> matchedKeys) {
-        if (node == null) return;
-        String className = node.getClassName() != null ? node.getClassName().toString() : "";
-        if ("android.widget.Image".equals(className)) {
-            CharSequence text = node.getText();
-            if (text != null) {
-                String key = extractImageKey(text.toString());
-                if (key != null) {
-                    allKeys.add(key);
-                    if (key.equals(coverImageKey)) {
-                        matchedKeys.add(key);
+        NodeWalker.create().within(screenBounds()).walk(root, (node, depth) -> {
+            CharSequence className = node.getClassName();
+            if (className != null && "android.widget.Image".contentEquals(className)) {
+                CharSequence text = node.getText();
+                if (text != null) {
+                    String key = TextParsers.extractImageKey(text.toString());
+                    if (key != null) {
+                        allKeys.add(key);
+                        if (key.equals(coverImageKey)) {
+                            matchedKeys.add(key);
+                        }
                     }
                 }
             }
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            android.view.accessibility.AccessibilityNodeInfo child = node.getChild(i);
-            collectImageNodeMd5s(child, allKeys, matchedKeys);
-            if (child != null) child.recycle();
-        }
+            return NodeWalker.CONTINUE;
+        });
     }
 
     /**
@@ -389,8 +408,8 @@ public class AutomationAccessibilityService extends AccessibilityService {
     public void startAutomation() {
         logD("🚀 启动自动化");
         isRunning = true;
-        hasClickedScreenRecord = false;
-        hasSelectedDouyin = false;
+        lastEvidencePdfName = null;
+        transitionTo(EvidenceFlowState.OPEN_LINK);
 
         // 🆕 步骤1: 打开侵权链接(通过WebView)
         if (infringementUrl != null && !infringementUrl.isEmpty()) {
@@ -595,13 +614,14 @@ public class AutomationAccessibilityService extends AccessibilityService {
                             while (!cropDone[0] && System.currentTimeMillis() - cropWait < 5000) Thread.sleep(100);
 
                         if (capBmpHolder[0] != null) {
-                            logD("🎯 开始本地模板匹配解算验证码...");
-                            int slideDist = solveSliderLocal(capBmpHolder[0], capFragHolder[0]);
+                            logD("🎯 开始解算验证码...");
+                            CaptchaSolver.Solution solution = getCaptchaSolverChain().solve(capBmpHolder[0], capFragHolder[0]);
+                            int slideDist = solution != null ? solution.distance : -1;
                             capBmpHolder[0].recycle();
                             if (capFragHolder[0] != null) capFragHolder[0].recycle();
                             if (slideDist > 0) {
                                 int targetHandleX = 222 + slideDist;
-                                logD("🖐️ 本地匹配滑动距离=" + slideDist + "px，目标x=" + targetHandleX + "，模拟人手滑动...");
+                                logD("🖐️ " + solution.solver + "滑动距离=" + slideDist + "px，目标x=" + targetHandleX + "，模拟人手滑动...");
                                 android.graphics.Path slidePath = new android.graphics.Path();
                                 slidePath.moveTo(222, 1459);
                                 slidePath.lineTo(222 + (int)(slideDist * 0.6f), 1459);
@@ -641,13 +661,14 @@ public class AutomationAccessibilityService extends AccessibilityService {
                                 long checkWait = System.currentTimeMillis();
                                 while (!checkDone[0] && System.currentTimeMillis() - checkWait < 5000) Thread.sleep(100);
                                 if (!captchaStillPresent[0]) {
-                                    logD("✅ 本地匹配验证通过！等待资质页加载...");
+                                    logD("✅ 验证码验证通过！等待资质页加载...");
                                     Thread.sleep(1000);
                                 } else {
+                                    getCaptchaSolverChain().reject(solution);
                                     logD("⚠️ 验证码滑动未通过，继续等待下一轮...");
                                 }
                             } else {
-                                logD("⚠️ 本地模板匹配失败(dist=" + slideDist + ")，跳过本轮");
+                                logD("⚠️ 验证码解算失败(dist=" + slideDist + ")，跳过本轮");
                             }
                         } else {
                             logD("⚠️ 验证码截图裁剪失败，跳过本轮");
@@ -859,6 +880,8 @@ public class AutomationAccessibilityService extends AccessibilityService {
     public void stopAutomation() {
         Log.d(TAG, "停止自动化");
         isRunning = false;
+        transitionTo(EvidenceFlowState.IDLE);
+        logFileWriter.flush();
         isTestMode = false; // 重置测试模式标志
         // 中断测试模式后台线程，唤醒所有Thread.sleep()阻塞
         if (testModeThread != null && testModeThread.isAlive()) {
@@ -889,6 +912,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
             startActivity(intent);
             Log.d(TAG, "成功启动权利卫士应用");
+            transitionTo(EvidenceFlowState.WAIT_SCREEN_RECORD);
 
         } catch (Exception e) {
             Log.e(TAG, "启动权利卫士失败: " + e.getMessage(), e);
@@ -903,55 +927,253 @@ public class AutomationAccessibilityService extends AccessibilityService {
     }
 
     /**
-     * 处理窗口状态变化
+     * 最近一次 startAutomation 之后成功保存的取证PDF文件名，尚未生成返回 null
      */
-    private void handleWindowStateChanged(AccessibilityEvent event) {
-        String className = event.getClassName() != null ? event.getClassName().toString() : "";
-        Log.d(TAG, "窗口切换: " + className);
+    public String getLastEvidencePdfName() {
+        return lastEvidencePdfName;
+    }
+
+    /**
+     * 批量取证任务队列：状态存应用私有目录，任务文件放在 外部应用目录/BatchTasks/（.csv / .json）
+     */
+    public synchronized BatchTaskQueue getBatchTaskQueue() {
+        if (batchTaskQueue == null) {
+            java.io.File importDir = new java.io.File(getExternalFilesDir(null), "BatchTasks");
+            batchTaskQueue = new BatchTaskQueue(new java.io.File(getFilesDir(), "batch_queue.json"),
+                importDir, message -> logD(message));
+        }
+        return batchTaskQueue;
+    }
+
+    /**
+     * 导入任务目录中的新任务文件并开始批量取证
+     *
+     * @return 本次新导入的案件数；队列已在运行或没有待执行案件返回 -1
+     */
+    public int startBatchAutomation() {
+        BatchTaskQueue queue = getBatchTaskQueue();
+        int imported = queue.importFromDirectory();
+        boolean started = queue.start(new BatchTaskQueue.CaseExecutor() {
+            @Override
+            public boolean start(BatchTaskQueue.BatchCase task) throws InterruptedException {
+                if (instance == null) return false;
+                // 与主界面"开始"相同：清空上个案件 → 解析取证信息 → 逐项设置 → 在主线程启动流程
+                resetCaseState();
+                EvidenceInfoParser.parse(task.info).applyTo(AutomationAccessibilityService.this, task.salesThreshold);
+                java.util.concurrent.CountDownLatch launched = new java.util.concurrent.CountDownLatch(1);
+                mainHandler.post(() -> {
+                    try {
+                        startAutomation();
+                    } finally {
+                        launched.countDown();
+                    }
+                });
+                // 等待期间被停止时中断向上抛出，由队列按"停止"处理而不是记为启动失败
+                return launched.await(5, java.util.concurrent.TimeUnit.SECONDS) && isRunning;
+            }
+
+            @Override
+            public boolean isRunning() {
+                return isRunning;
+            }
 
-        // 检测到主界面,尝试点击录屏取证按钮
-        if (!hasClickedScreenRecord) {
-            ClickScreenRecordThread thread = new ClickScreenRecordThread();
-            thread.start();
+            @Override
+            public String resultPdfName() {
+                return lastEvidencePdfName;
+            }
+
+            @Override
+            public void stop() {
+                mainHandler.post(() -> stopAutomation());
+            }
+        });
+        return started ? imported : -1;
+    }
+
+    /**
+     * 停止批量取证（当前案件一并停止，保留在队列中下次继续）
+     */
+    public void stopBatchAutomation() {
+        if (batchTaskQueue != null) {
+            batchTaskQueue.stop();
+        }
+    }
+
+    public boolean isBatchRunning() {
+        return batchTaskQueue != null && batchTaskQueue.isRunning();
+    }
+
+    /**
+     * 事件来源归类
+     */
+    private int flowSourceOf(String packageName) {
+        if (TARGET_PACKAGE.equals(packageName)) return EvidenceFlowState.Source.RIGHTS_GUARD;
+        if (SYSTEM_UI_PACKAGE.equals(packageName)) return EvidenceFlowState.Source.SYSTEM_UI;
+        if (DOUYIN_PACKAGE.equals(packageName)) return EvidenceFlowState.Source.DOUYIN;
+        return EvidenceFlowState.Source.NONE;
+    }
+
+    /**
+     * 切换流程状态：取消上一状态排队中的动作，并为新状态重新计时
+     */
+    private void transitionTo(EvidenceFlowState next) {
+        EvidenceFlowState prev = flowState;
+        flowState = next;
+        if (prev != next) {
+            logD("🔀 流程状态: " + prev.description + " → " + next.description);
         }
+        mainHandler.removeCallbacks(screenRecordClickRunnable);
+        mainHandler.removeCallbacks(screenShareCheckRunnable);
+        flowActionScheduled = false;
+        armFlowTimeout();
+    }
 
-        // 检测到录屏界面,填充备注并点击开始录屏
-        if (className.equals("cn.tsa.rights.viewer.screen.ScreenRecorderActivity")) {
-            Log.d(TAG, "检测到录屏界面");
-            FillRemarkAndStartThread thread = new FillRemarkAndStartThread();
-            thread.start();
+    private void armFlowTimeout() {
+        mainHandler.removeCallbacks(flowTimeoutRunnable);
+        if (flowState.timeoutMs > 0) {
+            mainHandler.postDelayed(flowTimeoutRunnable, flowState.timeoutMs);
         }
     }
 
     /**
-     * 处理窗口内容变化
+     * 按当前状态处理一个已通过过滤的事件（主线程）
      */
-    private void handleWindowContentChanged() {
-        // 检测到主界面,尝试点击录屏取证按钮
-        if (!hasClickedScreenRecord) {
-            ClickScreenRecordThread thread = new ClickScreenRecordThread();
-            thread.start();
+    private void handleFlowEvent(EvidenceFlowState state, int source, String className) {
+        switch (state) {
+            case WAIT_SCREEN_RECORD:
+                // 已经在录屏界面（例如中途恢复），直接进入下一步
+                if (SCREEN_RECORDER_ACTIVITY.equals(className)) {
+                    startRecorderSetup();
+                } else if (!flowActionScheduled) {
+                    // 检测到主界面,等待界面加载后点击录屏取证按钮（同一状态只排队一次）
+                    flowActionScheduled = true;
+                    mainHandler.postDelayed(screenRecordClickRunnable, SCREEN_RECORD_CLICK_DELAY_MS);
+                }
+                break;
+
+            case RECORDER_SETUP:
+                // 检测到录屏界面,填充备注并点击开始录屏
+                if (SCREEN_RECORDER_ACTIVITY.equals(className)) {
+                    startRecorderSetup();
+                }
+                break;
+
+            case SCREEN_SHARE:
+                if (source == EvidenceFlowState.Source.SYSTEM_UI) {
+                    // 录屏授权弹窗每秒会产生多次内容变化事件，合并后只检查一次
+                    if (!flowActionScheduled) {
+                        flowActionScheduled = true;
+                        mainHandler.postDelayed(screenShareCheckRunnable, SCREEN_SHARE_CHECK_DELAY_MS);
+                    }
+                } else {
+                    // 检查是否是应用验真界面
+                    handleAppVerificationDialog();
+                }
+                break;
+
+            case ENV_CHECK:
+                // 检测"取证环境检测结果"页面,点击"开始取证"按钮
+                handleEnvironmentCheckResult();
+                break;
+
+            case DOUYIN_LAUNCH:
+                // 权利卫士已打开抖音,只触发一次
+                transitionTo(EvidenceFlowState.DOUYIN_AUTOMATION);
+                startDouyinAutomation();
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void runScheduledScreenRecordClick() {
+        flowActionScheduled = false;
+        if (isRunning && flowState == EvidenceFlowState.WAIT_SCREEN_RECORD) {
+            clickScreenRecordButton();
         }
+    }
+
+    private void runScheduledScreenShareCheck() {
+        flowActionScheduled = false;
+        if (isRunning && flowState == EvidenceFlowState.SCREEN_SHARE) {
+            handleSystemScreenShareDialog();
+        }
+    }
 
-        // 检测"取证环境检测结果"页面,点击"开始取证"按钮
-        handleEnvironmentCheckResult();
+    private void startRecorderSetup() {
+        Log.d(TAG, "检测到录屏界面");
+        transitionTo(EvidenceFlowState.SCREEN_SHARE);
+        FillRemarkAndStartThread thread = new FillRemarkAndStartThread();
+        thread.start();
     }
 
     /**
-     * 点击录屏取证按钮的线程
+     * 状态停留超时：根据当前界面重新定位流程位置并补发一次处理（错过事件或中途被打断时可继续）
      */
-    private static class ClickScreenRecordThread extends Thread {
-        @Override
-        public void run() {
+    private void onFlowStateTimeout() {
+        EvidenceFlowState state = flowState;
+        if (!isRunning || state.timeoutMs <= 0) {
+            return;
+        }
+        logE("⏰ 流程状态[" + state.description + "]超过 " + (state.timeoutMs / 1000) + " 秒未推进,根据当前界面重新定位...");
+
+        EvidenceFlowState detected = null;
+        String className = "";
+        int source = EvidenceFlowState.Source.NONE;
+        android.view.accessibility.AccessibilityNodeInfo rootNode = getRootInActiveWindow();
+        if (rootNode != null) {
             try {
-                Thread.sleep(2000); // 等待界面加载
-                if (instance != null && !instance.hasClickedScreenRecord) {
-                    instance.clickScreenRecordButton();
+                String pkg = rootNode.getPackageName() != null ? rootNode.getPackageName().toString() : "";
+                source = flowSourceOf(pkg);
+                if (source == EvidenceFlowState.Source.SYSTEM_UI) {
+                    detected = EvidenceFlowState.SCREEN_SHARE;
+                } else if (source == EvidenceFlowState.Source.DOUYIN) {
+                    // 只有点过"开始取证"之后，前台的抖音才是权利卫士打开的
+                    if (state == EvidenceFlowState.ENV_CHECK || state == EvidenceFlowState.DOUYIN_LAUNCH) {
+                        detected = EvidenceFlowState.DOUYIN_LAUNCH;
+                    }
+                } else if (source == EvidenceFlowState.Source.RIGHTS_GUARD) {
+                    if (hasNodeWithText(rootNode, "取证环境检测结果")) {
+                        detected = EvidenceFlowState.ENV_CHECK;
+                    } else if (hasNodeWithText(rootNode, "应用验真")) {
+                        detected = EvidenceFlowState.SCREEN_SHARE;
+                    } else if (hasNodeWithViewId(rootNode, REMARK_INPUT_ID)) {
+                        detected = EvidenceFlowState.WAIT_SCREEN_RECORD;
+                        className = SCREEN_RECORDER_ACTIVITY;
+                    } else if (hasNodeWithViewId(rootNode, SCREEN_RECORD_BUTTON_ID)) {
+                        detected = EvidenceFlowState.WAIT_SCREEN_RECORD;
+                    }
                 }
             } catch (Exception e) {
-                Log.e(TAG, "点击录屏取证失败: " + e.getMessage());
+                logE("重新定位流程状态失败: " + e.getMessage());
+            } finally {
+                rootNode.recycle();
             }
         }
+
+        if (detected == null) {
+            logD("⚠️ 无法从当前界面判断流程位置,继续等待");
+            armFlowTimeout();
+            return;
+        }
+        logD("🔁 按当前界面恢复到状态: " + detected.description);
+        transitionTo(detected);
+        handleFlowEvent(detected, source, className);
+    }
+
+    private boolean hasNodeWithText(android.view.accessibility.AccessibilityNodeInfo root, String text) {
+        java.util.List<android.view.accessibility.AccessibilityNodeInfo> nodes = root.findAccessibilityNodeInfosByText(text);
+        if (nodes == null || nodes.isEmpty()) return false;
+        for (android.view.accessibility.AccessibilityNodeInfo node : nodes) node.recycle();
+        return true;
+    }
+
+    private boolean hasNodeWithViewId(android.view.accessibility.AccessibilityNodeInfo root, String viewId) {
+        java.util.List<android.view.accessibility.AccessibilityNodeInfo> nodes = root.findAccessibilityNodeInfosByViewId(viewId);
+        if (nodes == null || nodes.isEmpty()) return false;
+        for (android.view.accessibility.AccessibilityNodeInfo node : nodes) node.recycle();
+        return true;
     }
 
     /**
@@ -981,7 +1203,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                 if (clicked) {
                     Log.d(TAG, "成功点击录屏取证按钮");
-                    hasClickedScreenRecord = true;
+                    transitionTo(EvidenceFlowState.RECORDER_SETUP);
                 } else {
                     Log.e(TAG, "点击录屏取证按钮失败");
                 }
@@ -1391,8 +1613,8 @@ public class AutomationAccessibilityService extends AccessibilityService {
             return;
         }
 
-        // 如果已经选择了抖音,不再自动点击"立即验证"按钮
-        if (hasSelectedDouyin) {
+        // 如果已经选择了抖音(已离开授权/验真状态),不再自动点击"立即验证"按钮
+        if (flowState != EvidenceFlowState.SCREEN_SHARE) {
             return;
         }
 
@@ -1525,51 +1747,18 @@ public class AutomationAccessibilityService extends AccessibilityService {
      * 添加日志
      */
     private static void addLog(String level, String message) {
-        String timestamp = dateFormat.format(new Date());
-        String logLine = String.format("[%s] [%s] %s\n", timestamp, level, message);
-
-        synchronized (logBuilder) {
-            logBuilder.append(logLine);
-
-            // 如果日志太长,删除前面的部分
-            if (logBuilder.length() > MAX_LOG_LENGTH) {
-                logBuilder.delete(0, logBuilder.length() - MAX_LOG_LENGTH);
-            }
+        String timestamp;
+        synchronized (dateFormat) {
+            // SimpleDateFormat 非线程安全，在锁内格式化
+            timestamp = dateFormat.format(new Date());
         }
+        String logLine = "[" + timestamp + "] [" + level + "] " + message + "\n";
 
-        // 🆕 同时将日志写入文件,防止APP被杀掉后日志丢失
-        saveLogToFile(logLine);
-    }
-
-    /**
-     * 将日志保存到文件
-     */
-    private static void saveLogToFile(String logLine) {
-        try {
-            // 获取外部存储目录
-            java.io.File logDir = new java.io.File(
-                android.os.Environment.getExternalStorageDirectory(),
-                "权利卫士取证/logs"
-            );
-
-            if (!logDir.exists()) {
-                logDir.mkdirs();
-            }
+        // 环形缓冲区满了自动覆盖最旧的日志
+        logStore.append(logLine);
 
-            // 日志文件名:按日期命名
-            String dateStr = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault())
-                .format(new java.util.Date());
-            java.io.File logFile = new java.io.File(logDir, "automation_" + dateStr + ".log");
-
-            // 追加写入日志
-            java.io.FileWriter writer = new java.io.FileWriter(logFile, true);
-            writer.write(logLine);
-            writer.close();
-
-        } catch (Exception e) {
-            // 忽略日志保存失败的异常,避免影响主流程
-            Log.e(TAG, "保存日志到文件失败: " + e.getMessage());
-        }
+        // 🆕 同时将日志写入文件（异步批量写入）
+        logFileWriter.append(logLine);
     }
 
     /**
@@ -1592,19 +1781,21 @@ public class AutomationAccessibilityService extends AccessibilityService {
      * 获取所有日志
      */
     public static String getLogs() {
-        synchronized (logBuilder) {
-            String logs = logBuilder.toString();
-            return logs != null ? logs : "";
-        }
+        return logStore.getAll();
+    }
+
+    /**
+     * 增量获取日志：只返回序号大于 afterSeq 的日志（afterSeq=0 表示全部）
+     */
+    public static LogStore.Chunk getLogsSince(long afterSeq) {
+        return logStore.readSince(afterSeq);
     }
 
     /**
      * 清空日志
      */
     public static void clearLogs() {
-        synchronized (logBuilder) {
-            logBuilder.setLength(0);
-        }
+        logStore.clear();
     }
 
     /**
@@ -1648,13 +1839,8 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                 if (clicked) {
                     logD("✅ 成功点击'开始取证'按钮");
-                    // 🆕 设置权利卫士取证阶段标志位,并重置所有抖音自动化标志位
-                    isRightsGuardEvidencePhase = true;
-                    hasStartedDouyinAutomation = false;  // 重置:允许再次触发抖音自动化
-                    hasClickedDouyinMe = false;          // 重置:允许再次点击"我"
-                    hasClickedDouyinMore = false;        // 重置:允许再次点击"更多"
-                    hasClickedDouyinSettings = false;    // 重置:允许再次点击"设置"
-                    hasScrolledToAboutSection = false;   // 重置:允许再次滑动
+                    // 🆕 进入权利卫士取证阶段,等待权利卫士打开抖音
+                    transitionTo(EvidenceFlowState.DOUYIN_LAUNCH);
                     logD("🎯 进入权利卫士取证阶段,将监听抖音事件");
                 } else {
                     logE("❌ 点击'开始取证'按钮失败");
@@ -1676,7 +1862,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
      * 处理应用验真对话框
      */
     private void handleAppVerificationDialog() {
-        if (hasSelectedDouyin) {
+        if (flowState != EvidenceFlowState.SCREEN_SHARE) {
             return; // 已经处理过了
         }
 
@@ -1726,7 +1912,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                 if (clicked) {
                     logD("✅ 成功点击抖音容器");
-                    hasSelectedDouyin = true;
+                    transitionTo(EvidenceFlowState.ENV_CHECK);
 
                     // 在后台线程中截图（等待完成），再随机延迟点击"立即验证"
                     new Thread(() -> {
@@ -1879,8 +2065,152 @@ public class AutomationAccessibilityService extends AccessibilityService {
         takeScreenshotWithPrefix(null, callback);
     }
 
+    /**
+     * 同步截屏(不保存)，阻塞等待结果，只能在后台线程调用
+     * @return 可变Bitmap(由调用方负责回收)，失败或超时返回null
+     */
+    private android.graphics.Bitmap captureScreenSync(long timeoutMs) throws InterruptedException {
+        final android.graphics.Bitmap[] result = {null};
+        final java.util.concurrent.CountDownLatch latch = new java.util.concurrent.CountDownLatch(1);
+        takeScreenshot(new ScreenshotCallback() {
+            @Override public void onSuccess(android.graphics.Bitmap bitmap) { result[0] = bitmap; latch.countDown(); }
+            @Override public void onFailure() { latch.countDown(); }
+        });
+        if (!latch.await(timeoutMs, java.util.concurrent.TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        return result[0];
+    }
+
+    /**
+     * 开始跟踪当前视频的播放进度，播放期间的进度条事件会喂给它；用完调用 {@link #stopVideoProgress}
+     * @param durationSeconds 已知的视频时长（任务参数），时间条OCR读到总时长后以OCR为准
+     * @param startedAt 视频开始播放的时间（System.currentTimeMillis）
+     */
+    private VideoProgressTracker startVideoProgress(int durationSeconds, long startedAt) {
+        VideoProgressTracker tracker = new VideoProgressTracker(durationSeconds * 1000L, VIDEO_SEEKBAR_ID,
+            this::readVideoSeekBar, this::readVideoTimer, startedAt, () -> isRunning, message -> logD(message));
+        videoProgressTracker = tracker;
+        return tracker;
+    }
+
+    private void stopVideoProgress(VideoProgressTracker tracker) {
+        if (tracker == null) return;
+        tracker.stopPolling();
+        if (videoProgressTracker == tracker) {
+            videoProgressTracker = null;
+        }
+    }
+
+    /**
+     * 读取抖音播放器进度条(6n0)的 RangeInfo
+     * @return {current, max}，进度条不存在返回 null
+     */
+    private float[] readVideoSeekBar() {
+        android.view.accessibility.AccessibilityNodeInfo root = getRootInActiveWindow();
+        if (root == null) return null;
+        try {
+            java.util.List<android.view.accessibility.AccessibilityNodeInfo> bars =
+                root.findAccessibilityNodeInfosByViewId(VIDEO_SEEKBAR_ID);
+            if (bars == null || bars.isEmpty()) return null;
+            android.view.accessibility.AccessibilityNodeInfo.RangeInfo ri = bars.get(0).getRangeInfo();
+            // 回收节点前先取出数值:API 29 及以下 RangeInfo 随节点一起回收,之后读到的是 0
+            float[] range = ri != null ? new float[]{ri.getCurrent(), ri.getMax()} : null;
+            for (android.view.accessibility.AccessibilityNodeInfo n : bars) n.recycle();
+            return range;
+        } finally {
+            root.recycle();
+        }
+    }
+
+    /**
+     * 截屏并OCR播放器时间条（"0:12 / 0:45"），只能在后台线程调用
+     * 首次识别底部500px，找到时间后缓存所在横条，之后只识别这一条；缓存区域找不到时间时退回底部500px
+     * @return {当前秒(-1表示未知), 总秒}，识别失败返回 null
+     */
+    private int[] readVideoTimer() throws InterruptedException {
+        android.graphics.Bitmap bmp = captureScreenSync(1500);
+        if (bmp == null) return null;
+        try {
+            OcrHelper.Region cached = videoTimerRegion;
+            OcrHelper timeOcr = new OcrHelper(msg -> logD("[OCR时间] " + msg),
+                cached != null ? cached : OcrHelper.Region.bottom(500));
+            OcrResult result = timeOcr.recognizeSync(bmp, 2500);
+            timeOcr.release();
+            int[] timer = null;
+            if (result != null) {
+                for (OcrResult.Item item : result.getItems()) {
+                    if (item.level != OcrResult.LEVEL_LINE) continue;
+                    int[] t = TextParsers.parsePlaybackTime(item.text);
+                    if (t == null) continue;
+                    if (timer == null || (timer[0] < 0 && t[0] >= 0)) timer = t;
+                    if (t[0] >= 0) {
+                        videoTimerRegion = OcrHelper.Region.band(Math.max(0, item.bounds.top - 40), item.bounds.bottom + 40);
+                        break;
+                    }
+                }
+            }
+            if (timer == null && cached != null) {
+                videoTimerRegion = null;
+            }
+            if (timer != null) {
+                logD("⏱️ [视频进度] 时间条OCR: " + (timer[0] >= 0 ? timer[0] + "s / " : "总") + timer[1] + "s");
+            }
+            return timer;
+        } finally {
+            bmp.recycle();
+        }
+    }
+
+    /**
+     * 截屏但不转换:回调拿到只读的 HARDWARE 位图(不能读像素,由回调负责回收),需要像素时再自行 copy
+     * 视频扫描时大部分帧会被丢弃,这样被丢弃的帧不必做约10MB的拷贝
+     */
+    private void takeHardwareScreenshot(final ScreenshotCallback callback) {
+        if (android.os.Build.VERSION.SDK_INT < android.os.Build.VERSION_CODES.R) {
+            callback.onFailure();
+            return;
+        }
+        try {
+            takeScreenshot(
+                android.view.Display.DEFAULT_DISPLAY,
+                screenshotPipeline.captureExecutor(),
+                new android.accessibilityservice.AccessibilityService.TakeScreenshotCallback() {
+                    @Override
+                    public void onSuccess(android.accessibilityservice.AccessibilityService.ScreenshotResult screenshotResult) {
+                        android.hardware.HardwareBuffer buffer = screenshotResult.getHardwareBuffer();
+                        android.graphics.Bitmap bitmap = null;
+                        try {
+                            bitmap = android.graphics.Bitmap.wrapHardwareBuffer(buffer, screenshotResult.getColorSpace());
+                        } catch (Exception e) {
+                            logE("❌ 截屏转换失败: " + e.getMessage());
+                        } finally {
+                            // 位图自己持有缓冲的引用,这里可以关闭
+                            buffer.close();
+                        }
+                        if (bitmap != null) {
+                            callback.onSuccess(bitmap);
+                        } else {
+                            callback.onFailure();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(int errorCode) {
+                        logE("❌ 截屏API失败,错误码: " + errorCode);
+                        callback.onFailure();
+                    }
+                }
+            );
+        } catch (Exception e) {
+            logE("❌ 截屏异常: " + e.getMessage());
+            callback.onFailure();
+        }
+    }
+
     /**
      * 截屏保存页面(支持自定义前缀)
+     * 有前缀时截图交给存储线程保存,回调只收到 onSuccess() 完成通知;没有前缀时回调通过 onSuccess(Bitmap) 拿到可变Bitmap
      */
     private void takeScreenshotWithPrefix(final String prefix, final ScreenshotCallback callback) {
         try {
@@ -1891,7 +2221,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                 takeScreenshot(
                     android.view.Display.DEFAULT_DISPLAY,
-                    getMainExecutor(),
+                    screenshotPipeline.captureExecutor(),
                     new android.accessibilityservice.AccessibilityService.TakeScreenshotCallback() {
                         @Override
                         public void onSuccess(android.accessibilityservice.AccessibilityService.ScreenshotResult screenshotResult) {
@@ -1913,13 +2243,14 @@ public class AutomationAccessibilityService extends AccessibilityService {
                                     // 回收原始的Hardware Bitmap
                                     bitmap.recycle();
 
-                                    // 如果需要保存,则保存截图
-                                    if (prefix != null && !prefix.isEmpty()) {
-                                        saveScreenshotWithPrefix(mutableBitmap, prefix);
-                                    }
-
-                                    // 传递可变的Bitmap给回调 (由回调负责回收)
-                                    if (callback != null) {
+                                    if (prefix != null && !prefix.isEmpty() && mutableBitmap != null) {
+                                        // 需要保存: 可变Bitmap直接交给存储线程(保存后回收),不再另拷贝一份,回调只收到完成通知
+                                        saveScreenshotAsync(mutableBitmap, prefix);
+                                        if (callback != null) {
+                                            callback.onSuccess();
+                                        }
+                                    } else if (callback != null) {
+                                        // 传递可变的Bitmap给回调 (由回调负责回收)
                                         callback.onSuccess(mutableBitmap);
                                     }
                                 } else {
@@ -1973,14 +2304,66 @@ public class AutomationAccessibilityService extends AccessibilityService {
     }
 
     /**
-     * 保存截图到文件(支持自定义前缀)
+     * 保存截图到文件(支持自定义前缀)，同步执行，计入本次取证截图
      */
     private void saveScreenshotWithPrefix(android.graphics.Bitmap bitmap, String prefix) {
+        registerSessionScreenshot(java.util.concurrent.CompletableFuture.completedFuture(writeScreenshotFile(bitmap, prefix)));
+    }
+
+    /**
+     * 后台保存截图：bitmap 由存储线程编码保存后回收，调用方不要再使用它
+     * 提交时即按顺序计入本次取证截图，生成PDF前统一等待
+     */
+    private java.util.concurrent.CompletableFuture<SavedScreenshot> saveScreenshotAsync(
+            final android.graphics.Bitmap bitmap, final String prefix) {
+        return saveScreenshotAsync(new BitmapLease(bitmap), prefix);
+    }
+
+    /**
+     * 后台保存租用的截图：保存完成后释放这份租约（其他持有者仍可继续读取，但不能修改像素）
+     */
+    private java.util.concurrent.CompletableFuture<SavedScreenshot> saveScreenshotAsync(
+            final BitmapLease lease, final String prefix) {
+        java.util.concurrent.CompletableFuture<SavedScreenshot> future = screenshotPipeline.submit(() -> {
+            try {
+                return writeScreenshotFile(lease.bitmap(), prefix);
+            } finally {
+                lease.release();
+            }
+        });
+        registerSessionScreenshot(future);
+        return future;
+    }
+
+    /**
+     * 按顺序计入本次取证截图，并排入PDF报告（保存完成后后台立即写成页面）
+     */
+    private void registerSessionScreenshot(java.util.concurrent.CompletableFuture<SavedScreenshot> save) {
+        synchronized (sessionScreenshotSaves) {
+            sessionScreenshotSaves.add(save);
+            if (evidenceReport == null) {
+                evidenceReport = newEvidenceReport();
+            }
+            evidenceReport.enqueue(save);
+        }
+    }
+
+    private EvidenceReportBuilder newEvidenceReport() {
+        java.io.File temp = new java.io.File(getCacheDir(), "evidence_" + System.nanoTime() + ".pdf.part");
+        return new EvidenceReportBuilder(getContentResolver(), temp, PDF_PAGE_WIDTH, PDF_PAGE_HEIGHT,
+            PDF_IMAGE_WIDTH, message -> logD(message));
+    }
+
+    /**
+     * 编码并写入截图文件，写入时同步计算PNG的SHA-256，返回保存记录（失败返回null）
+     */
+    private SavedScreenshot writeScreenshotFile(android.graphics.Bitmap bitmap, String prefix) {
         try {
+            long timestamp = System.currentTimeMillis();
             // 使用前缀和备注作为文件名的一部分
             String fileName = prefix + "_" + remark.replace(":", "_") + "_" +
                             new java.text.SimpleDateFormat("yyyyMMdd_HHmmss", java.util.Locale.CHINA)
-                                .format(new java.util.Date()) + ".png";
+                                .format(new java.util.Date(timestamp)) + ".png";
 
             // Android 10+ 使用MediaStore保存到公共相册
             if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.Q) {
@@ -2001,14 +2384,11 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 if (imageUri != null) {
                     java.io.OutputStream os = resolver.openOutputStream(imageUri);
                     if (os != null) {
-                        bitmap.compress(android.graphics.Bitmap.CompressFormat.PNG, 100, os);
-                        os.flush();
-                        os.close();
+                        String sha256 = compressPngWithDigest(bitmap, os);
 
                         logD("✅ 截图已保存到相册: Pictures/权利卫士取证/" + fileName);
                         logD("📂 可以在相册中查看");
-                        // 记录URI，供PDF生成使用
-                        sessionScreenshotUris.add(imageUri);
+                        return new SavedScreenshot(imageUri, prefix, fileName, timestamp, sha256);
                     }
                 } else {
                     logE("❌ 创建MediaStore URI失败");
@@ -2031,10 +2411,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                 java.io.File file = new java.io.File(picturesDir, fileName);
 
-                java.io.FileOutputStream fos = new java.io.FileOutputStream(file);
-                bitmap.compress(android.graphics.Bitmap.CompressFormat.PNG, 100, fos);
-                fos.flush();
-                fos.close();
+                String sha256 = compressPngWithDigest(bitmap, new java.io.FileOutputStream(file));
 
                 // 通知系统扫描新文件,让相册能看到
                 android.content.Intent mediaScanIntent = new android.content.Intent(
@@ -2045,14 +2422,31 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                 logD("✅ 截图已保存: " + file.getAbsolutePath());
                 logD("📂 可以在相册中查看");
-                // 记录URI，供PDF生成使用
-                sessionScreenshotUris.add(android.net.Uri.fromFile(file));
+                return new SavedScreenshot(android.net.Uri.fromFile(file), prefix, fileName, timestamp, sha256);
             }
 
         } catch (Exception e) {
             logE("❌ 保存截图文件失败: " + e.getMessage());
             e.printStackTrace();
         }
+        return null;
+    }
+
+    /**
+     * PNG编码写入 os（随后关闭），字节流经过时同步计算 SHA-256，返回十六进制摘要
+     */
+    private String compressPngWithDigest(android.graphics.Bitmap bitmap, java.io.OutputStream os)
+            throws java.io.IOException, java.security.NoSuchAlgorithmException {
+        java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
+        java.security.DigestOutputStream dos = new java.security.DigestOutputStream(
+            new java.io.BufferedOutputStream(os, 64 * 1024), digest);
+        try {
+            bitmap.compress(android.graphics.Bitmap.CompressFormat.PNG, 100, dos);
+            dos.flush();
+        } finally {
+            dos.close();
+        }
+        return SavedScreenshot.toHex(digest.digest());
     }
 
     /**
@@ -2857,7 +3251,6 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 logD("📱 步骤1: 点击'我'按钮...");
                 randomDelay();
                 clickMeButton();
-                hasClickedDouyinMe = true;
 
                 // 等待"我"页面加载完成
                 logD("⏱️ 等待'我'页面加载完成(1秒)...");
@@ -2940,7 +3333,6 @@ public class AutomationAccessibilityService extends AccessibilityService {
                             );
                             if (clicked) {
                                 logD("✅ 成功点击'更多'按钮(通过文本查找)");
-                                hasClickedDouyinMore = true;
                                 rootNode.recycle();
                                 return;
                             }
@@ -2953,7 +3345,6 @@ public class AutomationAccessibilityService extends AccessibilityService {
             // 方法2: 使用坐标点击(备用方案)
             logD("⚠️ 未找到'更多'按钮,使用坐标点击...");
             clickByCoordinates(984, 192);
-            hasClickedDouyinMore = true;
 
         } catch (Exception e) {
             logE("点击'更多'按钮失败: " + e.getMessage());
@@ -2987,7 +3378,6 @@ public class AutomationAccessibilityService extends AccessibilityService {
                             );
                             if (clicked) {
                                 logD("✅ 成功点击'设置'按钮(通过文本查找)");
-                                hasClickedDouyinSettings = true;
                                 rootNode.recycle();
                                 return;
                             }
@@ -3000,7 +3390,6 @@ public class AutomationAccessibilityService extends AccessibilityService {
             // 方法2: 使用坐标点击(备用方案)
             logD("⚠️ 未找到'设置'按钮,使用坐标点击...");
             clickByCoordinates(627, 186);
-            hasClickedDouyinSettings = true;
 
         } catch (Exception e) {
             logE("点击'设置'按钮失败: " + e.getMessage());
@@ -3057,7 +3446,6 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
             if (dispatched) {
                 logD("✅ 已发送滑动手势");
-                hasScrolledToAboutSection = true;
             } else {
                 logE("❌ 滑动手势发送失败");
             }
@@ -3398,180 +3786,159 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 return;
             }
 
-            // ★ 轮询等待观看历史页面内容加载（最多8次，每次800ms，共6.4秒）
+            // ★ 事件驱动等待观看历史页面内容加载（出现"点赞"视频节点即返回，最多6.4秒）
             logD("⏳ 等待观看历史页面内容加载...");
-            android.view.accessibility.AccessibilityNodeInfo rootNode = null;
-            java.util.List<android.view.accessibility.AccessibilityNodeInfo> allNodes = new java.util.ArrayList<>();
-            int videoCount = 0;
-            for (int waitAttempt = 0; waitAttempt < 8; waitAttempt++) {
-                Thread.sleep(800);
+            boolean historyLoaded = pageWaiter.await(DOUYIN_PACKAGE, root -> {
+                android.view.accessibility.AccessibilityNodeInfo likeNode = findNodeByDescContains(root, "点赞");
+                if (likeNode == null) return false;
+                if (likeNode != root) likeNode.recycle();
+                return true;
+            }, 6400);
+            if (!historyLoaded) {
+                logD("⏳ 6.4秒内未检测到视频节点，做最后一次检测...");
+            }
 
-                if (rootNode != null) {
-                    rootNode.recycle();
-                    allNodes.clear();
-                }
-                rootNode = getRootInActiveWindow();
-                if (rootNode == null) {
-                    logD("⏳ 第" + (waitAttempt + 1) + "次: 根节点为空,继续等待...");
-                    continue;
-                }
-
-                findAllNodes(rootNode, allNodes);
-                videoCount = 0;
-                for (android.view.accessibility.AccessibilityNodeInfo n : allNodes) {
-                    CharSequence d = n.getContentDescription();
-                    if (d != null && d.toString().contains("点赞")) {
-                        videoCount++;
-                    }
-                }
-
-                if (videoCount > 0) {
-                    logD("✅ 第" + (waitAttempt + 1) + "次检测到 " + videoCount + " 个视频节点,开始匹配...");
-                    break;
-                } else {
-                    logD("⏳ 第" + (waitAttempt + 1) + "次: 找到 0 个视频节点,继续等待...");
-                    allNodes.clear();
-                }
-            }
-
-            if (rootNode == null) {
-                logE("❌ 无法获取根节点");
-                return;
-            }
-
-            if (videoCount == 0) {
-                logE("❌ 等待超时,观看历史页面仍未加载到视频节点");
-                logD("💡 提示: 请检查观看历史是否有记录,或者网络是否正常");
-                rootNode.recycle();
-                return;
-            }
-
-            // 开始遍历已加载的视频节点列表（allNodes 已在上面轮询中填充）
-            int matchedCount = 0;
-
-            for (android.view.accessibility.AccessibilityNodeInfo node : allNodes) {
-                // 获取Content Description
-                CharSequence desc = node.getContentDescription();
-                if (desc == null || desc.toString().isEmpty()) {
-                    continue;
+            android.view.accessibility.AccessibilityNodeInfo rootNode = getRootInActiveWindow();
+            if (rootNode == null) {
+                logE("❌ 无法获取根节点");
+                return;
+            }
+
+            // 单次遍历：统计"点赞"视频节点,第一个包含关键词的节点命中即停止遍历并保留,其余节点访问完即回收
+            final int[] videoCount = {0};
+            final String keywords = videoKeywords;
+            android.view.accessibility.AccessibilityNodeInfo node = NodeWalker.create().within(screenBounds()).walk(rootNode, (n, depth) -> {
+                // 获取Content Description
+                CharSequence desc = n.getContentDescription();
+                if (desc == null || desc.length() == 0) {
+                    return NodeWalker.CONTINUE;
                 }
 
                 String descStr = desc.toString();
 
                 // 只统计包含"点赞"的节点(这是视频的特征)
                 if (!descStr.contains("点赞")) {
-                    continue;
+                    return NodeWalker.CONTINUE;
                 }
 
-                videoCount++;
+                videoCount[0]++;
 
                 // 记录前3个视频的信息,便于调试
-                if (videoCount <= 3) {
-                    logD("📹 视频" + videoCount + ": " + descStr.substring(0, Math.min(30, descStr.length())) + "...");
+                if (videoCount[0] <= 3) {
+                    logD("📹 视频" + videoCount[0] + ": " + descStr.substring(0, Math.min(30, descStr.length())) + "...");
                 }
 
                 // 检查是否包含视频关键词
-                if (descStr.contains(videoKeywords)) {
-                    matchedCount++;
-                    logD("✅ 找到匹配的视频!");
-                    logD("  视频描述: " + descStr.substring(0, Math.min(50, descStr.length())) + "...");
+                return descStr.contains(keywords) ? NodeWalker.STOP_AND_KEEP : NodeWalker.CONTINUE;
+            });
 
-                    // 获取节点位置
-                    android.graphics.Rect bounds = new android.graphics.Rect();
-                    node.getBoundsInScreen(bounds);
-                    logD("  视频位置: [" + bounds.left + "," + bounds.top + "] → [" + bounds.right + "," + bounds.bottom + "]");
-                    logD("  节点类名: " + node.getClassName());
-                    logD("  节点可点击: " + node.isClickable());
+            if (videoCount[0] == 0) {
+                logE("❌ 等待超时,观看历史页面仍未加载到视频节点");
+                logD("💡 提示: 请检查观看历史是否有记录,或者网络是否正常");
+                rootNode.recycle();
+                return;
+            }
 
-                    // 尝试点击视频节点
-                    boolean clicked = node.performAction(android.view.accessibility.AccessibilityNodeInfo.ACTION_CLICK);
-                    if (clicked) {
-                        logD("✅ 成功点击侵权视频");
+            if (node == null) {
+                logE("❌ 未找到匹配的视频");
+                logD("📊 统计: 共找到 " + videoCount[0] + " 个视频,匹配 0 个");
+                logD("💡 提示: 请检查视频关键词是否正确: " + videoKeywords);
+                rootNode.recycle();
+                return;
+            }
 
-                        // 等待视频播放页面加载
-                        Thread.sleep(2000);
+            try {
+                String descStr = node.getContentDescription().toString();
+                logD("✅ 找到匹配的视频!");
+                logD("  视频描述: " + descStr.substring(0, Math.min(50, descStr.length())) + "...");
 
-                        if (isTestMode) {
-                            logD("🧪 测试模式: 跳过视频播放，执行购物车取证后进入作者主页流程");
-                            checkAndCaptureShoppingCart();
-                            navigateToAuthorProfile();
-                        } else {
-                            // 🆕 播放视频并截图
-                            playVideoAndTakeScreenshots();
-                        }
+                // 获取节点位置
+                android.graphics.Rect bounds = new android.graphics.Rect();
+                node.getBoundsInScreen(bounds);
+                logD("  视频位置: [" + bounds.left + "," + bounds.top + "] → [" + bounds.right + "," + bounds.bottom + "]");
+                logD("  节点类名: " + node.getClassName());
+                logD("  节点可点击: " + node.isClickable());
 
-                        logD("🎉 抖音自动化流程完成!");
-                        rootNode.recycle();
-                        return;
+                // 尝试点击视频节点
+                boolean clicked = node.performAction(android.view.accessibility.AccessibilityNodeInfo.ACTION_CLICK);
+                if (clicked) {
+                    logD("✅ 成功点击侵权视频");
+
+                    // 等待视频播放页面加载
+                    Thread.sleep(2000);
+
+                    if (isTestMode) {
+                        logD("🧪 测试模式: 跳过视频播放，执行购物车取证后进入作者主页流程");
+                        checkAndCaptureShoppingCart();
+                        navigateToAuthorProfile();
                     } else {
-                        logD("⚠️ 直接点击失败,尝试查找可点击的父节点...");
+                        // 🆕 播放视频并截图
+                        playVideoAndTakeScreenshots();
+                    }
 
-                        // 查找可点击的父节点
-                        android.view.accessibility.AccessibilityNodeInfo clickableNode = node;
-                        int parentLevel = 0;
-                        while (clickableNode != null && !clickableNode.isClickable() && parentLevel < 5) {
-                            clickableNode = clickableNode.getParent();
-                            parentLevel++;
-                        }
+                    logD("🎉 抖音自动化流程完成!");
+                    return;
+                } else {
+                    logD("⚠️ 直接点击失败,尝试查找可点击的父节点...");
 
-                        if (clickableNode != null && clickableNode.isClickable()) {
-                            logD("  找到可点击的父节点,层级: " + parentLevel);
-                            clicked = clickableNode.performAction(android.view.accessibility.AccessibilityNodeInfo.ACTION_CLICK);
-                            if (clicked) {
-                                logD("✅ 成功点击侵权视频(通过父节点)");
-                                Thread.sleep(2000);
+                    // 查找可点击的父节点
+                    android.view.accessibility.AccessibilityNodeInfo clickableNode = node;
+                    int parentLevel = 0;
+                    while (clickableNode != null && !clickableNode.isClickable() && parentLevel < 5) {
+                        clickableNode = clickableNode.getParent();
+                        parentLevel++;
+                    }
 
-                                if (isTestMode) {
-                                    logD("🧪 测试模式: 跳过视频播放，执行购物车取证后进入作者主页流程");
-                                    checkAndCaptureShoppingCart();
-                                    navigateToAuthorProfile();
-                                } else {
-                                    // 🆕 播放视频并截图
-                                    playVideoAndTakeScreenshots();
-                                }
+                    if (clickableNode != null && clickableNode.isClickable()) {
+                        logD("  找到可点击的父节点,层级: " + parentLevel);
+                        clicked = clickableNode.performAction(android.view.accessibility.AccessibilityNodeInfo.ACTION_CLICK);
+                        if (clicked) {
+                            logD("✅ 成功点击侵权视频(通过父节点)");
+                            Thread.sleep(2000);
 
-                                logD("🎉 抖音自动化流程完成!");
-                                rootNode.recycle();
-                                return;
+                            if (isTestMode) {
+                                logD("🧪 测试模式: 跳过视频播放，执行购物车取证后进入作者主页流程");
+                                checkAndCaptureShoppingCart();
+                                navigateToAuthorProfile();
+                            } else {
+                                // 🆕 播放视频并截图
+                                playVideoAndTakeScreenshots();
                             }
-                        }
 
-                        // 如果父节点也点击失败,使用坐标点击
-                        logD("⚠️ 父节点点击也失败,尝试使用坐标点击...");
+                            logD("🎉 抖音自动化流程完成!");
+                            return;
+                        }
+                    }
 
-                        // 计算视频中心点坐标
-                        int centerX = (bounds.left + bounds.right) / 2;
-                        int centerY = (bounds.top + bounds.bottom) / 2;
-                        logD("  视频中心点坐标: (" + centerX + ", " + centerY + ")");
+                    // 如果父节点也点击失败,使用坐标点击
+                    logD("⚠️ 父节点点击也失败,尝试使用坐标点击...");
 
-                        // 使用坐标点击
-                        clickByCoordinates(centerX, centerY);
-                        logD("✅ 已执行坐标点击侵权视频");
-                        Thread.sleep(2000);
+                    // 计算视频中心点坐标
+                    int centerX = (bounds.left + bounds.right) / 2;
+                    int centerY = (bounds.top + bounds.bottom) / 2;
+                    logD("  视频中心点坐标: (" + centerX + ", " + centerY + ")");
 
-                        if (isTestMode) {
-                            logD("🧪 测试模式: 跳过视频播放，执行购物车取证后进入作者主页流程");
-                            checkAndCaptureShoppingCart();
-                            navigateToAuthorProfile();
-                        } else {
-                            // 🆕 播放视频并截图
-                            playVideoAndTakeScreenshots();
-                        }
+                    // 使用坐标点击
+                    clickByCoordinates(centerX, centerY);
+                    logD("✅ 已执行坐标点击侵权视频");
+                    Thread.sleep(2000);
 
-                        logD("🎉 抖音自动化流程完成!");
+                    if (isTestMode) {
+                        logD("🧪 测试模式: 跳过视频播放，执行购物车取证后进入作者主页流程");
+                        checkAndCaptureShoppingCart();
+                        navigateToAuthorProfile();
+                    } else {
+                        // 🆕 播放视频并截图
+                        playVideoAndTakeScreenshots();
                     }
 
-                    rootNode.recycle();
-                    return;
+                    logD("🎉 抖音自动化流程完成!");
                 }
+            } finally {
+                if (node != rootNode) node.recycle();
+                rootNode.recycle();
             }
 
-            logE("❌ 未找到匹配的视频");
-            logD("📊 统计: 共找到 " + videoCount + " 个视频,匹配 " + matchedCount + " 个");
-            logD("💡 提示: 请检查视频关键词是否正确: " + videoKeywords);
-
-            rootNode.recycle();
-
         } catch (InterruptedException e) {
             // 收到停止任务信号，立即退出
             Thread.currentThread().interrupt();
@@ -3585,16 +3952,19 @@ public class AutomationAccessibilityService extends AccessibilityService {
     /**
      * 🆕 播放视频并智能截图(人脸检测)
      * 逻辑:
-     * 1. 从第1秒开始,每隔5帧(约0.2秒)截图并检测人脸
-     * 2. 检测到人脸后保存图片,然后等待间隔时间
-     * 3. 继续扫描,直到保存足够数量的图片
+     * 1. 流水线扫描(FrameSampler): 每 FACE_SCAN_INTERVAL_MS 截一帧,截屏完成由回调通知,
+     *    帧进入有界队列由工作线程做人脸检测,检测跟不上时丢弃最旧帧
+     * 2. 检测到人脸的帧进入 FrameRanker 按清晰度/人脸大小和位置/画面去重打分,只保留最好的目标数量张
+     * 3. 候选帧够 目标数量×FACE_RANK_OVERSAMPLE 张时停止扫描,胜出帧交给存储线程保存
      * 4. 截图数量: <30秒截4张, ≥30秒截5张
      * 5. 间隔时间: <60秒间隔2秒, ≥60秒间隔4秒
      */
     private void playVideoAndTakeScreenshots() {
         FaceDetectionHelper faceDetector = null;
-        // 兜底帧: 开始/中间/结尾 (索引 0/1/2)
-        android.graphics.Bitmap[] fallbackBitmaps = new android.graphics.Bitmap[3];
+        // 兜底帧: 开始/中间/结尾 (索引 0/1/2)，与扫描帧共享位图租约，不另拷贝
+        BitmapLease[] fallbackFrames = new BitmapLease[3];
+        FrameRanker ranker = null;
+        VideoProgressTracker progressTracker = null;
         try {
             logD("🎬 开始播放视频并智能截图...");
             logD("📝 视频时长: " + videoDurationSeconds + "秒");
@@ -3617,108 +3987,101 @@ public class AutomationAccessibilityService extends AccessibilityService {
             };
             boolean[] fallbackCaptured = {false, false, false};
 
-            // 🔑 记录视频真实开始时间(用系统时钟,彻底解决时间漂移问题)
+            // 🔑 记录视频真实开始时间;播放位置由进度跟踪器估计(进度条/时间条/墙钟),暂停缓冲不会算进去
             long startRealTimeMs = System.currentTimeMillis();
-            int savedCount = 0;
-            int screenshotIndex = 1;
-
-            logD("⏱️ 开始基于真实时钟扫描 (视频时长: " + videoDurationSeconds + "秒)");
-
-            // 开始扫描并截图(退出条件: 保存足够数量 OR 真实时间超过视频时长)
-            while (savedCount < targetCount) {
-                // 计算当前真实播放进度(以系统时钟为准)
-                double realElapsedSec = (System.currentTimeMillis() - startRealTimeMs) / 1000.0;
+            final VideoProgressTracker progress = progressTracker = startVideoProgress(videoDurationSeconds, startRealTimeMs);
+            // 进度读数(含时间条OCR)在轮询线程进行,采样器的结束条件只读估计值,不阻塞截屏
+            progress.startPolling();
+
+            logD("⏱️ 开始基于播放进度流水线扫描 (视频时长: " + videoDurationSeconds + "秒, 截屏间隔"
+                + FACE_SCAN_INTERVAL_MS + "ms)");
+
+            // 采集线程按间隔持续截屏，人脸检测+保存在采样器工作线程进行；处理跟不上时丢弃最旧帧
+            // 退出条件: 人脸候选帧足够 OR 播放进度到达结尾
+            final FaceDetectionHelper detector = faceDetector;
+            final FrameRanker frameRanker = ranker = new FrameRanker(targetCount, message -> logD(message));
+            // 队列里只放 HARDWARE 截屏原图,工作线程取出时才拷贝成可读像素的位图,被丢弃的帧不做拷贝
+            FrameSampler sampler = new FrameSampler(new FrameSampler.FrameSource() {
+                @Override
+                public void capture(FrameSampler.FrameCallback callback) {
+                    takeHardwareScreenshot(new ScreenshotCallback() {
+                        @Override
+                        public void onSuccess(android.graphics.Bitmap bitmap) {
+                            callback.onFrame(bitmap);
+                        }
 
-                // 视频已播放完毕,退出循环
-                if (realElapsedSec >= videoDurationSeconds) {
-                    logD("⏱️ 视频已播放完毕 (" + String.format("%.1f", realElapsedSec) + "秒),停止扫描");
-                    break;
+                        @Override
+                        public void onFailure() {
+                            callback.onFailure();
+                        }
+                    });
                 }
 
-                // 等待约0.2秒再截图
-                Thread.sleep(200);
-
-                // sleep之后重新计算真实时间(更准确)
-                final double finalRealElapsedSec = (System.currentTimeMillis() - startRealTimeMs) / 1000.0;
-                final int finalScreenshotIndex = screenshotIndex;
-
-                // 使用同步标志位
-                final boolean[] screenshotSuccess = {false};
-                final boolean[] hasFace = {false};
-                final android.graphics.Bitmap[] capturedBitmap = {null};
-
-                // 截图
-                takeScreenshot(new ScreenshotCallback() {
-                    @Override
-                    public void onSuccess(android.graphics.Bitmap bitmap) {
-                        screenshotSuccess[0] = true;
-                        capturedBitmap[0] = bitmap;
-                    }
-
-                    @Override
-                    public void onFailure() {
-                        screenshotSuccess[0] = false;
-                    }
-                });
-
-                // 等待截图完成
-                Thread.sleep(300);
-
-                if (screenshotSuccess[0] && capturedBitmap[0] != null) {
-                    // 检查是否需要缓存兜底帧 (开始/中间/结尾),基于真实时间
-                    for (int i = 0; i < 3; i++) {
-                        if (!fallbackCaptured[i] && finalRealElapsedSec >= fallbackTargetTimes[i]) {
-                            // 回收旧的兜底帧,缓存新的
-                            if (fallbackBitmaps[i] != null && !fallbackBitmaps[i].isRecycled()) {
-                                fallbackBitmaps[i].recycle();
-                            }
-                            fallbackBitmaps[i] = capturedBitmap[0].copy(android.graphics.Bitmap.Config.ARGB_8888, false);
-                            fallbackCaptured[i] = true;
-                            logD("📦 缓存兜底帧[" + i + "]: " + String.format("%.1f", finalRealElapsedSec) + "秒");
+                @Override
+                public android.graphics.Bitmap materialize(android.graphics.Bitmap captured) {
+                    return captured.copy(android.graphics.Bitmap.Config.ARGB_8888, true);
+                }
+            }, FACE_SCAN_INTERVAL_MS, FACE_SCAN_QUEUE_CAPACITY, message -> logD(message));
+            int candidateCount = targetCount * FACE_RANK_OVERSAMPLE;
+            // 按播放进度结束扫描(暂停/缓冲不计时);进度读数异常时最多在视频时长外多扫 VIDEO_WAIT_SLACK_MS
+            final long scanDeadline = startRealTimeMs + videoDurationSeconds * 1000L + VIDEO_WAIT_SLACK_MS;
+            FrameSampler.Stats stats = sampler.run(startRealTimeMs, () -> {
+                if (!isRunning || System.currentTimeMillis() >= scanDeadline) return true;
+                return progress.hasReached(VideoProgressTracker.END_FRACTION);
+            }, candidateCount, frame -> {
+                long positionMs = progress.estimatePositionMs();
+                double elapsedSec = positionMs / 1000.0;
+                // 检查是否需要缓存兜底帧 (开始/中间/结尾),基于估计的播放位置
+                for (int i = 0; i < 3; i++) {
+                    if (!fallbackCaptured[i] && elapsedSec >= fallbackTargetTimes[i]) {
+                        if (fallbackFrames[i] != null) {
+                            fallbackFrames[i].release();
                         }
+                        fallbackFrames[i] = frame.lease.retain();
+                        fallbackCaptured[i] = true;
+                        logD("📦 缓存兜底帧[" + i + "]: " + String.format("%.1f", elapsedSec) + "秒");
                     }
+                }
 
-                    // 检测人脸
-                    hasFace[0] = faceDetector.detectFace(capturedBitmap[0]);
-
-                    if (hasFace[0]) {
-                        // 检测到人脸,保存图片
-                        String screenshotName = "侵权视频_" + String.format("%.1f", finalRealElapsedSec) + "秒_人脸";
-                        logD("📸 截图 " + finalScreenshotIndex + "/" + targetCount + ": " + screenshotName + " ✅ 检测到人脸!");
-
-                        // 保存图片
-                        saveBitmapToGallery(capturedBitmap[0], screenshotName);
-
-                        savedCount++;
-                        screenshotIndex++;
-                        // 不额外等待,ML Kit处理时间已足够作为间隔,立即继续扫描下一帧
-                    } else {
-                        // 没检测到人脸,继续扫描
-                        logD("🔍 " + String.format("%.1f", finalRealElapsedSec) + "秒: 未检测到人脸,继续扫描...");
-                        capturedBitmap[0].recycle(); // 释放bitmap
-                    }
+                FaceDetectionHelper.FaceResult face = detector.detect(frame.bitmap);
+                if (face.hasValidFace) {
+                    // 检测到人脸,交给排序器(淘汰的帧由排序器回收)
+                    boolean kept = frameRanker.offer(frame.lease, positionMs, face);
+                    logD("🔍 " + String.format("%.1f", elapsedSec) + "秒: ✅ 检测到人脸"
+                        + (kept ? ",进入候选" : ",得分不足,丢弃"));
+                    return true;
                 }
-                // 注意: 不再手动累加currentTime, System.currentTimeMillis()自动追踪真实时间
+                logD("🔍 " + String.format("%.1f", elapsedSec) + "秒: 未检测到人脸,继续扫描...");
+                frame.lease.release();
+                return false;
+            });
+            logD("📊 人脸扫描统计: " + stats);
+
+            // 只保存排序胜出的帧(按视频时间先后,交给存储线程保存后回收)
+            java.util.List<FrameRanker.Candidate> winners = ranker.drainBest();
+            int savedCount = 0;
+            for (FrameRanker.Candidate c : winners) {
+                String screenshotName = "侵权视频_" + String.format("%.1f", c.elapsedMs / 1000.0) + "秒_人脸";
+                logD("📸 截图 " + (savedCount + 1) + "/" + targetCount + ": " + screenshotName
+                    + " (得分" + String.format("%.2f", c.score) + ")");
+                saveScreenshotAsync(c.lease, screenshotName);
+                savedCount++;
             }
 
             logD("✅ 智能截图完成! 共保存 " + savedCount + " 张图片");
 
-            // 等待视频播放完成(基于真实时钟计算剩余时间)
-            long videoEndTimeMs = startRealTimeMs + (long)(videoDurationSeconds * 1000L);
-            long remainingMs = videoEndTimeMs - System.currentTimeMillis();
-            if (remainingMs > 0) {
-                logD("⏱️ 等待视频播放完成,剩余 " + String.format("%.1f", remainingMs / 1000.0) + " 秒...");
-                Thread.sleep(remainingMs);
-            }
+            // 等待视频播放完成(按实际播放位置,暂停/缓冲时多等,提前播完则不再干等)
+            logD("⏱️ 等待视频播放完成,当前约 " + String.format("%.1f", progress.estimatePositionMs() / 1000.0) + " 秒...");
+            progress.awaitEnd(videoDurationSeconds * 1000L + VIDEO_WAIT_SLACK_MS);
 
             // 🆕 兜底逻辑: 人脸截图不足目标数量时,用缓存帧补足到目标数量
             if (savedCount < targetCount) {
                 logD("⚠️ 人脸截图数量不足(已有" + savedCount + "张,目标" + targetCount + "张),用兜底帧补足...");
                 String[] fallbackLabels = {"开始", "中间", "结尾"};
                 for (int i = 0; i < 3 && savedCount < targetCount; i++) {
-                    if (fallbackBitmaps[i] != null && !fallbackBitmaps[i].isRecycled()) {
+                    if (fallbackFrames[i] != null) {
                         String name = "侵权视频_" + fallbackLabels[i] + "_" + String.format("%.1f", fallbackTargetTimes[i]) + "秒_兜底";
-                        saveBitmapToGallery(fallbackBitmaps[i], name);
+                        saveBitmapToGallery(fallbackFrames[i].bitmap(), name);
                         savedCount++;
                         logD("📸 兜底截图已补充: " + name + " (现共" + savedCount + "张)");
                     } else {
@@ -3729,18 +4092,18 @@ public class AutomationAccessibilityService extends AccessibilityService {
             }
 
             // 🆕 保存视频开头帧作为封面对比参考（用于后续创作灵感封面对比）
-            if (fallbackBitmaps[0] != null && !fallbackBitmaps[0].isRecycled()) {
+            if (fallbackFrames[0] != null) {
                 if (referenceCoverBitmap != null && !referenceCoverBitmap.isRecycled()) {
                     referenceCoverBitmap.recycle();
                 }
-                int bw = fallbackBitmaps[0].getWidth();
-                int bh = fallbackBitmaps[0].getHeight();
+                int bw = fallbackFrames[0].bitmap().getWidth();
+                int bh = fallbackFrames[0].bitmap().getHeight();
                 // 裁剪掉状态栏(顶部80px)和底部导航区(底部10%)，保留视频内容区
                 int cropTop = 80;
                 int cropHeight = (int)(bh * 0.90) - cropTop;
                 if (cropHeight > 0) {
                     referenceCoverBitmap = android.graphics.Bitmap.createBitmap(
-                        fallbackBitmaps[0], 0, cropTop, bw, cropHeight);
+                        fallbackFrames[0].bitmap(), 0, cropTop, bw, cropHeight);
                     logD("🖼️ 已保存参考封面(" + bw + "x" + cropHeight + ")，用于创作灵感封面对比");
                 }
             }
@@ -3822,10 +4185,15 @@ public class AutomationAccessibilityService extends AccessibilityService {
             if (faceDetector != null) {
                 faceDetector.release();
             }
-            // 释放所有兜底帧
-            for (android.graphics.Bitmap bmp : fallbackBitmaps) {
-                if (bmp != null && !bmp.isRecycled()) {
-                    bmp.recycle();
+            // 释放未保存的候选帧
+            if (ranker != null) {
+                ranker.clear();
+            }
+            stopVideoProgress(progressTracker);
+            // 释放所有兜底帧(最后一个持有者释放时回收位图)
+            for (BitmapLease lease : fallbackFrames) {
+                if (lease != null) {
+                    lease.release();
                 }
             }
             // ★ 整个取证流程真正结束，重置运行标志（悬浮窗显示"已完成"）
@@ -3975,42 +4343,19 @@ public class AutomationAccessibilityService extends AccessibilityService {
             }
             logD("📊 评论总数: " + totalComments + "，目标截图: " + targetScreenshots + "张，最大滚动: " + maxScrolls + "次");
 
-            // Step2: 70+ 购买意图关键词
-            String[] purchaseKeywords = {
-                // === 已购买类 ===
-                "买了","买过","买到了","已购","已买","入手了","入手",
-                "下单了","已下单","刚下单","付款了","已付款",
-                "收到了","收到货","到货了","到手了","拿到了",
-                "回购","复购","又买了","再买","买了好几","买了两",
-                "购入了","已购入","刚买","昨天买的","前天买的","买了一",
-                // === 想购买类 ===
-                "想买","想入手","想下单","好想买","特别想买",
-                "准备买","打算买","计划买","考虑买","考虑入手",
-                "在哪买","哪里买","去哪买","哪里有卖","怎么买",
-                "求链接","发链接","链接发一下","购买链接","求购",
-                "多少钱","什么价","价格","多少一个","多少一件","多少一套",
-                "能买吗","可以买吗","有货吗","还有货吗","有库存吗",
-                "同款在哪","哪里同款","哪里可以买",
-                // === 使用体验类（暗示已购）===
-                "好用","超好用","非常好用","真的好用","用了","用过",
-                "效果好","效果不错","用起来","买对了","没买错",
-                "值得买","值得入手","强烈推荐","推荐买",
-                "后悔没早买","早买就好了","买亏了",
-                "质量好","质量不错","质量差","不好用",
-                // === 询问产品类（购买前咨询）===
-                "安全吗","有没有毒","有没有甲醛","有异味吗",
-                "质量怎么样","耐用吗","好不好","靠谱吗",
-                "什么牌子","哪个牌子","正品吗","假的吗",
-                "适合","推荐吗","值不值","划算吗","值得吗"
-            };
+            // Step2: 购买意图匹配器（多模式自动机，每条评论单次扫描得到全部命中和得分）
+            PurchaseIntentMatcher matcher = getPurchaseIntentMatcher();
 
             // ★ Step3: 强制先向下滚动一次（不管评论多少，确保评论区已加载）
             logD("⬇️ 先向下滚动一次，加载评论...");
             boolean canScrollMore = scrollCommentList();
             Thread.sleep(800);
 
-            // Step4: 滚动到底部，沿途扫描截图（到底立即关闭，最多 maxScrolls 次兜底）
-            int capturedCount = 0;
+            // Step4: 滚动到底部，沿途扫描（到底立即关闭，最多 maxScrolls 次兜底）
+            // 命中购买意图的屏幕先截图暂存，只保留得分最高的 targetScreenshots 屏，扫描结束后按出现顺序保存
+            java.util.List<CommentShot> bestShots = new java.util.ArrayList<>();
+            // 已评估过的评论（作者+内容的哈希）：滚动后重叠的评论不再重复打分/截图，本页没有新评论即视为到底
+            java.util.Set<Long> seenComments = new java.util.HashSet<>();
 
             for (int scroll = 0; scroll <= maxScrolls; scroll++) {
 
@@ -4034,7 +4379,10 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 java.util.List<android.view.accessibility.AccessibilityNodeInfo> contentNodes =
                     rootNode.findAccessibilityNodeInfosByViewId("com.ss.android.ugc.aweme:id/content");
 
-                boolean foundInThisScroll = false;
+                // 一屏的得分 = 该屏新出现的评论中得分最高的一条
+                PurchaseIntentMatcher.Result bestResult = null;
+                String bestComment = null;
+                int newComments = 0;
 
                 if (contentNodes != null) {
                     for (android.view.accessibility.AccessibilityNodeInfo node : contentNodes) {
@@ -4042,21 +4390,14 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                         CharSequence textSeq = node.getText();
                         if (textSeq == null) continue;
-                        String text = textSeq.toString();
 
-                        // 关键词匹配
-                        String matchedKeyword = null;
-                        for (String kw : purchaseKeywords) {
-                            if (text.contains(kw)) {
-                                matchedKeyword = kw;
-                                break;
-                            }
-                        }
+                        if (!seenComments.add(commentKey(node, textSeq))) continue;
+                        newComments++;
 
-                        if (matchedKeyword != null) {
-                            logD("🔑 关键词匹配: [" + matchedKeyword + "] 评论: " + text);
-                            foundInThisScroll = true;
-                            break; // 一屏只截一张
+                        PurchaseIntentMatcher.Result result = matcher.match(textSeq);
+                        if (result.matched() && (bestResult == null || result.score > bestResult.score)) {
+                            bestResult = result;
+                            bestComment = textSeq.toString();
                         }
                     }
                     for (android.view.accessibility.AccessibilityNodeInfo n : contentNodes) {
@@ -4065,19 +4406,43 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 }
                 rootNode.recycle();
 
-                // 找到匹配则截图（沿途截图，不影响继续滚动到底）
-                if (foundInThisScroll && capturedCount < targetScreenshots) {
-                    capturedCount++;
-                    final int idx = capturedCount;
-                    logD("📸 截取购买意图评论截图 (" + idx + "/" + targetScreenshots + ")...");
-                    takeScreenshotWithPrefix("评论取证_" + idx, new ScreenshotCallback() {
-                        @Override public void onSuccess() { logD("✅ 评论截图" + idx + "保存成功"); }
-                        @Override public void onFailure() { logE("❌ 评论截图" + idx + "保存失败"); }
-                    });
-                    Thread.sleep(600);
+                logD("💬 第" + (scroll + 1) + "屏新评论: " + newComments + " 条（累计 " + seenComments.size() + " 条）");
+                if (newComments == 0 && scroll > 0) {
+                    logD("⏹️ 本屏没有新评论，视为已到底部");
+                    break;
+                }
+
+                if (bestResult == null) continue;
+                logD("🔑 购买意图 [" + bestResult.summary() + "] 得分=" + bestResult.score + " 评论: " + bestComment);
+
+                // 名额未满，或比已暂存的最弱一屏更强时才截图
+                CommentShot weakest = weakestShot(bestShots);
+                if (bestShots.size() >= targetScreenshots && bestResult.score <= weakest.score) {
+                    logD("⏭️ 本屏得分不高于已选截图，跳过");
+                    continue;
+                }
+                android.graphics.Bitmap shot = captureScreenSync(3000);
+                if (shot == null) {
+                    logE("❌ 评论截图失败");
+                    continue;
+                }
+                bestShots.add(new CommentShot(shot, bestResult.score, scroll));
+                if (bestShots.size() > targetScreenshots) {
+                    bestShots.remove(weakest);
+                    weakest.bitmap.recycle();
+                    logD("🔁 用得分更高的一屏替换得分=" + weakest.score + "的截图");
                 }
             }
 
+            // 按出现顺序保存选中的截图
+            java.util.Collections.sort(bestShots, (x, y) -> x.order - y.order);
+            int capturedCount = bestShots.size();
+            for (int i = 0; i < capturedCount; i++) {
+                CommentShot shot = bestShots.get(i);
+                logD("📸 保存购买意图评论截图 (" + (i + 1) + "/" + targetScreenshots + ")，得分=" + shot.score);
+                saveScreenshotAsync(shot.bitmap, "评论取证_" + (i + 1));
+            }
+
             // Step5: 兜底 — 如果一张都没截到，截一张当前状态
             if (capturedCount == 0) {
                 logD("⚠️ 未找到购买意图评论，截兜底截图...");
@@ -4100,6 +4465,79 @@ public class AutomationAccessibilityService extends AccessibilityService {
         }
     }
 
+    /**
+     * 暂存的评论取证截图
+     */
+    private static final class CommentShot {
+        final android.graphics.Bitmap bitmap;
+        final int score;   // 该屏最强评论的购买意图得分
+        final int order;   // 第几次滚动时截取，用于按出现顺序保存
+
+        CommentShot(android.graphics.Bitmap bitmap, int score, int order) {
+            this.bitmap = bitmap;
+            this.score = score;
+            this.order = order;
+        }
+    }
+
+    /**
+     * 评论去重键：作者昵称 + 评论内容的 64 位 FNV-1a 哈希（与在列表中的位置无关）
+     * 作者取评论所在条目里第一个非评论内容的文字节点，取不到时只用内容
+     */
+    private static long commentKey(android.view.accessibility.AccessibilityNodeInfo contentNode, CharSequence text) {
+        CharSequence author = null;
+        android.view.accessibility.AccessibilityNodeInfo item = contentNode.getParent();
+        if (item != null) {
+            for (int i = 0; i < item.getChildCount() && author == null; i++) {
+                android.view.accessibility.AccessibilityNodeInfo child = item.getChild(i);
+                if (child == null) continue;
+                CharSequence childText = child.getText();
+                if (childText != null && childText.length() > 0 && !childText.toString().equals(text.toString())) {
+                    author = childText;
+                }
+                child.recycle();
+            }
+            item.recycle();
+        }
+        long hash = 0xcbf29ce484222325L;
+        if (author != null) {
+            for (int i = 0; i < author.length(); i++) {
+                hash = (hash ^ author.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        hash = (hash ^ '\u0001') * 0x100000001b3L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 得分最低的截图（同分取较晚的一张），列表为空返回 null
+     */
+    private static CommentShot weakestShot(java.util.List<CommentShot> shots) {
+        CommentShot weakest = null;
+        for (CommentShot s : shots) {
+            if (weakest == null || s.score < weakest.score || (s.score == weakest.score && s.order > weakest.order)) {
+                weakest = s;
+            }
+        }
+        return weakest;
+    }
+
+    /**
+     * 购买意图匹配器：优先加载 权利卫士取证/purchase_keywords.txt，没有则使用内置词表（只构建一次）
+     */
+    private PurchaseIntentMatcher getPurchaseIntentMatcher() {
+        if (purchaseIntentMatcher == null) {
+            java.io.File config = new java.io.File(android.os.Environment.getExternalStorageDirectory(),
+                "权利卫士取证/purchase_keywords.txt");
+            purchaseIntentMatcher = PurchaseIntentMatcher.load(config);
+            logD("🔤 购买意图关键词: " + purchaseIntentMatcher.size() + " 个" + (config.isFile() ? "（来自配置文件）" : "（内置词表）"));
+        }
+        return purchaseIntentMatcher;
+    }
+
     /**
      * 读取评论总数（从 title TextView 解析 "X条评论"）
      */
@@ -4116,10 +4554,10 @@ public class AutomationAccessibilityService extends AccessibilityService {
                     CharSequence textSeq = node.getText();
                     if (textSeq != null) {
                         String text = textSeq.toString(); // 例如 "10条评论"
-                        // 提取数字
-                        String numStr = text.replaceAll("[^0-9]", "");
-                        if (!numStr.isEmpty()) {
-                            int count = Integer.parseInt(numStr);
+                        // 提取数字（支持"1.2万条评论"）
+                        long parsed = TextParsers.parseCount(text);
+                        if (parsed >= 0) {
+                            int count = (int) Math.min(parsed, Integer.MAX_VALUE);
                             logD("📊 评论总数: " + count + " (原文: " + text + ")");
                             rootNode.recycle();
                             return count;
@@ -5014,13 +5452,14 @@ public class AutomationAccessibilityService extends AccessibilityService {
                                     long capWait2 = System.currentTimeMillis();
                                     while (!capDone2[0] && System.currentTimeMillis() - capWait2 < 5000) Thread.sleep(100);
                                     if (capBmp2[0] != null) {
-                                        logD("🎯 开始本地模板匹配解算验证码...");
-                                        int slideDist = solveSliderLocal(capBmp2[0], capFrag2[0]);
+                                        logD("🎯 开始解算验证码...");
+                                        CaptchaSolver.Solution solution = getCaptchaSolverChain().solve(capBmp2[0], capFrag2[0]);
+                                        int slideDist = solution != null ? solution.distance : -1;
                                         capBmp2[0].recycle();
                                         if (capFrag2[0] != null) capFrag2[0].recycle();
                                         if (slideDist > 0) {
                                             int targetHandleX = 222 + slideDist;
-                                            logD("🖐️ 本地匹配滑动距离=" + slideDist + "px，目标x=" + targetHandleX + "，模拟人手滑动...");
+                                            logD("🖐️ " + solution.solver + "滑动距离=" + slideDist + "px，目标x=" + targetHandleX + "，模拟人手滑动...");
                                             android.graphics.Path slidePath = new android.graphics.Path();
                                             slidePath.moveTo(222, 1459);
                                             slidePath.lineTo(222 + (int)(slideDist * 0.6f), 1459);
@@ -5030,10 +5469,10 @@ public class AutomationAccessibilityService extends AccessibilityService {
                                                 .addStroke(new android.accessibilityservice.GestureDescription.StrokeDescription(slidePath, 0, 1500))
                                                 .build(), null, null);
                                             Thread.sleep(2000);
-                                            logD("✅ 本地匹配滑动完成，继续等待资质页加载...");
+                                            logD("✅ 验证码滑动完成，继续等待资质页加载...");
                                             Thread.sleep(1000);
                                         } else {
-                                            logD("⚠️ 本地模板匹配失败(dist=" + slideDist + ")，跳过本轮");
+                                            logD("⚠️ 验证码解算失败(dist=" + slideDist + ")，跳过本轮");
                                         }
                                     } else {
                                         logD("⚠️ 截图裁剪失败，跳过验证码处理");
@@ -5438,49 +5877,41 @@ public class AutomationAccessibilityService extends AccessibilityService {
                                         public void onSuccess(android.graphics.Bitmap bitmap) {
                                             if (bitmap == null) { thirtyDayOcrDone[0] = true; return; }
                                             OcrHelper tdOcr = new OcrHelper(msg -> logD(msg));
-                                            tdOcr.findAnyTextPosition(bitmap, new String[]{"近30日", "30天"}, new OcrHelper.OcrAnyCallback() {
+                                            tdOcr.recognize(bitmap, new OcrHelper.OcrResultCallback() {
                                                 @Override
-                                                public void onSuccess(String matchedKeyword) {
+                                                public void onSuccess(OcrResult result) {
+                                                    String matchedKeyword = result.findAny("近30日", "30天");
                                                     // 全量搜索所有"30天"，选与带货数据Y最近的（即同一行的30天按钮）
-                                                    OcrHelper posOcr = new OcrHelper(msg -> logD(msg));
-                                                    posOcr.findAllTextPositions(bitmap, matchedKeyword, new OcrHelper.OcrMultiCallback() {
-                                                        @Override
-                                                        public void onSuccess(java.util.List<OcrHelper.TextMatch> matches) {
-                                                            OcrHelper.TextMatch bestMatch = matches.get(0);
-                                                            if (targetBdY > 0) {
-                                                                // 优先选Y与"带货数据"标题Y差值最小的（同行按钮）
-                                                                int minDiff = Math.abs(bestMatch.center.y - targetBdY);
-                                                                for (OcrHelper.TextMatch m : matches) {
-                                                                    int diff = Math.abs(m.center.y - targetBdY);
-                                                                    if (diff < minDiff) {
-                                                                        minDiff = diff;
-                                                                        bestMatch = m;
-                                                                    }
+                                                    java.util.List<OcrHelper.TextMatch> matches = matchedKeyword != null
+                                                            ? result.findAll(matchedKeyword) : new java.util.ArrayList<>();
+                                                    if (matches.isEmpty()) {
+                                                        logE("❌ OCR未找到'近30日'/'30天'");
+                                                    } else {
+                                                        OcrHelper.TextMatch bestMatch = matches.get(0);
+                                                        if (targetBdY > 0) {
+                                                            // 优先选Y与"带货数据"标题Y差值最小的（同行按钮）
+                                                            int minDiff = Math.abs(bestMatch.center.y - targetBdY);
+                                                            for (OcrHelper.TextMatch m : matches) {
+                                                                int diff = Math.abs(m.center.y - targetBdY);
+                                                                if (diff < minDiff) {
+                                                                    minDiff = diff;
+                                                                    bestMatch = m;
                                                                 }
-                                                                logD("✅ OCR找到时间按钮：'" + matchedKeyword + "' 共" + matches.size() + "个匹配，带货数据Y=" + targetBdY + "，选最近的坐标=(" + bestMatch.center.x + "," + bestMatch.center.y + ") 差=" + minDiff + "px");
-                                                            } else {
-                                                                // 无参考Y时降级：取Y最小的
-                                                                for (OcrHelper.TextMatch m : matches) {
-                                                                    if (m.center.y < bestMatch.center.y) bestMatch = m;
-                                                                }
-                                                                logD("✅ OCR找到时间按钮：'" + matchedKeyword + "' 共" + matches.size() + "个匹配，取Y最小的坐标=(" + bestMatch.center.x + "," + bestMatch.center.y + ")");
                                                             }
-                                                            thirtyDayPos[0] = bestMatch.center.x;
-                                                            thirtyDayPos[1] = bestMatch.center.y;
-                                                            posOcr.release();
-                                                            tdOcr.release();
-                                                            bitmap.recycle();
-                                                            thirtyDayOcrDone[0] = true;
-                                                        }
-                                                        @Override
-                                                        public void onFailure(String error) {
-                                                            logE("❌ 获取'" + matchedKeyword + "'坐标失败：" + error);
-                                                            posOcr.release();
-                                                            tdOcr.release();
-                                                            bitmap.recycle();
-                                                            thirtyDayOcrDone[0] = true;
+                                                            logD("✅ OCR找到时间按钮：'" + matchedKeyword + "' 共" + matches.size() + "个匹配，带货数据Y=" + targetBdY + "，选最近的坐标=(" + bestMatch.center.x + "," + bestMatch.center.y + ") 差=" + minDiff + "px");
+                                                        } else {
+                                                            // 无参考Y时降级：取Y最小的
+                                                            for (OcrHelper.TextMatch m : matches) {
+                                                                if (m.center.y < bestMatch.center.y) bestMatch = m;
+                                                            }
+                                                            logD("✅ OCR找到时间按钮：'" + matchedKeyword + "' 共" + matches.size() + "个匹配，取Y最小的坐标=(" + bestMatch.center.x + "," + bestMatch.center.y + ")");
                                                         }
-                                                    });
+                                                        thirtyDayPos[0] = bestMatch.center.x;
+                                                        thirtyDayPos[1] = bestMatch.center.y;
+                                                    }
+                                                    tdOcr.release();
+                                                    bitmap.recycle();
+                                                    thirtyDayOcrDone[0] = true;
                                                 }
                                                 @Override
                                                 public void onFailure(String error) {
@@ -5913,9 +6344,9 @@ public class AutomationAccessibilityService extends AccessibilityService {
                     logD("📸 截取店铺账号详情页取证截图...");
                     final boolean[] shopDone = {false};
                     takeScreenshotWithPrefix("店铺账号取证", new ScreenshotCallback() {
-                        @Override public void onSuccess(android.graphics.Bitmap bmp) {
+                        @Override public void onSuccess() {
                             logD("✅ 店铺账号截图保存成功");
-                            if (bmp != null) bmp.recycle(); shopDone[0] = true;
+                            shopDone[0] = true;
                         }
                         @Override public void onFailure() { logE("❌ 店铺账号截图保存失败"); shopDone[0] = true; }
                     });
@@ -5971,9 +6402,9 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                         final boolean[] guideDone = {false};
                         takeScreenshotWithPrefix("导购取证", new ScreenshotCallback() {
-                            @Override public void onSuccess(android.graphics.Bitmap bmp) {
+                            @Override public void onSuccess() {
                                 logD("✅ 导购截图保存成功");
-                                if (bmp != null) bmp.recycle(); guideDone[0] = true;
+                                guideDone[0] = true;
                             }
                             @Override public void onFailure() { logE("❌ 导购截图保存失败"); guideDone[0] = true; }
                         });
@@ -6036,9 +6467,9 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                 final boolean[] dotsDone = {false};
                 takeScreenshotWithPrefix("作者主页三点菜单取证", new ScreenshotCallback() {
-                    @Override public void onSuccess(android.graphics.Bitmap bmp) {
+                    @Override public void onSuccess() {
                         logD("✅ 三点菜单截图保存成功");
-                        if (bmp != null) bmp.recycle(); dotsDone[0] = true;
+                        dotsDone[0] = true;
                     }
                     @Override public void onFailure() { logE("❌ 三点菜单截图保存失败"); dotsDone[0] = true; }
                 });
@@ -6180,25 +6611,37 @@ public class AutomationAccessibilityService extends AccessibilityService {
     }
 
     /**
-     * 在节点树中递归查找 contentDescription 包含指定关键词的节点
+     * 在节点树中查找 contentDescription 包含指定关键词的节点（跳过屏幕外的子树，找到的节点可以直接点击）
      */
     private android.view.accessibility.AccessibilityNodeInfo findNodeByDescContains(
             android.view.accessibility.AccessibilityNodeInfo root, String keyword) {
-        if (root == null) return null;
-        CharSequence desc = root.getContentDescription();
-        if (desc != null && desc.toString().contains(keyword)) {
-            return root;
-        }
-        for (int i = 0; i < root.getChildCount(); i++) {
-            android.view.accessibility.AccessibilityNodeInfo child = root.getChild(i);
-            android.view.accessibility.AccessibilityNodeInfo result = findNodeByDescContains(child, keyword);
-            if (result != null) {
-                if (child != result) child.recycle();
-                return result;
-            }
-            if (child != null) child.recycle();
+        return NodeWalker.create().within(screenBounds()).findFirst(root, node -> {
+            CharSequence desc = node.getContentDescription();
+            return desc != null && desc.toString().contains(keyword);
+        });
+    }
+
+    /**
+     * 屏幕区域（含导航栏），用于 {@link NodeWalker#within} 跳过屏幕外的列表项
+     */
+    private android.graphics.Rect screenBounds() {
+        android.util.DisplayMetrics metrics = new android.util.DisplayMetrics();
+        android.view.WindowManager wm = (android.view.WindowManager) getSystemService(WINDOW_SERVICE);
+        wm.getDefaultDisplay().getRealMetrics(metrics);
+        return new android.graphics.Rect(0, 0, metrics.widthPixels, metrics.heightPixels);
+    }
+
+    /**
+     * 点击视频卡片后等待播放页稳定（替代固定 sleep 3.5秒）：先等页面开始跳转，再等界面事件停下
+     * 播放页持续刷新进度时不会静止，最多等 {@link #VIDEO_OPEN_TIMEOUT_MS}，与原来的固定等待相同
+     */
+    private void awaitVideoPageSettled() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        pageWaiter.awaitEvent(DOUYIN_PACKAGE, VIDEO_OPEN_START_MS);
+        long remaining = VIDEO_OPEN_TIMEOUT_MS - (System.currentTimeMillis() - start);
+        if (remaining > 0 && pageWaiter.awaitIdle(PAGE_QUIET_MS, remaining)) {
+            logD("⏱️ 视频页已稳定，用时" + (System.currentTimeMillis() - start) + "ms");
         }
-        return null;
     }
 
     /**
@@ -6206,21 +6649,10 @@ public class AutomationAccessibilityService extends AccessibilityService {
      */
     private android.view.accessibility.AccessibilityNodeInfo findNodeByExactDesc(
             android.view.accessibility.AccessibilityNodeInfo root, String exactDesc) {
-        if (root == null) return null;
-        CharSequence desc = root.getContentDescription();
-        if (desc != null && desc.toString().equals(exactDesc)) {
-            return root;
-        }
-        for (int i = 0; i < root.getChildCount(); i++) {
-            android.view.accessibility.AccessibilityNodeInfo child = root.getChild(i);
-            android.view.accessibility.AccessibilityNodeInfo result = findNodeByExactDesc(child, exactDesc);
-            if (result != null) {
-                if (child != result) child.recycle();
-                return result;
-            }
-            if (child != null) child.recycle();
-        }
-        return null;
+        return NodeWalker.create().findFirst(root, node -> {
+            CharSequence desc = node.getContentDescription();
+            return desc != null && desc.toString().equals(exactDesc);
+        });
     }
 
     /**
@@ -6295,11 +6727,13 @@ public class AutomationAccessibilityService extends AccessibilityService {
         final int POLL_INTERVAL_MS = 500; // 每500ms检测一次
         boolean adDetected = false;
         int elapsed = 0;
+        long adWaitStart = System.currentTimeMillis();
 
         while (elapsed < MAX_WAIT_MS && !Thread.currentThread().isInterrupted()) {
-            Thread.sleep(POLL_INTERVAL_MS);
+            // 抖音有界面变化立即复查，没有事件时最多等一个检测间隔
+            pageWaiter.awaitEvent(DOUYIN_PACKAGE, POLL_INTERVAL_MS);
             if (Thread.currentThread().isInterrupted()) break; // 双重检查，快速退出
-            elapsed += POLL_INTERVAL_MS;
+            elapsed = (int) (System.currentTimeMillis() - adWaitStart);
 
             android.view.accessibility.AccessibilityNodeInfo root = getRootInActiveWindow();
             if (root == null) continue;
@@ -6361,9 +6795,9 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 }
 
                 if (skipFound) {
-                    // 点击后等待广告页消失（最多再等3秒）
+                    // 点击后等待广告页消失：底部导航栏出现即继续（最多再等3秒）
                     logD("⏳ [广告检测] 已点击跳过，等待广告页消失（最多3秒）...");
-                    Thread.sleep(3000);
+                    pageWaiter.await(DOUYIN_PACKAGE, this::checkForBottomNavigation, 3000);
                     logD("✅ [广告检测] 广告跳过完成，继续正常流程");
                     return;
                 }
@@ -6480,25 +6914,6 @@ public class AutomationAccessibilityService extends AccessibilityService {
         }
     }
 
-    /**
-     * 🆕 递归查找所有节点
-     */
-    private void findAllNodes(android.view.accessibility.AccessibilityNodeInfo node, java.util.List<android.view.accessibility.AccessibilityNodeInfo> result) {
-        if (node == null) {
-            return;
-        }
-
-        result.add(node);
-
-        int childCount = node.getChildCount();
-        for (int i = 0; i < childCount; i++) {
-            android.view.accessibility.AccessibilityNodeInfo child = node.getChild(i);
-            if (child != null) {
-                findAllNodes(child, result);
-            }
-        }
-    }
-
     /**
      * 🆕 点击"我的订单"按钮
      */
@@ -6731,53 +7146,41 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 final int[] clickPos = {-1, -1}; // x, y
                 final int currentPoll = poll + 1; // 复制为final，供内部类使用
 
-                // 同时搜索简体"资质规则"和繁体OCR误识别版"资质規则"
-                OcrHelper pollOcr = new OcrHelper(message -> logD(message));
-                pollOcr.findAnyTextPosition(bmp,
-                    new String[]{"资质规则", "资质規则"},
-                    new OcrHelper.OcrAnyCallback() {
-                        @Override
-                        public void onSuccess(String keyword) {
-                            // findAnyTextPosition只返回关键词，不返回坐标，需要再用findTextPosition取坐标
-                            logD("🎯 第" + currentPoll + "次OCR找到'" + keyword + "'，获取精确坐标...");
-                            OcrHelper posOcr = new OcrHelper(message -> logD(message));
-                            posOcr.findTextPosition(bmp, keyword, new OcrHelper.OcrCallback() {
-                                @Override
-                                public void onSuccess(OcrHelper.TextMatch match) {
-                                    logD("📍 原始坐标: (" + match.center.x + ", " + match.center.y + ")");
-                                    clickPos[0] = match.center.x;
-                                    clickPos[1] = match.center.y;
-                                    // OCR识别的是底部文字标签，若Y>2100则极可能超出item可点击区域
-                                    // 向上偏移90px，改为点击图标区域（item上半部分），确保在bounds内
-                                    if (clickPos[1] > 2100) {
-                                        int adjustedY = clickPos[1] - 90;
-                                        logD("⚠️ 资质规则Y=" + clickPos[1] + " 过低（超出item底部），上移至Y=" + adjustedY + " 点击图标区域");
-                                        clickPos[1] = adjustedY;
-                                    }
-                                    ocrDone[0] = true;
-                                    posOcr.release();
-                                    pollOcr.release();
-                                    bmp.recycle();
-                                }
-                                @Override
-                                public void onFailure(String error) {
-                                    logD("⚠️ 获取坐标失败，继续轮询...");
-                                    ocrDone[0] = true;
-                                    posOcr.release();
-                                    pollOcr.release();
-                                    bmp.recycle();
-                                }
-                            });
-                        }
-                        @Override
-                        public void onFailure(String error) {
+                // 同时搜索简体"资质规则"和繁体OCR误识别版"资质規则"（只识别一次，关键词和坐标都从同一结果取）
+                // "更多"弹窗为底部面板，"资质规则"只会出现在屏幕下半部分
+                OcrHelper pollOcr = new OcrHelper(message -> logD(message), OcrHelper.Region.bottom(1200));
+                pollOcr.recognize(bmp, new OcrHelper.OcrResultCallback() {
+                    @Override
+                    public void onSuccess(OcrResult result) {
+                        OcrHelper.TextMatch match = result.findFirst("资质规则", "资质規则");
+                        if (match != null) {
+                            logD("🎯 第" + currentPoll + "次OCR找到'" + match.text + "'");
+                            logD("📍 原始坐标: (" + match.center.x + ", " + match.center.y + ")");
+                            clickPos[0] = match.center.x;
+                            clickPos[1] = match.center.y;
+                            // OCR识别的是底部文字标签，若Y>2100则极可能超出item可点击区域
+                            // 向上偏移90px，改为点击图标区域（item上半部分），确保在bounds内
+                            if (clickPos[1] > 2100) {
+                                int adjustedY = clickPos[1] - 90;
+                                logD("⚠️ 资质规则Y=" + clickPos[1] + " 过低（超出item底部），上移至Y=" + adjustedY + " 点击图标区域");
+                                clickPos[1] = adjustedY;
+                            }
+                        } else {
                             logD("⏳ 第" + currentPoll + "次未识别到'资质规则'，继续等待...");
-                            ocrDone[0] = true;
-                            pollOcr.release();
-                            bmp.recycle();
                         }
-                    });
-                // 等OCR完成（最多2秒）
+                        ocrDone[0] = true;
+                        pollOcr.release();
+                        bmp.recycle();
+                    }
+                    @Override
+                    public void onFailure(String error) {
+                        logD("⏳ 第" + currentPoll + "次未识别到'资质规则'，继续等待...");
+                        ocrDone[0] = true;
+                        pollOcr.release();
+                        bmp.recycle();
+                    }
+                });
+                // 等OCR完成（最多2秒）
                 long ocrWait = System.currentTimeMillis();
                 while (!ocrDone[0] && System.currentTimeMillis() - ocrWait < 2000) {
                     Thread.sleep(50);
@@ -7075,8 +7478,8 @@ public class AutomationAccessibilityService extends AccessibilityService {
                                 return;
                             }
 
-                            // 转换为可变的Bitmap (修复ML Kit错误)
-                            final android.graphics.Bitmap mutableBitmap = bitmap.copy(android.graphics.Bitmap.Config.ARGB_8888, true);
+                            // takeScreenshot 回调的位图已是可变的软件位图,直接用于OCR (不再另拷一份)
+                            final android.graphics.Bitmap mutableBitmap = bitmap;
 
                             // 使用OCR识别营业执照上的关键文字 (传递日志回调)
                             // 改用"MA"(统一社会信用代码特征)作为判断标准
@@ -7418,45 +7821,31 @@ public class AutomationAccessibilityService extends AccessibilityService {
                         continue;
                     }
 
-                    // 使用OCR识别"资质规则公示"
+                    // 使用OCR识别"资质规则公示"（只识别一次，在同一结果上同时查正确写法和容错写法）
                     final boolean[] textFound = {false};
                     final boolean[] ocrCompleted = {false};
                     OcrHelper ocrHelper = new OcrHelper(message -> logD(message));
 
-                    // 先尝试识别正确写法"资质规则公示"
-                    ocrHelper.findTextPosition(screenshotBitmap[0], "资质规则公示", new OcrHelper.OcrCallback() {
+                    ocrHelper.recognize(screenshotBitmap[0], new OcrHelper.OcrResultCallback() {
                         @Override
-                        public void onSuccess(OcrHelper.TextMatch match) {
-                            logD("✅ 检测到'资质规则公示'文字,页面已加载!");
-                            textFound[0] = true;
+                        public void onSuccess(OcrResult result) {
+                            // OCR有时会把"规"误识别为"视"，容错写法"资质视则公示"同样视为已加载
+                            String hit = result.findAny("资质规则公示", "资质视则公示");
+                            if ("资质规则公示".equals(hit)) {
+                                logD("✅ 检测到'资质规则公示'文字,页面已加载!");
+                                textFound[0] = true;
+                            } else if (hit != null) {
+                                logD("✅ OCR容错匹配成功: 识别到'资质视则公示'(规被误读为视),页面已加载!");
+                                textFound[0] = true;
+                            } else {
+                                logD("⏳ 未检测到'资质规则公示'或'资质视则公示',页面可能还在加载...");
+                            }
                             ocrCompleted[0] = true;
                         }
 
                         @Override
                         public void onFailure(String error) {
-                            // OCR有时会把"规"误识别为"视",尝试模糊匹配
-                            logD("⏳ 未检测到'资质规则公示',尝试OCR容错匹配(规→视)...");
-                            OcrHelper fallbackOcr = new OcrHelper(message -> logD(message));
-                            final android.graphics.Bitmap fallbackBitmap = screenshotBitmap[0].copy(android.graphics.Bitmap.Config.ARGB_8888, false);
-                            fallbackOcr.findTextPosition(fallbackBitmap, "资质视则公示", new OcrHelper.OcrCallback() {
-                                @Override
-                                public void onSuccess(OcrHelper.TextMatch match2) {
-                                    logD("✅ OCR容错匹配成功: 识别到'资质视则公示'(规被误读为视),页面已加载!");
-                                    textFound[0] = true;
-                                    ocrCompleted[0] = true;
-                                    fallbackOcr.release();
-                                    fallbackBitmap.recycle();
-                                }
-
-                                @Override
-                                public void onFailure(String error2) {
-                                    logD("⏳ 未检测到'资质规则公示'或'资质视则公示',页面可能还在加载...");
-                                    textFound[0] = false;
-                                    ocrCompleted[0] = true;
-                                    fallbackOcr.release();
-                                    fallbackBitmap.recycle();
-                                }
-                            });
+                            ocrCompleted[0] = true;
                         }
                     });
 
@@ -7836,42 +8225,47 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
     /**
      * 将本次取证的所有截图整合成PDF
+     * 最前面是目录页：案件信息（侵权人/播放量/销量等）+ 每张截图的页码、前缀、保存时间、SHA-256
      * PDF命名格式: 原创名称-平台（抖音）：侵权人账号名称.pdf
      * 保存到: Download/权利卫士取证/
      */
     private void generateEvidencePdf() {
         try {
-            if (sessionScreenshotUris.isEmpty()) {
+            // 页面已在截图保存后陆续写入，这里等待剩余页面写完并收尾
+            EvidenceReportBuilder report;
+            int screenshotCount;
+            synchronized (sessionScreenshotSaves) {
+                report = evidenceReport;
+                evidenceReport = null;
+                if (report == null && !sessionScreenshotSaves.isEmpty()) {
+                    report = newEvidenceReport();
+                    for (java.util.concurrent.CompletableFuture<SavedScreenshot> save : sessionScreenshotSaves) {
+                        report.enqueue(save);
+                    }
+                }
+                screenshotCount = sessionScreenshotSaves.size();
+            }
+            if (report == null) {
                 logE("❌ 没有截图，无法生成PDF");
                 return;
             }
-            logD("📄 开始生成PDF，共" + sessionScreenshotUris.size() + "张截图...");
-
-            android.graphics.pdf.PdfDocument pdfDocument = new android.graphics.pdf.PdfDocument();
-            int pageWidth = 1080;
-            int pageHeight = 2400;
-
-            for (int i = 0; i < sessionScreenshotUris.size(); i++) {
-                try {
-                    android.net.Uri uri = sessionScreenshotUris.get(i);
-                    android.graphics.Bitmap bitmap =
-                        android.provider.MediaStore.Images.Media.getBitmap(getContentResolver(), uri);
-                    if (bitmap == null) {
-                        logE("  ⚠️ 第" + (i + 1) + "张图片解码失败，跳过");
-                        continue;
-                    }
-                    android.graphics.pdf.PdfDocument.PageInfo pageInfo =
-                        new android.graphics.pdf.PdfDocument.PageInfo.Builder(pageWidth, pageHeight, i + 1).create();
-                    android.graphics.pdf.PdfDocument.Page page = pdfDocument.startPage(pageInfo);
-                    android.graphics.Canvas canvas = page.getCanvas();
-                    android.graphics.RectF destRect = new android.graphics.RectF(0, 0, pageWidth, pageHeight);
-                    canvas.drawBitmap(bitmap, null, destRect, null);
-                    pdfDocument.finishPage(page);
-                    bitmap.recycle();
-                    logD("  ✅ 第" + (i + 1) + "页已添加");
-                } catch (Exception e) {
-                    logE("  ❌ 第" + (i + 1) + "页处理失败: " + e.getMessage());
-                }
+            logD("📄 开始生成PDF，共" + screenshotCount + "张截图...");
+            java.util.Map<String, String> facts = new java.util.LinkedHashMap<>();
+            facts.put("原创名称", originalName);
+            facts.put("侵权平台", "抖音");
+            facts.put("侵权人", infringerName);
+            facts.put("侵权链接", infringementUrl);
+            facts.put("封面Key", coverImageKey);
+            facts.put("侵权视频播放量", targetVideoPlayCount);
+            facts.put("侵权视频销量", targetVideoSales);
+            facts.put("备注", remark);
+            facts.put("报告生成时间", new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss", java.util.Locale.CHINA)
+                .format(new java.util.Date()));
+            // finish 失败或没有截图页时已删除临时文件
+            int screenshotPages = report.finish("取证报告目录", facts, 30000);
+            if (screenshotPages == 0) {
+                logE("❌ 没有可用的截图页面，无法生成PDF");
+                return;
             }
 
             // 构造PDF文件名
@@ -7881,40 +8275,50 @@ public class AutomationAccessibilityService extends AccessibilityService {
             // 替换文件名中不允许的字符
             pdfName = pdfName.replace("/", "_").replace("\\", "_");
 
-            // 保存PDF
-            if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.Q) {
-                android.content.ContentValues values = new android.content.ContentValues();
-                values.put(android.provider.MediaStore.Downloads.DISPLAY_NAME, pdfName);
-                values.put(android.provider.MediaStore.Downloads.MIME_TYPE, "application/pdf");
-                values.put(android.provider.MediaStore.Downloads.RELATIVE_PATH, "Download/权利卫士取证");
-                android.net.Uri pdfUri = getContentResolver().insert(
-                    android.provider.MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
-                if (pdfUri != null) {
-                    java.io.OutputStream os = getContentResolver().openOutputStream(pdfUri);
-                    if (os != null) {
-                        pdfDocument.writeTo(os);
-                        os.flush();
-                        os.close();
-                        logD("✅ PDF已保存: Download/权利卫士取证/" + pdfName);
+            // 保存PDF（copyTo 会删除临时文件；未能复制时在 finally 中删除）
+            try {
+                if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.Q) {
+                    android.content.ContentValues values = new android.content.ContentValues();
+                    values.put(android.provider.MediaStore.Downloads.DISPLAY_NAME, pdfName);
+                    values.put(android.provider.MediaStore.Downloads.MIME_TYPE, "application/pdf");
+                    values.put(android.provider.MediaStore.Downloads.RELATIVE_PATH, "Download/权利卫士取证");
+                    android.net.Uri pdfUri = getContentResolver().insert(
+                        android.provider.MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
+                    if (pdfUri != null) {
+                        java.io.OutputStream os = getContentResolver().openOutputStream(pdfUri);
+                        if (os != null) {
+                            try {
+                                report.copyTo(os);
+                            } finally {
+                                os.close();
+                            }
+                            logD("✅ PDF已保存: Download/权利卫士取证/" + pdfName);
+                            lastEvidencePdfName = pdfName;
+                        }
+                    } else {
+                        logE("❌ 创建PDF MediaStore URI失败");
                     }
                 } else {
-                    logE("❌ 创建PDF MediaStore URI失败");
+                    java.io.File dir = new java.io.File(
+                        android.os.Environment.getExternalStoragePublicDirectory(
+                            android.os.Environment.DIRECTORY_DOWNLOADS), "权利卫士取证");
+                    if (!dir.exists()) dir.mkdirs();
+                    java.io.File pdfFile = new java.io.File(dir, pdfName);
+                    java.io.FileOutputStream fos = new java.io.FileOutputStream(pdfFile);
+                    try {
+                        report.copyTo(fos);
+                    } finally {
+                        fos.close();
+                    }
+                    logD("✅ PDF已保存: " + pdfFile.getAbsolutePath());
+                    lastEvidencePdfName = pdfName;
                 }
-            } else {
-                java.io.File dir = new java.io.File(
-                    android.os.Environment.getExternalStoragePublicDirectory(
-                        android.os.Environment.DIRECTORY_DOWNLOADS), "权利卫士取证");
-                if (!dir.exists()) dir.mkdirs();
-                java.io.File pdfFile = new java.io.File(dir, pdfName);
-                java.io.FileOutputStream fos = new java.io.FileOutputStream(pdfFile);
-                pdfDocument.writeTo(fos);
-                fos.flush();
-                fos.close();
-                logD("✅ PDF已保存: " + pdfFile.getAbsolutePath());
-            }
-
-            pdfDocument.close();
-            logD("🎉 取证PDF生成完成！文件名: " + pdfName);
+            } finally {
+                report.deleteTempFile();
+            }
+
+            logD("🎉 取证PDF生成完成！共" + report.getPageCount() + "页（截图" + screenshotPages
+                + "页），文件名: " + pdfName);
         } catch (Exception e) {
             logE("❌ 生成PDF失败: " + e.getMessage());
             e.printStackTrace();
@@ -8085,14 +8489,34 @@ public class AutomationAccessibilityService extends AccessibilityService {
             logD("⚠️ 无法获取无障碍树，跳过封面对比");
             return;
         }
+        // 一次遍历拍快照，封面Key/播放量/销量都在快照上查询，不再反复遍历节点树
+        ScreenSnapshot snapshot = ScreenSnapshot.capture(root);
+        root.recycle();
+
         java.util.List<String> allKeys = new java.util.ArrayList<>();
         java.util.List<android.graphics.Rect> matchedBounds = new java.util.ArrayList<>();
-        collectMatchingImageNodes(root, allKeys, matchedBounds);
+        collectMatchingImageNodes(snapshot, allKeys, matchedBounds);
+        // 本屏全部封面写入索引，后续案件可直接查询
+        recordCarouselCovers(snapshot);
+        if (matchedBounds.isEmpty()) {
+            // 索引里的播放量是历史观察值，只作提示：不用于匹配视频，也不写入取证报告
+            try {
+                CoverIndex.Observation known = getCoverIndex().find(coverImageKey);
+                if (known != null && known.playCount != null) {
+                    logD("🗂️ [封面索引] 当前页面未见目标封面；索引记录播放量 " + known.playCount + "（"
+                            + new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm", java.util.Locale.CHINA)
+                                .format(new java.util.Date(known.lastSeen))
+                            + " 所见，仅供参考）");
+                }
+            } catch (Exception e) {
+                logE("封面索引查询失败: " + e.getMessage());
+            }
+        }
 
-        // 🆕 提取匹配视频的播放量（在root.recycle()之前，节点仍有效）
+        // 🆕 提取匹配视频的播放量
         if (!matchedBounds.isEmpty()) {
             int matchCenterX = (matchedBounds.get(0).left + matchedBounds.get(0).right) / 2;
-            String pc = extractPlayCountNearX(root, matchCenterX);
+            String pc = extractPlayCountNearX(snapshot, matchCenterX);
             if (pc != null && !pc.isEmpty()) {
                 targetVideoPlayCount = pc;
                 logD("📊 [创作灵感] 捕获侵权视频播放量: " + targetVideoPlayCount);
@@ -8101,18 +8525,19 @@ public class AutomationAccessibilityService extends AccessibilityService {
             }
         }
 
-        // 🆕 提取每个匹配视频的销量（在root.recycle()之前，节点仍有效）
+        // 🆕 提取每个匹配视频的销量
         java.util.List<Integer> matchedSalesValues = new java.util.ArrayList<>();
         for (android.graphics.Rect mb : matchedBounds) {
             int centerX = (mb.left + mb.right) / 2;
-            String salesText = extractSalesNearX(root, centerX);
+            String salesText = extractSalesNearX(snapshot, centerX);
             int salesVal = parseSalesText(salesText);
             matchedSalesValues.add(salesVal);
             logD("💰 [创作灵感] 匹配视频 X=" + centerX + " 销量文本: " + (salesText != null ? salesText : "未找到") + " → " + (salesVal >= 0 ? salesVal : "未知"));
+            if (salesText != null && !salesText.isEmpty() && !targetVideoSales.contains(salesText)) {
+                targetVideoSales = targetVideoSales.isEmpty() ? salesText : targetVideoSales + "、" + salesText;
+            }
         }
 
-        root.recycle(); // 回收根节点，坐标已提前保存到 matchedBounds
-
         logD("📊 无障碍树共扫描到 " + allKeys.size() + " 个Image节点");
         for (int i = 0; i < allKeys.size(); i++) {
             logD("  " + (coverImageKey != null && coverImageKey.equals(allKeys.get(i)) ? "✅" : "❌") + " 第" + (i + 1) + "个 Key: " + allKeys.get(i));
@@ -8165,8 +8590,17 @@ public class AutomationAccessibilityService extends AccessibilityService {
             clickByCoordinates(tapX, tapY);
             long videoOpenTime = System.currentTimeMillis();
 
-            // 等待视频打开并开始播放
-            Thread.sleep(3500);
+            // 等待视频打开：播放页 title 节点出现即继续（最多3.5秒）
+            boolean videoPageReady = pageWaiter.await(DOUYIN_PACKAGE, vr -> {
+                java.util.List<android.view.accessibility.AccessibilityNodeInfo> tNodes =
+                    vr.findAccessibilityNodeInfosByViewId("com.ss.android.ugc.aweme:id/title");
+                if (tNodes == null || tNodes.isEmpty()) return false;
+                for (android.view.accessibility.AccessibilityNodeInfo tn : tNodes) tn.recycle();
+                return true;
+            }, 3500);
+            logD(videoPageReady
+                ? "✅ 视频播放页已就绪（" + (System.currentTimeMillis() - videoOpenTime) + "ms）"
+                : "⏳ 3.5秒内未检测到播放页标题节点，继续后续验证");
 
             if (!isRunning) break;
 
@@ -8236,39 +8670,32 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 int dur = videoDurationSeconds > 0 ? videoDurationSeconds : 60;
                 logD("🎬 账号验证通过，开始播放视频(时长=" + dur + "s)，将在25%/50%/75%时间点截图...");
 
-                // 计算三个截图时间点（相对视频打开+3.5s等待之后的已过去时间）
-                long[] screenshotDelays = {
-                    (long)(dur * 0.25 * 1000) - 3500,  // 25%时刻减去已等待的3.5s
-                    (long)(dur * 0.50 * 1000) - 3500,  // 50%时刻
-                    (long)(dur * 0.75 * 1000) - 3500   // 75%时刻
-                };
-                int[] capturePcts = {25, 50, 75};
-                for (int si = 0; si < 3; si++) {
-                    if (!isRunning) break;
-                    long remaining = screenshotDelays[si] - (System.currentTimeMillis() - videoOpenTime - 3500);
-                    if (remaining > 0) {
-                        logD("⏳ 等待" + (remaining/1000.0) + "s到达视频" + capturePcts[si] + "%时间点...");
-                        Thread.sleep(remaining);
-                    }
-                    if (!isRunning) break;
-                    final int pct = capturePcts[si];
-                    final int captureSeq = si + 1;
-                    takeScreenshotWithPrefix("购物车取证_创作灵感_侵权视频" + captureVideoIdx + "_截图" + captureSeq + "_" + pct + "pct", new ScreenshotCallback() {
-                        @Override public void onSuccess() { logD("✅ 侵权视频" + captureVideoIdx + " 第" + captureSeq + "张截图(" + pct + "%)已保存"); }
-                        @Override public void onFailure() { logE("❌ 侵权视频" + captureVideoIdx + " 第" + captureSeq + "张截图失败"); }
-                    });
-                    Thread.sleep(300);
-                }
+                // 按实际播放位置截图（进度条/时间条/墙钟估计），暂停/缓冲不会截错时刻
+                VideoProgressTracker progress = startVideoProgress(dur, videoOpenTime);
+                try {
+                    int[] capturePcts = {25, 50, 75};
+                    for (int si = 0; si < 3; si++) {
+                        if (!isRunning) break;
+                        logD("⏳ 等待到达视频" + capturePcts[si] + "%时间点...");
+                        progress.awaitFraction(capturePcts[si] / 100f, dur * 1000L + VIDEO_WAIT_SLACK_MS);
+                        if (!isRunning) break;
+                        final int pct = capturePcts[si];
+                        final int captureSeq = si + 1;
+                        takeScreenshotWithPrefix("购物车取证_创作灵感_侵权视频" + captureVideoIdx + "_截图" + captureSeq + "_" + pct + "pct", new ScreenshotCallback() {
+                            @Override public void onSuccess() { logD("✅ 侵权视频" + captureVideoIdx + " 第" + captureSeq + "张截图(" + pct + "%)已保存"); }
+                            @Override public void onFailure() { logE("❌ 侵权视频" + captureVideoIdx + " 第" + captureSeq + "张截图失败"); }
+                        });
+                        Thread.sleep(300);
+                    }
 
-                // 等待视频播放完成（基于真实时钟计算剩余时间）
-                if (isRunning) {
-                    long videoEndMs = videoOpenTime + (long)(dur * 1000L);
-                    long remainMs = videoEndMs - System.currentTimeMillis();
-                    if (remainMs > 500) {
-                        logD("⏳ 等待视频播放完毕，剩余约" + (remainMs/1000) + "s...");
-                        Thread.sleep(Math.min(remainMs, remainMs));
+                    // 等待视频播放完成（按实际播放位置）
+                    if (isRunning) {
+                        logD("⏳ 等待视频播放完毕...");
+                        progress.awaitEnd(dur * 1000L + VIDEO_WAIT_SLACK_MS);
+                        logD("✅ 视频" + captureVideoIdx + "播放完毕，已截图3张取证");
                     }
-                    logD("✅ 视频" + captureVideoIdx + "播放完毕，已截图3张取证");
+                } finally {
+                    stopVideoProgress(progress);
                 }
 
                 // ③ 视频播放完毕，进入作者主页取证（店铺账号 + 三点菜单），取证后自动返回视频页
@@ -8426,77 +8853,66 @@ public class AutomationAccessibilityService extends AccessibilityService {
     }
 
     /**
-     * 递归遍历无障碍树，收集所有 android.widget.Image 节点中的图片Key，
-     * 同时将与 coverImageKey 匹配的节点的屏幕坐标（Rect）收集到 matchedBounds。
-     * 注意：在调用者 root.recycle() 之前必须完成坐标提取！
+     * 封面观察记录索引：首次使用时打开并淘汰过期记录（数据库操作，只能在后台线程调用）
      */
-    private void collectMatchingImageNodes(android.view.accessibility.AccessibilityNodeInfo node,
-                                            java.util.List<String> allKeys,
-                                            java.util.List<android.graphics.Rect> matchedBounds) {
-        if (node == null) return;
-        String className = node.getClassName() != null ? node.getClassName().toString() : "";
-        if ("android.widget.Image".equals(className)) {
-            CharSequence text = node.getText();
-            if (text != null) {
-                String key = extractImageKey(text.toString());
-                if (key != null) {
-                    allKeys.add(key);
-                    if (key.equals(coverImageKey)) {
-                        // 立即提取坐标（root.recycle()前），避免节点失效
-                        android.graphics.Rect b = new android.graphics.Rect();
-                        node.getBoundsInScreen(b);
-                        // 只收集在屏幕内的有效坐标（排除屏幕外或不可见节点）
-                        if (b.width() > 50 && b.height() > 50 && b.top >= 0 && b.bottom <= 2400) {
-                            matchedBounds.add(b);
-                            logD("📍 匹配节点坐标: (" + b.left + "," + b.top + ")-(" + b.right + "," + b.bottom + ") 中心=(" + ((b.left+b.right)/2) + "," + ((b.top+b.bottom)/2) + ")");
-                        } else {
-                            logD("⚠️ 匹配节点坐标无效或不在屏幕内: " + b.toString() + "，跳过");
-                        }
-                    }
-                }
-            }
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            collectMatchingImageNodes(node.getChild(i), allKeys, matchedBounds);
+    private synchronized CoverIndex getCoverIndex() {
+        if (coverIndex == null) {
+            coverIndex = new CoverIndex(this);
+            int removed = coverIndex.evict();
+            if (removed > 0) logD("🗂️ [封面索引] 淘汰过期记录 " + removed + " 条");
         }
+        return coverIndex;
     }
 
     /**
-     * 计算图片的感知哈希（aHash 8x8）
-     * 将图片缩放到8x8灰度图，对比每个像素与平均亮度，生成64位指纹
+     * 把快照中所有带图片Key的封面及其播放量/销量写入封面索引（一个事务）
+     * 目标封面同时记录侵权账号名称
      */
-    private long computeAHash(android.graphics.Bitmap bitmap) {
-        android.graphics.Bitmap small = android.graphics.Bitmap.createScaledBitmap(bitmap, 8, 8, true);
-        int[] pixels = new int[64];
-        long sum = 0;
-        for (int y = 0; y < 8; y++) {
-            for (int x = 0; x < 8; x++) {
-                int pixel = small.getPixel(x, y);
-                int r = (pixel >> 16) & 0xFF;
-                int g = (pixel >> 8) & 0xFF;
-                int b = pixel & 0xFF;
-                int gray = (int)(0.299 * r + 0.587 * g + 0.114 * b);
-                pixels[y * 8 + x] = gray;
-                sum += gray;
-            }
+    private void recordCarouselCovers(ScreenSnapshot snapshot) {
+        java.util.List<CoverIndex.Observation> observations = new java.util.ArrayList<>();
+        for (ScreenSnapshot.Node node : snapshot.byClass("android.widget.Image")) {
+            String key = TextParsers.extractImageKey(node.text);
+            if (key == null || !node.hasArea()) continue;
+            int centerX = node.centerX();
+            String playCount = extractPlayCountNearX(snapshot, centerX);
+            int sales = parseSalesText(extractSalesNearX(snapshot, centerX));
+            boolean isTarget = key.equals(coverImageKey);
+            observations.add(new CoverIndex.Observation(key,
+                    isTarget && infringerName != null && !infringerName.isEmpty() ? infringerName : null,
+                    playCount != null && !playCount.isEmpty() ? playCount : null,
+                    sales >= 0 ? sales : null,
+                    -1));
         }
-        small.recycle();
-        int avg = (int)(sum / 64);
-        long hash = 0;
-        for (int i = 0; i < 64; i++) {
-            if (pixels[i] > avg) {
-                hash |= (1L << i);
-            }
+        try {
+            getCoverIndex().recordAll(observations);
+            logD("🗂️ [封面索引] 已记录本屏 " + observations.size() + " 个封面");
+        } catch (Exception e) {
+            logE("封面索引写入失败: " + e.getMessage());
         }
-        return hash;
     }
 
     /**
-     * 计算两个64位aHash的汉明距离（不同bit数量）
-     * 距离越小说明图片越相似，<15视为同一视频封面
+     * 从屏幕快照中收集所有 android.widget.Image 节点中的图片Key，
+     * 同时将与 coverImageKey 匹配的节点的屏幕坐标（Rect）收集到 matchedBounds。
      */
-    private int hammingDistance(long h1, long h2) {
-        return Long.bitCount(h1 ^ h2);
+    private void collectMatchingImageNodes(ScreenSnapshot snapshot,
+                                            java.util.List<String> allKeys,
+                                            java.util.List<android.graphics.Rect> matchedBounds) {
+        for (ScreenSnapshot.Node node : snapshot.byClass("android.widget.Image")) {
+            String key = TextParsers.extractImageKey(node.text);
+            if (key == null) continue;
+            allKeys.add(key);
+            if (key.equals(coverImageKey)) {
+                android.graphics.Rect b = new android.graphics.Rect(node.bounds);
+                // 只收集在屏幕内的有效坐标（排除屏幕外或不可见节点）
+                if (b.width() > 50 && b.height() > 50 && b.top >= 0 && b.bottom <= 2400) {
+                    matchedBounds.add(b);
+                    logD("📍 匹配节点坐标: (" + b.left + "," + b.top + ")-(" + b.right + "," + b.bottom + ") 中心=(" + ((b.left+b.right)/2) + "," + ((b.top+b.bottom)/2) + ")");
+                } else {
+                    logD("⚠️ 匹配节点坐标无效或不在屏幕内: " + b.toString() + "，跳过");
+                }
+            }
+        }
     }
 
     /**
@@ -8582,37 +8998,27 @@ public class AutomationAccessibilityService extends AccessibilityService {
                 public void onSuccess(android.graphics.Bitmap bitmap) {
                     if (bitmap == null) { filterOcrDone[0] = true; return; }
                     OcrHelper filterOcr = new OcrHelper(msg -> logD(msg));
-                    filterOcr.findAnyTextPosition(bitmap,
-                            new String[]{"近30日", "近7日", "30天", "7天"},
-                            new OcrHelper.OcrAnyCallback() {
+                    filterOcr.recognize(bitmap, new OcrHelper.OcrResultCallback() {
                         @Override
-                        public void onSuccess(String matchedKeyword) {
+                        public void onSuccess(OcrResult result) {
+                            String matchedKeyword = result.findAny("近30日", "近7日", "30天", "7天");
                             // 找到关键词后，取所有匹配中Y最小的（最靠上的筛选按钮）
-                            OcrHelper posOcr = new OcrHelper(msg -> logD(msg));
-                            posOcr.findAllTextPositions(bitmap, matchedKeyword, new OcrHelper.OcrMultiCallback() {
-                                @Override
-                                public void onSuccess(java.util.List<OcrHelper.TextMatch> matches) {
-                                    OcrHelper.TextMatch best = matches.get(0);
-                                    for (OcrHelper.TextMatch m : matches) {
-                                        if (m.center.y < best.center.y) best = m;
-                                    }
-                                    filterBtnPos[0] = best.center.x;
-                                    filterBtnPos[1] = best.center.y;
-                                    logD("✅ [带货达人] OCR找到筛选按钮'" + matchedKeyword + "' 坐标=(" + best.center.x + "," + best.center.y + ")");
-                                    posOcr.release();
-                                    filterOcr.release();
-                                    bitmap.recycle();
-                                    filterOcrDone[0] = true;
-                                }
-                                @Override
-                                public void onFailure(String error) {
-                                    logE("❌ [带货达人] findAllTextPositions失败: " + error);
-                                    posOcr.release();
-                                    filterOcr.release();
-                                    bitmap.recycle();
-                                    filterOcrDone[0] = true;
+                            java.util.List<OcrHelper.TextMatch> matches = matchedKeyword != null
+                                    ? result.findAll(matchedKeyword) : new java.util.ArrayList<>();
+                            if (!matches.isEmpty()) {
+                                OcrHelper.TextMatch best = matches.get(0);
+                                for (OcrHelper.TextMatch m : matches) {
+                                    if (m.center.y < best.center.y) best = m;
                                 }
-                            });
+                                filterBtnPos[0] = best.center.x;
+                                filterBtnPos[1] = best.center.y;
+                                logD("✅ [带货达人] OCR找到筛选按钮'" + matchedKeyword + "' 坐标=(" + best.center.x + "," + best.center.y + ")");
+                            } else {
+                                logE("❌ [带货达人] OCR未找到任何时间筛选按钮");
+                            }
+                            filterOcr.release();
+                            bitmap.recycle();
+                            filterOcrDone[0] = true;
                         }
                         @Override
                         public void onFailure(String error) {
@@ -8969,106 +9375,24 @@ public class AutomationAccessibilityService extends AccessibilityService {
     }
 
     /**
-     * 在创作灵感轮播图的无障碍树中，查找X中心最接近 targetCenterX 的播放量文本。
+     * 在创作灵感轮播图的快照中，查找X中心最接近 targetCenterX 的播放量文本。
      * 适用于：创作灵感区域视频卡片中格式为"X.XX万"的播放量TextView。
      */
-    private String extractPlayCountNearX(android.view.accessibility.AccessibilityNodeInfo node, int targetCenterX) {
-        java.util.List<String> texts = new java.util.ArrayList<>();
-        java.util.List<Integer> xCenters = new java.util.ArrayList<>();
-        collectCarouselPlayCounts(node, texts, xCenters);
-        if (texts.isEmpty()) return null;
-        int bestIdx = 0;
-        int bestDiff = Integer.MAX_VALUE;
-        for (int i = 0; i < xCenters.size(); i++) {
-            int diff = Math.abs(xCenters.get(i) - targetCenterX);
-            if (diff < bestDiff) {
-                bestDiff = diff;
-                bestIdx = i;
-            }
-        }
-        return bestDiff < 400 ? texts.get(bestIdx) : null;
+    private String extractPlayCountNearX(ScreenSnapshot snapshot, int targetCenterX) {
+        ScreenSnapshot.Node best = ScreenSnapshot.nearestByX(snapshot.byClass("android.widget.TextView"),
+                n -> n.hasArea() && TextParsers.isWanCount(n.text),
+                targetCenterX, 400);
+        return best != null ? best.text : null;
     }
 
     /**
-     * 递归收集创作灵感轮播区域中格式为"X.XX万"的播放量TextViews及其X中心。
+     * 🆕 从创作灵感轮播图快照中提取离 targetCenterX 最近的"销量"文本（如"销量1万+"、"销量7500+"）。
      */
-    private void collectCarouselPlayCounts(android.view.accessibility.AccessibilityNodeInfo node,
-                                           java.util.List<String> texts,
-                                           java.util.List<Integer> xCenters) {
-        if (node == null) return;
-        String className = node.getClassName() != null ? node.getClassName().toString() : "";
-        if ("android.widget.TextView".equals(className)) {
-            CharSequence text = node.getText();
-            if (text != null) {
-                String t = text.toString().trim();
-                if (t.contains("万") && t.matches("[0-9]+\\.?[0-9]*万[+]?")) {
-                    android.graphics.Rect b = new android.graphics.Rect();
-                    node.getBoundsInScreen(b);
-                    if (b.width() > 0 && b.height() > 0) {
-                        texts.add(t);
-                        xCenters.add((b.left + b.right) / 2);
-                    }
-                }
-            }
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            android.view.accessibility.AccessibilityNodeInfo child = node.getChild(i);
-            if (child != null) {
-                collectCarouselPlayCounts(child, texts, xCenters);
-                child.recycle();
-            }
-        }
-    }
-
-    /**
-     * 🆕 从创作灵感轮播图中提取离 targetCenterX 最近的"销量"文本（如"销量1万+"、"销量7500+"）。
-     */
-    private String extractSalesNearX(android.view.accessibility.AccessibilityNodeInfo node, int targetCenterX) {
-        java.util.List<String> texts = new java.util.ArrayList<>();
-        java.util.List<Integer> xCenters = new java.util.ArrayList<>();
-        collectCarouselSalesTexts(node, texts, xCenters);
-        if (texts.isEmpty()) return null;
-        int bestIdx = 0;
-        int bestDiff = Integer.MAX_VALUE;
-        for (int i = 0; i < xCenters.size(); i++) {
-            int diff = Math.abs(xCenters.get(i) - targetCenterX);
-            if (diff < bestDiff) {
-                bestDiff = diff;
-                bestIdx = i;
-            }
-        }
-        return bestDiff < 400 ? texts.get(bestIdx) : null;
-    }
-
-    /**
-     * 🆕 递归收集创作灵感轮播区域中以"销量"开头的TextView文本及其X中心。
-     */
-    private void collectCarouselSalesTexts(android.view.accessibility.AccessibilityNodeInfo node,
-                                           java.util.List<String> texts,
-                                           java.util.List<Integer> xCenters) {
-        if (node == null) return;
-        String className = node.getClassName() != null ? node.getClassName().toString() : "";
-        if ("android.widget.TextView".equals(className)) {
-            CharSequence text = node.getText();
-            if (text != null) {
-                String t = text.toString().trim();
-                if (t.startsWith("销量")) {
-                    android.graphics.Rect b = new android.graphics.Rect();
-                    node.getBoundsInScreen(b);
-                    if (b.width() > 0 && b.height() > 0) {
-                        texts.add(t);
-                        xCenters.add((b.left + b.right) / 2);
-                    }
-                }
-            }
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            android.view.accessibility.AccessibilityNodeInfo child = node.getChild(i);
-            if (child != null) {
-                collectCarouselSalesTexts(child, texts, xCenters);
-                child.recycle();
-            }
-        }
+    private String extractSalesNearX(ScreenSnapshot snapshot, int targetCenterX) {
+        ScreenSnapshot.Node best = ScreenSnapshot.nearestByX(snapshot.byClass("android.widget.TextView"),
+                n -> n.hasArea() && n.text.startsWith("销量"),
+                targetCenterX, 400);
+        return best != null ? best.text : null;
     }
 
     /**
@@ -9077,26 +9401,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
      * 解析失败返回 -1。
      */
     private int parseSalesText(String salesText) {
-        if (salesText == null || salesText.isEmpty()) return -1;
-        // 去除"销量"前缀和"+"、"＋"后缀，取数字部分
-        String num = salesText.replace("销量", "").replaceAll("[+＋]", "").trim();
-        if (num.contains("万")) {
-            String[] parts = num.split("万");
-            try {
-                double val = Double.parseDouble(parts[0]);
-                return (int)(val * 10000);
-            } catch (NumberFormatException e) {
-                return -1;
-            }
-        }
-        try {
-            return Integer.parseInt(num);
-        } catch (NumberFormatException e) {
-            // 兜底：只取数字部分
-            String digits = num.replaceAll("[^0-9]", "");
-            if (digits.isEmpty()) return -1;
-            try { return Integer.parseInt(digits); } catch (NumberFormatException e2) { return -1; }
-        }
+        return TextParsers.parseSales(salesText);
     }
 
     // ==================== 创作灵感封面对比 结束 ====================
@@ -9120,7 +9425,10 @@ public class AutomationAccessibilityService extends AccessibilityService {
             takeScreenshot(new ScreenshotCallback() {
                 @Override
                 public void onSuccess(android.graphics.Bitmap bitmap) {
-                    OcrHelper navOcr = new OcrHelper(message -> logD(message));
+                    // "带货数据"是正文板块标题，可能出现在屏幕任意高度（如 Y≈2346），只排除顶部状态栏；
+                    // 标题字号大，宽高各缩小一半识别仍可靠，送入模型的像素只有整屏的1/4
+                    OcrHelper navOcr = new OcrHelper(message -> logD(message),
+                        OcrHelper.Region.below(80).downscale(0.5f));
                     navOcr.findAnyTextPosition(bitmap,
                         new String[]{"带货数据", "带货教据"},
                         new OcrHelper.OcrAnyCallback() {
@@ -9248,8 +9556,9 @@ public class AutomationAccessibilityService extends AccessibilityService {
             java.util.List<Integer> countYCenters = new java.util.ArrayList<>();
             android.view.accessibility.AccessibilityNodeInfo scanRoot = getRootInActiveWindow();
             if (scanRoot != null) {
-                collectVideoListPlayCounts(scanRoot, countTexts, countYCenters);
+                ScreenSnapshot snapshot = ScreenSnapshot.capture(scanRoot);
                 scanRoot.recycle();
+                collectVideoListPlayCounts(snapshot, countTexts, countYCenters);
             }
             logD("📊 [视频查找] 第" + (scrollIdx + 1) + "轮，扫描到" + countTexts.size() + "个播放量节点");
 
@@ -9265,30 +9574,29 @@ public class AutomationAccessibilityService extends AccessibilityService {
                     Thread.sleep(300);
                     clickByCoordinates(clickX, clickY);
                     long videoOpenTime = System.currentTimeMillis();
-                    Thread.sleep(3500);
+                    awaitVideoPageSettled();
                     if (!isRunning) return;
 
                     // 截图3张（25% / 50% / 75%时间点）
                     int dur = videoDurationSeconds > 0 ? videoDurationSeconds : 60;
                     logD("🎬 [视频查找] 开始截图取证（时长=" + dur + "s）...");
-                    long[] delays = {
-                        (long)(dur * 0.25 * 1000) - 3500,
-                        (long)(dur * 0.50 * 1000) - 3500,
-                        (long)(dur * 0.75 * 1000) - 3500
-                    };
+                    VideoProgressTracker progress = startVideoProgress(dur, videoOpenTime);
                     int[] pcts = {25, 50, 75};
-                    for (int si = 0; si < 3; si++) {
-                        if (!isRunning) break;
-                        long remaining = delays[si] - (System.currentTimeMillis() - videoOpenTime - 3500);
-                        if (remaining > 0) Thread.sleep(remaining);
-                        if (!isRunning) break;
-                        final int pct = pcts[si];
-                        final int seq = si + 1;
-                        takeScreenshotWithPrefix("购物车取证_达人视频_截图" + seq + "_" + pct + "pct", new ScreenshotCallback() {
-                            @Override public void onSuccess() { logD("✅ 达人视频第" + seq + "张截图(" + pct + "%)已保存"); }
-                            @Override public void onFailure() { logE("❌ 达人视频第" + seq + "张截图失败"); }
-                        });
-                        Thread.sleep(300);
+                    try {
+                        for (int si = 0; si < 3; si++) {
+                            if (!isRunning) break;
+                            progress.awaitFraction(pcts[si] / 100f, dur * 1000L + VIDEO_WAIT_SLACK_MS);
+                            if (!isRunning) break;
+                            final int pct = pcts[si];
+                            final int seq = si + 1;
+                            takeScreenshotWithPrefix("购物车取证_达人视频_截图" + seq + "_" + pct + "pct", new ScreenshotCallback() {
+                                @Override public void onSuccess() { logD("✅ 达人视频第" + seq + "张截图(" + pct + "%)已保存"); }
+                                @Override public void onFailure() { logE("❌ 达人视频第" + seq + "张截图失败"); }
+                            });
+                            Thread.sleep(300);
+                        }
+                    } finally {
+                        stopVideoProgress(progress);
                     }
 
                     // 返回视频列表
@@ -9327,53 +9635,29 @@ public class AutomationAccessibilityService extends AccessibilityService {
     }
 
     /**
-     * 递归遍历无障碍树，收集侵权达人视频列表中所有可见的播放量文本及其Y坐标。
-     * 识别逻辑：找到Text="播放量"的TextView → 在其父节点的兄弟节点中查找"X.XX万"格式的数值。
+     * 从屏幕快照中收集侵权达人视频列表中所有可见的播放量文本及其Y坐标。
+     * 识别逻辑：找到Text="播放量"的TextView → 在其兄弟节点中查找"X.XX万"格式的数值。
      */
-    private void collectVideoListPlayCounts(android.view.accessibility.AccessibilityNodeInfo node,
+    private void collectVideoListPlayCounts(ScreenSnapshot snapshot,
                                             java.util.List<String> countTexts,
                                             java.util.List<Integer> countYCenters) {
-        if (node == null) return;
-        String className = node.getClassName() != null ? node.getClassName().toString() : "";
-        if ("android.widget.TextView".equals(className)) {
-            CharSequence text = node.getText();
-            if (text != null && "播放量".equals(text.toString().trim())) {
-                android.graphics.Rect b = new android.graphics.Rect();
-                node.getBoundsInScreen(b);
-                if (b.width() > 0 && b.height() > 0 && b.top >= 0 && b.bottom <= 2400) {
-                    int playLabelYCenter = (b.top + b.bottom) / 2;
-                    // 在父节点中找兄弟节点（播放量数值，X起点在"播放量"标签右侧）
-                    android.view.accessibility.AccessibilityNodeInfo parent = node.getParent();
-                    if (parent != null) {
-                        for (int i = 0; i < parent.getChildCount(); i++) {
-                            android.view.accessibility.AccessibilityNodeInfo sibling = parent.getChild(i);
-                            if (sibling != null) {
-                                android.graphics.Rect sr = new android.graphics.Rect();
-                                sibling.getBoundsInScreen(sr);
-                                CharSequence sText = sibling.getText();
-                                if (sText != null && sr.left >= 450 && Math.abs(sr.centerY() - playLabelYCenter) < 40) {
-                                    String sStr = sText.toString().trim();
-                                    if (sStr.contains("万") && sStr.matches("[0-9]+\\.?[0-9]*万[+]?")) {
-                                        countTexts.add(sStr);
-                                        countYCenters.add(playLabelYCenter);
-                                        logD("📍 [视频列表] 找到播放量: " + sStr + " Y=" + playLabelYCenter);
-                                    }
-                                }
-                                sibling.recycle();
-                            }
-                        }
-                        parent.recycle();
-                    }
+        for (ScreenSnapshot.Node label : snapshot.byText("播放量")) {
+            if (!"android.widget.TextView".equals(label.className)) continue;
+            android.graphics.Rect b = label.bounds;
+            if (!label.hasArea() || b.top < 0 || b.bottom > 2400) continue;
+            int playLabelYCenter = (b.top + b.bottom) / 2;
+            // 兄弟节点中找播放量数值（X起点在"播放量"标签右侧，且与标签同一行）
+            for (ScreenSnapshot.Node sibling : snapshot.siblingsOf(label)) {
+                android.graphics.Rect sr = sibling.bounds;
+                if (sibling.text.isEmpty() || sr.left < 450 || Math.abs(sr.centerY() - playLabelYCenter) >= 40) continue;
+                String sStr = sibling.text;
+                if (TextParsers.isWanCount(sStr)) {
+                    countTexts.add(sStr);
+                    countYCenters.add(playLabelYCenter);
+                    logD("📍 [视频列表] 找到播放量: " + sStr + " Y=" + playLabelYCenter);
                 }
             }
         }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            android.view.accessibility.AccessibilityNodeInfo child = node.getChild(i);
-            if (child != null) {
-                collectVideoListPlayCounts(child, countTexts, countYCenters);
-                child.recycle();
-            }
-        }
     }
 
     /**
@@ -9382,13 +9666,7 @@ public class AutomationAccessibilityService extends AccessibilityService {
      * 返回-1表示解析失败。
      */
     private float parsePlayCountFloat(String text) {
-        if (text == null || !text.contains("万")) return -1f;
-        try {
-            String num = text.replace("万+", "").replace("万", "").trim();
-            return Float.parseFloat(num);
-        } catch (NumberFormatException e) {
-            return -1f;
-        }
+        return TextParsers.parsePlayCountWan(text);
     }
 
     /**
@@ -9450,9 +9728,28 @@ public class AutomationAccessibilityService extends AccessibilityService {
         java.util.Set<String> previousKeySet = new java.util.HashSet<>();
         final int MAX_SCROLLS = 30;
 
+        // 索引中记录过该账号下这个封面的位置：直接快速下滑到前一屏，中间不再逐屏扫描
+        int fastForward = 0;
+        CoverIndex.Observation known = null;
+        try {
+            known = getCoverIndex().find(coverImageKey);
+        } catch (Exception e) {
+            logE("封面索引查询失败: " + e.getMessage());
+        }
+        if (known != null && known.listPosition > 0 && infringerName != null && infringerName.equals(known.author)) {
+            fastForward = Math.min(known.listPosition - 1, MAX_SCROLLS);
+            logD("🗂️ [封面索引] 上次在第" + (known.listPosition + 1) + "屏找到该视频，快速下滑" + fastForward + "屏");
+        }
+
         for (int scrollIdx = 0; scrollIdx <= MAX_SCROLLS; scrollIdx++) {
             if (!isRunning) break;
 
+            if (scrollIdx < fastForward) {
+                swipeVideoListUp();
+                Thread.sleep(600);
+                continue;
+            }
+
             // 扫描当前屏幕所有Image节点，查找封面Key匹配的节点
             android.view.accessibility.AccessibilityNodeInfo scanRoot = getRootInActiveWindow();
             android.graphics.Rect matchedCardBounds = null;
@@ -9468,13 +9765,20 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
             // 找到了目标视频卡片
             if (matchedCardBounds != null) {
+                try {
+                    getCoverIndex().record(new CoverIndex.Observation(coverImageKey,
+                            infringerName != null && !infringerName.isEmpty() ? infringerName : null,
+                            null, null, scrollIdx));
+                } catch (Exception e) {
+                    logE("封面索引写入失败: " + e.getMessage());
+                }
                 int tapX = (matchedCardBounds.left + matchedCardBounds.right) / 2;
                 int tapY = (matchedCardBounds.top + matchedCardBounds.bottom) / 2;
                 logD("✅ [封面查找] 匹配成功！点击视频卡片中心(" + tapX + "," + tapY + ")");
                 Thread.sleep(300);
                 clickByCoordinates(tapX, tapY);
                 long videoOpenTime = System.currentTimeMillis();
-                Thread.sleep(3500);
+                awaitVideoPageSettled();
                 if (!isRunning) return;
 
                 // Step A: 展开"数据类"小窗口（点击右侧展开箭头，坐标666,1431）
@@ -9531,133 +9835,21 @@ public class AutomationAccessibilityService extends AccessibilityService {
                     }
                 }
 
-                // 动态等待视频播放完毕：
-                // 策略1: 查找原生SeekBar(ID=6n0)并轮询进度到97% → 适用于原生播放器
-                // 策略2: OCR读取底部时间文字(如"0:12 / 0:45") → 适用于WebView播放器
-                // 兜底: videoDurationSeconds（已知时长）或最多3分钟
+                // 动态等待视频播放完毕：按实际播放位置判断（进度跟踪器合并三路信号）
+                // 原生SeekBar(ID=6n0)进度事件/轮询 → 底部时间条OCR("0:12 / 0:45"，区域缓存) → 墙钟外推
+                // 暂停/缓冲时停止外推，播完从头循环也能识别；最多等3分钟
                 {
                     final int MAX_WAIT_MS = 180000; // 最多等3分钟
-                    boolean videoEndDetected = false;
-
-                    // 策略1: 查找原生SeekBar(ID=6n0)并轮询进度
-                    android.view.accessibility.AccessibilityNodeInfo seekRoot = getRootInActiveWindow();
-                    boolean hasSeekBar = false;
-                    if (seekRoot != null) {
-                        java.util.List<android.view.accessibility.AccessibilityNodeInfo> sbList =
-                            seekRoot.findAccessibilityNodeInfosByViewId("com.ss.android.ugc.aweme:id/6n0");
-                        hasSeekBar = sbList != null && !sbList.isEmpty();
-                        if (sbList != null) for (android.view.accessibility.AccessibilityNodeInfo n : sbList) n.recycle();
-                        seekRoot.recycle();
-                    }
-                    if (hasSeekBar) {
-                        logD("🎚️ [视频等待] 发现原生SeekBar，开始轮询进度...");
-                        long pollStart = System.currentTimeMillis();
-                        while (isRunning && !videoEndDetected && (System.currentTimeMillis() - pollStart) < MAX_WAIT_MS) {
-                            Thread.sleep(2000);
-                            android.view.accessibility.AccessibilityNodeInfo pollRoot = getRootInActiveWindow();
-                            if (pollRoot != null) {
-                                java.util.List<android.view.accessibility.AccessibilityNodeInfo> sbs2 =
-                                    pollRoot.findAccessibilityNodeInfosByViewId("com.ss.android.ugc.aweme:id/6n0");
-                                if (sbs2 != null && !sbs2.isEmpty()) {
-                                    android.view.accessibility.AccessibilityNodeInfo.RangeInfo ri = sbs2.get(0).getRangeInfo();
-                                    for (android.view.accessibility.AccessibilityNodeInfo n : sbs2) n.recycle();
-                                    if (ri != null && ri.getMax() > 0 && (ri.getCurrent() / ri.getMax()) >= 0.97f) {
-                                        logD("✅ [视频等待] SeekBar进度已达97%+，视频播放完毕！");
-                                        videoEndDetected = true;
-                                    } else {
-                                        float pct = (ri != null && ri.getMax() > 0) ? (ri.getCurrent() / ri.getMax() * 100f) : 0f;
-                                        logD("⏳ [视频等待] SeekBar进度 " + String.format("%.0f", pct) + "%，继续等待...");
-                                    }
-                                } else {
-                                    logD("⚠️ [视频等待] SeekBar节点消失，视为播放结束");
-                                    videoEndDetected = true;
-                                }
-                                pollRoot.recycle();
-                            }
-                        }
-                    }
-
-                    // 策略2 & 兜底: OCR读时间文字 → 计算剩余等待 → videoDurationSeconds兜底
-                    if (!videoEndDetected && isRunning) {
-                        logD("🔍 [视频等待] 无SeekBar，OCR读取底部时间文字...");
-                        final int[] ocrTotalSec = {0};
-                        final boolean[] ocrDone = {false};
-                        takeScreenshot(new ScreenshotCallback() {
-                            @Override
-                            public void onSuccess(android.graphics.Bitmap bmp) {
-                                if (bmp == null) { ocrDone[0] = true; return; }
-                                // 裁剪底部500px，聚焦视频时间显示区域
-                                int cropTop = Math.max(0, bmp.getHeight() - 500);
-                                android.graphics.Bitmap cropped = android.graphics.Bitmap.createBitmap(
-                                    bmp, 0, cropTop, bmp.getWidth(), bmp.getHeight() - cropTop);
-                                bmp.recycle();
-                                OcrHelper timeOcr = new OcrHelper(msg -> logD("[OCR时间] " + msg));
-                                timeOcr.recognizeAllText(cropped, new OcrHelper.OcrRawTextCallback() {
-                                    @Override
-                                    public void onSuccess(String allText) {
-                                        logD("📝 [视频等待] OCR文字: " + allText);
-                                        // 优先匹配 "m:ss / m:ss" 格式（当前时间/总时长）
-                                        java.util.regex.Matcher m = java.util.regex.Pattern.compile(
-                                            "(\\d{1,2}):(\\d{2})\\s*/\\s*(\\d{1,2}):(\\d{2})").matcher(allText);
-                                        if (m.find()) {
-                                            ocrTotalSec[0] = Integer.parseInt(m.group(3)) * 60 + Integer.parseInt(m.group(4));
-                                            logD("⏱️ [视频等待] OCR解析总时长: " + ocrTotalSec[0] + "s");
-                                        } else {
-                                            // 取最后一个单独的时间值（通常为总时长）
-                                            java.util.regex.Matcher m2 = java.util.regex.Pattern.compile(
-                                                "(\\d{1,2}):(\\d{2})").matcher(allText);
-                                            String lastTime = null;
-                                            while (m2.find()) lastTime = m2.group();
-                                            if (lastTime != null) {
-                                                String[] pts = lastTime.split(":");
-                                                ocrTotalSec[0] = Integer.parseInt(pts[0]) * 60 + Integer.parseInt(pts[1]);
-                                                logD("⏱️ [视频等待] OCR单时间推断总时长: " + ocrTotalSec[0] + "s");
-                                            }
-                                        }
-                                        cropped.recycle();
-                                        timeOcr.release();
-                                        ocrDone[0] = true;
-                                    }
-                                    @Override
-                                    public void onFailure(String error) {
-                                        logD("⚠️ [视频等待] OCR时间识别失败: " + error);
-                                        cropped.recycle();
-                                        timeOcr.release();
-                                        ocrDone[0] = true;
-                                    }
-                                });
-                            }
-                            @Override public void onFailure() { ocrDone[0] = true; }
-                        });
-                        // 等待OCR完成（最多3秒）
-                        long ocrWaitStart = System.currentTimeMillis();
-                        while (!ocrDone[0] && System.currentTimeMillis() - ocrWaitStart < 3000) {
-                            Thread.sleep(100);
-                        }
-
-                        // 按优先级确定总时长
-                        int totalSec;
-                        if (ocrTotalSec[0] > 0) {
-                            totalSec = ocrTotalSec[0];
-                            logD("⏳ [视频等待] 使用OCR时长 " + totalSec + "s");
-                        } else if (videoDurationSeconds > 0) {
-                            totalSec = videoDurationSeconds;
-                            logD("⏳ [视频等待] OCR未获取时长，使用任务参数 videoDurationSeconds=" + totalSec + "s");
-                        } else {
-                            totalSec = 60;
-                            logD("⏳ [视频等待] 无时长信息，默认等待60s");
-                        }
-                        long alreadyMs = System.currentTimeMillis() - videoOpenTime;
-                        long remainMs = (long)(totalSec * 1000L) - alreadyMs + 3000L; // 加3秒缓冲
-                        if (remainMs > 0 && remainMs <= MAX_WAIT_MS) {
-                            logD("⏳ [视频等待] 等待剩余 " + (remainMs / 1000) + "s（总=" + totalSec + "s，已过≈" + (alreadyMs / 1000) + "s）");
-                            Thread.sleep(remainMs);
-                        } else if (remainMs > MAX_WAIT_MS) {
-                            logD("⏳ [视频等待] 剩余超过3分钟上限，安全兜底等待3分钟");
-                            Thread.sleep(MAX_WAIT_MS);
-                        } else {
-                            logD("✅ [视频等待] 视频已播完（已过时间超过总时长）");
+                    int dur = videoDurationSeconds > 0 ? videoDurationSeconds : 60;
+                    VideoProgressTracker progress = startVideoProgress(dur, videoOpenTime);
+                    try {
+                        if (progress.awaitEnd(MAX_WAIT_MS)) {
+                            logD("✅ [视频等待] 视频播放完毕（总时长≈" + (progress.getDurationMs() / 1000) + "s）");
+                        } else if (isRunning) {
+                            logD("⏳ [视频等待] 已达3分钟上限，不再等待");
                         }
+                    } finally {
+                        stopVideoProgress(progress);
                     }
                 }
                 if (!isRunning) return;
@@ -9721,9 +9913,9 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
                 final boolean[] dotsDoneD = {false};
                 takeScreenshotWithPrefix("带货达人_作者主页_三点菜单取证", new ScreenshotCallback() {
-                    @Override public void onSuccess(android.graphics.Bitmap bmp) {
+                    @Override public void onSuccess() {
                         logD("✅ [带货达人] 三点菜单截图已保存");
-                        if (bmp != null) bmp.recycle(); dotsDoneD[0] = true;
+                        dotsDoneD[0] = true;
                     }
                     @Override public void onFailure() { logE("❌ [带货达人] 三点菜单截图失败"); dotsDoneD[0] = true; }
                 });
@@ -9781,21 +9973,28 @@ public class AutomationAccessibilityService extends AccessibilityService {
 
             // 下滑继续查找
             logD("⬇️ [封面查找] 第" + (scrollIdx + 1) + "次下滑...");
-            android.graphics.Path scrollPath = new android.graphics.Path();
-            scrollPath.moveTo(540, 1600);
-            scrollPath.lineTo(540, 900);
-            android.accessibilityservice.GestureDescription scrollGesture =
-                new android.accessibilityservice.GestureDescription.Builder()
-                    .addStroke(new android.accessibilityservice.GestureDescription.StrokeDescription(
-                        scrollPath, 0, 400))
-                    .build();
-            dispatchGesture(scrollGesture, null, null);
+            swipeVideoListUp();
             Thread.sleep(1200);
         }
 
         logD("⚠️ [封面查找] 达到最大滚动次数(" + MAX_SCROLLS + ")，未找到目标视频，返回");
     }
 
+    /**
+     * 达人视频列表下滑一屏（手势 y=1600→900）
+     */
+    private void swipeVideoListUp() {
+        android.graphics.Path scrollPath = new android.graphics.Path();
+        scrollPath.moveTo(540, 1600);
+        scrollPath.lineTo(540, 900);
+        android.accessibilityservice.GestureDescription scrollGesture =
+            new android.accessibilityservice.GestureDescription.Builder()
+                .addStroke(new android.accessibilityservice.GestureDescription.StrokeDescription(
+                    scrollPath, 0, 400))
+                .build();
+        dispatchGesture(scrollGesture, null, null);
+    }
+
     /**
      * 检测WebView视频播放器是否处于暂停状态。
      *
@@ -10045,241 +10244,24 @@ public class AutomationAccessibilityService extends AccessibilityService {
     }
 
     /**
-     * 调用超级鹰API（类型9602，水平拼图滑块）识别需要滑动的像素距离
-     * @param bgBitmap 验证码背景图（已裁剪，宽798x高498，来自屏幕 [141,895]→[939,1393]）
-     * @return 需要向右滑动的像素数（相对于当前背景图像素），失败返回-1
+     * 滑块验证码解算链：缓存 → 本地模板匹配（{@link SliderSolver}）→ 超级鹰远程兜底（类型9602，水平拼图滑块）
+     * 背景图裁剪自 [141,895]→[939,1393]，碎片图裁剪自 [141,1060]→[303,1222]，碎片在背景中的垂直偏移=165
+     * 超级鹰账号从 权利卫士取证/chaojiying.properties 读取，没有配置时只用本地解算
      */
-    /**
-     * 调用超级鹰API解决图形滑块验证码
-     * @param bgBitmap 验证码背景图（含缺口），裁剪自 [141,895]→[939,1393] 798×498px
-     * @param fragmentBitmap 需要拖入的碎片图（可为null），裁剪自 [141,1060]→[303,1222] 162×162px
-     *                       发送碎片图后API可比对形状，准确定位正确缺口
-     * @return 需要向右滑动的像素数，失败返回-1
-     */
-    private int solveCaptchaWithChaojiying(android.graphics.Bitmap bgBitmap, android.graphics.Bitmap fragmentBitmap) {
-        try {
-            // 1. 压缩背景图为JPEG 80%（比PNG小5-10倍，大幅加快上传速度，降低API响应时间）
-            java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-            bgBitmap.compress(android.graphics.Bitmap.CompressFormat.JPEG, 80, baos);
-            String base64Bg = android.util.Base64.encodeToString(baos.toByteArray(), android.util.Base64.NO_WRAP);
-            logD("📏 背景图JPEG大小: " + (baos.toByteArray().length / 1024) + "KB");
-            baos.close();
-
-            // 2. 压缩碎片图为JPEG 80%（发给API做形状匹配）
-            String base64Fragment = null;
-            if (fragmentBitmap != null) {
-                java.io.ByteArrayOutputStream baos2 = new java.io.ByteArrayOutputStream();
-                fragmentBitmap.compress(android.graphics.Bitmap.CompressFormat.JPEG, 80, baos2);
-                base64Fragment = android.util.Base64.encodeToString(baos2.toByteArray(), android.util.Base64.NO_WRAP);
-                logD("📏 碎片图JPEG大小: " + (baos2.toByteArray().length / 1024) + "KB");
-                baos2.close();
-                logD("📦 背景图+碎片图已编码，发送给超级鹰做形状匹配");
-            }
-
-            // 3. MD5加密密码
-            java.security.MessageDigest mdCalc = java.security.MessageDigest.getInstance("MD5");
-            byte[] passBytes = mdCalc.digest("l1ownd68".getBytes("UTF-8"));
-            StringBuilder passMd5 = new StringBuilder();
-            for (byte b : passBytes) passMd5.append(String.format("%02x", b));
-
-            // 4. 构建multipart/form-data请求
-            String boundary = "----CJYBound" + System.currentTimeMillis();
-            java.net.URL apiUrl = new java.net.URL("https://upload.chaojiying.net/Upload/Processing.php");
-            java.net.HttpURLConnection conn = (java.net.HttpURLConnection) apiUrl.openConnection();
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(20000);
-            conn.setDoOutput(true);
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-            conn.setRequestProperty("Connection", "Keep-Alive");
-
-            java.io.DataOutputStream dos = new java.io.DataOutputStream(conn.getOutputStream());
-            String[][] textFields = {
-                {"user",        "w15639350080"},
-                {"pass2",       passMd5.toString()},
-                {"softid",      "978838"},
-                {"codetype",    "9602"},
-                {"file_base64", base64Bg}
-            };
-            for (String[] field : textFields) {
-                dos.writeBytes("--" + boundary + "\r\n");
-                dos.writeBytes("Content-Disposition: form-data; name=\"" + field[0] + "\"\r\n\r\n");
-                dos.writeBytes(field[1]);
-                dos.writeBytes("\r\n");
-            }
-            // 碎片图作为 file_base64_2 发送，让API比对形状识别正确缺口
-            if (base64Fragment != null) {
-                dos.writeBytes("--" + boundary + "\r\n");
-                dos.writeBytes("Content-Disposition: form-data; name=\"file_base64_2\"\r\n\r\n");
-                dos.writeBytes(base64Fragment);
-                dos.writeBytes("\r\n");
-            }
-            dos.writeBytes("--" + boundary + "--\r\n");
-            dos.flush();
-            dos.close();
-
-            // 5. 读取响应
-            int httpCode = conn.getResponseCode();
-            java.io.InputStream is = httpCode == 200 ? conn.getInputStream() : conn.getErrorStream();
-            java.io.BufferedReader br = new java.io.BufferedReader(new java.io.InputStreamReader(is, "UTF-8"));
-            StringBuilder respSb = new StringBuilder();
-            String ln;
-            while ((ln = br.readLine()) != null) respSb.append(ln);
-            br.close();
-            conn.disconnect();
-
-            String respStr = respSb.toString();
-            logD("🌐 超级鹰API响应: " + respStr);
-
-            // 6. 解析JSON
-            org.json.JSONObject jsonResp = new org.json.JSONObject(respStr);
-            int errNo = jsonResp.optInt("err_no", -1);
-            if (errNo != 0) {
-                logD("⚠️ 超级鹰识别失败: err_no=" + errNo + " err_str=" + jsonResp.optString("err_str"));
-                return -1;
-            }
-            String picStr = jsonResp.optString("pic_str", "").trim();
-            logD("✅ 超级鹰识别坐标: " + picStr);
-
-            // 解析坐标格式（超级鹰9602 x值就是滑动距离，不需要额外换算）：
-            // 格式A: "234"           → 纯数字，直接是滑动距离
-            // 格式B: "85,328"        → (x=滑动距离, y=缺口纵坐标)，取x
-            // 格式C: "85,328|569,322"→ 多缺口，第一对是正确缺口（因为传了碎片图API已排序），取第一个x
-            String firstPair = picStr.split("\\|")[0].trim();
-            String[] parts = firstPair.split(",");
-            if (parts.length >= 1 && !parts[0].trim().isEmpty()) {
-                int slideDist = Integer.parseInt(parts[0].trim());
-                if (parts.length == 1) {
-                    logD("🔢 [格式A] 滑动距离=" + slideDist + "px");
-                } else {
-                    logD("🔢 [格式B/C] 滑动距离=" + slideDist + "px（原始: " + picStr + "）");
-                }
-                return slideDist;
-            }
-            logD("⚠️ 超级鹰返回格式无法解析: " + picStr);
-            return -1;
-        } catch (Exception e) {
-            logE("超级鹰API调用异常: " + e.getMessage());
-            return -1;
-        }
-    }
-
-    /**
-     * 本地模板匹配解算滑块验证码（纯Java实现，无需网络，响应<200ms）
-     *
-     * 原理：将碎片图从左到右在背景图上逐列滑动，计算每个位置的边缘相关性，
-     *       相关性最高的位置即为缺口，返回该列作为滑动距离。
-     *
-     * @param bgBitmap       背景图（798×498，含缺口）
-     * @param fragBitmap     碎片图（162×162，待插入的拼图块），可为null（退化为纯背景分析）
-     * @return 需要向右滑动的像素数（>0），失败返回-1
-     */
-    private int solveSliderLocal(android.graphics.Bitmap bgBitmap, android.graphics.Bitmap fragBitmap) {
-        try {
-            int bgW = bgBitmap.getWidth();   // 798
-            int bgH = bgBitmap.getHeight();  // 498
-            int fgW = fragBitmap != null ? fragBitmap.getWidth()  : 162; // 162
-            int fgH = fragBitmap != null ? fragBitmap.getHeight() : 162; // 162
-
-            // 碎片图在背景图中的垂直偏移（屏幕坐标：碎片top=1060，背景top=895 → 偏移=165）
-            int fragOffsetY = 165;
-            // 限制比较区域（不超出背景图）
-            int compareH = Math.min(fgH, bgH - fragOffsetY);
-            if (compareH <= 0) { logE("❌ 垂直偏移超出背景图范围"); return -1; }
-
-            // 预计算背景图灰度边缘（Sobel）
-            int[] bgPixels = new int[bgW * bgH];
-            bgBitmap.getPixels(bgPixels, 0, bgW, 0, 0, bgW, bgH);
-            float[] bgEdge = sobelEdge(bgPixels, bgW, bgH);
-
-            // 预计算碎片图灰度边缘
-            float[] fgEdge = null;
-            if (fragBitmap != null) {
-                int[] fgPixels = new int[fgW * fgH];
-                fragBitmap.getPixels(fgPixels, 0, fgW, 0, 0, fgW, fgH);
-                fgEdge = sobelEdge(fgPixels, fgW, fgH);
-            }
-
-            // 在每个水平偏移位置计算归一化互相关（NCC）或边缘密度
-            int maxX = bgW - fgW;
-            if (maxX <= 0) { logE("❌ 背景图宽度不足以滑动碎片"); return -1; }
-
-            // ⚠️ 关键：从 fgW 开始跳过碎片初始位置（碎片在背景图X=0处，NCC在此会自匹配得到极高分）
-            // 真正的缺口一定在碎片右侧，从 fgW（162px）开始搜索
-            int searchStartX = fgW;
-            double bestScore = -1.0;
-            int bestX = -1;
-
-            for (int offsetX = searchStartX; offsetX < maxX; offsetX++) {
-                double score;
-                if (fgEdge != null) {
-                    // NCC：计算碎片边缘与背景对应区域的相关性
-                    double sumFg = 0, sumBg = 0, sumFgSq = 0, sumBgSq = 0, sumCross = 0;
-                    int count = 0;
-                    for (int y = 0; y < compareH; y++) {
-                        for (int x = 0; x < fgW; x++) {
-                            float fg = fgEdge[y * fgW + x];
-                            float bg = bgEdge[(y + fragOffsetY) * bgW + (x + offsetX)];
-                            sumFg += fg; sumBg += bg;
-                            sumFgSq += fg * fg; sumBgSq += bg * bg;
-                            sumCross += fg * bg;
-                            count++;
-                        }
-                    }
-                    double meanFg = sumFg / count, meanBg = sumBg / count;
-                    double stdFg = Math.sqrt(sumFgSq / count - meanFg * meanFg);
-                    double stdBg = Math.sqrt(sumBgSq / count - meanBg * meanBg);
-                    score = (stdFg < 1e-6 || stdBg < 1e-6) ? 0
-                            : (sumCross / count - meanFg * meanBg) / (stdFg * stdBg);
-                } else {
-                    // 无碎片图时：直接找背景图边缘密度最高的列（即缺口边缘最明显处）
-                    double sum = 0;
-                    for (int y = fragOffsetY; y < fragOffsetY + compareH; y++) {
-                        sum += bgEdge[y * bgW + offsetX];
-                    }
-                    score = sum / compareH;
-                }
-                if (score > bestScore) {
-                    bestScore = score;
-                    bestX = offsetX;
-                }
-            }
-
-            if (bestX < 0) { logE("❌ 本地模板匹配未找到最优位置"); return -1; }
-            logD("✅ 本地模板匹配完成：最优X=" + bestX + "px，相关得分=" + String.format("%.3f", bestScore));
-            return bestX;
-        } catch (Exception e) {
-            logE("本地模板匹配异常: " + e.getMessage());
-            return -1;
-        }
-    }
-
-    /** 将ARGB像素数组转为灰度值数组（0-255 float） */
-    private float[] toGrayscale(int[] pixels, int w, int h) {
-        float[] gray = new float[w * h];
-        for (int i = 0; i < pixels.length; i++) {
-            int c = pixels[i];
-            float r = (c >> 16) & 0xFF, g = (c >> 8) & 0xFF, b = c & 0xFF;
-            gray[i] = 0.299f * r + 0.587f * g + 0.114f * b;
-        }
-        return gray;
-    }
-
-    /** 计算灰度图的Sobel边缘强度图（忽略边界1像素） */
-    private float[] sobelEdge(int[] pixels, int w, int h) {
-        float[] gray = toGrayscale(pixels, w, h);
-        float[] edge = new float[w * h];
-        for (int y = 1; y < h - 1; y++) {
-            for (int x = 1; x < w - 1; x++) {
-                float gx = -gray[(y-1)*w+(x-1)] + gray[(y-1)*w+(x+1)]
-                           -2*gray[y*w+(x-1)]   + 2*gray[y*w+(x+1)]
-                           -gray[(y+1)*w+(x-1)] + gray[(y+1)*w+(x+1)];
-                float gy = -gray[(y-1)*w+(x-1)] - 2*gray[(y-1)*w+x] - gray[(y-1)*w+(x+1)]
-                           +gray[(y+1)*w+(x-1)] + 2*gray[(y+1)*w+x] + gray[(y+1)*w+(x+1)];
-                edge[y*w+x] = (float) Math.sqrt(gx*gx + gy*gy);
-            }
+    private CaptchaSolverChain getCaptchaSolverChain() {
+        if (captchaSolverChain == null) {
+            java.io.File config = new java.io.File(android.os.Environment.getExternalStorageDirectory(),
+                "权利卫士取证/chaojiying.properties");
+            ChaojiyingCaptchaSolver remote = ChaojiyingCaptchaSolver.fromConfig(config);
+            logD("🔐 超级鹰远程识别: " + (remote != null ? "已启用（来自配置文件）" : "未配置账号，只用本地解算"));
+            captchaSolverChain = new CaptchaSolverChain(
+                new LocalCaptchaSolver(165),
+                remote,
+                0.45,    // 本地NCC得分达到0.45直接采用
+                8000,    // 远程最多等8秒
+                message -> logD(message));
         }
-        return edge;
+        return captchaSolverChain;
     }
 
     /**
@@ -0,0 +1,566 @@
+package com.rightsguard.automation;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 批量取证任务队列（无人值守连续取证）
+ *  - 导入：从本地目录读取 CSV / JSON 任务文件（离线可用），导入后改名为 .imported，不会重复导入
+ *  - 执行：按顺序逐个下发给无障碍服务并等待流程结束；以是否成功保存取证PDF判断成败
+ *  - 检查点：每次状态变化都原子写入 JSON 文件；进程被杀后重启，中断的任务计一次失败后重新排队
+ *  - 重试：失败按指数退避重新排队（1分钟起，翻倍，最长15分钟），超过次数标记为失败
+ *  - 汇总：队列跑完写出汇总文件（成功/失败/平均耗时/每小时案件数），并输出到日志
+ *
+ * CSV：每行一个案件，第一列为取证信息（与主界面输入格式相同），可选第二列为销量阈值；
+ *      含逗号的字段用双引号包围，以 # 开头的行忽略，表头行（首列为 info / 取证信息）跳过。
+ * JSON：数组，元素为 {"info": "...", "salesThreshold": 100} 或直接是取证信息字符串。
+ */
+public class BatchTaskQueue {
+
+    /**
+     * 日志回调接口
+     */
+    public interface LogCallback {
+        void onLog(String message);
+    }
+
+    /**
+     * 执行单个案件（由服务实现：下发参数、启动流程）
+     */
+    public interface CaseExecutor {
+        /**
+         * 启动案件，返回 false 表示无法启动（如服务不可用）
+         *
+         * @throws InterruptedException 启动过程中批量任务被停止（不算启动失败）
+         */
+        boolean start(BatchCase task) throws InterruptedException;
+
+        boolean isRunning();
+
+        /**
+         * 本次启动后保存的取证PDF文件名，未生成返回 null
+         */
+        String resultPdfName();
+
+        void stop();
+    }
+
+    public enum Status {PENDING, RUNNING, DONE, FAILED}
+
+    /**
+     * 一个批量案件及其执行状态
+     */
+    public static final class BatchCase {
+        public final String id;
+        public final String info;            // 取证信息原文（同主界面输入格式）
+        public final int salesThreshold;     // -1 不筛选
+        Status status = Status.PENDING;
+        int attempts = 0;
+        long nextAttemptAt = 0;
+        long startedAt = 0;
+        long finishedAt = 0;
+        String pdfName;
+        String lastError;
+
+        BatchCase(String id, String info, int salesThreshold) {
+            this.id = id;
+            this.info = info;
+            this.salesThreshold = salesThreshold;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject o = new JSONObject();
+            o.put("id", id);
+            o.put("info", info);
+            o.put("salesThreshold", salesThreshold);
+            o.put("status", status.name());
+            o.put("attempts", attempts);
+            o.put("nextAttemptAt", nextAttemptAt);
+            o.put("startedAt", startedAt);
+            o.put("finishedAt", finishedAt);
+            if (pdfName != null) o.put("pdfName", pdfName);
+            if (lastError != null) o.put("lastError", lastError);
+            return o;
+        }
+
+        static BatchCase fromJson(JSONObject o) throws JSONException {
+            BatchCase c = new BatchCase(o.getString("id"), o.getString("info"), o.optInt("salesThreshold", -1));
+            c.status = Status.valueOf(o.optString("status", Status.PENDING.name()));
+            c.attempts = o.optInt("attempts", 0);
+            c.nextAttemptAt = o.optLong("nextAttemptAt", 0);
+            c.startedAt = o.optLong("startedAt", 0);
+            c.finishedAt = o.optLong("finishedAt", 0);
+            c.pdfName = o.has("pdfName") ? o.getString("pdfName") : null;
+            c.lastError = o.has("lastError") ? o.getString("lastError") : null;
+            return c;
+        }
+    }
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_BASE_MS = 60 * 1000L;
+    private static final long BACKOFF_MAX_MS = 15 * 60 * 1000L;
+    private static final long CASE_TIMEOUT_MS = 30 * 60 * 1000L;   // 单个案件最长执行时间
+    private static final long POLL_INTERVAL_MS = 2000;
+    private static final long START_GRACE_MS = 5000;               // 两个案件之间的间隔
+
+    private final File checkpointFile;
+    private final File importDir;
+    private final LogCallback logCallback;
+    private final List<BatchCase> cases = new ArrayList<>();
+    private volatile Thread runner;
+    private long nextId;
+
+    /**
+     * @param checkpointFile 队列状态文件（应用私有目录）
+     * @param importDir      任务导入目录（放入 .csv / .json 文件）
+     */
+    public BatchTaskQueue(File checkpointFile, File importDir, LogCallback logCallback) {
+        this.checkpointFile = checkpointFile;
+        this.importDir = importDir;
+        this.logCallback = logCallback;
+        load();
+    }
+
+    public File getImportDir() {
+        return importDir;
+    }
+
+    // ==================== 导入 ====================
+
+    /**
+     * 导入目录中所有未导入的 CSV / JSON 任务文件
+     *
+     * @return 新增的案件数
+     */
+    public synchronized int importFromDirectory() {
+        if (!importDir.exists()) importDir.mkdirs();
+        File[] files = importDir.listFiles();
+        if (files == null) return 0;
+        Arrays.sort(files, (a, b) -> a.getName().compareTo(b.getName()));
+        int added = 0;
+        for (File file : files) {
+            String name = file.getName().toLowerCase(Locale.ROOT);
+            if (!file.isFile() || !(name.endsWith(".csv") || name.endsWith(".json"))) continue;
+            try {
+                String text = readText(file);
+                int n = name.endsWith(".csv") ? importCsv(text) : importJson(text);
+                added += n;
+                if (!file.renameTo(new File(file.getPath() + ".imported"))) {
+                    log("⚠️ [批量任务] 任务文件改名失败，下次可能重复导入: " + file.getName());
+                }
+                log("📥 [批量任务] 从 " + file.getName() + " 导入 " + n + " 个案件");
+            } catch (Exception e) {
+                log("❌ [批量任务] 导入失败 " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        if (added > 0) checkpoint();
+        return added;
+    }
+
+    /**
+     * 导入 CSV 文本
+     *
+     * @return 新增的案件数
+     */
+    public synchronized int importCsv(String text) {
+        int added = 0;
+        for (String line : text.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            List<String> fields = splitCsvLine(trimmed);
+            String info = fields.get(0).trim();
+            if (info.isEmpty() || info.equalsIgnoreCase("info") || info.equals("取证信息")) continue;
+            int threshold = fields.size() > 1 ? parseThreshold(fields.get(1)) : -1;
+            addCase(info, threshold);
+            added++;
+        }
+        if (added > 0) checkpoint();
+        return added;
+    }
+
+    /**
+     * 导入 JSON 文本
+     *
+     * @return 新增的案件数
+     */
+    public synchronized int importJson(String text) throws JSONException {
+        JSONArray array = new JSONArray(text.trim());
+        int added = 0;
+        for (int i = 0; i < array.length(); i++) {
+            Object item = array.get(i);
+            String info;
+            int threshold = -1;
+            if (item instanceof JSONObject) {
+                JSONObject o = (JSONObject) item;
+                info = o.optString("info", "").trim();
+                threshold = o.optInt("salesThreshold", -1) > 0 ? o.optInt("salesThreshold") : -1;
+            } else {
+                info = String.valueOf(item).trim();
+            }
+            if (info.isEmpty()) continue;
+            addCase(info, threshold);
+            added++;
+        }
+        if (added > 0) checkpoint();
+        return added;
+    }
+
+    private void addCase(String info, int salesThreshold) {
+        cases.add(new BatchCase(String.valueOf(++nextId), info, salesThreshold));
+    }
+
+    // ==================== 执行 ====================
+
+    public boolean isRunning() {
+        Thread t = runner;
+        return t != null && t.isAlive();
+    }
+
+    /**
+     * 在后台线程按顺序执行队列中待执行的案件
+     *
+     * @return 已在运行或没有待执行案件返回 false
+     */
+    public synchronized boolean start(final CaseExecutor executor) {
+        if (isRunning()) return false;
+        if (countByStatus(Status.PENDING) == 0) {
+            log("ℹ️ [批量任务] 没有待执行的案件");
+            return false;
+        }
+        Thread t = new Thread(() -> runAll(executor), "BatchTaskQueue");
+        t.setDaemon(true);
+        runner = t;
+        t.start();
+        return true;
+    }
+
+    /**
+     * 停止批量执行（当前案件同时停止，状态回到待执行，不计失败次数）
+     */
+    public void stop() {
+        Thread t = runner;
+        if (t != null) t.interrupt();
+    }
+
+    private void runAll(CaseExecutor executor) {
+        long batchStart = System.currentTimeMillis();
+        log("🚚 [批量任务] 开始执行，待执行 " + countByStatus(Status.PENDING) + " 个案件");
+        try {
+            while (true) {
+                BatchCase task;
+                long waitMs;
+                synchronized (this) {
+                    task = nextRunnable();
+                    waitMs = task == null ? millisUntilNextRetry() : 0;
+                }
+                if (task == null && waitMs < 0) break;     // 全部完成或失败
+                if (task == null) {
+                    log("⏳ [批量任务] 等待重试，" + (waitMs / 1000) + "秒后继续");
+                    Thread.sleep(Math.min(waitMs, BACKOFF_MAX_MS));
+                    continue;
+                }
+                runCase(executor, task);
+                Thread.sleep(START_GRACE_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.stop();
+            synchronized (this) {
+                for (BatchCase c : cases) {
+                    if (c.status == Status.RUNNING) {
+                        // 人为停止不算一次尝试：撤销 runCase 开始时计入的次数
+                        c.status = Status.PENDING;
+                        c.attempts = Math.max(0, c.attempts - 1);
+                    }
+                }
+                checkpoint();
+            }
+            log("🛑 [批量任务] 已停止，未完成的案件保留在队列中");
+        } finally {
+            runner = null;
+            writeSummary(batchStart);
+        }
+    }
+
+    private void runCase(CaseExecutor executor, BatchCase task) throws InterruptedException {
+        synchronized (this) {
+            task.status = Status.RUNNING;
+            task.attempts++;
+            task.startedAt = System.currentTimeMillis();
+            task.lastError = null;
+            checkpoint();
+        }
+        log("▶️ [批量任务] 案件#" + task.id + " 第" + task.attempts + "次执行: " + task.info);
+
+        String error = null;
+        if (!executor.start(task)) {
+            error = "无法启动（无障碍服务不可用）";
+        } else {
+            long deadline = task.startedAt + CASE_TIMEOUT_MS;
+            while (executor.isRunning()) {
+                if (System.currentTimeMillis() > deadline) {
+                    executor.stop();
+                    error = "执行超时（" + (CASE_TIMEOUT_MS / 60000) + "分钟）";
+                    break;
+                }
+                Thread.sleep(POLL_INTERVAL_MS);
+            }
+        }
+        String pdfName = executor.resultPdfName();
+        if (error == null && pdfName == null) {
+            error = "流程结束但未生成取证PDF";
+        }
+
+        synchronized (this) {
+            task.finishedAt = System.currentTimeMillis();
+            long costSec = (task.finishedAt - task.startedAt) / 1000;
+            if (error == null) {
+                task.status = Status.DONE;
+                task.pdfName = pdfName;
+                log("✅ [批量任务] 案件#" + task.id + " 完成，耗时" + costSec + "秒，PDF: " + pdfName);
+            } else if (task.attempts < MAX_ATTEMPTS) {
+                long backoff = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << (task.attempts - 1));
+                task.status = Status.PENDING;
+                task.lastError = error;
+                task.nextAttemptAt = task.finishedAt + backoff;
+                log("⚠️ [批量任务] 案件#" + task.id + " 失败（" + error + "），" + (backoff / 1000) + "秒后重试");
+            } else {
+                task.status = Status.FAILED;
+                task.lastError = error;
+                log("❌ [批量任务] 案件#" + task.id + " 失败（" + error + "），已达最大重试次数");
+            }
+            checkpoint();
+        }
+    }
+
+    /**
+     * 到期可执行的下一个案件（按导入顺序）
+     */
+    private BatchCase nextRunnable() {
+        long now = System.currentTimeMillis();
+        for (BatchCase c : cases) {
+            if (c.status == Status.PENDING && c.nextAttemptAt <= now) return c;
+        }
+        return null;
+    }
+
+    /**
+     * 距最近一个待重试案件到期的毫秒数，没有待执行案件返回 -1
+     */
+    private long millisUntilNextRetry() {
+        long earliest = Long.MAX_VALUE;
+        for (BatchCase c : cases) {
+            if (c.status == Status.PENDING) earliest = Math.min(earliest, c.nextAttemptAt);
+        }
+        return earliest == Long.MAX_VALUE ? -1 : Math.max(0, earliest - System.currentTimeMillis());
+    }
+
+    // ==================== 汇总 ====================
+
+    public synchronized int countByStatus(Status status) {
+        int n = 0;
+        for (BatchCase c : cases) {
+            if (c.status == status) n++;
+        }
+        return n;
+    }
+
+    /**
+     * 汇总文本：成功/失败/待执行数量、平均耗时、吞吐量，以及失败案件的原因
+     */
+    public synchronized String summary(long batchStart) {
+        int done = 0;
+        int failed = 0;
+        int pending = 0;
+        long totalCost = 0;
+        StringBuilder failures = new StringBuilder();
+        for (BatchCase c : cases) {
+            if (c.status == Status.DONE) {
+                done++;
+                totalCost += c.finishedAt - c.startedAt;
+            } else if (c.status == Status.FAILED) {
+                failed++;
+                failures.append("  #").append(c.id).append(" ").append(c.lastError)
+                        .append(" | ").append(c.info).append('\n');
+            } else {
+                pending++;
+            }
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - batchStart);
+        StringBuilder sb = new StringBuilder();
+        sb.append("批量取证汇总 ").append(formatTime(System.currentTimeMillis())).append('\n');
+        sb.append("成功: ").append(done).append("  失败: ").append(failed).append("  待执行: ").append(pending).append('\n');
+        if (done > 0) {
+            sb.append("平均耗时: ").append(totalCost / done / 1000).append("秒/案件\n");
+        }
+        sb.append(String.format(Locale.CHINA, "吞吐量: %.1f 案件/小时（本轮 %d 分钟）\n",
+                done * 3600000.0 / elapsed, elapsed / 60000));
+        if (failures.length() > 0) {
+            sb.append("失败案件:\n").append(failures);
+        }
+        return sb.toString();
+    }
+
+    private void writeSummary(long batchStart) {
+        String text = summary(batchStart);
+        log("📊 [批量任务] " + text.trim().replace("\n", "\n    "));
+        File file = new File(importDir, "summary_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.CHINA)
+                .format(new Date()) + ".txt");
+        try {
+            writeText(file, text);
+        } catch (IOException e) {
+            log("⚠️ [批量任务] 汇总文件写入失败: " + e.getMessage());
+        }
+    }
+
+    // ==================== 检查点 ====================
+
+    /**
+     * 写入队列状态：先写临时文件再改名，中途被杀也不会留下半个文件
+     */
+    private void checkpoint() {
+        try {
+            JSONArray array = new JSONArray();
+            for (BatchCase c : cases) {
+                array.put(c.toJson());
+            }
+            File tmp = new File(checkpointFile.getPath() + ".tmp");
+            writeText(tmp, array.toString());
+            if (!tmp.renameTo(checkpointFile)) {
+                checkpointFile.delete();
+                if (!tmp.renameTo(checkpointFile)) throw new IOException("rename failed");
+            }
+        } catch (Exception e) {
+            log("⚠️ [批量任务] 检查点写入失败: " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!checkpointFile.exists()) return;
+        try {
+            JSONArray array = new JSONArray(readText(checkpointFile));
+            int resumed = 0;
+            for (int i = 0; i < array.length(); i++) {
+                BatchCase c = BatchCase.fromJson(array.getJSONObject(i));
+                if (c.status == Status.RUNNING) {
+                    // 上次执行中进程退出：本次执行作废，按失败处理后重新排队
+                    c.status = c.attempts < MAX_ATTEMPTS ? Status.PENDING : Status.FAILED;
+                    c.lastError = "执行中断（应用退出）";
+                    resumed++;
+                }
+                cases.add(c);
+                try {
+                    nextId = Math.max(nextId, Long.parseLong(c.id));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            log("📂 [批量任务] 已恢复队列: " + cases.size() + " 个案件" + (resumed > 0 ? "，" + resumed + " 个中断案件重新排队" : ""));
+        } catch (Exception e) {
+            log("⚠️ [批量任务] 队列状态读取失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 清除已完成和已失败的案件
+     */
+    public synchronized void clearFinished() {
+        Iterator<BatchCase> it = cases.iterator();
+        while (it.hasNext()) {
+            Status s = it.next().status;
+            if (s == Status.DONE || s == Status.FAILED) it.remove();
+        }
+        checkpoint();
+    }
+
+    // ==================== 工具方法 ====================
+
+    /**
+     * 拆分一行 CSV（支持双引号包围的字段和 "" 转义）
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int parseThreshold(String s) {
+        try {
+            int v = Integer.parseInt(s.trim());
+            return v > 0 ? v : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String readText(File file) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line).append('\n');
+            }
+        }
+        // 去掉 UTF-8 BOM（Excel 导出的 CSV 常带）
+        if (sb.length() > 0 && sb.charAt(0) == '\uFEFF') sb.deleteCharAt(0);
+        return sb.toString();
+    }
+
+    private static void writeText(File file, String text) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8)) {
+            writer.write(text);
+        }
+    }
+
+    private static String formatTime(long millis) {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.CHINA).format(new Date(millis));
+    }
+
+    private void log(String message) {
+        if (logCallback != null) logCallback.onLog(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+/**
+ * 带引用计数的位图租约：扫描帧、兜底缓存、人脸排序、保存等环节共享同一张全屏位图（每张约10MB），
+ * 各自 {@link #retain()} / {@link #release()}，最后一个释放时回收位图，中间环节不再各自拷贝一份。
+ * 被租用的位图不要直接 recycle，也不要在共享期间修改像素。
+ */
+public final class BitmapLease {
+
+    private final Bitmap bitmap;
+    private int refCount = 1;
+
+    /**
+     * 接管一张位图（如截屏拷贝），调用方持有第一个引用
+     */
+    public BitmapLease(Bitmap bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    public Bitmap bitmap() {
+        return bitmap;
+    }
+
+    /**
+     * 增加一个持有者，返回自身便于链式传递
+     */
+    public synchronized BitmapLease retain() {
+        if (refCount <= 0) {
+            throw new IllegalStateException("租约已释放");
+        }
+        refCount++;
+        return this;
+    }
+
+    /**
+     * 释放一个持有者；最后一个释放时回收位图（多余的释放被忽略）
+     */
+    public void release() {
+        synchronized (this) {
+            if (refCount <= 0) return;
+            if (--refCount > 0) return;
+        }
+        if (!bitmap.isRecycled()) bitmap.recycle();
+    }
+}
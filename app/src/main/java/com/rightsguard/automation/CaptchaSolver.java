@@ -0,0 +1,45 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+/**
+ * 滑块验证码解算器
+ * 实现：{@link LocalCaptchaSolver}（本地模板匹配）、{@link ChaojiyingCaptchaSolver}（超级鹰远程识别），
+ * 由 {@link CaptchaSolverChain} 按"本地优先、远程兜底"组合使用
+ */
+public interface CaptchaSolver {
+
+    /**
+     * 解算结果
+     */
+    final class Solution {
+        public final int distance;        // 需要向右滑动的像素数
+        public final double confidence;   // 可信度（0~1）；远程识别不提供得分时为 1
+        public final String solver;       // 给出结果的解算器名称（日志用）
+
+        public Solution(int distance, double confidence, String solver) {
+            this.distance = distance;
+            this.confidence = confidence;
+            this.solver = solver;
+        }
+
+        @Override
+        public String toString() {
+            return solver + " 距离=" + distance + "px 可信度=" + String.format("%.3f", confidence);
+        }
+    }
+
+    /**
+     * 解算器名称（日志用）
+     */
+    String name();
+
+    /**
+     * 解算滑动距离；调用方负责回收传入的 Bitmap
+     *
+     * @param background 验证码背景图（含缺口）
+     * @param fragment   拼图碎片，可为 null
+     * @return 失败返回 null
+     */
+    Solution solve(Bitmap background, Bitmap fragment) throws Exception;
+}
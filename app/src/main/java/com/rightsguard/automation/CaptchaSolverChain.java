@@ -0,0 +1,205 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 验证码解算链：缓存 → 本地解算 → 远程兜底
+ *  - 按背景图+碎片图的像素内容哈希缓存结果，同一张验证码重试时直接复用；
+ *    只认完全相同的图片（同一背景换了缺口位置，感知哈希可能几乎不变，不能复用旧距离）
+ *  - 本地解算可信度达到阈值直接采用，省掉一次网络往返
+ *  - 否则在后台线程调用远程解算并限时等待；远程超时/失败时退回本地结果
+ *  - 滑动后验证仍未通过时调用 {@link #reject} 删除缓存，避免重复使用错误结果
+ */
+public class CaptchaSolverChain {
+
+    /**
+     * 日志回调接口
+     */
+    public interface LogCallback {
+        void onLog(String message);
+    }
+
+    private static final int CACHE_SIZE = 32;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final CaptchaSolver local;
+    private final CaptchaSolver remote;
+    private final double acceptConfidence;
+    private final long remoteTimeoutMs;
+    private final LogCallback logCallback;
+    private final ExecutorService remoteExecutor;
+
+    private final LinkedHashMap<Long, CaptchaSolver.Solution> cache =
+            new LinkedHashMap<Long, CaptchaSolver.Solution>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CaptchaSolver.Solution> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /**
+     * @param local            本地解算器
+     * @param remote           远程解算器，可为 null（只用本地）
+     * @param acceptConfidence 本地结果可信度达到此值时不再调用远程
+     * @param remoteTimeoutMs  远程解算最长等待时间
+     */
+    public CaptchaSolverChain(CaptchaSolver local, CaptchaSolver remote, double acceptConfidence,
+                              long remoteTimeoutMs, LogCallback logCallback) {
+        this.local = local;
+        this.remote = remote;
+        this.acceptConfidence = acceptConfidence;
+        this.remoteTimeoutMs = remoteTimeoutMs;
+        this.logCallback = logCallback;
+        this.remoteExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "CaptchaRemote");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 解算滑动距离（阻塞，只能在后台线程调用）；调用方负责回收传入的 Bitmap
+     *
+     * @return 失败返回 null
+     */
+    public CaptchaSolver.Solution solve(Bitmap background, Bitmap fragment) {
+        long hash = cacheKey(background, fragment);
+        CaptchaSolver.Solution cached = lookup(hash);
+        if (cached != null) {
+            log("♻️ 验证码命中缓存: " + cached);
+            return cached;
+        }
+
+        // 1. 本地解算
+        CaptchaSolver.Solution localResult = null;
+        try {
+            long start = System.currentTimeMillis();
+            localResult = local.solve(background, fragment);
+            log("🎯 " + local.name() + ": " + (localResult != null ? localResult : "无结果")
+                    + "，耗时" + (System.currentTimeMillis() - start) + "ms");
+        } catch (Exception e) {
+            log("⚠️ " + local.name() + "异常: " + e.getMessage());
+        }
+        if (localResult != null && (remote == null || localResult.confidence >= acceptConfidence)) {
+            put(hash, localResult);
+            return localResult;
+        }
+
+        // 2. 本地不可信 → 远程兜底（限时）
+        CaptchaSolver.Solution remoteResult = solveRemote(background, fragment);
+        if (remoteResult != null) {
+            put(hash, remoteResult);
+            return remoteResult;
+        }
+        if (localResult != null) {
+            log("↩️ 远程解算不可用，使用本地结果: " + localResult);
+        }
+        return localResult;
+    }
+
+    /**
+     * 结果验证未通过：从缓存中删除
+     */
+    public void reject(CaptchaSolver.Solution solution) {
+        if (solution == null) return;
+        synchronized (cache) {
+            Iterator<CaptchaSolver.Solution> it = cache.values().iterator();
+            while (it.hasNext()) {
+                if (it.next() == solution) it.remove();
+            }
+        }
+    }
+
+    public void shutdown() {
+        remoteExecutor.shutdownNow();
+    }
+
+    /**
+     * 缓存Key：背景图和碎片图全部像素的 64 位 FNV-1a 哈希（逐行 getPixels）
+     */
+    long cacheKey(Bitmap background, Bitmap fragment) {
+        long hash = hashPixels(FNV_OFFSET, background);
+        return fragment != null ? hashPixels(hash, fragment) : hash;
+    }
+
+    /**
+     * 远程任务超时后可能仍在运行，给它独立的拷贝，调用方可以放心回收原图
+     */
+    Bitmap copyForRemote(Bitmap bitmap) {
+        return bitmap != null ? bitmap.copy(Bitmap.Config.ARGB_8888, false) : null;
+    }
+
+    private static long hashPixels(long hash, Bitmap bitmap) {
+        int w = bitmap.getWidth();
+        int h = bitmap.getHeight();
+        hash = (hash ^ w) * FNV_PRIME;
+        hash = (hash ^ h) * FNV_PRIME;
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++) {
+            bitmap.getPixels(row, 0, w, 0, y, w, 1);
+            for (int p : row) {
+                hash = (hash ^ p) * FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    private CaptchaSolver.Solution solveRemote(Bitmap background, Bitmap fragment) {
+        if (remote == null) return null;
+        final Bitmap bgCopy = copyForRemote(background);
+        final Bitmap fragCopy = copyForRemote(fragment);
+        if (background != null && bgCopy == null) return null;
+
+        long start = System.currentTimeMillis();
+        Future<CaptchaSolver.Solution> future = remoteExecutor.submit(() -> {
+            try {
+                return remote.solve(bgCopy, fragCopy);
+            } finally {
+                if (bgCopy != null) bgCopy.recycle();
+                if (fragCopy != null) fragCopy.recycle();
+            }
+        });
+        try {
+            CaptchaSolver.Solution result = future.get(remoteTimeoutMs, TimeUnit.MILLISECONDS);
+            log("🌐 " + remote.name() + ": " + (result != null ? result : "无结果")
+                    + "，耗时" + (System.currentTimeMillis() - start) + "ms");
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log("⏰ " + remote.name() + "超时(" + remoteTimeoutMs + "ms)");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log("⚠️ " + remote.name() + "失败: " + cause.getMessage());
+        }
+        return null;
+    }
+
+    private CaptchaSolver.Solution lookup(long hash) {
+        synchronized (cache) {
+            return cache.get(hash);
+        }
+    }
+
+    private void put(long hash, CaptchaSolver.Solution solution) {
+        synchronized (cache) {
+            cache.put(hash, solution);
+        }
+    }
+
+    private void log(String message) {
+        if (logCallback != null) logCallback.onLog(message);
+    }
+}
@@ -0,0 +1,192 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+import android.util.Base64;
+
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Properties;
+
+/**
+ * 超级鹰远程识别（类型9602，水平拼图滑块）
+ * 账号从设备上的配置文件读取（{@link #fromConfig}），不写在代码里；没有配置时不启用远程识别。
+ * 接口地址可配置，测试时可以指向本地模拟服务
+ */
+public class ChaojiyingCaptchaSolver implements CaptchaSolver {
+
+    public static final String DEFAULT_ENDPOINT = "https://upload.chaojiying.net/Upload/Processing.php";
+    public static final String DEFAULT_CODE_TYPE = "9602";
+
+    private final String endpoint;
+    private final String user;
+    private final String passMd5;
+    private final String softId;
+    private final String codeType;
+
+    public ChaojiyingCaptchaSolver(String endpoint, String user, String password, String softId, String codeType) {
+        this.endpoint = endpoint;
+        this.user = user;
+        this.passMd5 = md5(password);
+        this.softId = softId;
+        this.codeType = codeType;
+    }
+
+    /**
+     * 从 properties 配置文件创建，格式：
+     * <pre>
+     * user=账号
+     * password=密码
+     * softid=软件ID
+     * # 可选
+     * codetype=9602
+     * endpoint=https://upload.chaojiying.net/Upload/Processing.php
+     * </pre>
+     *
+     * @return 文件不存在、读取失败或缺少 user/password/softid 时返回 null
+     */
+    public static ChaojiyingCaptchaSolver fromConfig(File file) {
+        if (file == null || !file.isFile()) return null;
+        Properties props = new Properties();
+        try (InputStreamReader reader = new InputStreamReader(new FileInputStream(file), "UTF-8")) {
+            props.load(reader);
+        } catch (IOException e) {
+            return null;
+        }
+        String user = props.getProperty("user", "").trim();
+        String password = props.getProperty("password", "").trim();
+        String softId = props.getProperty("softid", "").trim();
+        if (user.isEmpty() || password.isEmpty() || softId.isEmpty()) return null;
+        return new ChaojiyingCaptchaSolver(
+                props.getProperty("endpoint", DEFAULT_ENDPOINT).trim(),
+                user, password, softId,
+                props.getProperty("codetype", DEFAULT_CODE_TYPE).trim());
+    }
+
+    @Override
+    public String name() {
+        return "超级鹰";
+    }
+
+    /**
+     * @param background 验证码背景图（含缺口），裁剪自 [141,895]→[939,1393] 798×498px
+     * @param fragment   需要拖入的碎片图（可为null），裁剪自 [141,1060]→[303,1222] 162×162px
+     *                   发送碎片图后API可比对形状，准确定位正确缺口
+     */
+    @Override
+    public Solution solve(Bitmap background, Bitmap fragment) throws Exception {
+        // 1. 压缩为JPEG 80%（比PNG小5-10倍，大幅加快上传速度）
+        String base64Bg = encode(background);
+        String base64Fragment = fragment != null ? encode(fragment) : null;
+        return parseResponse(post(base64Bg, base64Fragment));
+    }
+
+    /**
+     * 上传已编码的图片并返回响应原文
+     */
+    String post(String base64Bg, String base64Fragment) throws IOException {
+        // 2. 构建multipart/form-data请求
+        String boundary = "----CJYBound" + System.currentTimeMillis();
+        HttpURLConnection conn = (HttpURLConnection) new URL(endpoint).openConnection();
+        try {
+            conn.setConnectTimeout(10000);
+            conn.setReadTimeout(20000);
+            conn.setDoOutput(true);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+            conn.setRequestProperty("Connection", "Keep-Alive");
+
+            DataOutputStream dos = new DataOutputStream(conn.getOutputStream());
+            String[][] textFields = {
+                {"user",        user},
+                {"pass2",       passMd5},
+                {"softid",      softId},
+                {"codetype",    codeType},
+                {"file_base64", base64Bg}
+            };
+            for (String[] field : textFields) {
+                writeField(dos, boundary, field[0], field[1]);
+            }
+            // 碎片图作为 file_base64_2 发送，让API比对形状识别正确缺口
+            if (base64Fragment != null) {
+                writeField(dos, boundary, "file_base64_2", base64Fragment);
+            }
+            dos.writeBytes("--" + boundary + "--\r\n");
+            dos.flush();
+            dos.close();
+
+            // 3. 读取响应
+            int httpCode = conn.getResponseCode();
+            InputStream is = httpCode == 200 ? conn.getInputStream() : conn.getErrorStream();
+            if (is == null) throw new IOException("HTTP " + httpCode);
+            StringBuilder respSb = new StringBuilder();
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"))) {
+                String ln;
+                while ((ln = br.readLine()) != null) respSb.append(ln);
+            }
+            return respSb.toString();
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * 解析坐标格式（超级鹰9602 x值就是滑动距离，不需要额外换算）：
+     * 格式A: "234"           → 纯数字，直接是滑动距离
+     * 格式B: "85,328"        → (x=滑动距离, y=缺口纵坐标)，取x
+     * 格式C: "85,328|569,322"→ 多缺口，第一对是正确缺口（因为传了碎片图API已排序），取第一个x
+     */
+    Solution parseResponse(String respStr) throws Exception {
+        JSONObject jsonResp = new JSONObject(respStr);
+        int errNo = jsonResp.optInt("err_no", -1);
+        if (errNo != 0) {
+            throw new IOException("err_no=" + errNo + " err_str=" + jsonResp.optString("err_str"));
+        }
+        String picStr = jsonResp.optString("pic_str", "").trim();
+        String firstPair = picStr.split("\\|")[0].trim();
+        String[] parts = firstPair.split(",");
+        if (parts.length >= 1 && !parts[0].trim().isEmpty()) {
+            return new Solution(Integer.parseInt(parts[0].trim()), 1.0, name());
+        }
+        throw new IOException("返回格式无法解析: " + picStr);
+    }
+
+    private static void writeField(DataOutputStream dos, String boundary, String name, String value) throws IOException {
+        dos.writeBytes("--" + boundary + "\r\n");
+        dos.writeBytes("Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n");
+        dos.writeBytes(value);
+        dos.writeBytes("\r\n");
+    }
+
+    /**
+     * 图片压缩为 JPEG 80% 后 Base64 编码
+     */
+    String encode(Bitmap bitmap) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 80, baos);
+        String encoded = Base64.encodeToString(baos.toByteArray(), Base64.NO_WRAP);
+        baos.close();
+        return encoded;
+    }
+
+    private static String md5(String text) {
+        try {
+            byte[] bytes = MessageDigest.getInstance("MD5").digest(text.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : bytes) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.rightsguard.automation;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 封面观察记录索引（设备本地 SQLite，跨次取证保留）
+ * 以封面图片Key为主键，记录见过的 作者/播放量/销量/在作者视频列表中的位置，
+ * 同一权利人的后续案件可以直接查到已知封面在列表中的位置，不必每次从头滚动查找。
+ * 记录的播放量/销量是历史观察值，只能作导航提示，不能代替当前页面上读到的数据。
+ *
+ * 淘汰：超过 {@link #MAX_AGE_MS} 未再见到的记录删除；总数超过 {@link #MAX_ROWS} 时删除最久未见的。
+ * 所有方法都是同步数据库操作，只能在后台线程调用。
+ */
+public class CoverIndex extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "cover_index.db";
+    private static final int DB_VERSION = 2;   // 2：去掉无人读取的 phash 列
+    private static final String TABLE = "cover";
+
+    private static final int MAX_ROWS = 5000;
+    private static final long MAX_AGE_MS = 90L * 24 * 3600 * 1000;   // 90天
+
+    /**
+     * 一条封面观察记录；未知字段为 null（position 为 -1）
+     */
+    public static final class Observation {
+        public final String imageKey;
+        public final String author;
+        public final String playCount;     // 原始文本，如"368.55万"
+        public final Integer sales;
+        public final int listPosition;     // 在作者视频列表中第几屏找到（0起），-1 未知
+        public final int seenCount;
+        public final long lastSeen;
+
+        public Observation(String imageKey, String author, String playCount,
+                           Integer sales, int listPosition) {
+            this(imageKey, author, playCount, sales, listPosition, 0, 0);
+        }
+
+        Observation(String imageKey, String author, String playCount,
+                    Integer sales, int listPosition, int seenCount, long lastSeen) {
+            this.imageKey = imageKey;
+            this.author = author;
+            this.playCount = playCount;
+            this.sales = sales;
+            this.listPosition = listPosition;
+            this.seenCount = seenCount;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    public CoverIndex(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + "image_key TEXT PRIMARY KEY, "
+                + "author TEXT, "
+                + "play_count TEXT, "
+                + "sales INTEGER, "
+                + "list_position INTEGER NOT NULL DEFAULT -1, "
+                + "seen_count INTEGER NOT NULL DEFAULT 0, "
+                + "last_seen INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_cover_last_seen ON " + TABLE + "(last_seen)");
+    }
+
+    /**
+     * 记录只是导航提示，升级时直接重建表
+     */
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        onCreate(db);
+    }
+
+    /**
+     * 记录一批观察（同一屏上的全部封面放在一个事务里写入）
+     * 已有记录只覆盖本次非空的字段，见到次数加一
+     */
+    public synchronized void recordAll(List<Observation> observations) {
+        if (observations.isEmpty()) return;
+        SQLiteDatabase db = getWritableDatabase();
+        long now = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            for (Observation o : observations) {
+                upsert(db, o, now);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void record(Observation observation) {
+        List<Observation> one = new ArrayList<>(1);
+        one.add(observation);
+        recordAll(one);
+    }
+
+    /**
+     * 按封面Key查询，没有返回 null
+     */
+    public synchronized Observation find(String imageKey) {
+        if (imageKey == null) return null;
+        Cursor c = getReadableDatabase().query(TABLE, null, "image_key=?", new String[]{imageKey},
+                null, null, null);
+        try {
+            return c.moveToFirst() ? read(c) : null;
+        } finally {
+            c.close();
+        }
+    }
+
+    /**
+     * 删除过期记录，并把总数控制在上限以内
+     *
+     * @return 删除的条数
+     */
+    public synchronized int evict() {
+        SQLiteDatabase db = getWritableDatabase();
+        int removed = db.delete(TABLE, "last_seen<?",
+                new String[]{String.valueOf(System.currentTimeMillis() - MAX_AGE_MS)});
+        removed += db.delete(TABLE, "image_key NOT IN (SELECT image_key FROM " + TABLE
+                + " ORDER BY last_seen DESC LIMIT " + MAX_ROWS + ")", null);
+        return removed;
+    }
+
+    private void upsert(SQLiteDatabase db, Observation o, long now) {
+        Observation old = null;
+        Cursor c = db.query(TABLE, null, "image_key=?", new String[]{o.imageKey}, null, null, null);
+        try {
+            if (c.moveToFirst()) old = read(c);
+        } finally {
+            c.close();
+        }
+
+        ContentValues v = new ContentValues();
+        v.put("image_key", o.imageKey);
+        if (o.author != null) v.put("author", o.author);
+        if (o.playCount != null) v.put("play_count", o.playCount);
+        if (o.sales != null) v.put("sales", o.sales);
+        if (o.listPosition >= 0) v.put("list_position", o.listPosition);
+        v.put("seen_count", old != null ? old.seenCount + 1 : 1);
+        v.put("last_seen", now);
+
+        if (old == null) {
+            db.insert(TABLE, null, v);
+        } else {
+            db.update(TABLE, v, "image_key=?", new String[]{o.imageKey});
+        }
+    }
+
+    private static Observation read(Cursor c) {
+        int salesCol = c.getColumnIndexOrThrow("sales");
+        return new Observation(
+                c.getString(c.getColumnIndexOrThrow("image_key")),
+                c.getString(c.getColumnIndexOrThrow("author")),
+                c.getString(c.getColumnIndexOrThrow("play_count")),
+                c.isNull(salesCol) ? null : c.getInt(salesCol),
+                c.getInt(c.getColumnIndexOrThrow("list_position")),
+                c.getInt(c.getColumnIndexOrThrow("seen_count")),
+                c.getLong(c.getColumnIndexOrThrow("last_seen")));
+    }
+}
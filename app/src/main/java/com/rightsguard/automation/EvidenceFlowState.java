@@ -0,0 +1,79 @@
+package com.rightsguard.automation;
+
+import android.view.accessibility.AccessibilityEvent;
+
+/**
+ * 正常取证流程的状态
+ * 每个状态声明自己关心的事件来源、事件类型和最长停留时间：
+ * onAccessibilityEvent 只把通过当前状态过滤的事件交给该状态的处理方法，其余事件直接丢弃；
+ * 停留超时后由服务根据当前界面重新定位状态，流程可以从中断处继续。
+ *
+ * 流程顺序：打开链接 → 权利卫士首页点"录屏取证" → 录屏界面填备注并开始 →
+ *          系统录屏授权/应用验真 → 取证环境检测结果点"开始取证" → 等待抖音打开 → 抖音自动化
+ */
+public enum EvidenceFlowState {
+
+    IDLE("空闲", 0, 0, 0),
+
+    OPEN_LINK("打开侵权链接并启动权利卫士", 0, 0, 0),
+
+    WAIT_SCREEN_RECORD("权利卫士首页：点击录屏取证",
+            Source.RIGHTS_GUARD,
+            AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED | AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED,
+            30000),
+
+    RECORDER_SETUP("录屏界面：填写备注并开始录屏",
+            Source.RIGHTS_GUARD,
+            AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED,
+            20000),
+
+    SCREEN_SHARE("系统录屏授权 + 应用验真",
+            Source.SYSTEM_UI | Source.RIGHTS_GUARD,
+            AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED | AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED,
+            60000),
+
+    ENV_CHECK("取证环境检测结果：点击开始取证",
+            Source.RIGHTS_GUARD,
+            AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED,
+            60000),
+
+    DOUYIN_LAUNCH("等待权利卫士打开抖音",
+            Source.DOUYIN,
+            AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED,
+            30000),
+
+    // 抖音阶段由后台线程顺序驱动（PageWaiter 等待页面），不再分发事件
+    DOUYIN_AUTOMATION("抖音取证自动化进行中", 0, 0, 0);
+
+    /**
+     * 事件来源（按包名归类，可按位组合）
+     */
+    public static final class Source {
+        public static final int NONE = 0;
+        public static final int RIGHTS_GUARD = 1;
+        public static final int SYSTEM_UI = 1 << 1;
+        public static final int DOUYIN = 1 << 2;
+
+        private Source() {
+        }
+    }
+
+    public final String description;
+    public final int sources;      // 关心的事件来源（Source 按位或）
+    public final int eventMask;    // 关心的事件类型（AccessibilityEvent.TYPE_* 按位或）
+    public final long timeoutMs;   // 最长停留时间，0 表示不限
+
+    EvidenceFlowState(String description, int sources, int eventMask, long timeoutMs) {
+        this.description = description;
+        this.sources = sources;
+        this.eventMask = eventMask;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 当前状态是否处理该来源/类型的事件
+     */
+    public boolean accepts(int source, int eventType) {
+        return (sources & source) != 0 && (eventMask & eventType) != 0;
+    }
+}
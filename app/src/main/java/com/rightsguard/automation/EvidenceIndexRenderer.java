@@ -0,0 +1,164 @@
+package com.rightsguard.automation;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 取证报告目录页排版
+ * 第一页顶部是案件信息（原创/侵权人/播放量/销量等），下面逐条列出截图：
+ * 所在页码、截图前缀、保存时间和PNG文件的 SHA-256。条目多时分成多页，目录页排在报告最前。
+ * 排版结果是 {@link StreamingPdfWriter.TextLine} 文字行（写成PDF真文本，哈希可以直接选中复制核对），
+ * 不再绘制成位图；字宽按 {@link StreamingPdfWriter.TextLine#measure} 估算，与写出的字体一致。
+ */
+public class EvidenceIndexRenderer {
+
+    private static final int MARGIN = 60;
+    private static final int TITLE_SIZE = 56;
+    private static final int FACT_SIZE = 32;
+    private static final int FACT_LINE = 46;
+    private static final int ENTRY_SIZE = 30;
+    private static final int HASH_SIZE = 22;      // 等宽，64位十六进制一行放下
+    private static final int ENTRY_HEIGHT = 92;    // 每条截图：前缀行 + 哈希行 + 间距
+    private static final float HASH_GRAY = 0.25f;
+
+    private final int width;
+    private final int height;
+    private final String title;
+    private final List<SavedScreenshot> entries;
+    private final List<String> factLines = new ArrayList<>();
+    private final int firstPageEntries;
+    private final int otherPageEntries;
+    private final int pageCount;
+
+    /**
+     * 一页目录的排版结果
+     */
+    public static final class Page {
+        public final List<StreamingPdfWriter.TextLine> lines = new ArrayList<>();
+        public final List<float[]> rules = new ArrayList<>();   // 分隔线 {x1, x2, y}
+    }
+
+    /**
+     * @param facts   案件信息（按插入顺序显示，值为空的跳过）
+     * @param entries 已写入报告的截图，按报告顺序
+     */
+    public EvidenceIndexRenderer(int width, int height, String title, Map<String, String> facts,
+                                 List<SavedScreenshot> entries) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.entries = entries;
+
+        // 案件信息按页面宽度折行（侵权链接等长文本）
+        for (Map.Entry<String, String> fact : facts.entrySet()) {
+            if (fact.getValue() == null || fact.getValue().isEmpty()) continue;
+            wrap(fact.getKey() + "：" + fact.getValue(), factLines);
+        }
+        wrap("以下每条：所在页码、截图名称、保存时间；第二行为相册中原始PNG文件的SHA-256", factLines);
+
+        int listTop = MARGIN + TITLE_SIZE + 40;
+        int firstListTop = listTop + factLines.size() * FACT_LINE + 60;
+        int listBottom = height - MARGIN - 40;      // 底部留给页脚
+        firstPageEntries = Math.max(0, (listBottom - firstListTop) / ENTRY_HEIGHT);
+        otherPageEntries = Math.max(1, (listBottom - listTop) / ENTRY_HEIGHT);
+        int remaining = Math.max(0, entries.size() - firstPageEntries);
+        pageCount = 1 + (remaining + otherPageEntries - 1) / otherPageEntries;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * 第 i 条截图在报告中的页码（从1起，目录页在前）
+     */
+    public int pageNumberOf(int entryIndex) {
+        return pageCount + entryIndex + 1;
+    }
+
+    /**
+     * 排版第 page 页目录（0起）
+     */
+    public Page render(int page) {
+        Page out = new Page();
+        int y = MARGIN + TITLE_SIZE;
+        out.lines.add(new StreamingPdfWriter.TextLine(MARGIN, y, TITLE_SIZE, false, true, 0f,
+                page == 0 ? title : title + "（续）"));
+        y += 40;
+
+        int from;
+        int to;
+        if (page == 0) {
+            for (String line : factLines) {
+                y += FACT_LINE;
+                out.lines.add(new StreamingPdfWriter.TextLine(MARGIN, y, FACT_SIZE, false, false, 0f, line));
+            }
+            y += 30;
+            out.rules.add(new float[]{MARGIN, width - MARGIN, y});
+            y += 30;
+            from = 0;
+            to = Math.min(entries.size(), firstPageEntries);
+        } else {
+            from = firstPageEntries + (page - 1) * otherPageEntries;
+            to = Math.min(entries.size(), from + otherPageEntries);
+        }
+
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.CHINA);
+        for (int i = from; i < to; i++) {
+            SavedScreenshot shot = entries.get(i);
+            y += ENTRY_SIZE + 8;
+            String time = timeFormat.format(new Date(shot.timestamp));
+            float timeWidth = StreamingPdfWriter.TextLine.measure(time, ENTRY_SIZE, false);
+            String label = ellipsize("第" + pageNumberOf(i) + "页  " + shot.prefix,
+                    width - 2 * MARGIN - timeWidth - 30, ENTRY_SIZE);
+            out.lines.add(new StreamingPdfWriter.TextLine(MARGIN, y, ENTRY_SIZE, false, false, 0f, label));
+            out.lines.add(new StreamingPdfWriter.TextLine(width - MARGIN - timeWidth, y, ENTRY_SIZE, false, false, 0f, time));
+            y += HASH_SIZE + 10;
+            out.lines.add(new StreamingPdfWriter.TextLine(MARGIN, y, HASH_SIZE, true, false, HASH_GRAY,
+                    shot.sha256 != null ? shot.sha256 : "-"));
+            y = y + ENTRY_HEIGHT - (ENTRY_SIZE + 8) - (HASH_SIZE + 10);
+        }
+
+        String footer = "目录 " + (page + 1) + "/" + pageCount + "　共" + entries.size() + "张截图";
+        float footerWidth = StreamingPdfWriter.TextLine.measure(footer, HASH_SIZE, false);
+        out.lines.add(new StreamingPdfWriter.TextLine((width - footerWidth) / 2, height - MARGIN, HASH_SIZE,
+                false, false, 0f, footer));
+        return out;
+    }
+
+    private static String ellipsize(String text, float maxWidth, float size) {
+        if (StreamingPdfWriter.TextLine.measure(text, size, false) <= maxWidth) return text;
+        float ellipsis = StreamingPdfWriter.TextLine.measure("…", size, false);
+        int n = fit(text, 0, maxWidth - ellipsis, size);
+        return text.substring(0, n) + "…";
+    }
+
+    private void wrap(String text, List<String> out) {
+        int maxWidth = width - 2 * MARGIN;
+        int start = 0;
+        while (start < text.length()) {
+            int n = fit(text, start, maxWidth, FACT_SIZE);
+            if (n <= 0) break;
+            out.add(text.substring(start, start + n));
+            start += n;
+        }
+    }
+
+    /**
+     * 从 start 起在 maxWidth 内能放下的字符数
+     */
+    private static int fit(String text, int start, float maxWidth, float size) {
+        float w = 0;
+        int i = start;
+        while (i < text.length()) {
+            w += StreamingPdfWriter.TextLine.measure(text.substring(i, i + 1), size, false);
+            if (w > maxWidth) break;
+            i++;
+        }
+        return i - start;
+    }
+}
@@ -0,0 +1,202 @@
+package com.rightsguard.automation;
+
+import android.util.Log;
+
+/**
+ * 取证信息解析
+ * 输入格式: 原创名称-抖音:侵权人账号名称-原创分享链接+侵权人分享链接+侵权视频标题+侵权视频时长[+封面URL]
+ * 主界面手动输入和批量任务（{@link BatchTaskQueue}）共用同一套解析和下发逻辑。
+ */
+public final class EvidenceInfoParser {
+
+    private static final String TAG = "EvidenceInfoParser";
+
+    private EvidenceInfoParser() {
+    }
+
+    /**
+     * 解析结果
+     */
+    public static final class Result {
+        String infringementUrl;
+        String remark;
+        String videoKeywords; // 🆕 视频文案关键词
+        int videoDurationSeconds; // 🆕 视频时长(秒)
+        String coverImageUrl; // 🆕 侵权视频封面URL（用于创作灵感MD5对比）
+        String infringerName = ""; // 🔧 直接存储已解析的侵权人名称，避免setRemark二次解析失败
+        String originalName = "";  // 🔧 直接存储已解析的原创名称
+
+        public boolean hasInfringementUrl() {
+            return infringementUrl != null && !infringementUrl.isEmpty();
+        }
+
+        public String getInfringementUrl() {
+            return infringementUrl;
+        }
+
+        /**
+         * 把解析结果逐项设置到无障碍服务（不启动）
+         *
+         * @param salesThreshold 销量筛选阈值，-1 不筛选
+         */
+        public void applyTo(AutomationAccessibilityService service, int salesThreshold) {
+            // 设置备注
+            service.setRemark(remark);
+            // 🔧 直接设置侵权人名称和原创名称，不依赖 setRemark 二次解析
+            service.setInfringerName(infringerName);
+            service.setOriginalName(originalName);
+            Log.d(TAG, "✅ [applyTo] 侵权人: '" + infringerName + "' 原创: '" + originalName + "'");
+
+            // 设置侵权链接
+            if (hasInfringementUrl()) {
+                service.setInfringementUrl(infringementUrl);
+                Log.d(TAG, "✅ 已设置侵权链接: " + infringementUrl);
+            } else {
+                Log.d(TAG, "⚠️ 未解析到侵权链接");
+            }
+
+            // 🆕 设置视频关键词
+            if (videoKeywords != null && !videoKeywords.isEmpty()) {
+                service.setVideoKeywords(videoKeywords);
+                Log.d(TAG, "✅ 已设置视频关键词: " + videoKeywords);
+            } else {
+                Log.d(TAG, "⚠️ 未解析到视频关键词");
+            }
+
+            // 🆕 设置视频时长
+            service.setVideoDurationSeconds(videoDurationSeconds);
+            Log.d(TAG, "✅ 已设置视频时长: " + videoDurationSeconds + "秒");
+
+            // 🆕 设置封面URL（用于创作灵感MD5封面对比）
+            if (coverImageUrl != null && !coverImageUrl.isEmpty()) {
+                service.setCoverImageUrl(coverImageUrl);
+                Log.d(TAG, "✅ 已设置封面URL: " + coverImageUrl);
+            } else {
+                Log.d(TAG, "⚠️ 未提供封面URL，跳过创作灵感封面对比");
+            }
+
+            // 🆕 设置销量筛选阈值
+            service.setSalesThreshold(salesThreshold);
+            Log.d(TAG, "✅ 已设置销量筛选阈值: " + (salesThreshold > 0 ? salesThreshold : "不筛选"));
+        }
+    }
+
+    /**
+     * 解析取证信息
+     */
+    public static Result parse(String info) {
+        Result result = new Result();
+
+        try {
+            Log.d(TAG, "🔍 开始解析: " + info);
+
+            // 🔧 兼容中文键盘全角冒号：将全角冒号「：」统一替换为半角冒号「:」，防止 indexOf("-抖音:") 失败
+            info = info.replace("：", ":");
+
+            // 格式: 原创名称-抖音:侵权人账号名称-原创分享链接+侵权人分享链接+侵权视频标题+侵权视频时长[+封面URL]
+            // 示例(含封面): 花开富贵-抖音:文文工艺品-https://v.douyin.com/xxx/+https://v.douyin.com/iFLNKJNj/+花开富贵檀香，燃起来就会开花+106+https://p3-aio.ecombdimg.com/jpeg_m_xxx
+
+            // 🆕 先检查最后一段是否为封面URL（以http开头则为新格式，剥离后再解析其余字段）
+            String effectiveInfo = info;
+            {
+                int lastIdx = info.lastIndexOf("+");
+                if (lastIdx > 0) {
+                    String lastSeg = info.substring(lastIdx + 1).trim();
+                    if (lastSeg.startsWith("http")) {
+                        result.coverImageUrl = lastSeg;
+                        Log.d(TAG, "✅ 封面URL: " + lastSeg);
+                        effectiveInfo = info.substring(0, lastIdx); // 剥离封面URL，后续解析用短字符串
+                    }
+                }
+            }
+
+            // 1. 提取视频时长 (effectiveInfo中最后一个+号之后的内容)
+            int lastPlusIndex = effectiveInfo.lastIndexOf("+");
+            if (lastPlusIndex > 0 && lastPlusIndex < effectiveInfo.length() - 1) {
+                String durationStr = effectiveInfo.substring(lastPlusIndex + 1).trim();
+                try {
+                    result.videoDurationSeconds = Integer.parseInt(durationStr);
+                    Log.d(TAG, "✅ 视频时长: " + result.videoDurationSeconds + "秒");
+                } catch (NumberFormatException e) {
+                    Log.d(TAG, "⚠️ 视频时长解析失败,使用默认值60秒");
+                    result.videoDurationSeconds = 60;
+                }
+            } else {
+                Log.d(TAG, "⚠️ 未找到视频时长,使用默认值60秒");
+                result.videoDurationSeconds = 60;
+            }
+
+            // 2. 提取视频标题 (倒数第二个+号和最后一个+号之间的内容)
+            if (lastPlusIndex > 0) {
+                String beforeLastPlus = effectiveInfo.substring(0, lastPlusIndex);
+                int secondLastPlusIndex = beforeLastPlus.lastIndexOf("+");
+
+                if (secondLastPlusIndex > 0) {
+                    result.videoKeywords = beforeLastPlus.substring(secondLastPlusIndex + 1).trim();
+                    Log.d(TAG, "✅ 视频关键词: " + result.videoKeywords);
+                } else {
+                    Log.d(TAG, "⚠️ 未找到视频关键词");
+                }
+            }
+
+            // 3. 提取侵权链接 (倒数第三个+号和倒数第二个+号之间的内容)
+            if (lastPlusIndex > 0) {
+                String beforeLastPlus = effectiveInfo.substring(0, lastPlusIndex);
+                int secondLastPlusIndex = beforeLastPlus.lastIndexOf("+");
+
+                if (secondLastPlusIndex > 0) {
+                    String beforeSecondLastPlus = beforeLastPlus.substring(0, secondLastPlusIndex);
+                    int thirdLastPlusIndex = beforeSecondLastPlus.lastIndexOf("+");
+
+                    if (thirdLastPlusIndex > 0) {
+                        result.infringementUrl = beforeSecondLastPlus.substring(thirdLastPlusIndex + 1).trim();
+                        Log.d(TAG, "✅ 侵权链接: " + result.infringementUrl);
+                    } else {
+                        Log.d(TAG, "⚠️ 未找到侵权链接");
+                    }
+                }
+            }
+
+            // 3. 提取备注 (格式: 原创名称-抖音:侵权人账号名称)
+            // 新格式: 原创名称-抖音:侵权人账号名称-原创分享链接+侵权人分享链接+侵权视频标题
+            int douyinIndex = info.indexOf("-抖音:");
+
+            if (douyinIndex > 0) {
+                // 找到了"-抖音:",提取原创名称
+                String originalName = info.substring(0, douyinIndex).trim();
+
+                // 从"-抖音:"之后开始查找侵权人账号名称
+                String afterDouyin = info.substring(douyinIndex + 4); // 跳过"-抖音:"
+
+                // 侵权人账号名称到下一个"-"之前 (新格式中,账号名称后面是"-原创分享链接")
+                int nextDash = afterDouyin.indexOf("-");
+                String infringerName;
+                if (nextDash > 0) {
+                    infringerName = afterDouyin.substring(0, nextDash).trim();
+                } else {
+                    // 如果没有"-",就使用全部内容
+                    infringerName = afterDouyin.trim();
+                }
+
+                // 生成备注: 原创名称-抖音:侵权人账号名称
+                result.remark = originalName + "-抖音:" + infringerName;
+                // 🔧 直接存储解析结果，通过独立 setter 传给 service，避免 setRemark 二次解析失败
+                result.infringerName = infringerName;
+                result.originalName = originalName;
+                Log.d(TAG, "✅ 备注: " + result.remark);
+                Log.d(TAG, "  - 原创名称: " + originalName);
+                Log.d(TAG, "  - 侵权人账号名称: " + infringerName);
+            } else {
+                // 没有找到"-抖音:",使用完整内容作为备注
+                result.remark = info;
+                Log.d(TAG, "⚠️ 未找到'-抖音:',使用完整内容作为备注");
+            }
+
+        } catch (Exception e) {
+            Log.e(TAG, "解析失败: " + e.getMessage());
+            result.remark = info;
+        }
+
+        return result;
+    }
+}
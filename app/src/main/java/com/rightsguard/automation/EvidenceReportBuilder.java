@@ -0,0 +1,298 @@
+package com.rightsguard.automation;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 取证PDF报告（边取证边生成）
+ *  - 每张截图保存完成后就在后台线程解码、压成JPEG、写入临时PDF文件，流程结束时只剩收尾
+ *  - 按页面分辨率计算 inSampleSize，用 RGB_565 解码，写完立即回收，任何时刻只有一张图在内存里
+ *  - 页面对象直接写入文件流（{@link StreamingPdfWriter}），整个文档不驻留内存
+ *  - 页面顺序与 {@link #enqueue} 的调用顺序一致；收尾时把目录页（{@link EvidenceIndexRenderer}）写成PDF文字页并排到最前，
+ *    哈希可直接选中复制；每张截图另加一个书签，按名称跳转到对应页；案件信息同时写入PDF文档信息
+ */
+public class EvidenceReportBuilder {
+
+    /**
+     * 日志回调接口
+     */
+    public interface LogCallback {
+        void onLog(String message);
+    }
+
+    private static final int JPEG_QUALITY = 85;
+    private static final long SAVE_WAIT_MS = 15000;   // 单张截图等待保存完成的最长时间
+
+    private final ContentResolver resolver;
+    private final File tempFile;
+    private final int pageWidth;
+    private final int pageHeight;
+    private final int imageWidth;                      // 页面内图片的目标像素宽度
+    private final LogCallback logCallback;
+    private final ExecutorService executor;
+
+    private StreamingPdfWriter writer;
+    private int queued = 0;
+    private final List<SavedScreenshot> pages = new ArrayList<>();   // 已写入的截图页（仅后台线程访问）
+    private final List<Integer> pageIndexes = new ArrayList<>();     // 与 pages 对应的 writer 页序号
+    private IOException failure;
+    private volatile boolean abandoned = false;
+    private volatile int totalPages = 0;                             // 收尾后的总页数（含目录页）
+
+    /**
+     * @param tempFile   临时PDF文件（生成完成后复制到最终位置并删除）
+     * @param pageWidth  页面宽高（PDF单位）
+     * @param imageWidth 页面图片的像素宽度，决定解码采样率和报告体积
+     */
+    public EvidenceReportBuilder(ContentResolver resolver, File tempFile, int pageWidth, int pageHeight,
+                                 int imageWidth, LogCallback logCallback) {
+        this.resolver = resolver;
+        this.tempFile = tempFile;
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.imageWidth = imageWidth;
+        this.logCallback = logCallback;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "EvidenceReport");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 排队一张截图：保存完成后在后台写成PDF的下一页
+     */
+    public synchronized void enqueue(final CompletableFuture<SavedScreenshot> save) {
+        final int index = ++queued;
+        executor.execute(() -> {
+            if (abandoned) return;
+            SavedScreenshot shot;
+            try {
+                shot = save.get(SAVE_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log("  ⚠️ 第" + index + "张截图仍在保存中，报告跳过该截图");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log("  ⚠️ 第" + index + "张截图保存失败，报告跳过: " + e.getMessage());
+                return;
+            }
+            if (shot != null) {
+                addPage(shot, index);
+            }
+        });
+    }
+
+    /**
+     * 等待排队的页面全部写完，加上目录页并收尾，之后用 {@link #copyTo} 取出PDF
+     *
+     * @param title 报告标题（目录页标题和文档信息 Title）
+     * @param facts 案件信息（原创、侵权人、播放量、销量等），按插入顺序显示在目录页
+     * 抛异常或返回 0 时临时文件已删除，不必再调用 {@link #copyTo}
+     *
+     * @return 截图页数（0 表示没有任何截图页，不必再保存）
+     */
+    public int finish(final String title, final Map<String, String> facts, long timeoutMs)
+            throws IOException, InterruptedException {
+        Future<Integer> done = executor.submit(() -> {
+            if (failure != null) throw failure;
+            if (writer == null) return 0;
+            addIndexPages(title, facts);
+            writer.close();
+            totalPages = writer.getPageCount();
+            return pages.size();
+        });
+        int count = 0;
+        try {
+            count = done.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return count;
+        } catch (TimeoutException e) {
+            done.cancel(true);
+            throw new IOException("报告生成超时");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            // 失败/没有页面：排在收尾任务之后关闭写入流并删除临时文件（超时的收尾任务结束后才执行）
+            if (count == 0) executor.execute(this::discardTempFile);
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * PDF总页数（截图页 + 目录页），{@link #finish} 成功后有效
+     */
+    public int getPageCount() {
+        return totalPages;
+    }
+
+    /**
+     * 删除临时文件（{@link #finish} 成功后、未能 {@link #copyTo} 时调用，如目标文件创建失败）
+     */
+    public void deleteTempFile() {
+        tempFile.delete();
+    }
+
+    /**
+     * 把生成好的PDF复制到 output 并删除临时文件（output 由调用方关闭）
+     */
+    public void copyTo(OutputStream output) throws IOException {
+        try (InputStream in = new FileInputStream(tempFile)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                output.write(buffer, 0, n);
+            }
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * 放弃本次报告（新一轮取证开始时调用）
+     */
+    public synchronized void abandon() {
+        if (abandoned || executor.isShutdown()) return;
+        abandoned = true;
+        executor.execute(this::discardTempFile);
+        executor.shutdown();
+    }
+
+    /**
+     * 关闭写入流并删除临时文件（仅后台线程）
+     */
+    private void discardTempFile() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+        }
+        tempFile.delete();
+    }
+
+    private void addPage(SavedScreenshot shot, int index) {
+        if (failure != null || abandoned) return;
+        Bitmap bitmap = null;
+        try {
+            bitmap = decodeForPage(shot.uri);
+            if (bitmap == null) {
+                log("  ⚠️ 第" + index + "张图片解码失败，跳过");
+                return;
+            }
+            ByteArrayOutputStream jpeg = new ByteArrayOutputStream(256 * 1024);
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, jpeg);
+            int w = bitmap.getWidth();
+            int h = bitmap.getHeight();
+            bitmap.recycle();
+            bitmap = null;
+
+            int pageIndex = writer().addJpegPage(jpeg.toByteArray(), w, h, pageWidth, pageHeight);
+            pages.add(shot);
+            pageIndexes.add(pageIndex);
+            log("  ✅ 第" + index + "页已写入报告");
+        } catch (IOException e) {
+            failure = e;
+            log("  ❌ 报告写入失败: " + e.getMessage());
+        } catch (Exception e) {
+            log("  ❌ 第" + index + "页处理失败: " + e.getMessage());
+        } finally {
+            if (bitmap != null) bitmap.recycle();
+        }
+    }
+
+    /**
+     * 目录页写成文字页追加到文件末尾，再按顺序排到报告最前；书签：标题指向目录首页，每张截图指向各自页面；
+     * 案件信息同时写入文档信息字典
+     */
+    private void addIndexPages(String title, Map<String, String> facts) throws IOException {
+        EvidenceIndexRenderer renderer = new EvidenceIndexRenderer(pageWidth, pageHeight, title, facts, pages);
+        for (int i = 0; i < renderer.getPageCount(); i++) {
+            EvidenceIndexRenderer.Page page = renderer.render(i);
+            int pageIndex = writer.addTextPage(page.lines, page.rules, pageWidth, pageHeight);
+            writer.moveToFront(pageIndex);
+            if (i == 0) writer.addOutline(title, pageIndex);
+        }
+        for (int i = 0; i < pages.size(); i++) {
+            writer.addOutline("第" + renderer.pageNumberOf(i) + "页 " + pages.get(i).prefix, pageIndexes.get(i));
+        }
+
+        Map<String, String> info = new LinkedHashMap<>();
+        info.put("Title", title);
+        StringBuilder subject = new StringBuilder();
+        for (Map.Entry<String, String> fact : facts.entrySet()) {
+            if (fact.getValue() == null || fact.getValue().isEmpty()) continue;
+            if (subject.length() > 0) subject.append("；");
+            subject.append(fact.getKey()).append("：").append(fact.getValue());
+        }
+        info.put("Subject", subject.toString());
+        info.put("Creator", "权利卫士取证");
+        writer.setInfo(info);
+        log("  📑 目录页已生成（" + renderer.getPageCount() + "页）");
+    }
+
+    private StreamingPdfWriter writer() throws IOException {
+        if (writer == null) {
+            writer = new StreamingPdfWriter(new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024));
+        }
+        return writer;
+    }
+
+    /**
+     * 按页面图片宽度解码：先只读尺寸，算出 2 的幂采样率，再用 RGB_565 解码，最后精确缩放到目标宽度
+     */
+    private Bitmap decodeForPage(Uri uri) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) return null;
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inSampleSize = 1;
+        while (bounds.outWidth / (opts.inSampleSize * 2) >= imageWidth) {
+            opts.inSampleSize *= 2;
+        }
+        opts.inPreferredConfig = Bitmap.Config.RGB_565;   // 截图不需要透明通道，内存减半
+        Bitmap decoded;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) return null;
+            decoded = BitmapFactory.decodeStream(in, null, opts);
+        }
+        if (decoded == null || decoded.getWidth() <= imageWidth) return decoded;
+
+        int targetHeight = Math.round(decoded.getHeight() * (imageWidth / (float) decoded.getWidth()));
+        Bitmap scaled = Bitmap.createScaledBitmap(decoded, imageWidth, targetHeight, true);
+        if (scaled != decoded) decoded.recycle();
+        return scaled;
+    }
+
+    private void log(String message) {
+        if (logCallback != null) logCallback.onLog(message);
+    }
+}
@@ -10,16 +10,21 @@ import com.google.mlkit.vision.face.FaceDetector;
 import com.google.mlkit.vision.face.FaceDetectorOptions;
 
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 人脸检测工具类
  * 使用Google ML Kit进行离线人脸检测
+ * 异步接口返回 CompletableFuture，输入先缩小再检测；同步方法保留给旧调用方，内部等待异步结果
  */
 public class FaceDetectionHelper {
     private static final String TAG = "FaceDetectionHelper";
+    // 检测输入的短边像素（1080宽截图缩小到1/2）；最小人脸占短边15%，缩小后约80像素，远景/侧脸也不易漏检
+    private static final int DETECT_SHORT_SIDE = 540;
+    private static final Executor DIRECT = Runnable::run;
     private FaceDetector detector;
 
     public FaceDetectionHelper() {
@@ -36,116 +41,162 @@ public class FaceDetectionHelper {
     }
 
     /**
-     * 检测图片中是否有人脸(同步方法)
-     * @param bitmap 要检测的图片
-     * @return true表示有人脸, false表示没有人脸
+     * 单帧检测结果
      */
-    public boolean detectFace(Bitmap bitmap) {
-        if (bitmap == null) {
+    public static final class FaceResult {
+        public final int faceCount;      // 检测到的人脸总数（含过小的）
+        public final boolean hasValidFace;
+        public final float score;        // 最大有效人脸的面积占比（0~1），无有效人脸为 0
+        public final float centrality;   // 该人脸中心离画面中心的接近程度（1=正中，0=角落）
+
+        FaceResult(int faceCount, boolean hasValidFace, float score, float centrality) {
+            this.faceCount = faceCount;
+            this.hasValidFace = hasValidFace;
+            this.score = score;
+            this.centrality = centrality;
+        }
+    }
+
+    /**
+     * 异步检测人脸（不阻塞调用线程）
+     * 输入先缩小到短边 {@link #DETECT_SHORT_SIDE} 像素（约原图1/2）：最小人脸本来就要占短边15%，
+     * 缩小后仍有足够像素，检测耗时明显下降。检测用的位图总是在调用线程上另外生成（缩小或拷贝），
+     * 由本方法持有并在检测结束后回收，方法返回后调用方即可回收原图。
+     *
+     * @return 检测完成（或失败，视为无人脸）时完成的 future，不会异常完成
+     */
+    public CompletableFuture<FaceResult> detectAsync(Bitmap bitmap) {
+        final CompletableFuture<FaceResult> future = new CompletableFuture<>();
+        if (bitmap == null || bitmap.isRecycled()) {
             Log.w(TAG, "图片为空,无法检测人脸");
-            return false;
+            future.complete(new FaceResult(0, false, 0f, 0f));
+            return future;
         }
 
+        Bitmap copy;
         try {
-            // 转换为InputImage
-            InputImage image = InputImage.fromBitmap(bitmap, 0);
-
-            // 使用CountDownLatch实现同步等待
-            CountDownLatch latch = new CountDownLatch(1);
-            AtomicBoolean hasFace = new AtomicBoolean(false);
-
-            // 异步检测人脸
-            detector.process(image)
-                    .addOnSuccessListener(faces -> {
-                        // 检查是否有足够大的人脸
-                        boolean hasValidFace = false;
-                        if (faces != null && !faces.isEmpty()) {
-                            // 检查人脸大小,确保人脸足够大
-                            for (Face face : faces) {
-                                float faceWidth = face.getBoundingBox().width();
-                                float faceHeight = face.getBoundingBox().height();
-                                float imageWidth = bitmap.getWidth();
-                                float imageHeight = bitmap.getHeight();
-
-                                // 人脸宽度OR高度超过图片各自维度的8%,且面积不小于0.5%
-                                // 覆盖特写/中景/半身镜头,避免漏检
-                                float widthRatio = faceWidth / imageWidth;
-                                float heightRatio = faceHeight / imageHeight;
-                                float areaRatio = (faceWidth * faceHeight) / (imageWidth * imageHeight);
-                                if (widthRatio > 0.08f && heightRatio > 0.08f && areaRatio > 0.005f) {
-                                    hasValidFace = true;
-                                    Log.d(TAG, "✅ 检测到有效人脸,大小: " + (int)faceWidth + "x" + (int)faceHeight +
-                                             " (" + String.format("%.0f", widthRatio*100) + "% x " +
-                                             String.format("%.0f", heightRatio*100) + "%, 面积" +
-                                             String.format("%.1f", areaRatio*100) + "%)");
-                                    break;
-                                }
-                            }
-
-                            if (!hasValidFace) {
-                                Log.d(TAG, "⚠️ 检测到人脸但太小或比例不符,忽略 (数量: " + faces.size() + ")");
-                            }
+            copy = detectionCopy(bitmap);
+        } catch (Exception e) {
+            Log.e(TAG, "人脸检测缩放失败: " + e.getMessage());
+            copy = null;
+        }
+        final Bitmap input = copy;
+        if (input == null) {
+            future.complete(new FaceResult(0, false, 0f, 0f));
+            return future;
+        }
+
+        try {
+            detector.process(InputImage.fromBitmap(input, 0))
+                    // 回调直接在检测线程执行（只做比例计算），不经过主线程
+                    .addOnCompleteListener(DIRECT, task -> {
+                        FaceResult result;
+                        if (task.isSuccessful()) {
+                            result = evaluate(task.getResult(), input.getWidth(), input.getHeight());
                         } else {
-                            Log.d(TAG, "❌ 未检测到人脸");
+                            Exception e = task.getException();
+                            Log.e(TAG, "人脸检测失败: " + (e != null ? e.getMessage() : "unknown"));
+                            result = new FaceResult(0, false, 0f, 0f);
                         }
-
-                        hasFace.set(hasValidFace);
-                        latch.countDown();
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "人脸检测失败: " + e.getMessage());
-                        hasFace.set(false);
-                        latch.countDown();
+                        input.recycle();
+                        future.complete(result);
                     });
-
-            // 等待检测完成(最多等待2秒)
-            boolean completed = latch.await(2, TimeUnit.SECONDS);
-            if (!completed) {
-                Log.w(TAG, "人脸检测超时");
-                return false;
-            }
-
-            return hasFace.get();
-
         } catch (Exception e) {
             Log.e(TAG, "人脸检测异常: " + e.getMessage());
-            return false;
+            input.recycle();
+            future.complete(new FaceResult(0, false, 0f, 0f));
         }
+        return future;
+    }
+
+    /**
+     * 检测图片中是否有人脸(同步方法，阻塞最多2秒；新代码优先用 {@link #detectAsync})
+     * @param bitmap 要检测的图片
+     * @return true表示有人脸, false表示没有人脸
+     */
+    public boolean detectFace(Bitmap bitmap) {
+        return detect(bitmap).hasValidFace;
+    }
+
+    /**
+     * 检测并返回完整结果(同步方法，阻塞最多2秒；超时/失败视为无人脸，不返回 null)
+     */
+    public FaceResult detect(Bitmap bitmap) {
+        FaceResult result = await(detectAsync(bitmap));
+        return result != null ? result : new FaceResult(0, false, 0f, 0f);
     }
 
     /**
-     * 检测图片中的人脸数量(同步方法)
+     * 检测图片中的人脸数量(同步方法，阻塞最多2秒)
      * @param bitmap 要检测的图片
      * @return 人脸数量
      */
     public int getFaceCount(Bitmap bitmap) {
-        if (bitmap == null) {
-            return 0;
-        }
+        FaceResult result = await(detectAsync(bitmap));
+        int count = result != null ? result.faceCount : 0;
+        Log.d(TAG, "检测到人脸数量: " + count);
+        return count;
+    }
 
+    private static FaceResult await(CompletableFuture<FaceResult> future) {
         try {
-            InputImage image = InputImage.fromBitmap(bitmap, 0);
-            CountDownLatch latch = new CountDownLatch(1);
-            final int[] faceCount = {0};
-
-            detector.process(image)
-                    .addOnSuccessListener(faces -> {
-                        faceCount[0] = faces != null ? faces.size() : 0;
-                        Log.d(TAG, "检测到人脸数量: " + faceCount[0]);
-                        latch.countDown();
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "人脸检测失败: " + e.getMessage());
-                        latch.countDown();
-                    });
-
-            latch.await(2, TimeUnit.SECONDS);
-            return faceCount[0];
-
+            return future.get(2, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            Log.w(TAG, "人脸检测超时");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             Log.e(TAG, "人脸检测异常: " + e.getMessage());
-            return 0;
         }
+        return null;
+    }
+
+    /**
+     * 判断是否有足够大的人脸：宽、高都超过图片对应维度的8%，且面积不小于0.5%
+     * （覆盖特写/中景/半身镜头，避免漏检；比例与缩放无关）
+     */
+    private static FaceResult evaluate(List<Face> faces, int imageWidth, int imageHeight) {
+        if (faces == null || faces.isEmpty()) {
+            Log.d(TAG, "❌ 未检测到人脸");
+            return new FaceResult(0, false, 0f, 0f);
+        }
+        float best = 0f;
+        float bestCentrality = 0f;
+        for (Face face : faces) {
+            float faceWidth = face.getBoundingBox().width();
+            float faceHeight = face.getBoundingBox().height();
+            float widthRatio = faceWidth / imageWidth;
+            float heightRatio = faceHeight / imageHeight;
+            float areaRatio = (faceWidth * faceHeight) / ((float) imageWidth * imageHeight);
+            if (widthRatio > 0.08f && heightRatio > 0.08f && areaRatio > 0.005f && areaRatio > best) {
+                best = areaRatio;
+                float dx = face.getBoundingBox().exactCenterX() / imageWidth - 0.5f;
+                float dy = face.getBoundingBox().exactCenterY() / imageHeight - 0.5f;
+                // 到中心的距离归一化：角落约0.707
+                bestCentrality = Math.max(0f, 1f - (float) Math.sqrt(dx * dx + dy * dy) / 0.7071f);
+            }
+        }
+        if (best > 0f) {
+            Log.d(TAG, "✅ 检测到有效人脸,最大面积" + String.format("%.1f", best * 100) + "% (数量: " + faces.size() + ")");
+            return new FaceResult(faces.size(), true, best, bestCentrality);
+        }
+        Log.d(TAG, "⚠️ 检测到人脸但太小或比例不符,忽略 (数量: " + faces.size() + ")");
+        return new FaceResult(faces.size(), false, 0f, 0f);
+    }
+
+    /**
+     * 生成检测专用的位图：缩小到短边 DETECT_SHORT_SIDE；已经足够小时拷贝一份，
+     * ML Kit 异步读取的始终是本类持有的位图，不受调用方回收原图影响
+     *
+     * @return 新位图；拷贝失败返回 null
+     */
+    private static Bitmap detectionCopy(Bitmap bitmap) {
+        int w = bitmap.getWidth();
+        int h = bitmap.getHeight();
+        int shortSide = Math.min(w, h);
+        if (shortSide <= DETECT_SHORT_SIDE) return bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        float scale = DETECT_SHORT_SIDE / (float) shortSide;
+        return Bitmap.createScaledBitmap(bitmap, Math.round(w * scale), Math.round(h * scale), true);
     }
 
     /**
@@ -0,0 +1,178 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 取证截图候选排序：不再"先检测到人脸的前N帧直接保存"，而是给每个候选帧打分，只保留最好的 capacity 帧
+ *  - 清晰度：缩小后灰度图的拉普拉斯方差（运动模糊/转场帧得分低）
+ *  - 人脸：最大有效人脸的面积占比和居中程度（{@link FaceDetectionHelper.FaceResult}）
+ *  - 去重：与已保留帧的 pHash 距离不超过 {@link #DUPLICATE_DISTANCE} 视为同一画面，只留得分高的一张
+ * 用最小堆保存，最多同时持有 capacity 张位图；被淘汰的帧立即释放租约。扫描结束后 {@link #drainBest} 取出胜出帧再保存。
+ */
+public class FrameRanker {
+
+    /**
+     * 日志回调接口
+     */
+    public interface LogCallback {
+        void onLog(String message);
+    }
+
+    private static final int SHARPNESS_GRID_WIDTH = 270;   // 清晰度计算用的灰度图宽度（约1/4屏宽）
+    private static final double SHARPNESS_REF = 1000.0;    // 拉普拉斯方差达到该值视为完全清晰
+    private static final float FACE_AREA_REF = 0.15f;      // 人脸面积占比达到该值视为满分（半身/特写）
+    private static final int DUPLICATE_DISTANCE = 10;      // pHash 汉明距离不超过该值视为重复画面
+
+    private static final float WEIGHT_SHARPNESS = 0.45f;
+    private static final float WEIGHT_FACE_SIZE = 0.35f;
+    private static final float WEIGHT_CENTRALITY = 0.20f;
+
+    /**
+     * 一个候选帧（租约在 {@link #drainBest} 后交给调用方）
+     */
+    public static final class Candidate {
+        public final BitmapLease lease;
+        public final Bitmap bitmap;
+        public final long elapsedMs;
+        public final float score;
+        public final double sharpness;   // 原始拉普拉斯方差
+        final long hash;
+
+        Candidate(BitmapLease lease, long elapsedMs, float score, double sharpness, long hash) {
+            this.lease = lease;
+            this.bitmap = lease.bitmap();
+            this.elapsedMs = elapsedMs;
+            this.score = score;
+            this.sharpness = sharpness;
+            this.hash = hash;
+        }
+    }
+
+    private final int capacity;
+    private final LogCallback logCallback;
+    private final PriorityQueue<Candidate> heap;   // 堆顶是得分最低的保留帧
+    private int offered = 0;
+
+    public FrameRanker(int capacity, LogCallback logCallback) {
+        this.capacity = Math.max(1, capacity);
+        this.logCallback = logCallback;
+        this.heap = new PriorityQueue<>(this.capacity, (a, b) -> Float.compare(a.score, b.score));
+    }
+
+    /**
+     * 提交一个有人脸的候选帧，租约交给排序器（淘汰时释放）
+     *
+     * @return true 表示该帧当前进入了保留集合
+     */
+    public synchronized boolean offer(BitmapLease lease, long elapsedMs, FaceDetectionHelper.FaceResult face) {
+        offered++;
+        Bitmap bitmap = lease.bitmap();
+        double sharpness = laplacianVariance(bitmap);
+        float sharpScore = (float) Math.min(1.0, Math.log1p(sharpness) / Math.log1p(SHARPNESS_REF));
+        float faceScore = Math.min(1f, (float) Math.sqrt(face.score / FACE_AREA_REF));
+        float score = WEIGHT_SHARPNESS * sharpScore + WEIGHT_FACE_SIZE * faceScore
+                + WEIGHT_CENTRALITY * face.centrality;
+        long hash = ImageFingerprint.pHash(bitmap);
+        Candidate candidate = new Candidate(lease, elapsedMs, score, sharpness, hash);
+
+        // 与已保留帧画面重复：只和这些重复帧比较，赢了替换全部，输了直接丢弃
+        List<Candidate> duplicates = new ArrayList<>();
+        for (Candidate kept : heap) {
+            if (ImageFingerprint.distance(kept.hash, hash) <= DUPLICATE_DISTANCE) {
+                if (kept.score >= score) {
+                    log("  ♻️ " + seconds(elapsedMs) + "秒与" + seconds(kept.elapsedMs) + "秒画面重复且得分不高("
+                            + format(score) + "≤" + format(kept.score) + ")，丢弃");
+                    lease.release();
+                    return false;
+                }
+                duplicates.add(kept);
+            }
+        }
+        for (Candidate dup : duplicates) {
+            heap.remove(dup);
+            dup.lease.release();
+            log("  ♻️ " + seconds(dup.elapsedMs) + "秒被画面相同、得分更高的" + seconds(elapsedMs) + "秒替换");
+        }
+
+        if (heap.size() < capacity) {
+            heap.add(candidate);
+            return true;
+        }
+        Candidate weakest = heap.peek();
+        if (weakest.score >= score) {
+            lease.release();
+            return false;
+        }
+        heap.poll();
+        weakest.lease.release();
+        heap.add(candidate);
+        return true;
+    }
+
+    /**
+     * 取出保留的帧（按视频时间先后），租约交给调用方；之后排序器为空
+     */
+    public synchronized List<Candidate> drainBest() {
+        List<Candidate> best = new ArrayList<>(heap);
+        heap.clear();
+        Collections.sort(best, (a, b) -> Long.compare(a.elapsedMs, b.elapsedMs));
+        log("  🏅 候选帧" + offered + "个，保留" + best.size() + "个");
+        return best;
+    }
+
+    /**
+     * 释放所有保留帧（异常退出时调用）
+     */
+    public synchronized void clear() {
+        for (Candidate c : heap) {
+            c.lease.release();
+        }
+        heap.clear();
+    }
+
+    public synchronized int size() {
+        return heap.size();
+    }
+
+    /**
+     * 清晰度：缩小到固定宽度的灰度图上做4邻域拉普拉斯，返回响应的方差
+     */
+    static double laplacianVariance(Bitmap bitmap) {
+        int w = Math.min(SHARPNESS_GRID_WIDTH, bitmap.getWidth());
+        int h = Math.max(3, Math.round(bitmap.getHeight() * (w / (float) bitmap.getWidth())));
+        int[] luma = ImageFingerprint.lumaGrid(bitmap, w, h);
+        long sum = 0;
+        long sumSq = 0;
+        int n = 0;
+        for (int y = 1; y < h - 1; y++) {
+            int row = y * w;
+            for (int x = 1; x < w - 1; x++) {
+                int i = row + x;
+                int lap = luma[i - 1] + luma[i + 1] + luma[i - w] + luma[i + w] - 4 * luma[i];
+                sum += lap;
+                sumSq += (long) lap * lap;
+                n++;
+            }
+        }
+        if (n == 0) return 0;
+        double mean = sum / (double) n;
+        return sumSq / (double) n - mean * mean;
+    }
+
+    private static String seconds(long ms) {
+        return String.format("%.1f", ms / 1000.0);
+    }
+
+    private static String format(float score) {
+        return String.format("%.2f", score);
+    }
+
+    private void log(String message) {
+        if (logCallback != null) logCallback.onLog(message);
+    }
+}
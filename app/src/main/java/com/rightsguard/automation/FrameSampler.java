@@ -0,0 +1,308 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 流水线式视频帧采样器
+ *  - 采集：调用线程按固定间隔发起截屏，截屏完成由回调通知（不再固定 sleep 等待），同一时刻最多一张在途
+ *  - 处理：截到的帧进入有界队列，由独立工作线程逐帧处理（如人脸检测+保存），采集不等处理
+ *  - 转换：队列里存放截屏原图（如 HARDWARE 位图），工作线程取出后才 {@link FrameSource#materialize} 成可读像素的位图，
+ *    被丢弃的帧不做拷贝
+ *  - 背压：队列满时丢弃最旧的一帧（直接回收），保证处理的总是最新画面、内存有上限
+ *  - 结束：处理方确认保存够 targetCount 帧、调用方的结束条件成立（如播放进度到达结尾）或线程被中断时立即停止
+ */
+public class FrameSampler {
+
+    /**
+     * 帧来源：异步截屏，完成后调用 callback（任意线程），位图所有权交给采样器
+     */
+    public interface FrameSource {
+        void capture(FrameCallback callback);
+
+        /**
+         * 把截到的原图转换为处理用的位图（如 HARDWARE → ARGB_8888 拷贝），只对真正处理的帧调用。
+         * 返回新位图时原图由采样器回收；返回 null 表示转换失败
+         */
+        default Bitmap materialize(Bitmap captured) {
+            return captured;
+        }
+    }
+
+    public interface FrameCallback {
+        void onFrame(Bitmap bitmap);
+
+        void onFailure();
+    }
+
+    /**
+     * 帧处理（在工作线程按采集顺序调用）
+     */
+    public interface FrameProcessor {
+        /**
+         * 处理一帧，帧的租约交给处理方（负责释放，或转交/共享给保存、缓存环节）
+         *
+         * @return true 表示该帧已作为有效结果保存（计入 targetCount）
+         */
+        boolean process(Frame frame) throws Exception;
+    }
+
+    /**
+     * 日志回调接口
+     */
+    public interface LogCallback {
+        void onLog(String message);
+    }
+
+    /**
+     * 一帧：位图租约 + 相对开始时间 + 序号
+     */
+    public static final class Frame {
+        public final BitmapLease lease;
+        public final Bitmap bitmap;
+        public final long elapsedMs;
+        public final int seq;
+
+        Frame(BitmapLease lease, long elapsedMs, int seq) {
+            this.lease = lease;
+            this.bitmap = lease.bitmap();
+            this.elapsedMs = elapsedMs;
+            this.seq = seq;
+        }
+    }
+
+    /**
+     * 队列中等待处理的截屏原图
+     */
+    private static final class Captured {
+        final Bitmap bitmap;
+        final long elapsedMs;
+        final int seq;
+
+        Captured(Bitmap bitmap, long elapsedMs, int seq) {
+            this.bitmap = bitmap;
+            this.elapsedMs = elapsedMs;
+            this.seq = seq;
+        }
+    }
+
+    /**
+     * 采样统计
+     */
+    public static final class Stats {
+        public final int captured;
+        public final int failed;
+        public final int dropped;
+        public final int processed;
+        public final int accepted;
+        public final long elapsedMs;
+
+        Stats(int captured, int failed, int dropped, int processed, int accepted, long elapsedMs) {
+            this.captured = captured;
+            this.failed = failed;
+            this.dropped = dropped;
+            this.processed = processed;
+            this.accepted = accepted;
+            this.elapsedMs = elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            double sec = Math.max(0.001, elapsedMs / 1000.0);
+            return String.format(java.util.Locale.CHINA,
+                    "截取%d帧(%.1f帧/秒) 失败%d 丢弃%d 处理%d 命中%d，用时%.1f秒",
+                    captured, captured / sec, failed, dropped, processed, accepted, sec);
+        }
+    }
+
+    private static final long CAPTURE_TIMEOUT_MS = 2000;   // 单次截屏回调的最长等待
+    private static final Captured POISON = new Captured(null, 0, -1);
+
+    private final FrameSource source;
+    private final long intervalMs;
+    private final int queueCapacity;
+    private final LogCallback logCallback;
+
+    /**
+     * @param intervalMs    截屏间隔（系统限制无障碍截屏约每333ms一次，更短会被拒绝）
+     * @param queueCapacity 待处理帧队列容量（每帧约10MB，通常 2）
+     */
+    public FrameSampler(FrameSource source, long intervalMs, int queueCapacity, LogCallback logCallback) {
+        this.source = source;
+        this.intervalMs = intervalMs;
+        this.queueCapacity = queueCapacity;
+        this.logCallback = logCallback;
+    }
+
+    /**
+     * 阻塞采样，直到处理方保存够 targetCount 帧或 stopCondition 返回 true（每次截屏前检查）
+     *
+     * @param startTimeMs   计时起点（System.currentTimeMillis），帧的 elapsedMs 相对于它
+     * @param stopCondition 结束条件，如"视频已播放到结尾"
+     */
+    public Stats run(long startTimeMs, BooleanSupplier stopCondition, final int targetCount,
+                     final FrameProcessor processor) throws InterruptedException {
+        final BlockingQueue<Captured> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final CountDownLatch reached = new CountDownLatch(1);   // 处理方保存够目标帧数
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicInteger processed = new AtomicInteger();
+        final AtomicInteger dropped = new AtomicInteger();
+
+        Thread worker = new Thread(() -> {
+            try {
+                while (true) {
+                    Captured item = queue.take();
+                    if (item == POISON) break;
+                    if (reached.getCount() == 0) {
+                        item.bitmap.recycle();
+                        continue;
+                    }
+                    Bitmap bitmap = source.materialize(item.bitmap);
+                    if (bitmap != item.bitmap) item.bitmap.recycle();
+                    if (bitmap == null) {
+                        log("⚠️ 帧转换失败，跳过第" + item.seq + "帧");
+                        continue;
+                    }
+                    processed.incrementAndGet();
+                    Frame frame = new Frame(new BitmapLease(bitmap), item.elapsedMs, item.seq);
+                    try {
+                        if (processor.process(frame) && accepted.incrementAndGet() >= targetCount) {
+                            reached.countDown();
+                        }
+                    } catch (Exception e) {
+                        log("⚠️ 帧处理失败: " + e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "FrameSampler");
+        worker.setDaemon(true);
+        worker.start();
+
+        int captured = 0;
+        int failed = 0;
+        int seq = 0;
+        boolean interrupted = false;
+        try {
+            long nextCaptureAt = System.currentTimeMillis();
+            while (reached.getCount() > 0) {
+                if (stopCondition.getAsBoolean()) break;
+                long now = System.currentTimeMillis();
+                // 等到下一个采集时刻；期间处理方达到目标则立即结束
+                if (nextCaptureAt > now && reached.await(nextCaptureAt - now, TimeUnit.MILLISECONDS)) break;
+                nextCaptureAt = System.currentTimeMillis() + intervalMs;
+
+                PendingCapture pending = new PendingCapture();
+                source.capture(pending);
+                Bitmap bitmap = pending.await(CAPTURE_TIMEOUT_MS);
+                if (bitmap == null) {
+                    failed++;
+                    continue;
+                }
+                captured++;
+                Captured frame = new Captured(bitmap, System.currentTimeMillis() - startTimeMs, ++seq);
+                while (!queue.offer(frame)) {
+                    // 队列已满：丢弃最旧的一帧，处理线程始终拿到最新画面
+                    Captured oldest = queue.poll();
+                    if (oldest != null) {
+                        oldest.bitmap.recycle();
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            reached.countDown();   // 通知处理线程丢弃剩余帧
+            Captured leftover;
+            while ((leftover = queue.poll()) != null) {
+                leftover.bitmap.recycle();
+            }
+            queue.offer(POISON);
+            // 任何退出路径（含中断、结束条件抛异常）都等工作线程退出后才返回：
+            // 之后调用方取结果/释放资源时，不会再有帧被处理或写入
+            if (interrupted) worker.interrupt();
+            interrupted |= joinUninterruptibly(worker);
+        }
+        if (interrupted) {
+            throw new InterruptedException("帧采样被中断");
+        }
+        return new Stats(captured, failed, dropped.get(), processed.get(), accepted.get(),
+                System.currentTimeMillis() - startTimeMs);
+    }
+
+    /**
+     * 等待线程结束；等待期间被中断时让该线程尽快退出并继续等
+     *
+     * @return 等待期间是否被中断过
+     */
+    private static boolean joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                return interrupted;
+            } catch (InterruptedException e) {
+                interrupted = true;
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * 一次在途截屏：回调与等待方交接位图；等待超时后才到达的位图直接回收，不会泄漏
+     */
+    private static final class PendingCapture implements FrameCallback {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private Bitmap bitmap;
+        private boolean abandoned;
+
+        @Override
+        public void onFrame(Bitmap b) {
+            synchronized (this) {
+                if (abandoned) {
+                    b.recycle();
+                    return;
+                }
+                bitmap = b;
+            }
+            latch.countDown();
+        }
+
+        @Override
+        public void onFailure() {
+            latch.countDown();
+        }
+
+        Bitmap await(long timeoutMs) throws InterruptedException {
+            boolean completed = false;
+            try {
+                completed = latch.await(timeoutMs, TimeUnit.MILLISECONDS);
+            } finally {
+                synchronized (this) {
+                    if (!completed) {
+                        abandoned = true;
+                        if (bitmap != null) {
+                            bitmap.recycle();
+                            bitmap = null;
+                        }
+                    }
+                }
+            }
+            synchronized (this) {
+                return bitmap;
+            }
+        }
+    }
+
+    private void log(String message) {
+        if (logCallback != null) logCallback.onLog(message);
+    }
+}
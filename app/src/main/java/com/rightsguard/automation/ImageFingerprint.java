@@ -0,0 +1,91 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+import java.util.Arrays;
+
+/**
+ * 图片指纹（64位感知哈希）
+ *  - pHash：32×32 灰度做 DCT，取低频 8×8 与中位数比较，对重新编码/水印/轻微裁剪稳定
+ * 缩放后一次 getPixels 批量取像素，灰度用整数加权，不再逐像素 getPixel。
+ */
+public final class ImageFingerprint {
+
+    private static final int PHASH_SIZE = 32;
+    private static final int PHASH_LOW = 8;
+    private static final double[][] DCT_COS = new double[PHASH_LOW][PHASH_SIZE];
+
+    static {
+        for (int u = 0; u < PHASH_LOW; u++) {
+            for (int x = 0; x < PHASH_SIZE; x++) {
+                DCT_COS[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2 * PHASH_SIZE));
+            }
+        }
+    }
+
+    private ImageFingerprint() {
+    }
+
+    /**
+     * DCT 感知哈希
+     */
+    public static long pHash(Bitmap bitmap) {
+        int[] luma = lumaGrid(bitmap, PHASH_SIZE, PHASH_SIZE);
+
+        // 只需要低频 8×8：先对每行做 8 个系数的一维DCT，再对列做
+        double[] rows = new double[PHASH_SIZE * PHASH_LOW];
+        for (int y = 0; y < PHASH_SIZE; y++) {
+            for (int u = 0; u < PHASH_LOW; u++) {
+                double s = 0;
+                for (int x = 0; x < PHASH_SIZE; x++) {
+                    s += luma[y * PHASH_SIZE + x] * DCT_COS[u][x];
+                }
+                rows[y * PHASH_LOW + u] = s;
+            }
+        }
+        double[] low = new double[PHASH_LOW * PHASH_LOW];
+        for (int v = 0; v < PHASH_LOW; v++) {
+            for (int u = 0; u < PHASH_LOW; u++) {
+                double s = 0;
+                for (int y = 0; y < PHASH_SIZE; y++) {
+                    s += rows[y * PHASH_LOW + u] * DCT_COS[v][y];
+                }
+                low[v * PHASH_LOW + u] = s;
+            }
+        }
+
+        // 中位数不含直流分量（整体亮度）
+        double[] sorted = new double[low.length - 1];
+        System.arraycopy(low, 1, sorted, 0, sorted.length);
+        Arrays.sort(sorted);
+        double median = (sorted[sorted.length / 2 - 1] + sorted[sorted.length / 2]) / 2;
+
+        long hash = 0;
+        for (int i = 0; i < 64; i++) {
+            if (low[i] > median) hash |= 1L << i;
+        }
+        return hash;
+    }
+
+    /**
+     * 汉明距离（不同bit数量），越小越相似
+     */
+    public static int distance(long h1, long h2) {
+        return Long.bitCount(h1 ^ h2);
+    }
+
+    /**
+     * 缩放到 w×h 并返回整数灰度（0-255）
+     */
+    static int[] lumaGrid(Bitmap bitmap, int w, int h) {
+        Bitmap small = Bitmap.createScaledBitmap(bitmap, w, h, true);
+        int[] pixels = new int[w * h];
+        small.getPixels(pixels, 0, w, 0, 0, w, h);
+        if (small != bitmap) small.recycle();
+        for (int i = 0; i < pixels.length; i++) {
+            int c = pixels[i];
+            pixels[i] = (77 * ((c >> 16) & 0xFF) + 150 * ((c >> 8) & 0xFF) + 29 * (c & 0xFF)) >> 8;
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+/**
+ * 本地模板匹配解算器（{@link SliderSolver}），无需网络；NCC 得分作为可信度
+ */
+public class LocalCaptchaSolver implements CaptchaSolver {
+
+    private final int fragOffsetY;
+
+    /**
+     * @param fragOffsetY 碎片图顶部在背景图中的Y
+     */
+    public LocalCaptchaSolver(int fragOffsetY) {
+        this.fragOffsetY = fragOffsetY;
+    }
+
+    @Override
+    public String name() {
+        return "本地匹配";
+    }
+
+    @Override
+    public Solution solve(Bitmap background, Bitmap fragment) {
+        int bgW = background.getWidth();
+        int bgH = background.getHeight();
+        int[] bgPixels = new int[bgW * bgH];
+        background.getPixels(bgPixels, 0, bgW, 0, 0, bgW, bgH);
+
+        int fgW = fragment != null ? fragment.getWidth() : 162;
+        int fgH = fragment != null ? fragment.getHeight() : 162;
+        int[] fgPixels = null;
+        if (fragment != null) {
+            fgPixels = new int[fgW * fgH];
+            fragment.getPixels(fgPixels, 0, fgW, 0, 0, fgW, fgH);
+        }
+
+        SliderSolver.Result result = SliderSolver.solve(bgPixels, bgW, bgH, fgPixels, fgW, fgH, fragOffsetY);
+        if (!result.found()) return null;
+        // 没有碎片图时得分是边缘密度而不是相关系数，不可信
+        double confidence = fragment != null ? Math.max(0, result.score) : 0;
+        return new Solution(result.x, confidence, name());
+    }
+}
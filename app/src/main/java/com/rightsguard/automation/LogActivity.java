@@ -43,6 +43,13 @@ public class LogActivity extends AppCompatActivity implements View.OnClickListen
     /** 用户是否手动向上滚动了（true=不自动跟随底部；false=自动跟随最新日志） */
     private boolean userScrolledUp = false;
 
+    /** 已显示到的日志序号，自动刷新时只追加比它新的日志 */
+    private long lastLogSeq = 0;
+    /** 文本框当前显示的是日志（false=显示"暂无日志"提示） */
+    private boolean showingLogs = false;
+    /** 文本框超过该长度时用内存日志整体重设一次，避免无限增长 */
+    private static final int MAX_DISPLAY_LENGTH = 200000;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -136,18 +143,35 @@ public class LogActivity extends AppCompatActivity implements View.OnClickListen
 
     private void updateLogDisplay() {
         try {
-            String logs = AutomationAccessibilityService.getLogs();
+            LogStore.Chunk chunk = AutomationAccessibilityService.getLogsSince(lastLogSeq);
+            lastLogSeq = chunk.lastSeq;
+            if (chunk.reset) {
+                showingLogs = false;
+            }
 
-            if (logs == null || logs.isEmpty()) {
-                tvLogContent.setText(R.string.log_empty);
-                tvLogContent.setTextColor(getResources().getColor(R.color.text_hint, null));
-            } else {
-                tvLogContent.setText(logs);
-                tvLogContent.setTextColor(getResources().getColor(R.color.text_secondary, null));
-                // 只有用户没有手动向上翻时才自动滚到底部
-                if (!userScrolledUp) {
-                    scrollView.post(() -> scrollView.fullScroll(View.FOCUS_DOWN));
+            if (chunk.text.isEmpty()) {
+                if (!showingLogs) {
+                    tvLogContent.setText(R.string.log_empty);
+                    tvLogContent.setTextColor(getResources().getColor(R.color.text_hint, null));
                 }
+                return;
+            }
+
+            if (!showingLogs) {
+                tvLogContent.setText(chunk.text);
+                tvLogContent.setTextColor(getResources().getColor(R.color.text_secondary, null));
+                showingLogs = true;
+            } else if (tvLogContent.length() + chunk.text.length() > MAX_DISPLAY_LENGTH) {
+                LogStore.Chunk all = AutomationAccessibilityService.getLogsSince(0);
+                tvLogContent.setText(all.text);
+                lastLogSeq = all.lastSeq;
+            } else {
+                // 只追加新日志，不再每秒整体替换
+                tvLogContent.append(chunk.text);
+            }
+            // 只有用户没有手动向上翻时才自动滚到底部
+            if (!userScrolledUp) {
+                scrollView.post(() -> scrollView.fullScroll(View.FOCUS_DOWN));
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -0,0 +1,237 @@
+package com.rightsguard.automation;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * 异步批量日志文件写入器
+ * 调用线程只把日志行放进有界环形缓冲区（加锁 + 数组赋值），由后台线程批量写入：
+ *  - 文件通道保持打开，一批日志一次 write，不再每行 open/close FileWriter
+ *  - 按日期滚动文件：{prefix}yyyy-MM-dd.log
+ *  - 缓冲区满时丢弃最旧的行，并在文件中记录丢弃数量（不阻塞调用线程）
+ *  - flush 让后台线程立即写出并落盘，用于停止任务/服务销毁时
+ */
+public class LogFileWriter {
+
+    private static final String TAG = "LogFileWriter";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int CAPACITY = 4096;          // 环形缓冲区最多缓存的行数
+    private static final long BATCH_DELAY_MS = 200;    // 收到第一行后最多攒这么久再写，合并成一批
+
+    private final File dir;
+    private final String prefix;
+
+    private final Object lock = new Object();
+    private final String[] ring = new String[CAPACITY];
+    private int head = 0;             // 最旧一行的位置
+    private int count = 0;            // 缓冲区中的行数
+    private int dropped = 0;          // 因缓冲区满被丢弃、尚未记录到文件的行数
+    private long appendedSeq = 0;     // 累计放入的行数
+    private long writtenSeq = 0;      // 累计已写出（或丢弃）的行数
+    private boolean forceRequested = false;
+    private Thread writerThread;
+
+    // 以下只在写线程中访问
+    private FileChannel channel;
+    private long dayEndMillis = 0;
+
+    public LogFileWriter(File dir, String prefix) {
+        this.dir = dir;
+        this.prefix = prefix;
+    }
+
+    /**
+     * 追加一行（应已包含换行符），任何线程可调用，不做 IO
+     */
+    public void append(String line) {
+        synchronized (lock) {
+            if (count == CAPACITY) {
+                // 缓冲区满：丢弃最旧的一行
+                ring[head] = null;
+                head = (head + 1) % CAPACITY;
+                count--;
+                dropped++;
+                writtenSeq++;
+            }
+            ring[(head + count) % CAPACITY] = line;
+            count++;
+            appendedSeq++;
+            ensureWriterStarted();
+            if (count == 1) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 请求后台线程立即写出缓冲区并落盘（不等待）
+     */
+    public void flush() {
+        synchronized (lock) {
+            forceRequested = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 写出当前已追加的全部日志并落盘，最多等待 timeoutMs
+     *
+     * @return true=已全部写出
+     */
+    public boolean flushAndWait(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (lock) {
+            if (writerThread == null) return true;
+            long target = appendedSeq;
+            forceRequested = true;
+            lock.notifyAll();
+            while (writtenSeq < target || forceRequested) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void ensureWriterStarted() {
+        if (writerThread != null) return;
+        writerThread = new Thread(this::writeLoop, "LogFileWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void writeLoop() {
+        StringBuilder batch = new StringBuilder(8192);
+        while (true) {
+            int lines;
+            int droppedLines;
+            boolean force;
+            synchronized (lock) {
+                try {
+                    while (count == 0 && !forceRequested) {
+                        lock.wait();
+                    }
+                    // 攒批：不是强制刷新时，稍等片刻让后续日志一起写
+                    if (!forceRequested && count < CAPACITY / 2) {
+                        lock.wait(BATCH_DELAY_MS);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                lines = count;
+                droppedLines = dropped;
+                force = forceRequested;
+                if (droppedLines > 0) {
+                    batch.append("[日志] 缓冲区已满，丢弃了 ").append(droppedLines).append(" 行\n");
+                }
+                for (int i = 0; i < lines; i++) {
+                    int idx = (head + i) % CAPACITY;
+                    batch.append(ring[idx]);
+                    ring[idx] = null;
+                }
+                head = (head + lines) % CAPACITY;
+                count = 0;
+                dropped = 0;
+            }
+
+            if (batch.length() > 0) {
+                write(batch);
+                batch.setLength(0);
+                if (batch.capacity() > 65536) {
+                    batch = new StringBuilder(8192);
+                }
+            }
+            if (force) {
+                force();
+            }
+
+            synchronized (lock) {
+                writtenSeq += lines;
+                if (force) {
+                    forceRequested = false;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void write(CharSequence text) {
+        try {
+            FileChannel ch = currentChannel();
+            if (ch == null) return;
+            ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(UTF_8));
+            while (buffer.hasRemaining()) {
+                ch.write(buffer);
+            }
+        } catch (IOException e) {
+            // 忽略日志保存失败的异常,避免影响主流程；下次重新打开文件
+            Log.e(TAG, "保存日志到文件失败: " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    private void force() {
+        try {
+            if (channel != null) channel.force(false);
+        } catch (IOException e) {
+            Log.e(TAG, "日志落盘失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 当前日期对应的文件通道；跨过零点时关闭旧文件、打开新文件
+     */
+    private FileChannel currentChannel() throws IOException {
+        long now = System.currentTimeMillis();
+        if (channel != null && now < dayEndMillis) {
+            return channel;
+        }
+        closeChannel();
+
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "创建日志目录失败: " + dir.getAbsolutePath());
+            return null;
+        }
+        // 日志文件名:按日期命名
+        String dateStr = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date(now));
+        File logFile = new File(dir, prefix + dateStr + ".log");
+        channel = new FileOutputStream(logFile, true).getChannel();
+
+        Calendar next = Calendar.getInstance();
+        next.setTimeInMillis(now);
+        next.set(Calendar.HOUR_OF_DAY, 0);
+        next.set(Calendar.MINUTE, 0);
+        next.set(Calendar.SECOND, 0);
+        next.set(Calendar.MILLISECOND, 0);
+        next.add(Calendar.DAY_OF_MONTH, 1);
+        dayEndMillis = next.getTimeInMillis();
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // 关闭失败无需处理
+        }
+        channel = null;
+    }
+}
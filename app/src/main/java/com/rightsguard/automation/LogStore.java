@@ -0,0 +1,92 @@
+package com.rightsguard.automation;
+
+/**
+ * 内存日志存储（环形缓冲区）
+ * 每行日志分配递增序号，满了直接覆盖最旧的行，不再 StringBuilder.delete 整体搬移。
+ * 界面按序号增量读取：{@link #readSince} 只返回比上次看到的序号更新的行。
+ */
+public class LogStore {
+
+    /**
+     * 一次增量读取的结果
+     */
+    public static final class Chunk {
+        public final String text;     // 新增日志（已含换行）
+        public final long lastSeq;    // 本次读到的最后序号，下次读取时传入
+        public final boolean reset;   // true=读取方落后太多或日志被清空，text 是当前全部日志，需整体替换显示
+
+        Chunk(String text, long lastSeq, boolean reset) {
+            this.text = text;
+            this.lastSeq = lastSeq;
+            this.reset = reset;
+        }
+    }
+
+    private final String[] ring;
+    private int head = 0;        // 最旧一行的位置
+    private int count = 0;
+    private long nextSeq = 1;    // 下一行的序号（0 表示"什么都没读过"）
+
+    public LogStore(int capacity) {
+        this.ring = new String[capacity];
+    }
+
+    /**
+     * 追加一行（应已包含换行符）
+     *
+     * @return 该行的序号
+     */
+    public synchronized long append(String line) {
+        if (count == ring.length) {
+            ring[head] = line;
+            head = (head + 1) % ring.length;
+        } else {
+            ring[(head + count) % ring.length] = line;
+            count++;
+        }
+        return nextSeq++;
+    }
+
+    /**
+     * 读取序号大于 afterSeq 的日志；afterSeq=0 表示读取全部
+     */
+    public synchronized Chunk readSince(long afterSeq) {
+        long oldestSeq = nextSeq - count;
+        long lastSeq = nextSeq - 1;
+        boolean reset = afterSeq < oldestSeq - 1;
+        long from = reset ? oldestSeq : afterSeq + 1;
+        if (from > lastSeq) {
+            return new Chunk("", lastSeq, reset);
+        }
+        int skip = (int) (from - oldestSeq);
+        StringBuilder sb = new StringBuilder();
+        for (int i = skip; i < count; i++) {
+            sb.append(ring[(head + i) % ring.length]);
+        }
+        return new Chunk(sb.toString(), lastSeq, reset);
+    }
+
+    /**
+     * 当前全部日志
+     */
+    public synchronized String getAll() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(ring[(head + i) % ring.length]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 清空日志
+     * 清空会额外占用一个序号，这样清空前读到最新的读取方下次也能发现断档并重置显示
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = null;
+        }
+        head = 0;
+        count = 0;
+        nextSeq++;
+    }
+}
@@ -3,7 +3,6 @@ package com.rightsguard.automation;
 import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -25,6 +24,7 @@ public class MainActivity extends AppCompatActivity {
     private View viewStatusIndicator;
     private MaterialButton btnStart;
     private MaterialButton btnScreenshotTest; // 📸 第二张截图测试
+    private MaterialButton btnBatch; // 📋 批量取证
     private MaterialButton btnStop;
     private MaterialButton btnViewLog;
     private ImageView ivSettings;
@@ -52,6 +52,7 @@ public class MainActivity extends AppCompatActivity {
         viewStatusIndicator = findViewById(R.id.view_status_indicator);
         btnStart = findViewById(R.id.btn_start);
         btnScreenshotTest = findViewById(R.id.btn_screenshot_test);
+        btnBatch = findViewById(R.id.btn_batch);
         btnStop = findViewById(R.id.btn_stop);
         btnViewLog = findViewById(R.id.btn_view_log);
         ivSettings = findViewById(R.id.iv_settings);
@@ -69,6 +70,9 @@ public class MainActivity extends AppCompatActivity {
         // 第二张截图测试按钮
         btnScreenshotTest.setOnClickListener(v -> startScreenshotTestMode());
 
+        // 批量取证按钮
+        btnBatch.setOnClickListener(v -> startBatchAutomation());
+
         // 停止按钮
         btnStop.setOnClickListener(v -> stopAutomation());
 
@@ -108,11 +112,11 @@ public class MainActivity extends AppCompatActivity {
         }
 
         // 解析取证信息
-        ParseResult parseResult = parseEvidenceInfo(evidenceInfo);
+        EvidenceInfoParser.Result parseResult = EvidenceInfoParser.parse(evidenceInfo);
 
         // 显示解析结果Toast
-        if (parseResult.infringementUrl != null && !parseResult.infringementUrl.isEmpty()) {
-            Toast.makeText(this, "✅ 侵权链接: " + parseResult.infringementUrl,
+        if (parseResult.hasInfringementUrl()) {
+            Toast.makeText(this, "✅ 侵权链接: " + parseResult.getInfringementUrl(),
                 Toast.LENGTH_LONG).show();
         } else {
             Toast.makeText(this, "⚠️ 未解析到侵权链接,请检查输入格式",
@@ -122,46 +126,8 @@ public class MainActivity extends AppCompatActivity {
         // 启动自动化
         AutomationAccessibilityService service = AutomationAccessibilityService.getInstance();
         if (service != null) {
-            // 设置备注
-            service.setRemark(parseResult.remark);
-            // 🔧 直接设置侵权人名称和原创名称，不依赖 setRemark 二次解析
-            service.setInfringerName(parseResult.infringerName);
-            service.setOriginalName(parseResult.originalName);
-            Log.d("MainActivity", "✅ [startAutomation] 侵权人: '" + parseResult.infringerName + "' 原创: '" + parseResult.originalName + "'");
-
-            // 设置侵权链接
-            if (parseResult.infringementUrl != null && !parseResult.infringementUrl.isEmpty()) {
-                service.setInfringementUrl(parseResult.infringementUrl);
-                Log.d("MainActivity", "✅ 已设置侵权链接: " + parseResult.infringementUrl);
-            } else {
-                Log.d("MainActivity", "⚠️ 未解析到侵权链接");
-            }
-
-            // 🆕 设置视频关键词
-            if (parseResult.videoKeywords != null && !parseResult.videoKeywords.isEmpty()) {
-                service.setVideoKeywords(parseResult.videoKeywords);
-                Log.d("MainActivity", "✅ 已设置视频关键词: " + parseResult.videoKeywords);
-            } else {
-                Log.d("MainActivity", "⚠️ 未解析到视频关键词");
-            }
-
-            // 🆕 设置视频时长
-            service.setVideoDurationSeconds(parseResult.videoDurationSeconds);
-            Log.d("MainActivity", "✅ 已设置视频时长: " + parseResult.videoDurationSeconds + "秒");
-
-            // 🆕 设置封面URL（用于创作灵感MD5封面对比）
-            if (parseResult.coverImageUrl != null && !parseResult.coverImageUrl.isEmpty()) {
-                service.setCoverImageUrl(parseResult.coverImageUrl);
-                Log.d("MainActivity", "✅ 已设置封面URL: " + parseResult.coverImageUrl);
-            } else {
-                Log.d("MainActivity", "⚠️ 未提供封面URL，跳过创作灵感封面对比");
-            }
-
-            // 🆕 设置销量筛选阈值
-            int salesThresh = parseSalesThresholdInput();
-            service.setSalesThreshold(salesThresh);
-            Log.d("MainActivity", "✅ 已设置销量筛选阈值: " + (salesThresh > 0 ? salesThresh : "不筛选"));
-
+            service.resetCaseState();
+            parseResult.applyTo(service, parseSalesThresholdInput());
             service.startAutomation();
             isRunning = true;
             updateStatus(STATUS_RUNNING);
@@ -170,138 +136,6 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    /**
-     * 解析取证信息
-     */
-    private ParseResult parseEvidenceInfo(String info) {
-        ParseResult result = new ParseResult();
-
-        try {
-            Log.d("MainActivity", "🔍 开始解析: " + info);
-
-            // 🔧 兼容中文键盘全角冒号：将全角冒号「：」统一替换为半角冒号「:」，防止 indexOf("-抖音:") 失败
-            info = info.replace("：", ":");
-
-            // 格式: 原创名称-抖音:侵权人账号名称-原创分享链接+侵权人分享链接+侵权视频标题+侵权视频时长[+封面URL]
-            // 示例(含封面): 花开富贵-抖音:文文工艺品-https://v.douyin.com/xxx/+https://v.douyin.com/iFLNKJNj/+花开富贵檀香，燃起来就会开花+106+https://p3-aio.ecombdimg.com/jpeg_m_xxx
-
-            // 🆕 先检查最后一段是否为封面URL（以http开头则为新格式，剥离后再解析其余字段）
-            String effectiveInfo = info;
-            {
-                int lastIdx = info.lastIndexOf("+");
-                if (lastIdx > 0) {
-                    String lastSeg = info.substring(lastIdx + 1).trim();
-                    if (lastSeg.startsWith("http")) {
-                        result.coverImageUrl = lastSeg;
-                        Log.d("MainActivity", "✅ 封面URL: " + lastSeg);
-                        effectiveInfo = info.substring(0, lastIdx); // 剥离封面URL，后续解析用短字符串
-                    }
-                }
-            }
-
-            // 1. 提取视频时长 (effectiveInfo中最后一个+号之后的内容)
-            int lastPlusIndex = effectiveInfo.lastIndexOf("+");
-            if (lastPlusIndex > 0 && lastPlusIndex < effectiveInfo.length() - 1) {
-                String durationStr = effectiveInfo.substring(lastPlusIndex + 1).trim();
-                try {
-                    result.videoDurationSeconds = Integer.parseInt(durationStr);
-                    Log.d("MainActivity", "✅ 视频时长: " + result.videoDurationSeconds + "秒");
-                } catch (NumberFormatException e) {
-                    Log.d("MainActivity", "⚠️ 视频时长解析失败,使用默认值60秒");
-                    result.videoDurationSeconds = 60;
-                }
-            } else {
-                Log.d("MainActivity", "⚠️ 未找到视频时长,使用默认值60秒");
-                result.videoDurationSeconds = 60;
-            }
-
-            // 2. 提取视频标题 (倒数第二个+号和最后一个+号之间的内容)
-            if (lastPlusIndex > 0) {
-                String beforeLastPlus = effectiveInfo.substring(0, lastPlusIndex);
-                int secondLastPlusIndex = beforeLastPlus.lastIndexOf("+");
-
-                if (secondLastPlusIndex > 0) {
-                    result.videoKeywords = beforeLastPlus.substring(secondLastPlusIndex + 1).trim();
-                    Log.d("MainActivity", "✅ 视频关键词: " + result.videoKeywords);
-                } else {
-                    Log.d("MainActivity", "⚠️ 未找到视频关键词");
-                }
-            }
-
-            // 3. 提取侵权链接 (倒数第三个+号和倒数第二个+号之间的内容)
-            if (lastPlusIndex > 0) {
-                String beforeLastPlus = effectiveInfo.substring(0, lastPlusIndex);
-                int secondLastPlusIndex = beforeLastPlus.lastIndexOf("+");
-
-                if (secondLastPlusIndex > 0) {
-                    String beforeSecondLastPlus = beforeLastPlus.substring(0, secondLastPlusIndex);
-                    int thirdLastPlusIndex = beforeSecondLastPlus.lastIndexOf("+");
-
-                    if (thirdLastPlusIndex > 0) {
-                        result.infringementUrl = beforeSecondLastPlus.substring(thirdLastPlusIndex + 1).trim();
-                        Log.d("MainActivity", "✅ 侵权链接: " + result.infringementUrl);
-                    } else {
-                        Log.d("MainActivity", "⚠️ 未找到侵权链接");
-                    }
-                }
-            }
-
-            // 3. 提取备注 (格式: 原创名称-抖音:侵权人账号名称)
-            // 新格式: 原创名称-抖音:侵权人账号名称-原创分享链接+侵权人分享链接+侵权视频标题
-            int douyinIndex = info.indexOf("-抖音:");
-
-            if (douyinIndex > 0) {
-                // 找到了"-抖音:",提取原创名称
-                String originalName = info.substring(0, douyinIndex).trim();
-
-                // 从"-抖音:"之后开始查找侵权人账号名称
-                String afterDouyin = info.substring(douyinIndex + 4); // 跳过"-抖音:"
-
-                // 侵权人账号名称到下一个"-"之前 (新格式中,账号名称后面是"-原创分享链接")
-                int nextDash = afterDouyin.indexOf("-");
-                String infringerName;
-                if (nextDash > 0) {
-                    infringerName = afterDouyin.substring(0, nextDash).trim();
-                } else {
-                    // 如果没有"-",就使用全部内容
-                    infringerName = afterDouyin.trim();
-                }
-
-                // 生成备注: 原创名称-抖音:侵权人账号名称
-                result.remark = originalName + "-抖音:" + infringerName;
-                // 🔧 直接存储解析结果，让 MainActivity 通过独立 setter 传给 service，避免 setRemark 二次解析失败
-                result.infringerName = infringerName;
-                result.originalName = originalName;
-                Log.d("MainActivity", "✅ 备注: " + result.remark);
-                Log.d("MainActivity", "  - 原创名称: " + originalName);
-                Log.d("MainActivity", "  - 侵权人账号名称: " + infringerName);
-            } else {
-                // 没有找到"-抖音:",使用完整内容作为备注
-                result.remark = info;
-                Log.d("MainActivity", "⚠️ 未找到'-抖音:',使用完整内容作为备注");
-            }
-
-        } catch (Exception e) {
-            Log.e("MainActivity", "解析失败: " + e.getMessage());
-            result.remark = info;
-        }
-
-        return result;
-    }
-
-    /**
-     * 解析结果类
-     */
-    private static class ParseResult {
-        String infringementUrl;
-        String remark;
-        String videoKeywords; // 🆕 视频文案关键词
-        int videoDurationSeconds; // 🆕 视频时长(秒)
-        String coverImageUrl; // 🆕 侵权视频封面URL（用于创作灵感MD5对比）
-        String infringerName = ""; // 🔧 直接存储已解析的侵权人名称，避免setRemark二次解析失败
-        String originalName = "";  // 🔧 直接存储已解析的原创名称
-    }
-
     /**
      * 🆕 从 et_sales_threshold 输入框解析销量阈值，留空则返回 -1（不筛选）
      */
@@ -339,13 +173,45 @@ public class MainActivity extends AppCompatActivity {
         updateStatus(STATUS_RUNNING);
     }
 
+    /**
+     * 📋 批量取证：导入任务目录中的 CSV/JSON 任务文件，按顺序无人值守执行
+     */
+    private void startBatchAutomation() {
+        if (!AutomationAccessibilityService.isServiceAvailable()) {
+            Toast.makeText(this, R.string.toast_accessibility_required, Toast.LENGTH_LONG).show();
+            return;
+        }
+        AutomationAccessibilityService service = AutomationAccessibilityService.getInstance();
+        if (service == null) {
+            Toast.makeText(this, "无障碍服务未启动", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (service.isBatchRunning()) {
+            Toast.makeText(this, "批量任务正在执行中", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        int imported = service.startBatchAutomation();
+        BatchTaskQueue queue = service.getBatchTaskQueue();
+        if (imported < 0) {
+            Toast.makeText(this, "没有待执行的批量任务，请把任务文件(.csv/.json)放到: "
+                + queue.getImportDir().getAbsolutePath(), Toast.LENGTH_LONG).show();
+            return;
+        }
+        Toast.makeText(this, "📋 批量取证已开始：新导入" + imported + "个，待执行"
+            + queue.countByStatus(BatchTaskQueue.Status.PENDING) + "个", Toast.LENGTH_LONG).show();
+        isRunning = true;
+        updateStatus(STATUS_RUNNING);
+    }
+
     /**
      * 停止自动化
      */
     private void stopAutomation() {
-        // 停止自动化
+        // 停止自动化（批量任务一并停止，未完成的案件保留在队列中）
         AutomationAccessibilityService service = AutomationAccessibilityService.getInstance();
         if (service != null) {
+            service.stopBatchAutomation();
             service.stopAutomation();
         }
 
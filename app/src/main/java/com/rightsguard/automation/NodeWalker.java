@@ -0,0 +1,142 @@
+package com.rightsguard.automation;
+
+import android.graphics.Rect;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import java.util.ArrayDeque;
+
+/**
+ * 无障碍节点树遍历器（访问者模式）
+ * 迭代式深度优先遍历，不把整棵树物化成 List：
+ *  - 访问者可以返回 跳过子树 / 立即停止 / 停止并保留当前节点
+ *  - 可跳过完全在屏幕外的子树
+ *  - 遍历过程中 getChild 得到的节点访问完即回收；提前停止时栈里剩余节点也会回收
+ *
+ * 所有权约定：root 归调用方，遍历器不回收；访问者不要回收传入的节点，
+ * 也不要把它带出 visit 方法（需要保留时返回 {@link #STOP_AND_KEEP}）。
+ */
+public final class NodeWalker {
+
+    /** 继续遍历（进入子节点） */
+    public static final int CONTINUE = 0;
+    /** 不进入当前节点的子树 */
+    public static final int SKIP_CHILDREN = 1;
+    /** 立即结束遍历 */
+    public static final int STOP = 2;
+    /** 立即结束遍历，并把当前节点作为 walk 的返回值交给调用方（调用方负责回收，root 除外） */
+    public static final int STOP_AND_KEEP = 3;
+
+    /**
+     * 节点访问者
+     */
+    public interface Visitor {
+        /**
+         * @param node  当前节点
+         * @param depth 深度（root 为 0）
+         * @return CONTINUE / SKIP_CHILDREN / STOP / STOP_AND_KEEP
+         */
+        int visit(AccessibilityNodeInfo node, int depth);
+    }
+
+    /**
+     * 节点条件
+     */
+    public interface Predicate {
+        boolean test(AccessibilityNodeInfo node);
+    }
+
+    private Rect viewport = null;                 // 非空时跳过与该区域不相交的子树
+    private final Rect tmpBounds = new Rect();    // 复用，避免每个节点 new Rect
+
+    public static NodeWalker create() {
+        return new NodeWalker();
+    }
+
+    /**
+     * 只遍历与 viewport 相交的子树（一般传屏幕区域，跳过屏幕外的列表项/WebView 内容）
+     * 边界为空的节点（部分布局容器）不做裁剪
+     */
+    public NodeWalker within(Rect viewport) {
+        this.viewport = viewport != null ? new Rect(viewport) : null;
+        return this;
+    }
+
+    /**
+     * 遍历节点树
+     *
+     * @return 访问者返回 STOP_AND_KEEP 时的节点，否则 null
+     */
+    public AccessibilityNodeInfo walk(AccessibilityNodeInfo root, Visitor visitor) {
+        if (root == null) return null;
+
+        ArrayDeque<AccessibilityNodeInfo> nodes = new ArrayDeque<>();
+        ArrayDeque<Integer> depths = new ArrayDeque<>();
+        nodes.push(root);
+        depths.push(0);
+
+        AccessibilityNodeInfo kept = null;
+        try {
+            while (!nodes.isEmpty()) {
+                AccessibilityNodeInfo node = nodes.pop();
+                int depth = depths.pop();
+
+                int action;
+                try {
+                    action = visitor.visit(node, depth);
+                } catch (IllegalStateException e) {
+                    // 节点已失效（页面切换），跳过这棵子树
+                    action = SKIP_CHILDREN;
+                }
+
+                if (action == STOP_AND_KEEP) {
+                    kept = node;
+                    return kept;
+                }
+                if (action == CONTINUE) {
+                    pushChildren(node, depth + 1, nodes, depths);
+                }
+                if (node != root) {
+                    node.recycle();
+                }
+                if (action == STOP) {
+                    return null;
+                }
+            }
+            return null;
+        } finally {
+            // 提前结束时回收栈中尚未访问的节点
+            for (AccessibilityNodeInfo pending : nodes) {
+                if (pending != root && pending != kept) {
+                    pending.recycle();
+                }
+            }
+        }
+    }
+
+    /**
+     * 返回第一个满足条件的节点（前序），找到即停止遍历
+     * 返回值可能就是 root；不是 root 时由调用方回收
+     */
+    public AccessibilityNodeInfo findFirst(AccessibilityNodeInfo root, final Predicate predicate) {
+        return walk(root, (node, depth) -> predicate.test(node) ? STOP_AND_KEEP : CONTINUE);
+    }
+
+    private void pushChildren(AccessibilityNodeInfo node, int childDepth,
+                              ArrayDeque<AccessibilityNodeInfo> nodes, ArrayDeque<Integer> depths) {
+        int childCount = node.getChildCount();
+        // 倒序入栈，保证出栈顺序与递归前序遍历一致
+        for (int i = childCount - 1; i >= 0; i--) {
+            AccessibilityNodeInfo child = node.getChild(i);
+            if (child == null) continue;
+            if (viewport != null) {
+                child.getBoundsInScreen(tmpBounds);
+                if (!tmpBounds.isEmpty() && !Rect.intersects(tmpBounds, viewport)) {
+                    child.recycle();
+                    continue;
+                }
+            }
+            nodes.push(child);
+            depths.push(childDepth);
+        }
+    }
+}
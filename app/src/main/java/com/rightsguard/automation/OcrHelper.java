@@ -5,6 +5,7 @@ import android.graphics.Point;
 import android.graphics.Rect;
 import android.util.Log;
 
+import com.google.android.gms.tasks.Tasks;
 import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.text.Text;
 import com.google.mlkit.vision.text.TextRecognition;
@@ -13,6 +14,7 @@ import com.google.mlkit.vision.text.chinese.ChineseTextRecognizerOptions;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * OCR识别工具类
@@ -21,8 +23,15 @@ import java.util.List;
 public class OcrHelper {
 
     private static final String TAG = "OcrHelper";
+
+    // 进程级共享识别器：模型只加载一次，生命周期由 AutomationAccessibilityService 管理
+    // （onCreate 中 warmUp，onDestroy 中 shutdown），各 OcrHelper 实例只是轻量包装
+    private static final Object RECOGNIZER_LOCK = new Object();
+    private static TextRecognizer sharedRecognizer;
+
     private final TextRecognizer recognizer;
     private final LogCallback logCallback;
+    private final Region region; // 识别区域(ROI)，null 表示整张截图
 
     /**
      * 日志回调接口
@@ -32,9 +41,64 @@ public class OcrHelper {
     }
 
     public OcrHelper(LogCallback logCallback) {
-        // 初始化中文文字识别器(设备端,免费,支持中文+拉丁文)
-        recognizer = TextRecognition.getClient(new ChineseTextRecognizerOptions.Builder().build());
+        this(logCallback, null);
+    }
+
+    /**
+     * @param logCallback 日志回调
+     * @param region      识别区域(ROI)：只把截图中的这一块送进模型，返回坐标自动映射回整屏坐标；
+     *                    传 null 表示识别整张截图
+     */
+    public OcrHelper(LogCallback logCallback, Region region) {
+        // 复用共享的中文文字识别器(设备端,免费,支持中文+拉丁文)，避免每次轮询重新加载模型
+        recognizer = obtainRecognizer();
         this.logCallback = logCallback;
+        this.region = region;
+    }
+
+    /**
+     * 获取进程级共享识别器（首次调用时创建）
+     * ML Kit 的 TextRecognizer 内部按任务排队执行，多线程共用同一实例是安全的
+     */
+    private static TextRecognizer obtainRecognizer() {
+        synchronized (RECOGNIZER_LOCK) {
+            if (sharedRecognizer == null) {
+                sharedRecognizer = TextRecognition.getClient(new ChineseTextRecognizerOptions.Builder().build());
+                Log.d(TAG, "共享OCR识别器已创建");
+            }
+            return sharedRecognizer;
+        }
+    }
+
+    /**
+     * 预热共享识别器：创建实例并用一张小空白图触发模型加载，
+     * 使第一次真正的OCR轮询不再承担模型初始化耗时。由服务 onCreate 调用。
+     */
+    public static void warmUp() {
+        TextRecognizer r = obtainRecognizer();
+        try {
+            Bitmap blank = Bitmap.createBitmap(32, 32, Bitmap.Config.ARGB_8888);
+            r.process(InputImage.fromBitmap(blank, 0))
+                    .addOnCompleteListener(task -> {
+                        blank.recycle();
+                        Log.d(TAG, "共享OCR识别器预热完成");
+                    });
+        } catch (Exception e) {
+            Log.e(TAG, "共享OCR识别器预热失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭共享识别器，释放模型资源。由服务 onDestroy 调用，之后再次使用会重新创建。
+     */
+    public static void shutdown() {
+        synchronized (RECOGNIZER_LOCK) {
+            if (sharedRecognizer != null) {
+                sharedRecognizer.close();
+                sharedRecognizer = null;
+                Log.d(TAG, "共享OCR识别器已关闭");
+            }
+        }
     }
 
     /**
@@ -62,11 +126,12 @@ public class OcrHelper {
             logCallback.onLog(msg2);
         }
 
-        // 创建InputImage
-        InputImage image = InputImage.fromBitmap(bitmap, 0);
+        // 创建InputImage（按ROI裁剪/缩放）
+        final RoiInput input = prepareInput(bitmap);
 
         // 执行文字识别
-        recognizer.process(image)
+        recognizer.process(input.image)
+                .addOnCompleteListener(task -> input.recycle())
                 .addOnSuccessListener(text -> {
                     String msg = "✅ OCR识别成功,识别到 " + text.getTextBlocks().size() + " 个文本块";
                     Log.d(TAG, msg);
@@ -82,7 +147,7 @@ public class OcrHelper {
 
                         // 检查是否包含目标文字
                         if (blockText.contains(targetText)) {
-                            Rect bounds = block.getBoundingBox();
+                            Rect bounds = input.map(block.getBoundingBox());
                             if (bounds != null) {
                                 Point center = new Point(bounds.centerX(), bounds.centerY());
                                 matches.add(new TextMatch(blockText, bounds, center));
@@ -96,7 +161,7 @@ public class OcrHelper {
                         for (Text.Line line : block.getLines()) {
                             String lineText = line.getText();
                             if (lineText.contains(targetText)) {
-                                Rect bounds = line.getBoundingBox();
+                                Rect bounds = input.map(line.getBoundingBox());
                                 if (bounds != null) {
                                     Point center = new Point(bounds.centerX(), bounds.centerY());
                                     matches.add(new TextMatch(lineText, bounds, center));
@@ -109,7 +174,7 @@ public class OcrHelper {
                             for (Text.Element element : line.getElements()) {
                                 String elementText = element.getText();
                                 if (elementText.contains(targetText)) {
-                                    Rect bounds = element.getBoundingBox();
+                                    Rect bounds = input.map(element.getBoundingBox());
                                     if (bounds != null) {
                                         Point center = new Point(bounds.centerX(), bounds.centerY());
                                         // Element级别优先级最高，插入到最前面
@@ -177,8 +242,9 @@ public class OcrHelper {
             logCallback.onLog(msg2);
         }
 
-        InputImage image = InputImage.fromBitmap(bitmap, 0);
-        recognizer.process(image)
+        final RoiInput input = prepareInput(bitmap);
+        recognizer.process(input.image)
+                .addOnCompleteListener(task -> input.recycle())
                 .addOnSuccessListener(text -> {
                     String msg = "✅ OCR识别成功,识别到 " + text.getTextBlocks().size() + " 个文本块";
                     Log.d(TAG, msg);
@@ -188,7 +254,7 @@ public class OcrHelper {
                     for (Text.TextBlock block : text.getTextBlocks()) {
                         String blockText = block.getText();
                         if (blockText.contains(targetText)) {
-                            Rect bounds = block.getBoundingBox();
+                            Rect bounds = input.map(block.getBoundingBox());
                             if (bounds != null) {
                                 Point center = new Point(bounds.centerX(), bounds.centerY());
                                 matches.add(new TextMatch(blockText, bounds, center));
@@ -200,7 +266,7 @@ public class OcrHelper {
                         for (Text.Line line : block.getLines()) {
                             String lineText = line.getText();
                             if (lineText.contains(targetText)) {
-                                Rect bounds = line.getBoundingBox();
+                                Rect bounds = input.map(line.getBoundingBox());
                                 if (bounds != null) {
                                     Point center = new Point(bounds.centerX(), bounds.centerY());
                                     // 去重：避免block和line都匹配时重复添加相同坐标
@@ -223,7 +289,7 @@ public class OcrHelper {
                             for (Text.Element element : line.getElements()) {
                                 String elementText = element.getText();
                                 if (elementText.contains(targetText)) {
-                                    Rect bounds = element.getBoundingBox();
+                                    Rect bounds = input.map(element.getBoundingBox());
                                     if (bounds != null) {
                                         Point center = new Point(bounds.centerX(), bounds.centerY());
                                         // Element级别优先级最高，插入到最前面
@@ -277,8 +343,9 @@ public class OcrHelper {
         Log.d(TAG, msg1);
         if (logCallback != null) logCallback.onLog(msg1);
 
-        InputImage image = InputImage.fromBitmap(bitmap, 0);
-        recognizer.process(image)
+        final RoiInput input = prepareInput(bitmap);
+        recognizer.process(input.image)
+                .addOnCompleteListener(task -> input.recycle())
                 .addOnSuccessListener(text -> {
                     String msg = "✅ OCR识别成功,识别到 " + text.getTextBlocks().size() + " 个文本块";
                     Log.d(TAG, msg);
@@ -341,8 +408,9 @@ public class OcrHelper {
         Log.d(TAG, msg1);
         if (logCallback != null) logCallback.onLog(msg1);
 
-        InputImage image = InputImage.fromBitmap(bitmap, 0);
-        recognizer.process(image)
+        final RoiInput input = prepareInput(bitmap);
+        recognizer.process(input.image)
+                .addOnCompleteListener(task -> input.recycle())
                 .addOnSuccessListener(text -> {
                     String msg = "✅ OCR识别成功,识别到 " + text.getTextBlocks().size() + " 个文本块";
                     Log.d(TAG, msg);
@@ -357,7 +425,7 @@ public class OcrHelper {
                         Log.d(TAG, blockMsg);
                         if (logCallback != null) logCallback.onLog(blockMsg);
 
-                        Rect bounds = block.getBoundingBox();
+                        Rect bounds = input.map(block.getBoundingBox());
                         if (bounds == null) continue;
 
                         // 检查第一组
@@ -414,8 +482,9 @@ public class OcrHelper {
             callback.onFailure("Bitmap为空");
             return;
         }
-        InputImage image = InputImage.fromBitmap(bitmap, 0);
-        recognizer.process(image)
+        final RoiInput input = prepareInput(bitmap);
+        recognizer.process(input.image)
+                .addOnCompleteListener(task -> input.recycle())
                 .addOnSuccessListener(text -> {
                     StringBuilder sb = new StringBuilder();
                     for (Text.TextBlock block : text.getTextBlocks()) {
@@ -433,13 +502,111 @@ public class OcrHelper {
                 });
     }
 
+    /**
+     * 只跑一次OCR，返回可重复查询的不可变结果。
+     * 适合同一张截图需要查多个关键词/容错写法/坐标的场景，避免对同一Bitmap重复调用模型。
+     *
+     * @param bitmap   要识别的图片
+     * @param callback 回调：onSuccess(result) 成功，onFailure(error) 失败
+     */
+    public void recognize(Bitmap bitmap, OcrResultCallback callback) {
+        if (bitmap == null) {
+            String msg = "❌ Bitmap为空,无法识别(recognize)";
+            Log.e(TAG, msg);
+            if (logCallback != null) logCallback.onLog(msg);
+            callback.onFailure("Bitmap为空");
+            return;
+        }
+        final RoiInput input = prepareInput(bitmap);
+        recognizer.process(input.image)
+                .addOnCompleteListener(task -> input.recycle())
+                .addOnSuccessListener(text -> {
+                    OcrResult result = OcrResult.from(text, input);
+                    String msg = "✅ OCR识别成功,识别到 " + result.getBlockCount() + " 个文本块";
+                    Log.d(TAG, msg);
+                    if (logCallback != null) logCallback.onLog(msg);
+                    callback.onSuccess(result);
+                })
+                .addOnFailureListener(e -> {
+                    String errorMsg = "❌ OCR识别失败: " + e.getMessage();
+                    Log.e(TAG, errorMsg);
+                    if (logCallback != null) logCallback.onLog(errorMsg);
+                    callback.onFailure(errorMsg);
+                });
+    }
+
+    /**
+     * {@link #recognize} 的同步版本，阻塞等待识别完成。
+     * ⚠️ 只能在后台线程调用（结果回调走主线程，主线程调用会直接失败）。
+     *
+     * @param bitmap    要识别的图片
+     * @param timeoutMs 最长等待时间
+     * @return 识别结果；Bitmap为空、识别失败或超时返回 null
+     */
+    public OcrResult recognizeSync(Bitmap bitmap, long timeoutMs) {
+        if (bitmap == null) {
+            if (logCallback != null) logCallback.onLog("❌ Bitmap为空,无法识别(recognizeSync)");
+            return null;
+        }
+        RoiInput input = prepareInput(bitmap);
+        try {
+            Text text = Tasks.await(recognizer.process(input.image), timeoutMs, TimeUnit.MILLISECONDS);
+            OcrResult result = OcrResult.from(text, input);
+            String msg = "✅ OCR识别成功,识别到 " + result.getBlockCount() + " 个文本块";
+            Log.d(TAG, msg);
+            if (logCallback != null) logCallback.onLog(msg);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            String errorMsg = "❌ OCR识别失败: " + e.getMessage();
+            Log.e(TAG, errorMsg);
+            if (logCallback != null) logCallback.onLog(errorMsg);
+            return null;
+        } finally {
+            input.recycle();
+        }
+    }
+
+    /**
+     * 按 ROI 裁剪/缩放截图并生成 InputImage；未设置 ROI 时直接使用原图
+     */
+    private RoiInput prepareInput(Bitmap bitmap) {
+        if (region == null) {
+            return new RoiInput(bitmap, null, 0, 0, 1f);
+        }
+        Rect r = region.resolve(bitmap.getWidth(), bitmap.getHeight());
+        if (r == null) {
+            if (logCallback != null) logCallback.onLog("⚠️ ROI超出截图范围，改为整图识别: " + region);
+            return new RoiInput(bitmap, null, 0, 0, 1f);
+        }
+        Bitmap roi = bitmap;
+        if (r.left != 0 || r.top != 0 || r.width() != bitmap.getWidth() || r.height() != bitmap.getHeight()) {
+            roi = Bitmap.createBitmap(bitmap, r.left, r.top, r.width(), r.height());
+        }
+        float scale = region.scale;
+        if (scale < 1f) {
+            int w = Math.max(1, Math.round(roi.getWidth() * scale));
+            int h = Math.max(1, Math.round(roi.getHeight() * scale));
+            Bitmap scaled = Bitmap.createScaledBitmap(roi, w, h, true);
+            if (roi != bitmap && roi != scaled) roi.recycle();
+            roi = scaled;
+        } else {
+            scale = 1f;
+        }
+        String msg = "✂️ ROI识别: " + r.toShortString() + " → " + roi.getWidth() + "x" + roi.getHeight();
+        Log.d(TAG, msg);
+        if (logCallback != null) logCallback.onLog(msg);
+        return new RoiInput(roi, roi != bitmap ? roi : null, r.left, r.top, scale);
+    }
+
     /**
      * 释放资源
+     * 识别器为进程级共享实例，这里不关闭；真正的释放由 {@link #shutdown()} 在服务销毁时完成
      */
     public void release() {
-        if (recognizer != null) {
-            recognizer.close();
-        }
+        // 共享识别器由服务生命周期管理，单次使用结束无需关闭
     }
 
     /**
@@ -477,6 +644,14 @@ public class OcrHelper {
         void onFailure(String error);
     }
 
+    /**
+     * OCR回调接口（单次识别的完整结果，可在其上做任意次查询）
+     */
+    public interface OcrResultCallback {
+        void onSuccess(OcrResult result);
+        void onFailure(String error);
+    }
+
     /**
      * OCR回调接口（双组候选词）
      */
@@ -489,6 +664,106 @@ public class OcrHelper {
         void onFailure(String error);
     }
 
+    /**
+     * 识别区域(ROI)，坐标为整屏截图像素坐标
+     * 目标文字总在固定区域（顶部Tab栏、底部时间条等）时，只识别这一块可显著降低OCR耗时和内存抖动
+     */
+    public static final class Region {
+        final int left;
+        final int top;
+        final int right;          // <=0 表示延伸到图片右边缘
+        final int bottom;         // <=0 表示延伸到图片下边缘
+        final int bottomHeight;   // >0 表示取图片底部这么高的一条（忽略 top/bottom）
+        final float scale;        // 送入模型前的缩放比例(0,1]，1 表示不缩放
+
+        private Region(int left, int top, int right, int bottom, int bottomHeight, float scale) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.bottomHeight = bottomHeight;
+            this.scale = scale;
+        }
+
+        /** 任意矩形区域 */
+        public static Region of(int left, int top, int right, int bottom) {
+            return new Region(left, top, right, bottom, 0, 1f);
+        }
+
+        /** 整屏宽度的横条 [top, bottom) */
+        public static Region band(int top, int bottom) {
+            return new Region(0, top, 0, bottom, 0, 1f);
+        }
+
+        /** 从 top 到图片底部的整屏宽度区域（只排除顶部状态栏等，其余整屏识别） */
+        public static Region below(int top) {
+            return new Region(0, top, 0, 0, 0, 1f);
+        }
+
+        /** 截图底部指定高度的横条（不依赖屏幕分辨率） */
+        public static Region bottom(int height) {
+            return new Region(0, 0, 0, 0, height, 1f);
+        }
+
+        /** 送入模型前再按比例缩小（大字号区域可用，小字如时间条不建议缩放） */
+        public Region downscale(float scale) {
+            return new Region(left, top, right, bottom, bottomHeight, Math.max(0.1f, Math.min(1f, scale)));
+        }
+
+        /** 按实际截图尺寸计算裁剪矩形，区域与图片无交集时返回 null */
+        Rect resolve(int width, int height) {
+            Rect r;
+            if (bottomHeight > 0) {
+                r = new Rect(0, Math.max(0, height - bottomHeight), width, height);
+            } else {
+                r = new Rect(left, top, right > 0 ? right : width, bottom > 0 ? bottom : height);
+            }
+            if (!r.intersect(0, 0, width, height) || r.isEmpty()) return null;
+            return r;
+        }
+
+        @Override
+        public String toString() {
+            return bottomHeight > 0 ? "bottom(" + bottomHeight + ")"
+                    : "[" + left + "," + top + "][" + right + "," + bottom + "] x" + scale;
+        }
+    }
+
+    /**
+     * 实际送入模型的图片及其到整屏坐标的映射
+     */
+    static final class RoiInput {
+        final InputImage image;
+        private final Bitmap roiBitmap;  // 裁剪/缩放产生的临时图，识别结束后回收；原图时为 null
+        private final int offsetX;
+        private final int offsetY;
+        private final float scale;
+
+        RoiInput(Bitmap source, Bitmap roiBitmap, int offsetX, int offsetY, float scale) {
+            this.image = InputImage.fromBitmap(source, 0);
+            this.roiBitmap = roiBitmap;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            this.scale = scale;
+        }
+
+        /** ROI坐标 → 整屏坐标（null 原样返回） */
+        Rect map(Rect r) {
+            if (r == null || (offsetX == 0 && offsetY == 0 && scale == 1f)) return r;
+            return new Rect(
+                    offsetX + Math.round(r.left / scale),
+                    offsetY + Math.round(r.top / scale),
+                    offsetX + Math.round(r.right / scale),
+                    offsetY + Math.round(r.bottom / scale));
+        }
+
+        void recycle() {
+            if (roiBitmap != null && !roiBitmap.isRecycled()) {
+                roiBitmap.recycle();
+            }
+        }
+    }
+
     /**
      * 文字匹配结果
      */
@@ -0,0 +1,223 @@
+package com.rightsguard.automation;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import com.google.mlkit.vision.text.Text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 一次OCR识别的不可变结果
+ * 由 {@link OcrHelper#recognize} 生成，把 ML Kit 的块/行/词三级结构拍平保存，
+ * 调用方可以在同一张截图上反复执行 包含/任一/双组/正则 查询，而无需重新跑模型。
+ */
+public final class OcrResult {
+
+    /** 识别单元级别 */
+    public static final int LEVEL_BLOCK = 0;
+    public static final int LEVEL_LINE = 1;
+    public static final int LEVEL_ELEMENT = 2;
+
+    /**
+     * 单个识别单元（块/行/词）
+     */
+    public static final class Item {
+        public final int level;        // LEVEL_BLOCK / LEVEL_LINE / LEVEL_ELEMENT
+        public final String text;      // 识别到的文字
+        public final Rect bounds;      // 文字边界（截图坐标）
+        public final Point center;     // 文字中心点坐标
+
+        Item(int level, String text, Rect bounds) {
+            this.level = level;
+            this.text = text;
+            this.bounds = bounds;
+            this.center = new Point(bounds.centerX(), bounds.centerY());
+        }
+
+        OcrHelper.TextMatch toMatch() {
+            return new OcrHelper.TextMatch(text, new Rect(bounds), new Point(center));
+        }
+    }
+
+    private final List<Item> items;      // 按阅读顺序：块 → 块内各行 → 行内各词
+    private final String fullText;       // 各文本块原文以换行拼接（与 findAnyTextPosition 语义一致）
+    private final String joinedText;     // 各文本块去换行后以空格拼接（与 recognizeAllText 语义一致）
+    private final int blockCount;
+
+    private OcrResult(List<Item> items, String fullText, String joinedText, int blockCount) {
+        this.items = Collections.unmodifiableList(items);
+        this.fullText = fullText;
+        this.joinedText = joinedText;
+        this.blockCount = blockCount;
+    }
+
+    /**
+     * 从 ML Kit 识别结果构建（没有边界框的单元会被跳过，但其文字仍计入全文）
+     * 边界框经 input 映射回整屏坐标（ROI识别时）
+     */
+    static OcrResult from(Text text, OcrHelper.RoiInput input) {
+        List<Item> items = new ArrayList<>();
+        StringBuilder full = new StringBuilder();
+        StringBuilder joined = new StringBuilder();
+        List<Text.TextBlock> blocks = text.getTextBlocks();
+        for (Text.TextBlock block : blocks) {
+            String blockText = block.getText();
+            full.append(blockText).append("\n");
+            if (joined.length() > 0) joined.append(" ");
+            joined.append(blockText.replace("\n", " "));
+
+            Rect blockBounds = input.map(block.getBoundingBox());
+            if (blockBounds != null) {
+                items.add(new Item(LEVEL_BLOCK, blockText, blockBounds));
+            }
+            for (Text.Line line : block.getLines()) {
+                Rect lineBounds = input.map(line.getBoundingBox());
+                if (lineBounds != null) {
+                    items.add(new Item(LEVEL_LINE, line.getText(), lineBounds));
+                }
+                for (Text.Element element : line.getElements()) {
+                    Rect elementBounds = input.map(element.getBoundingBox());
+                    if (elementBounds != null) {
+                        items.add(new Item(LEVEL_ELEMENT, element.getText(), elementBounds));
+                    }
+                }
+            }
+        }
+        return new OcrResult(items, full.toString(), joined.toString().trim(), blocks.size());
+    }
+
+    /** 全部识别单元（只读） */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /** 文本块数量 */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /** 各文本块原文以换行拼接 */
+    public String getFullText() {
+        return fullText;
+    }
+
+    /** 各文本块去换行后以空格拼接，适合正则解析（如视频时间 "0:12 / 0:45"） */
+    public String getJoinedText() {
+        return joinedText;
+    }
+
+    /** 全文是否包含目标文字 */
+    public boolean contains(String target) {
+        return target != null && fullText.contains(target);
+    }
+
+    /**
+     * 按顺序检查候选词，返回第一个在全文中出现的候选词，全部未命中返回 null
+     */
+    public String findAny(String... candidates) {
+        if (candidates == null) return null;
+        for (String candidate : candidates) {
+            if (candidate != null && fullText.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找目标文字位置：优先词级（坐标最精准），其次块/行级；未找到返回 null
+     */
+    public OcrHelper.TextMatch find(String target) {
+        if (target == null) return null;
+        Item fallback = null;
+        for (Item item : items) {
+            if (!item.text.contains(target)) continue;
+            if (item.level == LEVEL_ELEMENT) return item.toMatch();
+            if (fallback == null) fallback = item;
+        }
+        return fallback != null ? fallback.toMatch() : null;
+    }
+
+    /**
+     * 依次尝试候选词，返回第一个能定位到坐标的匹配；全部未命中返回 null
+     */
+    public OcrHelper.TextMatch findFirst(String... candidates) {
+        if (candidates == null) return null;
+        for (String candidate : candidates) {
+            OcrHelper.TextMatch match = find(candidate);
+            if (match != null) return match;
+        }
+        return null;
+    }
+
+    /**
+     * 返回目标文字的全部匹配（词级排在前面，中心点相距 <20px 的重复项只保留一个）
+     */
+    public List<OcrHelper.TextMatch> findAll(String target) {
+        List<OcrHelper.TextMatch> elements = new ArrayList<>();
+        List<OcrHelper.TextMatch> others = new ArrayList<>();
+        if (target == null) return elements;
+        for (Item item : items) {
+            if (!item.text.contains(target)) continue;
+            if (item.level == LEVEL_ELEMENT) {
+                elements.add(item.toMatch());
+            } else if (!isDuplicate(others, item.center)) {
+                others.add(item.toMatch());
+            }
+        }
+        elements.addAll(others);
+        return elements;
+    }
+
+    /**
+     * 块级匹配：返回第一个包含任一候选词的文本块，未命中返回 null
+     * 用于 findDualTextPositions 这类只关心块级Y坐标的场景
+     */
+    public OcrHelper.TextMatch findBlock(String... candidates) {
+        if (candidates == null) return null;
+        for (Item item : items) {
+            if (item.level != LEVEL_BLOCK) continue;
+            for (String candidate : candidates) {
+                if (candidate != null && item.text.contains(candidate)) {
+                    return item.toMatch();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在空格拼接的全文上执行正则，返回已 find() 成功的 Matcher；未命中返回 null
+     */
+    public Matcher findRegex(Pattern pattern) {
+        Matcher matcher = pattern.matcher(joinedText);
+        return matcher.find() ? matcher : null;
+    }
+
+    /**
+     * 返回第一个文字匹配正则的识别单元（优先词级），未命中返回 null
+     */
+    public OcrHelper.TextMatch findRegexPosition(Pattern pattern) {
+        Item fallback = null;
+        for (Item item : items) {
+            if (!pattern.matcher(item.text).find()) continue;
+            if (item.level == LEVEL_ELEMENT) return item.toMatch();
+            if (fallback == null) fallback = item;
+        }
+        return fallback != null ? fallback.toMatch() : null;
+    }
+
+    private static boolean isDuplicate(List<OcrHelper.TextMatch> matches, Point center) {
+        for (OcrHelper.TextMatch m : matches) {
+            if (Math.abs(m.center.x - center.x) < 20 && Math.abs(m.center.y - center.y) < 20) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,168 @@
+package com.rightsguard.automation;
+
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+/**
+ * 事件驱动的页面就绪等待器
+ * 由 AutomationAccessibilityService.onAccessibilityEvent 喂入窗口状态/内容变化事件，
+ * 业务步骤调用 {@link #await} 等待节点树满足条件：条件成立立即返回，
+ * 有新事件到达立即重新检测，不再固定 Thread.sleep 干等。
+ *
+ * 注意：await 会阻塞调用线程，只能在后台线程使用；条件在调用线程上执行。
+ */
+public class PageWaiter {
+
+    /**
+     * 节点树条件
+     * root 由等待器负责回收，条件内部不要回收 root，也不要把 root 或其子节点带出方法
+     */
+    public interface Condition {
+        boolean test(AccessibilityNodeInfo root);
+    }
+
+    /**
+     * 根节点来源（一般为 service::getRootInActiveWindow）
+     */
+    public interface RootProvider {
+        AccessibilityNodeInfo getRoot();
+    }
+
+    // 没有事件时的兜底复查间隔：WebView 等内容变化不一定有无障碍事件
+    private static final long FALLBACK_POLL_MS = 500;
+
+    private final RootProvider rootProvider;
+    private final Object lock = new Object();
+    private long eventSeq = 0;           // 相关事件计数，每来一个事件 +1
+    private long lastEventTime = 0;      // 最近一次相关事件的时间
+    private String lastEventPackage = "";
+
+    public PageWaiter(RootProvider rootProvider) {
+        this.rootProvider = rootProvider;
+    }
+
+    /**
+     * 喂入无障碍事件（在 onAccessibilityEvent 中调用，开销只是一次加锁计数）
+     */
+    public void onEvent(AccessibilityEvent event) {
+        int type = event.getEventType();
+        if (type != AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED
+                && type != AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED
+                && type != AccessibilityEvent.TYPE_WINDOWS_CHANGED
+                && type != AccessibilityEvent.TYPE_VIEW_SCROLLED) {
+            return;
+        }
+        String pkg = event.getPackageName() != null ? event.getPackageName().toString() : "";
+        synchronized (lock) {
+            eventSeq++;
+            lastEventTime = System.currentTimeMillis();
+            lastEventPackage = pkg;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 等待节点树满足条件（任意包名的事件都会触发复查）
+     *
+     * @return true=条件已成立，false=超时
+     */
+    public boolean await(Condition condition, long timeoutMs) throws InterruptedException {
+        return await(null, condition, timeoutMs);
+    }
+
+    /**
+     * 等待节点树满足条件
+     *
+     * @param packageName 只有该包名的事件才会提前唤醒复查（null 表示不限）
+     * @param condition   条件
+     * @param timeoutMs   最长等待时间
+     * @return true=条件已成立，false=超时
+     */
+    public boolean await(String packageName, Condition condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            long seqBeforeCheck;
+            synchronized (lock) {
+                seqBeforeCheck = eventSeq;
+            }
+            if (check(condition)) {
+                return true;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            waitForEvent(packageName, seqBeforeCheck, Math.min(remaining, FALLBACK_POLL_MS));
+        }
+    }
+
+    /**
+     * 等待下一个相关事件（替代轮询循环里的固定 sleep）：有事件立即返回，否则最多等 maxWaitMs
+     *
+     * @param packageName 只关心该包名的事件（null 表示不限）
+     * @return true=等到了事件，false=到时无事件
+     */
+    public boolean awaitEvent(String packageName, long maxWaitMs) throws InterruptedException {
+        long seq;
+        synchronized (lock) {
+            seq = eventSeq;
+        }
+        return waitForEvent(packageName, seq, maxWaitMs);
+    }
+
+    /**
+     * 等待界面静止：连续 quietMs 内没有相关事件即视为页面渲染稳定
+     * 适合点击后跳转页面、又没有明确就绪标志的场景（替代固定的长 sleep）
+     *
+     * @return true=已静止，false=超时仍在变化
+     */
+    public boolean awaitIdle(long quietMs, long timeoutMs) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutMs;
+        synchronized (lock) {
+            while (true) {
+                long now = System.currentTimeMillis();
+                long lastActivity = Math.max(lastEventTime, start);
+                long quietFor = now - lastActivity;
+                if (quietFor >= quietMs) {
+                    return true;
+                }
+                if (now >= deadline) {
+                    return false;
+                }
+                lock.wait(Math.max(1, Math.min(quietMs - quietFor, deadline - now)));
+            }
+        }
+    }
+
+    private boolean waitForEvent(String packageName, long seenSeq, long maxWaitMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        synchronized (lock) {
+            while (true) {
+                if (eventSeq != seenSeq && (packageName == null || packageName.equals(lastEventPackage))) {
+                    return true;
+                }
+                // 其他包的事件不算，但要推进基线，避免反复命中同一个旧事件
+                seenSeq = eventSeq;
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                lock.wait(remaining);
+            }
+        }
+    }
+
+    private boolean check(Condition condition) {
+        AccessibilityNodeInfo root = rootProvider.getRoot();
+        if (root == null) return false;
+        try {
+            return condition.test(root);
+        } catch (Exception e) {
+            // 节点在检测过程中失效（页面切换）时按未满足处理，等下一个事件再查
+            return false;
+        } finally {
+            root.recycle();
+        }
+    }
+}
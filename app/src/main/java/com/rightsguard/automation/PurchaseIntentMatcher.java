@@ -0,0 +1,326 @@
+package com.rightsguard.automation;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 评论购买意图匹配器（Aho-Corasick 多模式自动机）
+ * 关键词只在构建时编译一次；每条评论单次线性扫描即可得到全部命中的关键词、所属类别和加权得分，
+ * 用于从多屏评论里挑出证据最强的截图，而不只是"第一个命中的关键词"。
+ *
+ * 关键词可从配置文件加载（UTF-8，每行一个关键词，可写"关键词=权重"，# 开头为注释），
+ * 用 [已购买] / [想购买] / [使用体验] / [询问] 分段指定类别；文件不存在或为空时使用内置词表。
+ */
+public class PurchaseIntentMatcher {
+
+    /**
+     * 购买意图类别及默认权重（已购买的证据最强）
+     */
+    public enum Category {
+        PURCHASED("已购买", 5),
+        WANT_TO_BUY("想购买", 3),
+        EXPERIENCE("使用体验", 3),
+        INQUIRY("询问", 1);
+
+        public final String label;
+        public final int defaultWeight;
+
+        Category(String label, int defaultWeight) {
+            this.label = label;
+            this.defaultWeight = defaultWeight;
+        }
+
+        static Category fromLabel(String label) {
+            for (Category c : values()) {
+                if (c.label.equals(label)) return c;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 单个关键词命中
+     */
+    public static final class Hit {
+        public final String keyword;
+        public final Category category;
+        public final int weight;
+        public final int start;        // 在评论中的起始下标
+
+        Hit(String keyword, Category category, int weight, int start) {
+            this.keyword = keyword;
+            this.category = category;
+            this.weight = weight;
+            this.start = start;
+        }
+
+        int end() {
+            return start + keyword.length();
+        }
+    }
+
+    /**
+     * 一条评论的匹配结果
+     */
+    public static final class Result {
+        public final List<Hit> hits;   // 去掉被更长关键词覆盖的子串命中后，按出现位置排序
+        public final int score;        // 命中权重之和
+
+        Result(List<Hit> hits, int score) {
+            this.hits = hits;
+            this.score = score;
+        }
+
+        public boolean matched() {
+            return !hits.isEmpty();
+        }
+
+        /** 得分最高的类别（没有命中返回 null） */
+        public Category strongestCategory() {
+            Category best = null;
+            for (Hit h : hits) {
+                if (best == null || h.category.defaultWeight > best.defaultWeight) best = h.category;
+            }
+            return best;
+        }
+
+        /** 日志用摘要，如 "已购买:回购,到手了 询问:多少钱" */
+        public String summary() {
+            StringBuilder sb = new StringBuilder();
+            for (Category c : Category.values()) {
+                StringBuilder words = new StringBuilder();
+                for (Hit h : hits) {
+                    if (h.category != c) continue;
+                    if (words.length() > 0) words.append(',');
+                    words.append(h.keyword);
+                }
+                if (words.length() == 0) continue;
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(c.label).append(':').append(words);
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final Result NO_MATCH = new Result(Collections.<Hit>emptyList(), 0);
+
+    // 自动机节点：children[i] 为字符→子节点下标，fail 为失配指针，outputs 为以该节点结尾的关键词下标
+    private final List<Map<Character, Integer>> children = new ArrayList<>();
+    private final List<Integer> fail = new ArrayList<>();
+    private final List<int[]> outputs = new ArrayList<>();
+
+    private final List<String> keywords = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+    private final List<Integer> weights = new ArrayList<>();
+
+    private PurchaseIntentMatcher() {
+        newNode();
+    }
+
+    /**
+     * 内置词表
+     */
+    public static PurchaseIntentMatcher defaults() {
+        PurchaseIntentMatcher m = new PurchaseIntentMatcher();
+        m.addAll(Category.PURCHASED,
+                "买了", "买过", "买到了", "已购", "已买", "入手了", "入手",
+                "下单了", "已下单", "刚下单", "付款了", "已付款",
+                "收到了", "收到货", "到货了", "到手了", "拿到了",
+                "回购", "复购", "又买了", "再买", "买了好几", "买了两",
+                "购入了", "已购入", "刚买", "昨天买的", "前天买的", "买了一");
+        m.addAll(Category.WANT_TO_BUY,
+                "想买", "想入手", "想下单", "好想买", "特别想买",
+                "准备买", "打算买", "计划买", "考虑买", "考虑入手",
+                "在哪买", "哪里买", "去哪买", "哪里有卖", "怎么买",
+                "求链接", "发链接", "链接发一下", "购买链接", "求购",
+                "多少钱", "什么价", "价格", "多少一个", "多少一件", "多少一套",
+                "能买吗", "可以买吗", "有货吗", "还有货吗", "有库存吗",
+                "同款在哪", "哪里同款", "哪里可以买");
+        m.addAll(Category.EXPERIENCE,
+                "好用", "超好用", "非常好用", "真的好用", "用了", "用过",
+                "效果好", "效果不错", "用起来", "买对了", "没买错",
+                "值得买", "值得入手", "强烈推荐", "推荐买",
+                "后悔没早买", "早买就好了", "买亏了",
+                "质量好", "质量不错", "质量差", "不好用");
+        m.addAll(Category.INQUIRY,
+                "安全吗", "有没有毒", "有没有甲醛", "有异味吗",
+                "质量怎么样", "耐用吗", "好不好", "靠谱吗",
+                "什么牌子", "哪个牌子", "正品吗", "假的吗",
+                "适合", "推荐吗", "值不值", "划算吗", "值得吗");
+        m.build();
+        return m;
+    }
+
+    /**
+     * 从配置文件加载；文件不存在、读取失败或没有有效关键词时返回内置词表
+     */
+    public static PurchaseIntentMatcher load(File file) {
+        if (file == null || !file.isFile()) {
+            return defaults();
+        }
+        PurchaseIntentMatcher m = new PurchaseIntentMatcher();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
+            Category current = Category.PURCHASED;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (line.startsWith("[") && line.endsWith("]")) {
+                    Category c = Category.fromLabel(line.substring(1, line.length() - 1).trim());
+                    if (c != null) current = c;
+                    continue;
+                }
+                int weight = current.defaultWeight;
+                int eq = line.lastIndexOf('=');
+                if (eq > 0) {
+                    try {
+                        weight = Integer.parseInt(line.substring(eq + 1).trim());
+                        line = line.substring(0, eq).trim();
+                    } catch (NumberFormatException e) {
+                        // 不是权重，整行作为关键词
+                    }
+                }
+                m.add(line, current, weight);
+            }
+        } catch (IOException e) {
+            return defaults();
+        }
+        if (m.keywords.isEmpty()) {
+            return defaults();
+        }
+        m.build();
+        return m;
+    }
+
+    /** 关键词数量 */
+    public int size() {
+        return keywords.size();
+    }
+
+    /**
+     * 扫描一条评论，返回全部命中（单次遍历，耗时与评论长度成正比）
+     */
+    public Result match(CharSequence text) {
+        if (text == null || text.length() == 0) return NO_MATCH;
+        List<Hit> raw = null;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            Integer next;
+            while ((next = children.get(state).get(ch)) == null && state != 0) {
+                state = fail.get(state);
+            }
+            state = next != null ? next : 0;
+            int[] out = outputs.get(state);
+            if (out == null) continue;
+            for (int k : out) {
+                String kw = keywords.get(k);
+                if (raw == null) raw = new ArrayList<>();
+                raw.add(new Hit(kw, categories.get(k), weights.get(k), i - kw.length() + 1));
+            }
+        }
+        if (raw == null) return NO_MATCH;
+        List<Hit> hits = dropCovered(raw);
+        int score = 0;
+        for (Hit h : hits) score += h.weight;
+        return new Result(hits, score);
+    }
+
+    private void addAll(Category category, String... words) {
+        for (String w : words) {
+            add(w, category, category.defaultWeight);
+        }
+    }
+
+    private void add(String keyword, Category category, int weight) {
+        if (keyword.isEmpty()) return;
+        int state = 0;
+        for (int i = 0; i < keyword.length(); i++) {
+            char ch = keyword.charAt(i);
+            Integer next = children.get(state).get(ch);
+            if (next == null) {
+                next = newNode();
+                children.get(state).put(ch, next);
+            }
+            state = next;
+        }
+        if (outputs.get(state) != null) return; // 重复关键词保留第一次的类别
+        keywords.add(keyword);
+        categories.add(category);
+        weights.add(weight);
+        outputs.set(state, new int[]{keywords.size() - 1});
+    }
+
+    /**
+     * 计算失配指针，并把失配链上的输出合并到每个节点（匹配时不必再沿链回溯）
+     */
+    private void build() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            fail.set(child, 0);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> e : children.get(node).entrySet()) {
+                char ch = e.getKey();
+                int child = e.getValue();
+                int f = fail.get(node);
+                Integer target;
+                while ((target = children.get(f).get(ch)) == null && f != 0) {
+                    f = fail.get(f);
+                }
+                int childFail = target != null ? target : 0;
+                fail.set(child, childFail);
+                outputs.set(child, merge(outputs.get(child), outputs.get(childFail)));
+                queue.add(child);
+            }
+        }
+    }
+
+    private int newNode() {
+        children.add(new HashMap<Character, Integer>(4));
+        fail.add(0);
+        outputs.add(null);
+        return children.size() - 1;
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        int[] merged = new int[a.length + b.length];
+        System.arraycopy(a, 0, merged, 0, a.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        return merged;
+    }
+
+    /**
+     * 去掉被更长命中完全覆盖的子串命中（如"买了好几"里的"买了"），避免同一句话重复计分
+     */
+    private static List<Hit> dropCovered(List<Hit> raw) {
+        List<Hit> kept = new ArrayList<>(raw.size());
+        for (Hit h : raw) {
+            boolean covered = false;
+            for (Hit other : raw) {
+                if (other != h && other.keyword.length() > h.keyword.length()
+                        && other.start <= h.start && other.end() >= h.end()) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) kept.add(h);
+        }
+        Collections.sort(kept, (x, y) -> x.start - y.start);
+        return kept;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rightsguard.automation;
+
+import android.net.Uri;
+
+/**
+ * 一张已保存的取证截图：位置、前缀、保存时间，以及写入PNG时同步算出的 SHA-256
+ * （哈希对应相册中的原始PNG文件，报告目录页据此供核验，不需要事后重读文件）
+ */
+public final class SavedScreenshot {
+
+    public final Uri uri;
+    public final String prefix;       // 截图前缀，如"购物车取证_达人视频_截图1_25pct"
+    public final String fileName;
+    public final long timestamp;      // 保存时间（毫秒）
+    public final String sha256;       // 小写十六进制
+
+    public SavedScreenshot(Uri uri, String prefix, String fileName, long timestamp, String sha256) {
+        this.uri = uri;
+        this.prefix = prefix;
+        this.fileName = fileName;
+        this.timestamp = timestamp;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * 字节数组转小写十六进制
+     */
+    public static String toHex(byte[] bytes) {
+        char[] digits = "0123456789abcdef".toCharArray();
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = digits[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = digits[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
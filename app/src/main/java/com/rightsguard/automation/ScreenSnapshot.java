@@ -0,0 +1,220 @@
+package com.rightsguard.automation;
+
+import android.graphics.Rect;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 当前屏幕无障碍树的一次性快照
+ * 用 {@link NodeWalker} 遍历一遍，把每个节点的 文字/描述/ViewId/类名/边界 拷贝到扁平数组，
+ * 并按 ViewId、类名、文字建索引。之后同一屏幕上的多次查询都是内存查找，
+ * 不再反复跨进程遍历节点树；快照建好后 root 可以立即回收。
+ *
+ * 快照只反映拍摄那一刻的界面，滑动/点击后需要重新 capture。
+ */
+public final class ScreenSnapshot {
+
+    /**
+     * 快照中的单个节点（不可变，只保存值，不持有 AccessibilityNodeInfo）
+     */
+    public static final class Node {
+        public final int index;          // 在快照中的下标（前序）
+        public final int parent;         // 父节点下标，root 为 -1
+        public final int depth;
+        public final String text;        // 文字（已 trim，无则为空串）
+        public final String desc;        // contentDescription（无则为空串）
+        public final String viewId;      // ViewId（无则为空串）
+        public final String className;   // 类名（无则为空串）
+        public final Rect bounds;        // 屏幕坐标
+        public final boolean clickable;
+
+        Node(int index, int parent, int depth, String text, String desc, String viewId,
+             String className, Rect bounds, boolean clickable) {
+            this.index = index;
+            this.parent = parent;
+            this.depth = depth;
+            this.text = text;
+            this.desc = desc;
+            this.viewId = viewId;
+            this.className = className;
+            this.bounds = bounds;
+            this.clickable = clickable;
+        }
+
+        public int centerX() {
+            return bounds.centerX();
+        }
+
+        public int centerY() {
+            return bounds.centerY();
+        }
+
+        /** 边界有效（宽高大于0） */
+        public boolean hasArea() {
+            return bounds.width() > 0 && bounds.height() > 0;
+        }
+    }
+
+    /**
+     * 节点过滤条件
+     */
+    public interface Filter {
+        boolean test(Node node);
+    }
+
+    private static final List<Node> EMPTY = Collections.emptyList();
+
+    private final Node[] nodes;
+    private final List<List<Node>> children;
+    private final Map<String, List<Node>> byViewId = new HashMap<>();
+    private final Map<String, List<Node>> byClass = new HashMap<>();
+    private final Map<String, List<Node>> byText = new HashMap<>();
+
+    private ScreenSnapshot(List<Node> nodeList) {
+        this.nodes = nodeList.toArray(new Node[0]);
+        this.children = new ArrayList<>(nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            children.add(null);
+        }
+        for (Node node : nodes) {
+            if (node.parent >= 0) {
+                List<Node> list = children.get(node.parent);
+                if (list == null) {
+                    list = new ArrayList<>(4);
+                    children.set(node.parent, list);
+                }
+                list.add(node);
+            }
+            index(byViewId, node.viewId, node);
+            index(byClass, node.className, node);
+            index(byText, node.text, node);
+        }
+    }
+
+    /**
+     * 拍摄快照（一次遍历；root 仍归调用方，可在返回后立即回收）
+     */
+    public static ScreenSnapshot capture(AccessibilityNodeInfo root) {
+        final List<Node> list = new ArrayList<>(256);
+        if (root == null) return new ScreenSnapshot(list);
+
+        // 前序遍历中用栈记录每一层最近的节点下标，得到父节点下标
+        final int[][] lastAtDepth = {new int[32]};
+        NodeWalker.create().walk(root, (info, depth) -> {
+            if (depth >= lastAtDepth[0].length) {
+                int[] grown = new int[lastAtDepth[0].length * 2];
+                System.arraycopy(lastAtDepth[0], 0, grown, 0, lastAtDepth[0].length);
+                lastAtDepth[0] = grown;
+            }
+            int index = list.size();
+            int parent = depth > 0 ? lastAtDepth[0][depth - 1] : -1;
+            lastAtDepth[0][depth] = index;
+
+            Rect bounds = new Rect();
+            info.getBoundsInScreen(bounds);
+            list.add(new Node(index, parent, depth,
+                    str(info.getText()).trim(),
+                    str(info.getContentDescription()),
+                    str(info.getViewIdResourceName()),
+                    str(info.getClassName()),
+                    bounds,
+                    info.isClickable()));
+            return NodeWalker.CONTINUE;
+        });
+        return new ScreenSnapshot(list);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public Node get(int index) {
+        return nodes[index];
+    }
+
+    /** 指定 ViewId 的全部节点 */
+    public List<Node> byViewId(String viewId) {
+        List<Node> list = byViewId.get(viewId);
+        return list != null ? list : EMPTY;
+    }
+
+    /** 指定类名的全部节点（如 android.widget.TextView） */
+    public List<Node> byClass(String className) {
+        List<Node> list = byClass.get(className);
+        return list != null ? list : EMPTY;
+    }
+
+    /** 文字（trim 后）完全等于 text 的全部节点 */
+    public List<Node> byText(String text) {
+        List<Node> list = byText.get(text);
+        return list != null ? list : EMPTY;
+    }
+
+    /** 子节点（按原顺序） */
+    public List<Node> childrenOf(Node node) {
+        List<Node> list = children.get(node.index);
+        return list != null ? list : EMPTY;
+    }
+
+    /** 同一父节点下的全部节点（包含自身） */
+    public List<Node> siblingsOf(Node node) {
+        if (node.parent < 0) return Collections.singletonList(node);
+        return childrenOf(nodes[node.parent]);
+    }
+
+    /** 满足条件的全部节点（前序） */
+    public List<Node> filter(Filter filter) {
+        List<Node> result = new ArrayList<>();
+        for (Node node : nodes) {
+            if (filter.test(node)) result.add(node);
+        }
+        return result;
+    }
+
+    /** 第一个满足条件的节点，没有则 null */
+    public Node first(Filter filter) {
+        for (Node node : nodes) {
+            if (filter.test(node)) return node;
+        }
+        return null;
+    }
+
+    /**
+     * 在 candidates 中找X中心最接近 targetX 的节点（同一列的卡片文字）
+     *
+     * @param maxDistance X中心最大允许偏差，超出视为不在同一列
+     * @return 没有满足条件的节点时返回 null
+     */
+    public static Node nearestByX(List<Node> candidates, Filter filter, int targetX, int maxDistance) {
+        Node best = null;
+        int bestDiff = Integer.MAX_VALUE;
+        for (Node node : candidates) {
+            if (!filter.test(node)) continue;
+            int diff = Math.abs(node.centerX() - targetX);
+            if (diff < bestDiff) {
+                bestDiff = diff;
+                best = node;
+            }
+        }
+        return bestDiff < maxDistance ? best : null;
+    }
+
+    private static void index(Map<String, List<Node>> map, String key, Node node) {
+        if (key.isEmpty()) return;
+        List<Node> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>(2);
+            map.put(key, list);
+        }
+        list.add(node);
+    }
+
+    private static String str(CharSequence cs) {
+        return cs != null ? cs.toString() : "";
+    }
+}
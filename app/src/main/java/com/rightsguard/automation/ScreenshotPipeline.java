@@ -0,0 +1,78 @@
+package com.rightsguard.automation;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 截图后台处理流水线
+ *  - 截屏回调在专用后台线程执行（不再占用主线程，主线程还要分发无障碍事件）
+ *  - PNG 编码/写入相册交给存储工作线程，队列有界：积压过多时由提交线程自己执行，形成背压
+ *  - 每次保存返回 CompletableFuture，调用方在需要 Uri 时再等待（如生成PDF前）
+ */
+public class ScreenshotPipeline {
+
+    private static final int STORAGE_THREADS = 2;
+    private static final int STORAGE_QUEUE_CAPACITY = 4;   // 最多积压的待编码截图（每张约10MB）
+
+    private final ExecutorService captureExecutor;
+    private final ThreadPoolExecutor storageExecutor;
+
+    public ScreenshotPipeline() {
+        captureExecutor = Executors.newSingleThreadExecutor(namedFactory("ScreenshotCapture"));
+        storageExecutor = new ThreadPoolExecutor(
+                STORAGE_THREADS, STORAGE_THREADS,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(STORAGE_QUEUE_CAPACITY),
+                namedFactory("ScreenshotStore"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        storageExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 截屏回调使用的执行器
+     */
+    public Executor captureExecutor() {
+        return captureExecutor;
+    }
+
+    /**
+     * 提交一次编码+保存任务
+     *
+     * @param task 返回保存后的 Uri（失败返回 null）
+     */
+    public <T> CompletableFuture<T> submit(final Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, storageExecutor);
+    }
+
+    /**
+     * 停止接收新任务；已提交的保存任务会继续完成
+     */
+    public void shutdown() {
+        captureExecutor.shutdown();
+        storageExecutor.shutdown();
+    }
+
+    private static ThreadFactory namedFactory(final String name) {
+        final AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + index.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
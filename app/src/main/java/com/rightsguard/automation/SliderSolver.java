@@ -0,0 +1,462 @@
+package com.rightsguard.automation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 本地滑块验证码解算（纯Java，只依赖像素数组，不涉及 Android API）
+ *
+ * 原理：碎片图与背景图中碎片所在水平带都先转成 Sobel 边缘图，再在每个水平偏移上计算归一化互相关（NCC），
+ * 得分最高的偏移即为缺口位置（= 滑动距离）。为了把一次解算压到几十毫秒以内：
+ *  - 灰度和边缘用整数运算 + |gx|+|gy|，不再逐像素 Math.sqrt；背景只处理碎片所在的水平带
+ *  - 背景窗口的均值/方差用列前缀和（积分图）O(1) 得到，每个偏移只需算一次互相关
+ *  - 金字塔由粗到细：最粗一层全范围搜索，只保留少数候选，逐层放大后在候选附近细搜
+ *  - 碎片图带透明通道时只统计拼图形状内的像素（alpha 掩码），背景方差也只在掩码内计算
+ *  - 搜索量大时把偏移区间拆给多个核心并行计算
+ */
+public final class SliderSolver {
+
+    /**
+     * 解算结果
+     */
+    public static final class Result {
+        public final int x;            // 缺口在背景图中的X（即需要滑动的像素数），失败为 -1
+        public final double score;     // 有碎片图时为NCC得分（-1~1，越高越可信）；无碎片图时为边缘密度
+        public final long costMs;      // 解算耗时
+
+        Result(int x, double score, long costMs) {
+            this.x = x;
+            this.score = score;
+            this.costMs = costMs;
+        }
+
+        public boolean found() {
+            return x >= 0;
+        }
+    }
+
+    private static final int MAX_LEVELS = 3;                 // 金字塔层数上限（原图、1/2、1/4）
+    private static final int MIN_TEMPLATE_SIZE = 12;         // 碎片缩小后边长低于此值不再往下建层
+    private static final int CANDIDATES = 3;                 // 每层保留的候选偏移数
+    private static final int REFINE_RADIUS = 2;              // 候选映射到下一层后左右各细搜的像素
+    private static final long PARALLEL_THRESHOLD = 1_500_000L; // 一层的乘加次数超过此值才拆分到多核
+
+    private SliderSolver() {
+    }
+
+    /**
+     * @param bgPixels    背景图 ARGB 像素
+     * @param fgPixels    碎片图 ARGB 像素，可为 null（退化为找背景边缘密度最高的列）
+     * @param fragOffsetY 碎片图顶部在背景图中的Y
+     */
+    public static Result solve(int[] bgPixels, int bgW, int bgH,
+                               int[] fgPixels, int fgW, int fgH, int fragOffsetY) {
+        long start = System.currentTimeMillis();
+        int compareH = Math.min(fgH, bgH - fragOffsetY);
+        int maxX = bgW - fgW;
+        if (compareH <= 0 || maxX <= 0 || fragOffsetY < 0) {
+            return new Result(-1, 0, System.currentTimeMillis() - start);
+        }
+        // 碎片初始位于X=0，缺口一定在碎片右侧：从 fgW 开始搜索，避免自匹配
+        int searchStart = fgW;
+        if (searchStart >= maxX) {
+            return new Result(-1, 0, System.currentTimeMillis() - start);
+        }
+
+        Plane band = backgroundBandEdge(bgPixels, bgW, bgH, fragOffsetY, compareH);
+
+        if (fgPixels == null) {
+            return solveByEdgeDensity(band, searchStart, maxX, start);
+        }
+
+        Plane frag = sobelEdge(toGray(fgPixels, fgW, 0, compareH), fgW, compareH);
+        boolean[] mask = alphaMask(fgPixels, fgW, compareH);
+
+        // 建金字塔（第0层为原始分辨率）
+        List<Level> levels = new ArrayList<>(MAX_LEVELS);
+        levels.add(new Level(band, frag, mask));
+        while (levels.size() < MAX_LEVELS) {
+            Level prev = levels.get(levels.size() - 1);
+            if (prev.frag.w / 2 < MIN_TEMPLATE_SIZE || prev.frag.h / 2 < MIN_TEMPLATE_SIZE) break;
+            levels.add(prev.downsample());
+        }
+
+        // 最粗一层全范围搜索
+        int top = levels.size() - 1;
+        Level coarse = levels.get(top);
+        int from = ceilShift(searchStart, top);
+        int to = Math.min((maxX - 1) >> top, coarse.maxOffset());
+        if (from > to) {
+            return new Result(-1, 0, System.currentTimeMillis() - start);
+        }
+        float[] scores = coarse.evaluate(from, to);
+        int[] candidates = pickPeaks(scores, from, CANDIDATES);
+
+        // 逐层细化：候选坐标乘2后只在附近搜索
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int l = top - 1; l >= 0; l--) {
+            Level level = levels.get(l);
+            int lo = ceilShift(searchStart, l);
+            int hi = Math.min((maxX - 1) >> l, level.maxOffset());
+            int[] refined = new int[candidates.length];
+            float[] refinedScores = new float[candidates.length];
+            for (int c = 0; c < candidates.length; c++) {
+                int center = candidates[c] * 2;
+                int a = Math.max(lo, center - REFINE_RADIUS);
+                int b = Math.min(hi, center + 1 + REFINE_RADIUS);
+                refined[c] = -1;
+                refinedScores[c] = Float.NEGATIVE_INFINITY;
+                if (a > b) continue;
+                float[] s = level.evaluate(a, b);
+                for (int i = 0; i < s.length; i++) {
+                    if (s[i] > refinedScores[c]) {
+                        refinedScores[c] = s[i];
+                        refined[c] = a + i;
+                    }
+                }
+            }
+            candidates = sortByScore(refined, refinedScores);
+        }
+
+        int bestX = -1;
+        Level full = levels.get(0);
+        for (int x : candidates) {
+            if (x < 0) continue;
+            double s = full.evaluate(x, x)[0];
+            if (s > bestScore) {
+                bestScore = s;
+                bestX = x;
+            }
+        }
+        return new Result(bestX, bestX >= 0 ? bestScore : 0, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 无碎片图：找背景带中边缘密度最高的列（即缺口边缘最明显处）
+     */
+    private static Result solveByEdgeDensity(Plane band, int searchStart, int maxX, long start) {
+        double bestScore = -1;
+        int bestX = -1;
+        for (int x = searchStart; x < maxX; x++) {
+            double sum = 0;
+            for (int y = 0; y < band.h; y++) {
+                sum += band.data[y * band.w + x];
+            }
+            double score = sum / band.h;
+            if (score > bestScore) {
+                bestScore = score;
+                bestX = x;
+            }
+        }
+        return new Result(bestX, bestScore, System.currentTimeMillis() - start);
+    }
+
+    // ==================== 金字塔层 ====================
+
+    /**
+     * 单层数据：背景水平带边缘图 + 碎片边缘模板
+     * 模板只保存参与计算的像素（掩码内），值已减去均值，便于互相关直接累加
+     */
+    private static final class Level {
+        final Plane band;
+        final Plane frag;
+        final boolean[] mask;          // null 表示碎片全部像素参与
+
+        final int[] offsets;           // 模板像素在背景带中相对窗口左上角的下标
+        final float[] values;          // 去均值后的模板值
+        final int n;
+        final double templateNorm;     // sqrt(Σ values²)
+
+        // 无掩码时背景窗口均值/方差用列前缀和求得（窗口高度 = 整个水平带）
+        final double[] colPrefix;
+        final double[] colSqPrefix;
+
+        Level(Plane band, Plane frag, boolean[] mask) {
+            this.band = band;
+            this.frag = frag;
+            this.mask = mask;
+
+            int count = 0;
+            double sum = 0;
+            int h = Math.min(frag.h, band.h);
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < frag.w; x++) {
+                    int i = y * frag.w + x;
+                    if (mask != null && !mask[i]) continue;
+                    sum += frag.data[i];
+                    count++;
+                }
+            }
+            n = count;
+            offsets = new int[count];
+            values = new float[count];
+            double mean = count > 0 ? sum / count : 0;
+            double sq = 0;
+            int k = 0;
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < frag.w; x++) {
+                    int i = y * frag.w + x;
+                    if (mask != null && !mask[i]) continue;
+                    float v = (float) (frag.data[i] - mean);
+                    offsets[k] = y * band.w + x;
+                    values[k] = v;
+                    sq += v * v;
+                    k++;
+                }
+            }
+            templateNorm = Math.sqrt(sq);
+
+            if (mask == null) {
+                colPrefix = new double[band.w + 1];
+                colSqPrefix = new double[band.w + 1];
+                for (int x = 0; x < band.w; x++) {
+                    double s = 0, s2 = 0;
+                    for (int y = 0; y < h; y++) {
+                        float v = band.data[y * band.w + x];
+                        s += v;
+                        s2 += v * v;
+                    }
+                    colPrefix[x + 1] = colPrefix[x] + s;
+                    colSqPrefix[x + 1] = colSqPrefix[x] + s2;
+                }
+            } else {
+                colPrefix = null;
+                colSqPrefix = null;
+            }
+        }
+
+        int maxOffset() {
+            return band.w - frag.w;
+        }
+
+        Level downsample() {
+            return new Level(band.half(), frag.half(), halfMask(mask, frag.w, frag.h));
+        }
+
+        /**
+         * 计算偏移 [from, to] 的 NCC 得分；计算量大时拆分到多核
+         */
+        float[] evaluate(final int from, final int to) {
+            final float[] scores = new float[to - from + 1];
+            long work = (long) scores.length * n;
+            int cores = Runtime.getRuntime().availableProcessors();
+            if (work < PARALLEL_THRESHOLD || cores < 2 || scores.length < cores * 4) {
+                evaluateRange(from, to, from, scores);
+                return scores;
+            }
+            int chunk = (scores.length + cores - 1) / cores;
+            List<Callable<Void>> tasks = new ArrayList<>(cores);
+            for (int a = from; a <= to; a += chunk) {
+                final int lo = a;
+                final int hi = Math.min(to, a + chunk - 1);
+                tasks.add(() -> {
+                    evaluateRange(lo, hi, from, scores);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> f : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                    f.get();
+                }
+            } catch (Exception e) {
+                // 并行失败时退回单线程
+                evaluateRange(from, to, from, scores);
+            }
+            return scores;
+        }
+
+        private void evaluateRange(int lo, int hi, int base, float[] scores) {
+            final float[] bg = band.data;
+            for (int x = lo; x <= hi; x++) {
+                double cross = 0;
+                double sumB;
+                double sumB2;
+                if (mask == null) {
+                    for (int k = 0; k < n; k++) {
+                        cross += values[k] * bg[offsets[k] + x];
+                    }
+                    sumB = colPrefix[x + frag.w] - colPrefix[x];
+                    sumB2 = colSqPrefix[x + frag.w] - colSqPrefix[x];
+                } else {
+                    double s = 0, s2 = 0;
+                    for (int k = 0; k < n; k++) {
+                        float b = bg[offsets[k] + x];
+                        cross += values[k] * b;
+                        s += b;
+                        s2 += b * b;
+                    }
+                    sumB = s;
+                    sumB2 = s2;
+                }
+                // 模板已去均值，Σ(T-μT)(B-μB) = Σ(T-μT)·B
+                double bgVar = sumB2 - sumB * sumB / n;
+                scores[x - base] = (n == 0 || templateNorm < 1e-6 || bgVar < 1e-6)
+                        ? 0f : (float) (cross / (templateNorm * Math.sqrt(bgVar)));
+            }
+        }
+    }
+
+    // ==================== 图像工具 ====================
+
+    /**
+     * 单通道浮点图
+     */
+    private static final class Plane {
+        final float[] data;
+        final int w;
+        final int h;
+
+        Plane(float[] data, int w, int h) {
+            this.data = data;
+            this.w = w;
+            this.h = h;
+        }
+
+        /** 2×2 平均缩小一半 */
+        Plane half() {
+            int hw = w / 2, hh = h / 2;
+            float[] out = new float[hw * hh];
+            for (int y = 0; y < hh; y++) {
+                int r0 = 2 * y * w, r1 = r0 + w;
+                for (int x = 0; x < hw; x++) {
+                    int c = 2 * x;
+                    out[y * hw + x] = (data[r0 + c] + data[r0 + c + 1] + data[r1 + c] + data[r1 + c + 1]) * 0.25f;
+                }
+            }
+            return new Plane(out, hw, hh);
+        }
+    }
+
+    /**
+     * 背景图中碎片所在水平带的边缘图（上下各多取1行，保证带内边缘与整图计算结果一致）
+     */
+    private static Plane backgroundBandEdge(int[] bgPixels, int bgW, int bgH, int offsetY, int compareH) {
+        int y0 = Math.max(0, offsetY - 1);
+        int y1 = Math.min(bgH, offsetY + compareH + 1);
+        int rows = y1 - y0;
+        Plane edge = sobelEdge(toGray(bgPixels, bgW, y0, rows), bgW, rows);
+        float[] band = new float[bgW * compareH];
+        System.arraycopy(edge.data, (offsetY - y0) * bgW, band, 0, bgW * compareH);
+        return new Plane(band, bgW, compareH);
+    }
+
+    /** ARGB → 灰度（整数加权，rows 行从 y0 开始） */
+    private static int[] toGray(int[] pixels, int w, int y0, int rows) {
+        int[] gray = new int[w * rows];
+        int base = y0 * w;
+        for (int i = 0; i < gray.length; i++) {
+            int c = pixels[base + i];
+            gray[i] = (77 * ((c >> 16) & 0xFF) + 150 * ((c >> 8) & 0xFF) + 29 * (c & 0xFF)) >> 8;
+        }
+        return gray;
+    }
+
+    /** Sobel 边缘强度（|gx|+|gy|，边界1像素为0） */
+    private static Plane sobelEdge(int[] gray, int w, int h) {
+        float[] edge = new float[w * h];
+        for (int y = 1; y < h - 1; y++) {
+            int up = (y - 1) * w, mid = y * w, down = (y + 1) * w;
+            for (int x = 1; x < w - 1; x++) {
+                int gx = -gray[up + x - 1] + gray[up + x + 1]
+                        - 2 * gray[mid + x - 1] + 2 * gray[mid + x + 1]
+                        - gray[down + x - 1] + gray[down + x + 1];
+                int gy = -gray[up + x - 1] - 2 * gray[up + x] - gray[up + x + 1]
+                        + gray[down + x - 1] + 2 * gray[down + x] + gray[down + x + 1];
+                edge[mid + x] = Math.abs(gx) + Math.abs(gy);
+            }
+        }
+        return new Plane(edge, w, h);
+    }
+
+    /**
+     * 碎片图的拼图形状掩码：有半透明像素时 alpha≥128 的像素参与计算；完全不透明（截屏得到的碎片）返回 null
+     */
+    private static boolean[] alphaMask(int[] pixels, int w, int rows) {
+        int total = w * rows;
+        boolean hasAlpha = false;
+        for (int i = 0; i < total; i++) {
+            if ((pixels[i] >>> 24) != 0xFF) {
+                hasAlpha = true;
+                break;
+            }
+        }
+        if (!hasAlpha) return null;
+        boolean[] mask = new boolean[total];
+        int inside = 0;
+        for (int i = 0; i < total; i++) {
+            mask[i] = (pixels[i] >>> 24) >= 128;
+            if (mask[i]) inside++;
+        }
+        // 形状内像素太少说明透明通道不可信，退回全图
+        return inside >= total / 8 ? mask : null;
+    }
+
+    /** 掩码缩小一半：2×2 中至少2个像素在形状内才保留 */
+    private static boolean[] halfMask(boolean[] mask, int w, int h) {
+        if (mask == null) return null;
+        int hw = w / 2, hh = h / 2;
+        boolean[] out = new boolean[hw * hh];
+        for (int y = 0; y < hh; y++) {
+            int r0 = 2 * y * w, r1 = r0 + w;
+            for (int x = 0; x < hw; x++) {
+                int c = 2 * x;
+                int votes = (mask[r0 + c] ? 1 : 0) + (mask[r0 + c + 1] ? 1 : 0)
+                        + (mask[r1 + c] ? 1 : 0) + (mask[r1 + c + 1] ? 1 : 0);
+                out[y * hw + x] = votes >= 2;
+            }
+        }
+        return out;
+    }
+
+    // ==================== 候选选择 ====================
+
+    /**
+     * 取得分最高的 k 个局部峰（相邻峰至少间隔 2*REFINE_RADIUS，避免候选挤在同一处）
+     */
+    private static int[] pickPeaks(float[] scores, int base, int k) {
+        int[] picked = new int[k];
+        float[] pickedScores = new float[k];
+        int count = 0;
+        boolean[] used = new boolean[scores.length];
+        while (count < k) {
+            int best = -1;
+            for (int i = 0; i < scores.length; i++) {
+                if (!used[i] && (best < 0 || scores[i] > scores[best])) best = i;
+            }
+            if (best < 0) break;
+            picked[count] = base + best;
+            pickedScores[count] = scores[best];
+            count++;
+            int lo = Math.max(0, best - 2 * REFINE_RADIUS);
+            int hi = Math.min(scores.length - 1, best + 2 * REFINE_RADIUS);
+            for (int i = lo; i <= hi; i++) used[i] = true;
+        }
+        int[] result = new int[count];
+        System.arraycopy(picked, 0, result, 0, count);
+        return result;
+    }
+
+    /** 按得分从高到低排序，去掉无效候选 */
+    private static int[] sortByScore(int[] xs, float[] scores) {
+        List<Integer> order = new ArrayList<>(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            if (xs[i] >= 0) order.add(i);
+        }
+        Collections.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+        List<Integer> unique = new ArrayList<>(order.size());
+        for (int i : order) {
+            if (!unique.contains(xs[i])) unique.add(xs[i]);
+        }
+        int[] result = new int[unique.size()];
+        for (int i = 0; i < result.length; i++) result[i] = unique.get(i);
+        return result;
+    }
+
+    private static int ceilShift(int value, int shift) {
+        return (value + (1 << shift) - 1) >> shift;
+    }
+}
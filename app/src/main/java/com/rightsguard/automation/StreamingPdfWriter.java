@@ -0,0 +1,371 @@
+package com.rightsguard.automation;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 流式PDF写入器
+ *  - 图片页：整页一张JPEG（DCTDecode，直接嵌入JPEG字节，不再解码）
+ *  - 文字页：真正的PDF文本（中文用 STSong-Light + UniGB-UCS2-H，不嵌入字体；等宽用 Courier），可选中、复制、搜索
+ *  - 书签：{@link #addOutline} 登记的条目在 finish 时写成 /Outlines，阅读器侧栏可按条目跳转到页
+ * 每加一页就把该页的对象写进输出流，内存里只保留对象偏移量，页数再多也不会累积；
+ * 页面顺序由最后写出的页树决定，因此可以先写内容页、最后再写目录页并把它排到最前面。
+ */
+public class StreamingPdfWriter implements Closeable {
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final int CATALOG_ID = 1;
+    private static final int PAGES_ID = 2;
+    private static final String FONT_CJK = "F1";
+    private static final String FONT_MONO = "F2";
+
+    /**
+     * 文字页上的一行文字；坐标以页面左上角为原点，y 为基线
+     */
+    public static final class TextLine {
+        final float x;
+        final float y;
+        final float size;
+        final boolean mono;     // true=Courier（只支持ASCII，用于哈希），false=中文字体
+        final boolean bold;
+        final float gray;       // 0=黑，1=白
+        final String text;
+
+        public TextLine(float x, float y, float size, boolean mono, boolean bold, float gray, String text) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+            this.mono = mono;
+            this.bold = bold;
+            this.gray = gray;
+            this.text = text;
+        }
+
+        /**
+         * 估算文字宽度（与写出时的字宽一致：中文字体ASCII半角、其余全角；Courier 0.6em）
+         */
+        public static float measure(String text, float size, boolean mono) {
+            if (mono) return text.length() * 0.6f * size;
+            float em = 0;
+            for (int i = 0; i < text.length(); i++) {
+                em += text.charAt(i) < 0x80 ? 0.5f : 1f;
+            }
+            return em * size;
+        }
+    }
+
+    /**
+     * 书签条目
+     */
+    private static final class Outline {
+        final String title;
+        final int pageId;
+
+        Outline(String title, int pageId) {
+            this.title = title;
+            this.pageId = pageId;
+        }
+    }
+
+    private final CountingOutputStream out;
+    private long[] offsets = new long[64];    // 下标 = 对象号
+    private int nextId = 3;
+    private final List<Integer> pageIds = new ArrayList<>();
+    private final List<Integer> frontPages = new ArrayList<>();
+    private final List<Outline> outlines = new ArrayList<>();
+    private int fontsId = 0;                  // 文字页共用的字体资源字典（首个文字页时写出）
+    private boolean finished = false;
+    private Map<String, String> info;
+
+    public StreamingPdfWriter(OutputStream os) throws IOException {
+        this.out = new CountingOutputStream(os);
+        write("%PDF-1.4\n");
+        // 二进制注释行：让传输工具把文件当作二进制
+        out.write(new byte[]{'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'});
+    }
+
+    /**
+     * 追加一页：JPEG铺满整页
+     *
+     * @return 页序号（从0开始，按添加顺序）
+     */
+    public int addJpegPage(byte[] jpeg, int imageWidth, int imageHeight, int pageWidth, int pageHeight) throws IOException {
+        int imageId = beginObject();
+        write("<< /Type /XObject /Subtype /Image /Width " + imageWidth + " /Height " + imageHeight
+                + " /ColorSpace /DeviceRGB /BitsPerComponent 8 /Filter /DCTDecode /Length " + jpeg.length + " >>\nstream\n");
+        out.write(jpeg);
+        write("\nendstream\nendobj\n");
+
+        byte[] content = ("q " + pageWidth + " 0 0 " + pageHeight + " 0 0 cm /Im0 Do Q").getBytes(ASCII);
+        int contentId = beginObject();
+        write("<< /Length " + content.length + " >>\nstream\n");
+        out.write(content);
+        write("\nendstream\nendobj\n");
+
+        int pageId = beginObject();
+        write("<< /Type /Page /Parent " + PAGES_ID + " 0 R /MediaBox [0 0 " + pageWidth + " " + pageHeight + "]"
+                + " /Resources << /XObject << /Im0 " + imageId + " 0 R >> >> /Contents " + contentId + " 0 R >>\nendobj\n");
+        pageIds.add(pageId);
+        return pageIds.size() - 1;
+    }
+
+    /**
+     * 追加一页文字：lines 逐行写成文本对象，rules 为水平分隔线 {x1, x2, y}（页面左上角为原点）
+     *
+     * @return 页序号（从0开始，按添加顺序）
+     */
+    public int addTextPage(List<TextLine> lines, List<float[]> rules, int pageWidth, int pageHeight) throws IOException {
+        int fonts = fonts();
+        StringBuilder content = new StringBuilder();
+        for (float[] rule : rules) {
+            content.append("0.8 G 2 w ").append(fmt(rule[0])).append(' ').append(fmt(pageHeight - rule[2]))
+                    .append(" m ").append(fmt(rule[1])).append(' ').append(fmt(pageHeight - rule[2])).append(" l S\n");
+        }
+        for (TextLine line : lines) {
+            if (line.text == null || line.text.isEmpty()) continue;
+            content.append("BT ").append(fmt(line.gray)).append(" g ");
+            if (line.bold) {
+                // 填充+描边模拟粗体，不需要另一套字体
+                content.append(fmt(line.gray)).append(" G ").append(fmt(line.size / 30f)).append(" w 2 Tr ");
+            } else {
+                content.append("0 Tr ");
+            }
+            content.append('/').append(line.mono ? FONT_MONO : FONT_CJK).append(' ').append(fmt(line.size)).append(" Tf ")
+                    .append(fmt(line.x)).append(' ').append(fmt(pageHeight - line.y)).append(" Td ")
+                    .append(line.mono ? asciiString(line.text) : ucs2String(line.text)).append(" Tj ET\n");
+        }
+        byte[] bytes = content.toString().getBytes(ASCII);
+        int contentId = beginObject();
+        write("<< /Length " + bytes.length + " >>\nstream\n");
+        out.write(bytes);
+        write("\nendstream\nendobj\n");
+
+        int pageId = beginObject();
+        write("<< /Type /Page /Parent " + PAGES_ID + " 0 R /MediaBox [0 0 " + pageWidth + " " + pageHeight + "]"
+                + " /Resources << /Font " + fonts + " 0 R >> /Contents " + contentId + " 0 R >>\nendobj\n");
+        pageIds.add(pageId);
+        return pageIds.size() - 1;
+    }
+
+    /**
+     * 登记一个书签（按调用顺序排列），指向已添加的第 pageIndex 页
+     */
+    public void addOutline(String title, int pageIndex) {
+        outlines.add(new Outline(title, pageIds.get(pageIndex)));
+    }
+
+    /**
+     * 把已添加的某一页排到最前面（如最后生成的目录页）；多次调用按调用顺序排在最前
+     */
+    public void moveToFront(int pageIndex) {
+        frontPages.add(pageIds.get(pageIndex));
+    }
+
+    /**
+     * 设置文档信息字典（如 Title/Subject/Keywords），finish 时写出；值按 UTF-16BE 编码，支持中文
+     */
+    public void setInfo(Map<String, String> info) {
+        this.info = info;
+    }
+
+    public int getPageCount() {
+        return pageIds.size();
+    }
+
+    /**
+     * 写出页树、目录和交叉引用表；不关闭底层输出流
+     */
+    public void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+
+        List<Integer> order = new ArrayList<>(frontPages);
+        for (int id : pageIds) {
+            if (!frontPages.contains(id)) order.add(id);
+        }
+        StringBuilder kids = new StringBuilder();
+        for (int id : order) {
+            kids.append(id).append(" 0 R ");
+        }
+        beginObject(PAGES_ID);
+        write("<< /Type /Pages /Kids [ " + kids + "] /Count " + order.size() + " >>\nendobj\n");
+        int outlinesId = writeOutlines();
+        beginObject(CATALOG_ID);
+        write("<< /Type /Catalog /Pages " + PAGES_ID + " 0 R"
+                + (outlinesId > 0 ? " /Outlines " + outlinesId + " 0 R /PageMode /UseOutlines" : "") + " >>\nendobj\n");
+        int infoId = 0;
+        if (info != null && !info.isEmpty()) {
+            infoId = beginObject();
+            StringBuilder dict = new StringBuilder("<< ");
+            for (Map.Entry<String, String> e : info.entrySet()) {
+                if (e.getValue() == null) continue;
+                dict.append('/').append(e.getKey()).append(' ').append(textString(e.getValue())).append(' ');
+            }
+            write(dict.append(">>\nendobj\n").toString());
+        }
+
+        long xrefOffset = out.count;
+        StringBuilder xref = new StringBuilder();
+        xref.append("xref\n0 ").append(nextId).append('\n');
+        xref.append("0000000000 65535 f \n");
+        for (int id = 1; id < nextId; id++) {
+            xref.append(String.format("%010d 00000 n \n", offsets[id]));
+        }
+        xref.append("trailer\n<< /Size ").append(nextId).append(" /Root ").append(CATALOG_ID).append(" 0 R");
+        if (infoId > 0) xref.append(" /Info ").append(infoId).append(" 0 R");
+        xref.append(" >>\n");
+        xref.append("startxref\n").append(xrefOffset).append("\n%%EOF\n");
+        write(xref.toString());
+        out.flush();
+    }
+
+    /**
+     * 完成（如尚未完成）并关闭底层输出流
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 书签：一层平铺，/Outlines 根对象 + 每条一个对象（Prev/Next 串联）
+     *
+     * @return 根对象号，没有书签返回 0
+     */
+    private int writeOutlines() throws IOException {
+        if (outlines.isEmpty()) return 0;
+        int rootId = nextId;
+        int firstId = rootId + 1;
+        int lastId = rootId + outlines.size();
+        beginObject();
+        write("<< /Type /Outlines /First " + firstId + " 0 R /Last " + lastId + " 0 R /Count " + outlines.size()
+                + " >>\nendobj\n");
+        for (int i = 0; i < outlines.size(); i++) {
+            Outline o = outlines.get(i);
+            int id = beginObject();
+            StringBuilder item = new StringBuilder("<< /Title ").append(textString(o.title))
+                    .append(" /Parent ").append(rootId).append(" 0 R");
+            if (id > firstId) item.append(" /Prev ").append(id - 1).append(" 0 R");
+            if (id < lastId) item.append(" /Next ").append(id + 1).append(" 0 R");
+            item.append(" /Dest [").append(o.pageId).append(" 0 R /Fit] >>\nendobj\n");
+            write(item.toString());
+        }
+        return rootId;
+    }
+
+    /**
+     * 文字页的字体资源（只写一次）：
+     * F1 = STSong-Light（Adobe-GB1，阅读器自带，不嵌入），UniGB-UCS2-H 编码直接用 UTF-16 码元，ASCII 半角；
+     * F2 = Courier（标准14字体）
+     */
+    private int fonts() throws IOException {
+        if (fontsId > 0) return fontsId;
+        int cidFontId = beginObject();
+        write("<< /Type /Font /Subtype /CIDFontType0 /BaseFont /STSong-Light"
+                + " /CIDSystemInfo << /Registry (Adobe) /Ordering (GB1) /Supplement 4 >>"
+                + " /FontDescriptor " + (cidFontId + 1) + " 0 R /DW 1000 /W [1 95 500] >>\nendobj\n");
+        beginObject();
+        write("<< /Type /FontDescriptor /FontName /STSong-Light /Flags 6 /FontBBox [-25 -254 1000 880]"
+                + " /ItalicAngle 0 /Ascent 880 /Descent -120 /CapHeight 880 /StemV 93 >>\nendobj\n");
+        int cjkId = beginObject();
+        write("<< /Type /Font /Subtype /Type0 /BaseFont /STSong-Light-UniGB-UCS2-H /Encoding /UniGB-UCS2-H"
+                + " /DescendantFonts [" + cidFontId + " 0 R] >>\nendobj\n");
+        int monoId = beginObject();
+        write("<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>\nendobj\n");
+        fontsId = beginObject();
+        write("<< /" + FONT_CJK + " " + cjkId + " 0 R /" + FONT_MONO + " " + monoId + " 0 R >>\nendobj\n");
+        return fontsId;
+    }
+
+    private int beginObject() throws IOException {
+        int id = nextId++;
+        beginObject(id);
+        return id;
+    }
+
+    private void beginObject(int id) throws IOException {
+        if (id >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, id + 1));
+        }
+        offsets[id] = out.count;
+        write(id + " 0 obj\n");
+    }
+
+    /**
+     * PDF文本字符串：带BOM的 UTF-16BE 十六进制串
+     */
+    private static String textString(String value) {
+        StringBuilder hex = new StringBuilder("<FEFF");
+        for (int i = 0; i < value.length(); i++) {
+            hex.append(String.format("%04X", (int) value.charAt(i)));
+        }
+        return hex.append('>').toString();
+    }
+
+    /**
+     * UniGB-UCS2-H 编码的字符串：每个字符两字节十六进制
+     */
+    private static String ucs2String(String value) {
+        StringBuilder hex = new StringBuilder("<");
+        for (int i = 0; i < value.length(); i++) {
+            hex.append(String.format("%04X", (int) value.charAt(i)));
+        }
+        return hex.append('>').toString();
+    }
+
+    /**
+     * Courier 用的字面量字符串：转义括号和反斜杠，非ASCII字符替换为 ?
+     */
+    private static String asciiString(String value) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') sb.append('\\');
+            sb.append(c >= 0x20 && c < 0x7F ? c : '?');
+        }
+        return sb.append(')').toString();
+    }
+
+    private static String fmt(float v) {
+        return v == (int) v ? Integer.toString((int) v) : String.format(Locale.US, "%.2f", v);
+    }
+
+    private void write(String s) throws IOException {
+        out.write(s.getBytes(ASCII));
+    }
+
+    /**
+     * 统计已写出字节数（交叉引用表需要每个对象的偏移量）
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count = 0;
+
+        CountingOutputStream(OutputStream os) {
+            super(os);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.rightsguard.automation;
+
+/**
+ * 节点文字解析工具：图片Key、中文计数（万/亿）、视频播放时间（m:ss / m:ss）
+ * 轮播图/视频列表扫描时对每个节点都会调用，全部是手写的单次扫描，
+ * 不在调用时编译正则，也不做 replace/replaceAll 产生中间字符串。
+ */
+public final class TextParsers {
+
+    private static final String[] MD5_KEY_PREFIXES = {"jpeg_m_", "webp_m_"};
+    private static final int MD5_LENGTH = 32;
+
+    private TextParsers() {
+    }
+
+    /**
+     * 从字节跳动CDN URL或Key字符串中提取图片唯一标识符
+     * 支持两种格式：
+     *   1. jpeg_m_ / webp_m_ 格式：提取32位十六进制MD5
+     *      输入: "jpeg_m_7028a541c836f6261c9f16a74a112c81_sx_469823_www1259-1259~tplv-..."
+     *      输出: "7028a541c836f6261c9f16a74a112c81"
+     *   2. TOS格式（tos-cn-v-xxxx/KEY）：提取URL路径最后一段中 ~ 或 ? 之前的内容
+     *      输入: "https://p6-compass-sign.byteimg.com/tos-cn-v-0051/o8zGIDs4tmqAGZeCQpyuD14Q349LgNAdHeBsHg~tplv-..."
+     *      输出: "o8zGIDs4tmqAGZeCQpyuD14Q349LgNAdHeBsHg"
+     *      也支持节点Text直接就是 "KEY?params" 格式，此时截取 ? 之前部分。
+     *
+     * @return 无法识别返回 null
+     */
+    public static String extractImageKey(String input) {
+        if (input == null || input.isEmpty()) return null;
+
+        // 优先匹配 jpeg_m_，其次 webp_m_（32位十六进制MD5）
+        for (String prefix : MD5_KEY_PREFIXES) {
+            int from = 0;
+            int idx;
+            while ((idx = input.indexOf(prefix, from)) >= 0) {
+                int start = idx + prefix.length();
+                if (isLowerHex(input, start, MD5_LENGTH)) {
+                    return input.substring(start, start + MD5_LENGTH);
+                }
+                from = idx + 1;
+            }
+        }
+
+        // TOS格式：取路径最后一段（/ 之后），再截取 ~ 或 ? 之前的部分
+        int start = 0;
+        int slashIdx = input.lastIndexOf('/');
+        if (slashIdx >= 0 && slashIdx < input.length() - 1) {
+            start = slashIdx + 1;
+        }
+        int end = input.length();
+        int tildeIdx = input.indexOf('~', start);
+        if (tildeIdx > start) end = tildeIdx;
+        int queryIdx = input.indexOf('?', start);
+        if (queryIdx > start && queryIdx < end) end = queryIdx;
+
+        // 过滤掉太短（<10字符）或包含空格（可能是普通文字）的结果
+        if (end - start < 10) return null;
+        String segment = input.substring(start, end);
+        if (segment.indexOf(' ') >= 0 || segment.contains(".png")
+                || segment.contains(".jpg") || segment.contains(".svg")) {
+            return null;
+        }
+        return segment;
+    }
+
+    /**
+     * 是否为"X.XX万"格式的计数（可带 + / ＋ 后缀），等价于正则 [0-9]+\.?[0-9]*万[+＋]?
+     */
+    public static boolean isWanCount(CharSequence text) {
+        if (text == null) return false;
+        int n = text.length();
+        int i = 0;
+        int intDigits = 0;
+        while (i < n && isDigit(text.charAt(i))) {
+            i++;
+            intDigits++;
+        }
+        if (intDigits == 0) return false;
+        if (i < n && text.charAt(i) == '.') {
+            i++;
+            while (i < n && isDigit(text.charAt(i))) i++;
+        }
+        if (i >= n || text.charAt(i) != '万') return false;
+        i++;
+        if (i < n && isPlus(text.charAt(i))) i++;
+        return i == n;
+    }
+
+    /**
+     * 解析中文计数文本为整数
+     * 跳过数字前的前缀（如"销量"、"播放"），支持小数、千分位逗号、万/亿单位和 +/＋ 后缀：
+     *   "销量1万+" → 10000，"销量7500+" → 7500，"1.5万" → 15000，"2.3亿" → 230000000，"1,234条评论" → 1234
+     *
+     * @return 没有数字时返回 -1
+     */
+    public static long parseCount(CharSequence text) {
+        if (text == null) return -1;
+        int n = text.length();
+        int i = 0;
+        while (i < n && !isDigit(text.charAt(i))) i++;
+        if (i == n) return -1;
+
+        long intPart = 0;
+        long fraction = 0;
+        long fractionScale = 1;
+        boolean inFraction = false;
+        for (; i < n; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                if (inFraction) {
+                    if (fractionScale < 100000000L) {
+                        fraction = fraction * 10 + (c - '0');
+                        fractionScale *= 10;
+                    }
+                } else {
+                    if (intPart > Long.MAX_VALUE / 100000000L) return -1;  // 溢出
+                    intPart = intPart * 10 + (c - '0');
+                }
+            } else if (c == '.' && !inFraction && i + 1 < n && isDigit(text.charAt(i + 1))) {
+                inFraction = true;
+            } else if (c == ',' && !inFraction && i + 1 < n && isDigit(text.charAt(i + 1))) {
+                // 千分位
+            } else {
+                break;
+            }
+        }
+        while (i < n && text.charAt(i) == ' ') i++;
+
+        long unit = 1;
+        if (i < n) {
+            char c = text.charAt(i);
+            if (c == '万' || c == 'w' || c == 'W') unit = 10000L;
+            else if (c == '亿') unit = 100000000L;
+        }
+        return intPart * unit + fraction * unit / fractionScale;
+    }
+
+    /**
+     * 解析"销量XXXX+"或"销量X万+"格式的销量文本
+     *
+     * @return 解析失败返回 -1
+     */
+    public static int parseSales(String salesText) {
+        if (salesText == null || salesText.isEmpty()) return -1;
+        long value = parseCount(salesText);
+        return value > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) value;
+    }
+
+    /**
+     * 解析播放量文本为以"万"为单位的浮点数
+     * 支持格式：53.83万、5万、1.08万、22万+、1.2亿
+     *
+     * @return 不带万/亿单位或解析失败返回 -1
+     */
+    public static float parsePlayCountWan(String text) {
+        if (text == null) return -1f;
+        boolean wan = text.indexOf('万') >= 0;
+        boolean yi = text.indexOf('亿') >= 0;
+        if (!wan && !yi) return -1f;
+        long value = parseCount(text);
+        return value < 0 ? -1f : value / 10000f;
+    }
+
+    /**
+     * 解析播放器时间条文字，如 "0:12 / 0:45"、"01:05/3:20"（冒号支持全角）
+     * 找到 "当前 / 总时长" 成对出现时返回 {当前秒, 总秒}；
+     * 只有单独的时间值时取最后一个作为总时长，返回 {-1, 总秒}
+     *
+     * @return 没有任何 m:ss 时间返回 null
+     */
+    public static int[] parsePlaybackTime(CharSequence text) {
+        if (text == null) return null;
+        int n = text.length();
+        int prevSec = -1;       // 上一个时间值
+        int prevEnd = -1;       // 上一个时间值结束位置
+        int lastSec = -1;
+        int i = 0;
+        while (i < n) {
+            // m:ss —— 1~2位分钟，前面不能紧跟数字
+            if (!isDigit(text.charAt(i)) || (i > 0 && isDigit(text.charAt(i - 1)))) {
+                i++;
+                continue;
+            }
+            int j = i;
+            int minutes = 0;
+            while (j < n && j - i < 3 && isDigit(text.charAt(j))) {
+                minutes = minutes * 10 + (text.charAt(j) - '0');
+                j++;
+            }
+            int digits = j - i;
+            if (digits > 2 || j + 2 >= n
+                    || (text.charAt(j) != ':' && text.charAt(j) != '：')
+                    || !isDigit(text.charAt(j + 1)) || !isDigit(text.charAt(j + 2))
+                    || (j + 3 < n && isDigit(text.charAt(j + 3)))) {
+                i = j;
+                continue;
+            }
+            int seconds = (text.charAt(j + 1) - '0') * 10 + (text.charAt(j + 2) - '0');
+            int total = minutes * 60 + seconds;
+            int end = j + 3;
+            if (prevEnd >= 0 && isSlashBetween(text, prevEnd, i)) {
+                return new int[]{prevSec, total};
+            }
+            prevSec = total;
+            prevEnd = end;
+            lastSec = total;
+            i = end;
+        }
+        return lastSec >= 0 ? new int[]{-1, lastSec} : null;
+    }
+
+    /**
+     * [from, to) 之间除空白外只有一个斜杠
+     */
+    private static boolean isSlashBetween(CharSequence text, int from, int to) {
+        boolean slash = false;
+        for (int k = from; k < to; k++) {
+            char c = text.charAt(k);
+            if (c == '/' || c == '／') {
+                if (slash) return false;
+                slash = true;
+            } else if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return slash;
+    }
+
+    private static boolean isLowerHex(String s, int start, int length) {
+        if (start + length > s.length()) return false;
+        for (int i = start; i < start + length; i++) {
+            char c = s.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isPlus(char c) {
+        return c == '+' || c == '＋';
+    }
+}
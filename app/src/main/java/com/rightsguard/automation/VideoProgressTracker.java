@@ -0,0 +1,347 @@
+package com.rightsguard.automation;
+
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 视频播放进度估计：把 SeekBar 进度、时间条OCR、墙钟三路信号合成一个播放位置
+ *  - SeekBar：onAccessibilityEvent 喂入的进度事件直接更新；没有事件时按 {@link #SEEKBAR_POLL_MS} 主动读一次 RangeInfo
+ *  - 时间条OCR："0:12 / 0:45" 同时给出位置和总时长；代价高，只在没有 SeekBar 时按 {@link #OCR_INTERVAL_MS} 读，
+ *    以及墙钟推算"已到达"时做一次确认
+ *  - 墙钟：两次读数之间按 1 倍速外推；读数位置不动（暂停/缓冲）时停止外推，恢复走动后再继续；
+ *    长时间不动则认为读数源失效（如进度条隐藏后不刷新），改回墙钟外推
+ *  - 循环：临近结尾时读数大幅回落（抖音播完自动从头播），直接视为播完，不会因轮询错过最后几秒而一直等
+ * 截图时机（25%/50%/75%）和"播放完毕"都按估计位置判断，暂停/缓冲不会导致提前截图或多等。
+ *
+ * 注意：await 系列方法会阻塞调用线程，只能在后台线程使用；截屏线程上用 {@link #startPolling} + {@link #hasReached}，
+ * 主动读数（含时间条OCR）在轮询线程进行，不占用截屏线程。
+ */
+public class VideoProgressTracker {
+
+    /**
+     * 日志回调接口
+     */
+    public interface LogCallback {
+        void onLog(String message);
+    }
+
+    /**
+     * 主动读取 SeekBar 进度
+     *
+     * @return {current, max}；找不到进度条返回 null
+     */
+    public interface SeekBarSource {
+        float[] read();
+    }
+
+    /**
+     * 读取播放器时间条（截图+OCR，阻塞）
+     *
+     * @return {当前秒(-1表示未知), 总秒}；识别失败返回 null
+     */
+    public interface TimerSource {
+        int[] read() throws InterruptedException;
+    }
+
+    public static final float END_FRACTION = 0.97f;        // 进度达到该比例视为播放完毕
+    private static final long SEEKBAR_POLL_MS = 1000;      // 没有进度事件时主动读 SeekBar 的间隔
+    private static final long OCR_INTERVAL_MS = 4000;      // 时间条OCR的最小间隔
+    private static final long POLLER_JOIN_MS = 3000;       // 停止轮询时等待进行中读数的上限
+    private static final long STALL_MS = 1500;             // 读数超过该时长不动视为暂停/缓冲
+    private static final long STALE_SOURCE_MS = 10000;     // 读数超过该时长不动视为读数源失效，改按墙钟外推
+    private static final float MOVE_EPSILON = 0.002f;      // 小于该比例的变化视为没动
+    private static final float LOOP_FROM = 0.8f;           // 估计进度超过该值后……
+    private static final float LOOP_DROP = 0.5f;           // ……读数回落超过该比例，视为播完后从头循环
+
+    private final String seekBarViewId;
+    private final SeekBarSource seekBarSource;
+    private final TimerSource timerSource;
+    private final LogCallback logCallback;
+    private final BooleanSupplier keepRunning;
+    private final Object lock = new Object();
+    private final Object readLock = new Object();   // 主动读数（refresh）串行执行，不阻塞估计值的读取
+
+    private long durationMs;                 // 总时长（任务参数，OCR读到后更新）
+    private float anchorFraction = 0f;       // 最近一次读数（或外推起点）的进度
+    private long anchorTime;                 // 该读数的时间
+    private long lastMoveTime;               // 读数最近一次变化的时间
+    private boolean stalled = false;         // 暂停/缓冲中：不外推
+    private boolean sourceStale = false;     // 读数源不再更新：忽略不变的读数，按墙钟外推
+    private boolean completed = false;       // 已检测到从头循环（播完一遍）
+    private boolean seekBarAvailable = false; // 最近一次主动读 SeekBar 是否成功
+    private long lastSeekBarRead = 0;
+    private long lastOcrRead = 0;
+    private String lastSource = "墙钟";
+    private Thread poller;
+
+    /**
+     * @param durationHintMs 已知的视频时长（任务参数），OCR读到总时长后以OCR为准
+     * @param seekBarViewId  进度条的 viewId，用于过滤进度事件
+     * @param startedAt      开始播放的时间（System.currentTimeMillis），墙钟外推从这里算起
+     * @param keepRunning    返回 false 时等待立即结束（流程被停止）
+     */
+    public VideoProgressTracker(long durationHintMs, String seekBarViewId, SeekBarSource seekBarSource,
+                                TimerSource timerSource, long startedAt, BooleanSupplier keepRunning,
+                                LogCallback logCallback) {
+        this.durationMs = Math.max(1000, durationHintMs);
+        this.seekBarViewId = seekBarViewId;
+        this.seekBarSource = seekBarSource;
+        this.timerSource = timerSource;
+        this.logCallback = logCallback;
+        this.keepRunning = keepRunning;
+        this.anchorTime = startedAt;
+        this.lastMoveTime = startedAt;
+    }
+
+    /**
+     * 喂入无障碍事件（在 onAccessibilityEvent 中调用）：只处理进度条的进度变化
+     */
+    public void onEvent(AccessibilityEvent event) {
+        CharSequence className = event.getClassName();
+        if (className == null || className.toString().indexOf("SeekBar") < 0) return;
+        float current;
+        float max;
+        if (event.getItemCount() > 0) {
+            // 旧版本 ProgressBar 把进度放在 itemCount/currentItemIndex
+            current = event.getCurrentItemIndex();
+            max = event.getItemCount();
+        } else {
+            AccessibilityNodeInfo source = event.getSource();
+            if (source == null) return;
+            try {
+                String id = source.getViewIdResourceName();
+                AccessibilityNodeInfo.RangeInfo range = source.getRangeInfo();
+                if (range == null || (seekBarViewId != null && id != null && !seekBarViewId.equals(id))) return;
+                current = range.getCurrent();
+                max = range.getMax();
+            } finally {
+                source.recycle();
+            }
+        }
+        if (max > 0) {
+            update(current / max, -1, "SeekBar事件");
+        }
+    }
+
+    /**
+     * 当前估计进度（0~1）
+     */
+    public float estimateFraction() {
+        synchronized (lock) {
+            return estimateLocked(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 当前估计播放位置（毫秒）
+     */
+    public long estimatePositionMs() {
+        synchronized (lock) {
+            return (long) (estimateLocked(System.currentTimeMillis()) * durationMs);
+        }
+    }
+
+    public long getDurationMs() {
+        synchronized (lock) {
+            return durationMs;
+        }
+    }
+
+    /**
+     * 等待播放到 fraction（0~1）：有读数源时按实际位置判断，墙钟推算到达时先确认一次
+     *
+     * @return true=已到达，false=超时或流程被停止
+     */
+    public boolean awaitFraction(float fraction, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            if (keepRunning != null && !keepRunning.getAsBoolean()) return false;
+            refresh(false);
+            long now = System.currentTimeMillis();
+            float estimate;
+            long waitMs;
+            synchronized (lock) {
+                estimate = estimateLocked(now);
+                waitMs = stalled ? SEEKBAR_POLL_MS : (long) ((fraction - estimate) * durationMs);
+            }
+            if (estimate >= fraction) {
+                // 外推结果可能因暂停而偏大：没有近期读数时确认一次
+                if (refresh(true)) {
+                    synchronized (lock) {
+                        estimate = estimateLocked(System.currentTimeMillis());
+                    }
+                }
+                if (estimate >= fraction) {
+                    log("🎯 [播放进度] 已到" + percent(estimate) + "（目标" + percent(fraction) + "，依据" + lastSource + "）");
+                    return true;
+                }
+                continue;
+            }
+            long remaining = deadline - now;
+            if (remaining <= 0) {
+                log("⚠️ [播放进度] 等待" + percent(fraction) + "超时，当前约" + percent(estimate));
+                return false;
+            }
+            synchronized (lock) {
+                lock.wait(Math.max(50, Math.min(Math.min(waitMs, SEEKBAR_POLL_MS), remaining)));
+            }
+        }
+    }
+
+    /**
+     * 不等待地检查是否已播放到 fraction（0~1）：只看当前估计值，不做主动读数；
+     * 需要 SeekBar/时间条读数时先 {@link #startPolling}
+     */
+    public boolean hasReached(float fraction) {
+        return estimateFraction() >= fraction;
+    }
+
+    /**
+     * 启动后台轮询线程，按 {@link #SEEKBAR_POLL_MS} 主动读数（没有 SeekBar 时按间隔做时间条OCR），
+     * 直到 {@link #stopPolling} 或流程被停止。重复调用无效果
+     */
+    public synchronized void startPolling() {
+        if (poller != null) return;
+        poller = new Thread(() -> {
+            try {
+                while (keepRunning == null || keepRunning.getAsBoolean()) {
+                    refresh(false);
+                    Thread.sleep(SEEKBAR_POLL_MS);
+                }
+            } catch (InterruptedException ignored) {
+                // stopPolling
+            } catch (Exception e) {
+                log("⚠️ [播放进度] 轮询读数失败，改按已有读数/墙钟估计: " + e.getMessage());
+            }
+        }, "VideoProgressPoller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * 停止后台轮询，等进行中的读数（截屏/OCR）结束后返回，最多等 {@link #POLLER_JOIN_MS}
+     */
+    public void stopPolling() {
+        Thread thread;
+        synchronized (this) {
+            thread = poller;
+            poller = null;
+        }
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            thread.join(POLLER_JOIN_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 等待播放完毕（进度达到 {@link #END_FRACTION}）
+     */
+    public boolean awaitEnd(long timeoutMs) throws InterruptedException {
+        return awaitFraction(END_FRACTION, timeoutMs);
+    }
+
+    /**
+     * 主动读数：SeekBar 到期就读；没有 SeekBar 时按间隔做OCR，force 时不看间隔
+     *
+     * @return 是否拿到了新读数
+     */
+    private boolean refresh(boolean force) throws InterruptedException {
+        synchronized (readLock) {
+            return refreshLocked(force);
+        }
+    }
+
+    private boolean refreshLocked(boolean force) throws InterruptedException {
+        long now = System.currentTimeMillis();
+        if (seekBarSource != null && (force || now - lastSeekBarRead >= SEEKBAR_POLL_MS)) {
+            lastSeekBarRead = now;
+            float[] range = seekBarSource.read();
+            seekBarAvailable = range != null && range[1] > 0;
+            if (seekBarAvailable) {
+                update(range[0] / range[1], -1, "SeekBar");
+                return true;
+            }
+        }
+        // 进度条可用时不做OCR；进度条不存在/消失时才读时间条
+        if (seekBarAvailable || timerSource == null) return false;
+        if (!force && now - lastOcrRead < OCR_INTERVAL_MS) return false;
+        lastOcrRead = now;
+        int[] timer = timerSource.read();
+        if (timer == null || timer[1] <= 0) return false;
+        if (timer[0] >= 0) {
+            update(timer[0] / (float) timer[1], timer[1] * 1000L, "时间条OCR");
+        } else {
+            synchronized (lock) {
+                // 只拿到总时长：保持当前估计位置（毫秒）不变，换算成新时长下的进度
+                long newDurationMs = timer[1] * 1000L;
+                anchorFraction = Math.min(1f, anchorFraction * durationMs / newDurationMs);
+                durationMs = newDurationMs;
+                log("⏱️ [播放进度] 总时长 " + timer[1] + "s（时间条OCR）");
+            }
+        }
+        return true;
+    }
+
+    private void update(float fraction, long newDurationMs, String source) {
+        long now = System.currentTimeMillis();
+        fraction = Math.max(0f, Math.min(1f, fraction));
+        synchronized (lock) {
+            if (newDurationMs > 0 && newDurationMs != durationMs) {
+                log("⏱️ [播放进度] 总时长 " + (newDurationMs / 1000) + "s（" + source + "）");
+                durationMs = newDurationMs;
+            }
+            lastSource = source;
+            if (!completed && fraction < anchorFraction - LOOP_DROP && estimateLocked(now) >= LOOP_FROM) {
+                // 抖音播完会从头循环：临近结尾时进度大幅回落，说明已经播完一遍
+                completed = true;
+                log("🔁 [播放进度] 进度从" + percent(estimateLocked(now)) + "回到" + percent(fraction) + "，视频已从头循环，视为播完");
+            }
+            if (Math.abs(fraction - anchorFraction) >= MOVE_EPSILON || fraction >= 1f) {
+                // 读数在走：以它为新的外推起点
+                if (stalled || sourceStale) log("▶️ [播放进度] 恢复播放，当前" + percent(fraction));
+                stalled = false;
+                sourceStale = false;
+                anchorFraction = fraction;
+                anchorTime = now;
+                lastMoveTime = now;
+            } else if (sourceStale) {
+                // 读数源已判定不再更新，继续按墙钟外推
+                return;
+            } else {
+                // 读数没变：此刻的真实位置就是读数，外推从现在重新算起
+                anchorTime = now;
+            }
+            if (!stalled && !sourceStale && now - lastMoveTime >= STALL_MS) {
+                stalled = true;
+                log("⏸️ [播放进度] " + source + "读数" + percent(fraction) + "已" + ((now - lastMoveTime) / 1000)
+                        + "s未变化，视为暂停/缓冲");
+            } else if (stalled && now - lastMoveTime >= STALE_SOURCE_MS) {
+                // 长时间不变更可能是进度条隐藏后不再刷新：从停住的位置改按墙钟外推
+                stalled = false;
+                sourceStale = true;
+                anchorTime = now;
+                log("⚠️ [播放进度] " + source + "读数" + ((now - lastMoveTime) / 1000) + "s未变化，改按墙钟外推");
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private float estimateLocked(long now) {
+        if (completed) return 1f;
+        if (stalled) return anchorFraction;
+        return Math.min(1f, anchorFraction + (now - anchorTime) / (float) durationMs);
+    }
+
+    private static String percent(float fraction) {
+        return String.format("%.0f%%", fraction * 100);
+    }
+
+    private void log(String message) {
+        if (logCallback != null) logCallback.onLog(message);
+    }
+}
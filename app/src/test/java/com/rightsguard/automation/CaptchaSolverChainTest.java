@@ -0,0 +1,214 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 解算链：本地直接采用 / 远程兜底 / 远程超时退回本地 / 缓存命中与失效
+ * 远程是指向本地回环模拟服务的 {@link ChaojiyingCaptchaSolver}
+ */
+public class CaptchaSolverChainTest {
+
+    private static final double ACCEPT = 0.45;
+    private static final long REMOTE_TIMEOUT_MS = 500;
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String responseBody = "{\"err_no\":0,\"pic_str\":\"123,328\"}";
+    private volatile long responseDelayMs = 0;
+
+    private FakeLocal local;
+    private CaptchaSolverChain chain;
+    private long nextKey = 1;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/Upload/Processing.php", exchange -> {
+            requests.incrementAndGet();
+            drain(exchange.getRequestBody());
+            try {
+                Thread.sleep(responseDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = responseBody.getBytes("UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            } catch (IOException e) {
+                // 客户端超时后已断开
+            }
+        });
+        server.start();
+
+        local = new FakeLocal();
+        chain = newChain(remote());
+    }
+
+    @After
+    public void tearDown() {
+        chain.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void confidentLocalResultSkipsRemote() {
+        local.next = new CaptchaSolver.Solution(200, 0.9, "本地");
+        CaptchaSolver.Solution s = chain.solve(null, null);
+        assertEquals(200, s.distance);
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    public void lowConfidenceFallsBackToRemote() {
+        local.next = new CaptchaSolver.Solution(200, 0.2, "本地");
+        CaptchaSolver.Solution s = chain.solve(null, null);
+        assertEquals(123, s.distance);
+        assertEquals("超级鹰", s.solver);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void localFailureFallsBackToRemote() {
+        local.next = null;
+        assertEquals(123, chain.solve(null, null).distance);
+    }
+
+    @Test
+    public void remoteErrorReturnsLocalResult() {
+        responseBody = "{\"err_no\":-1005,\"err_str\":\"无可用题分\"}";
+        local.next = new CaptchaSolver.Solution(200, 0.2, "本地");
+        CaptchaSolver.Solution s = chain.solve(null, null);
+        assertEquals(200, s.distance);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void remoteTimeoutReturnsLocalResultWithinBudget() {
+        responseDelayMs = REMOTE_TIMEOUT_MS * 4;
+        local.next = new CaptchaSolver.Solution(200, 0.2, "本地");
+        long start = System.currentTimeMillis();
+        CaptchaSolver.Solution s = chain.solve(null, null);
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals(200, s.distance);
+        assertTrue("超时后应立即退回本地结果，实际耗时" + elapsed + "ms", elapsed < REMOTE_TIMEOUT_MS * 3);
+    }
+
+    @Test
+    public void noRemoteUsesLocalRegardlessOfConfidence() {
+        chain.shutdown();
+        chain = newChain(null);
+        local.next = new CaptchaSolver.Solution(200, 0.1, "本地");
+        assertEquals(200, chain.solve(null, null).distance);
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    public void sameImagesHitCache() {
+        local.next = new CaptchaSolver.Solution(200, 0.9, "本地");
+        CaptchaSolver.Solution first = chain.solve(null, null);
+        local.next = new CaptchaSolver.Solution(300, 0.9, "本地");
+        CaptchaSolver.Solution second = chain.solve(null, null);
+        assertSame(first, second);
+        assertEquals(1, local.calls);
+    }
+
+    @Test
+    public void differentImagesMissCache() {
+        local.next = new CaptchaSolver.Solution(200, 0.9, "本地");
+        chain.solve(null, null);
+        // 同一背景换了缺口位置：像素不同，Key 不同，不能复用旧距离
+        nextKey++;
+        local.next = new CaptchaSolver.Solution(300, 0.9, "本地");
+        assertEquals(300, chain.solve(null, null).distance);
+        assertEquals(2, local.calls);
+    }
+
+    @Test
+    public void rejectedResultIsEvicted() {
+        local.next = new CaptchaSolver.Solution(200, 0.9, "本地");
+        CaptchaSolver.Solution first = chain.solve(null, null);
+        chain.reject(first);
+        local.next = new CaptchaSolver.Solution(210, 0.9, "本地");
+        assertEquals(210, chain.solve(null, null).distance);
+        assertEquals(2, local.calls);
+    }
+
+    @Test
+    public void failedSolveIsNotCached() {
+        chain.shutdown();
+        chain = newChain(null);
+        local.next = null;
+        assertNull(chain.solve(null, null));
+        local.next = new CaptchaSolver.Solution(200, 0.9, "本地");
+        assertEquals(200, chain.solve(null, null).distance);
+    }
+
+    /**
+     * 缓存Key由测试指定（相当于图片内容），远程任务不复制位图
+     */
+    private CaptchaSolverChain newChain(CaptchaSolver remote) {
+        return new CaptchaSolverChain(local, remote, ACCEPT, REMOTE_TIMEOUT_MS, null) {
+            @Override
+            long cacheKey(Bitmap background, Bitmap fragment) {
+                return nextKey;
+            }
+
+            @Override
+            Bitmap copyForRemote(Bitmap bitmap) {
+                return bitmap;
+            }
+        };
+    }
+
+    private CaptchaSolver remote() {
+        String endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/Upload/Processing.php";
+        return new ChaojiyingCaptchaSolver(endpoint, "tester", "secret", "1", "9602") {
+            @Override
+            String encode(Bitmap bitmap) {
+                return "AAAA";
+            }
+        };
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] chunk = new byte[4096];
+        while (in.read(chunk) > 0) {
+            // 丢弃请求体
+        }
+    }
+
+    private static final class FakeLocal implements CaptchaSolver {
+        volatile Solution next;
+        int calls = 0;
+
+        @Override
+        public String name() {
+            return "本地";
+        }
+
+        @Override
+        public Solution solve(Bitmap background, Bitmap fragment) {
+            calls++;
+            return next;
+        }
+    }
+}
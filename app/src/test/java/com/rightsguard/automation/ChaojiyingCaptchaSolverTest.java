@@ -0,0 +1,167 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 超级鹰响应解析 + 配置文件读取 + 本地回环模拟服务上的完整请求
+ */
+public class ChaojiyingCaptchaSolverTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String lastRequestBody = "";
+    private volatile String responseBody = "{\"err_no\":0,\"pic_str\":\"123,328\"}";
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/Upload/Processing.php", exchange -> {
+            requests.incrementAndGet();
+            lastRequestBody = readAll(exchange.getRequestBody());
+            byte[] body = responseBody.getBytes("UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void parseResponse_plainDistance() throws Exception {
+        assertEquals(234, solver().parseResponse("{\"err_no\":0,\"pic_str\":\"234\"}").distance);
+    }
+
+    @Test
+    public void parseResponse_pairTakesX() throws Exception {
+        assertEquals(85, solver().parseResponse("{\"err_no\":0,\"pic_str\":\"85,328\"}").distance);
+    }
+
+    @Test
+    public void parseResponse_multipleGapsTakesFirst() throws Exception {
+        CaptchaSolver.Solution s = solver().parseResponse("{\"err_no\":0,\"pic_str\":\" 85,328|569,322 \"}");
+        assertEquals(85, s.distance);
+        assertEquals(1.0, s.confidence, 0);
+        assertEquals("超级鹰", s.solver);
+    }
+
+    @Test
+    public void parseResponse_errorCodeThrows() {
+        try {
+            solver().parseResponse("{\"err_no\":-1005,\"err_str\":\"无可用题分\"}");
+            fail("err_no != 0 应抛出异常");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("-1005"));
+        }
+    }
+
+    @Test
+    public void parseResponse_emptyPicStrThrows() {
+        try {
+            solver().parseResponse("{\"err_no\":0,\"pic_str\":\"\"}");
+            fail("空 pic_str 应抛出异常");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("无法解析"));
+        }
+    }
+
+    @Test
+    public void solve_postsMultipartToEndpoint() throws Exception {
+        CaptchaSolver.Solution s = solver().solve(null, null);
+        assertEquals(123, s.distance);
+        assertEquals(1, requests.get());
+        assertTrue(lastRequestBody.contains("name=\"user\""));
+        assertTrue(lastRequestBody.contains("tester"));
+        assertTrue(lastRequestBody.contains("name=\"softid\""));
+        assertTrue(lastRequestBody.contains("name=\"codetype\""));
+        assertTrue(lastRequestBody.contains("9602"));
+        assertTrue(lastRequestBody.contains("name=\"file_base64\""));
+        // 密码只以 MD5 形式发送
+        assertTrue(!lastRequestBody.contains("secret"));
+    }
+
+    @Test
+    public void fromConfig_missingFileOrFieldsReturnsNull() throws IOException {
+        assertNull(ChaojiyingCaptchaSolver.fromConfig(null));
+        assertNull(ChaojiyingCaptchaSolver.fromConfig(new File("does-not-exist.properties")));
+
+        File partial = File.createTempFile("chaojiying", ".properties");
+        try {
+            write(partial, "user=tester\npassword=secret\n");
+            assertNull(ChaojiyingCaptchaSolver.fromConfig(partial));
+        } finally {
+            partial.delete();
+        }
+    }
+
+    @Test
+    public void fromConfig_usesConfiguredEndpoint() throws Exception {
+        File config = File.createTempFile("chaojiying", ".properties");
+        try {
+            write(config, "user=tester\npassword=secret\nsoftid=1\nendpoint=" + endpoint() + "\n");
+            ChaojiyingCaptchaSolver configured = ChaojiyingCaptchaSolver.fromConfig(config);
+            assertNotNull(configured);
+            assertEquals(123, configured.parseResponse(configured.post("AAAA", null)).distance);
+            assertEquals(1, requests.get());
+        } finally {
+            config.delete();
+        }
+    }
+
+    private String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/Upload/Processing.php";
+    }
+
+    /**
+     * 编码不依赖 Android 图片压缩，直接给固定的 Base64
+     */
+    private ChaojiyingCaptchaSolver solver() {
+        return new ChaojiyingCaptchaSolver(endpoint(), "tester", "secret", "1", "9602") {
+            @Override
+            String encode(Bitmap bitmap) {
+                return "AAAA";
+            }
+        };
+    }
+
+    private static void write(File file, String text) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(text.getBytes("UTF-8"));
+        }
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int n;
+        while ((n = in.read(chunk)) > 0) buffer.write(chunk, 0, n);
+        return buffer.toString("UTF-8");
+    }
+}
@@ -0,0 +1,114 @@
+package com.rightsguard.automation;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 采样器结束时机：正常达到目标、结束条件成立、调用线程被中断时都要等处理线程退出后才返回
+ * 帧来源是同步交付占位位图的假截屏；占位位图上的方法由 unitTests.returnDefaultValues 变为空操作
+ */
+public class FrameSamplerTest {
+
+    private static final long INTERVAL_MS = 5;
+    private static final long SLOW_PROCESS_MS = 300;
+
+    @Test
+    public void stopsWhenTargetReached() throws Exception {
+        FrameSampler sampler = new FrameSampler(new FakeSource(), INTERVAL_MS, 2, null);
+        FrameSampler.Stats stats = sampler.run(System.currentTimeMillis(), () -> false, 3, frame -> true);
+        assertEquals(3, stats.accepted);
+        assertTrue(stats.captured >= 3);
+    }
+
+    @Test
+    public void stopsWhenConditionHolds() throws Exception {
+        final AtomicInteger checks = new AtomicInteger();
+        FrameSampler sampler = new FrameSampler(new FakeSource(), INTERVAL_MS, 2, null);
+        FrameSampler.Stats stats = sampler.run(System.currentTimeMillis(), () -> checks.incrementAndGet() > 5, 100,
+                frame -> false);
+        assertEquals(5, stats.captured);
+        assertEquals(0, stats.accepted);
+    }
+
+    @Test
+    public void interruptedRunWaitsForWorkerToFinish() throws Exception {
+        final CountDownLatch processing = new CountDownLatch(1);
+        final AtomicBoolean active = new AtomicBoolean();
+        final AtomicBoolean returned = new AtomicBoolean();
+        final AtomicInteger processedAfterReturn = new AtomicInteger();
+        final FrameSampler.FrameProcessor slow = frame -> {
+            if (returned.get()) processedAfterReturn.incrementAndGet();
+            active.set(true);
+            processing.countDown();
+            // 模拟不响应中断的人脸检测：忽略中断，处理完这一帧才返回
+            long end = System.currentTimeMillis() + SLOW_PROCESS_MS;
+            while (System.currentTimeMillis() < end) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ignored) {
+                }
+            }
+            active.set(false);
+            return false;
+        };
+
+        final AtomicBoolean threw = new AtomicBoolean();
+        final AtomicBoolean activeOnExit = new AtomicBoolean(true);
+        Thread caller = new Thread(() -> {
+            FrameSampler sampler = new FrameSampler(new FakeSource(), INTERVAL_MS, 2, null);
+            try {
+                sampler.run(System.currentTimeMillis(), () -> false, 100, slow);
+            } catch (InterruptedException e) {
+                threw.set(true);
+            }
+            activeOnExit.set(active.get());
+            returned.set(true);
+        });
+        caller.start();
+
+        assertTrue(processing.await(2, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(5000);
+
+        assertFalse("调用线程应已返回", caller.isAlive());
+        assertTrue("中断应以 InterruptedException 抛出", threw.get());
+        assertFalse("返回时处理线程仍在处理帧", activeOnExit.get());
+        Thread.sleep(SLOW_PROCESS_MS);
+        assertEquals("返回后不应再处理新帧", 0, processedAfterReturn.get());
+    }
+
+    /**
+     * 同步交付占位位图的截屏来源
+     */
+    private static final class FakeSource implements FrameSampler.FrameSource {
+        @Override
+        public void capture(FrameSampler.FrameCallback callback) {
+            callback.onFrame(placeholderBitmap());
+        }
+    }
+
+    /**
+     * android.jar 中的 Bitmap 没有可用的构造函数：绕过构造分配一个实例，只作为不透明的帧对象传递
+     */
+    private static Bitmap placeholderBitmap() {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            return (Bitmap) unsafe.getClass().getMethod("allocateInstance", Class.class).invoke(unsafe, Bitmap.class);
+        } catch (Exception e) {
+            throw new AssertionError("无法创建占位位图", e);
+        }
+    }
+}
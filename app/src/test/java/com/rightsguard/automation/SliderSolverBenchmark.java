@@ -0,0 +1,41 @@
+package com.rightsguard.automation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 滑块解算耗时（680×390 背景、162×162 碎片），打印中位数/最大值，目标中位数 50ms 以内（只打印不断言）
+ * 依赖机器负载，默认不运行：./gradlew testDebugUnitTest -Pbenchmark
+ */
+public class SliderSolverBenchmark {
+
+    private static final long BUDGET_MS = 50;
+
+    @Before
+    public void onlyWhenRequested() {
+        assumeTrue("未开启 -Pbenchmark", Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void solveTime() {
+        SliderSolverTest.Pair pair = SliderSolverTest.Pair.create(new Random(31), 420, 120, true);
+        // 预热：排除类加载和 JIT 编译
+        for (int i = 0; i < 10; i++) pair.solve();
+        long[] costs = new long[15];
+        for (int i = 0; i < costs.length; i++) {
+            long start = System.nanoTime();
+            SliderSolver.Result r = pair.solve();
+            costs[i] = (System.nanoTime() - start) / 1_000_000L;
+            assertEquals(420, r.x, SliderSolverTest.TOLERANCE_PX);
+        }
+        Arrays.sort(costs);
+        System.out.println("滑块解算耗时中位数" + costs[costs.length / 2] + "ms，最大" + costs[costs.length - 1]
+                + "ms（目标" + BUDGET_MS + "ms）");
+    }
+}
@@ -0,0 +1,158 @@
+package com.rightsguard.automation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 本地滑块解算：合成的背景/碎片图（随机纹理 + 拼图形缺口），校验缺口位置误差（耗时见 {@link SliderSolverBenchmark}）
+ * 尺寸与抖音验证码一致：背景 680×390，碎片 162×162
+ */
+public class SliderSolverTest {
+
+    private static final int BG_W = 680;
+    private static final int BG_H = 390;
+    private static final int FRAG = 162;
+    static final int TOLERANCE_PX = 2;
+
+    @Test
+    public void alphaFragmentFindsGap() {
+        for (int seed = 1; seed <= 8; seed++) {
+            Random random = new Random(seed);
+            int gapX = FRAG + 20 + random.nextInt(BG_W - 2 * FRAG - 40);
+            int offsetY = 20 + random.nextInt(BG_H - FRAG - 40);
+            Pair pair = Pair.create(random, gapX, offsetY, true);
+            SliderSolver.Result r = pair.solve();
+            assertTrue("seed=" + seed + " 未找到缺口", r.found());
+            assertEquals("seed=" + seed, gapX, r.x, TOLERANCE_PX);
+        }
+    }
+
+    @Test
+    public void opaqueFragmentFindsGap() {
+        // 截屏得到的碎片没有透明通道：整块参与匹配
+        for (int seed = 11; seed <= 18; seed++) {
+            Random random = new Random(seed);
+            int gapX = FRAG + 20 + random.nextInt(BG_W - 2 * FRAG - 40);
+            int offsetY = 20 + random.nextInt(BG_H - FRAG - 40);
+            Pair pair = Pair.create(random, gapX, offsetY, false);
+            SliderSolver.Result r = pair.solve();
+            assertTrue("seed=" + seed + " 未找到缺口", r.found());
+            assertEquals("seed=" + seed, gapX, r.x, TOLERANCE_PX);
+        }
+    }
+
+    @Test
+    public void gapNearSearchBoundsIsFound() {
+        Random random = new Random(21);
+        int[] gaps = {FRAG + 2, BG_W - FRAG - 3};
+        for (int gapX : gaps) {
+            SliderSolver.Result r = Pair.create(random, gapX, 100, true).solve();
+            assertEquals("gapX=" + gapX, gapX, r.x, TOLERANCE_PX);
+        }
+    }
+
+    @Test
+    public void invalidGeometryReturnsNotFound() {
+        int[] bg = new int[BG_W * BG_H];
+        int[] frag = new int[FRAG * FRAG];
+        // 碎片在背景之外
+        assertFalse(SliderSolver.solve(bg, BG_W, BG_H, frag, FRAG, FRAG, BG_H).found());
+        // 碎片比背景宽
+        assertFalse(SliderSolver.solve(bg, BG_W, BG_H, new int[BG_W * 2], BG_W + 1, 1, 0).found());
+    }
+
+    /**
+     * 一组合成的验证码：背景中 (gapX, offsetY) 处挖出拼图形缺口（变暗 + 亮描边），碎片为缺口处原始纹理
+     */
+    static final class Pair {
+        final int[] background;
+        final int[] fragment;
+        final int offsetY;
+
+        private Pair(int[] background, int[] fragment, int offsetY) {
+            this.background = background;
+            this.fragment = fragment;
+            this.offsetY = offsetY;
+        }
+
+        SliderSolver.Result solve() {
+            return SliderSolver.solve(background, BG_W, BG_H, fragment, FRAG, FRAG, offsetY);
+        }
+
+        static Pair create(Random random, int gapX, int offsetY, boolean alpha) {
+            int[] original = texture(random);
+            int[] background = original.clone();
+            int[] fragment = new int[FRAG * FRAG];
+            for (int y = 0; y < FRAG; y++) {
+                for (int x = 0; x < FRAG; x++) {
+                    int src = original[(offsetY + y) * BG_W + gapX + x];
+                    boolean inside = insidePuzzle(x, y);
+                    if (inside) {
+                        fragment[y * FRAG + x] = src;
+                        int i = (offsetY + y) * BG_W + gapX + x;
+                        background[i] = onOutline(x, y) ? 0xFFF0F0F0 : darken(src);
+                    } else {
+                        // 透明碎片形状外全透明；截屏碎片形状外是背景底色
+                        fragment[y * FRAG + x] = alpha ? 0x00000000 : 0xFF202020;
+                    }
+                }
+            }
+            return new Pair(background, fragment, offsetY);
+        }
+
+        /** 随机色块 + 正弦起伏，边缘丰富且各处不同 */
+        private static int[] texture(Random random) {
+            int[] pixels = new int[BG_W * BG_H];
+            double fx = 0.02 + random.nextDouble() * 0.03;
+            double fy = 0.02 + random.nextDouble() * 0.03;
+            int[] blocks = new int[(BG_W / 17 + 1) * (BG_H / 17 + 1)];
+            for (int i = 0; i < blocks.length; i++) blocks[i] = random.nextInt(120);
+            int cols = BG_W / 17 + 1;
+            for (int y = 0; y < BG_H; y++) {
+                for (int x = 0; x < BG_W; x++) {
+                    int base = blocks[(y / 17) * cols + x / 17];
+                    int wave = (int) (60 * Math.sin(x * fx) * Math.cos(y * fy));
+                    int r = clamp(base + wave + 40);
+                    int g = clamp(base / 2 + 90 - wave);
+                    int b = clamp(200 - base + wave / 2);
+                    pixels[y * BG_W + x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+                }
+            }
+            return pixels;
+        }
+
+        /** 方块主体 + 右侧和顶部两个凸起 */
+        private static boolean insidePuzzle(int x, int y) {
+            int body0 = 20;
+            int body1 = FRAG - 20;
+            if (x >= body0 && x < body1 && y >= body0 && y < body1) return true;
+            int c = FRAG / 2;
+            return sq(x - body1) + sq(y - c) < 18 * 18 || sq(x - c) + sq(y - body0) < 18 * 18;
+        }
+
+        private static boolean onOutline(int x, int y) {
+            return !insidePuzzle(x - 2, y) || !insidePuzzle(x + 2, y)
+                    || !insidePuzzle(x, y - 2) || !insidePuzzle(x, y + 2);
+        }
+
+        private static int darken(int c) {
+            int r = ((c >> 16) & 0xFF) * 2 / 5;
+            int g = ((c >> 8) & 0xFF) * 2 / 5;
+            int b = (c & 0xFF) * 2 / 5;
+            return 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+
+        private static int clamp(int v) {
+            return Math.max(0, Math.min(255, v));
+        }
+
+        private static int sq(int v) {
+            return v * v;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.rightsguard.automation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 手写扫描与改写前正则实现的耗时对比（非严格基准，结果只打印不断言）
+ * 依赖机器负载，默认不运行：./gradlew testDebugUnitTest -Pbenchmark
+ */
+public class TextParsersBenchmark {
+
+    private static final String[] COUNTS = {"1.08万", "53.83万", "22万+", "销量1万+", "销量7500+", "6.3万粉丝"};
+    private static final int ROUNDS = 20000;
+
+    @Before
+    public void onlyWhenRequested() {
+        assumeTrue("未开启 -Pbenchmark", Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void scannersVersusLegacyRegex() {
+        Runnable current = () -> {
+            for (String node : TextParsersTest.IMAGE_NODES) TextParsers.extractImageKey(node);
+            for (String s : COUNTS) {
+                TextParsers.isWanCount(s);
+                TextParsers.parseSales(s);
+                TextParsers.parsePlayCountWan(s);
+            }
+            TextParsers.parsePlaybackTime("0:12 / 0:45");
+        };
+        Runnable legacy = () -> {
+            for (String node : TextParsersTest.IMAGE_NODES) TextParsersTest.Legacy.extractImageKey(node);
+            for (String s : COUNTS) {
+                TextParsersTest.Legacy.isWanCount(s);
+                TextParsersTest.Legacy.parseSalesText(s);
+                TextParsersTest.Legacy.parsePlayCountFloat(s);
+            }
+            TextParsersTest.Legacy.playbackTotalSec("0:12 / 0:45");
+        };
+
+        long currentNs = time(current);
+        long legacyNs = time(legacy);
+        System.out.println("TextParsers: " + currentNs / ROUNDS + "ns/轮，正则实现: " + legacyNs / ROUNDS + "ns/轮");
+    }
+
+    private static long time(Runnable work) {
+        for (int i = 0; i < ROUNDS / 4; i++) work.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) work.run();
+        return System.nanoTime() - start;
+    }
+}
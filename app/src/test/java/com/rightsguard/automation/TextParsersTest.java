@@ -0,0 +1,232 @@
+package com.rightsguard.automation;
+
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 节点文字解析：输入取自 dump/ 目录下的真实界面（图片Key、万/万+/亿计数、销量、m:ss 时间），
+ * 并与改写前的正则/replace 实现对照结果（耗时对比见 {@link TextParsersBenchmark}）
+ */
+public class TextParsersTest {
+
+    // dump/详情页、店铺详情等页面 android.widget.Image 节点的 Text
+    static final String[] IMAGE_NODES = {
+            "jpeg_m_049660fc66a43d3b675b7e9f10d3e4d5_sx_703699_www1259-1259~tplv-qzsgku4lz6-wallet:800:0:q75",
+            "jpeg_m_1dbf7b5515b07f8263bd885fb144fd06_sx_379861_www800-800~tplv-qzsgku4lz6-wallet:800:0:q80",
+            "jpeg_m_7028a541c836f6261c9f16a74a112c81_sx_469823_www1259-1259~tplv-qzsgku4lz6-wallet:128:0:q75",
+            "tos-cn-avt-0015_c8ee395f8bf214e81a21e98cc85f2e84",
+            "tos-cn-i-0813c001_oUBXDf5PAEDDQJgJBApgFCi8IO9kAA1SCAfAwg~tplv-dy-aweme-images-sr-c:92:0:q75",
+            "https://p6-compass-sign.byteimg.com/tos-cn-v-0051/o8zGIDs4tmqAGZeCQpyuD14Q349LgNAdHeBsHg~tplv-dy?x-expires=1",
+            "o8zGIDs4tmqAGZeCQpyuD14Q349LgNAdHeBsHg?lk3s=93de098e",
+            "53.83万",
+            "icon_arrow.png",
+            "查看 更多 商品 详情",
+            "",
+    };
+
+    @Test
+    public void extractImageKey_golden() {
+        assertEquals("049660fc66a43d3b675b7e9f10d3e4d5", TextParsers.extractImageKey(IMAGE_NODES[0]));
+        assertEquals("1dbf7b5515b07f8263bd885fb144fd06", TextParsers.extractImageKey(IMAGE_NODES[1]));
+        assertEquals("7028a541c836f6261c9f16a74a112c81", TextParsers.extractImageKey(IMAGE_NODES[2]));
+        assertEquals("tos-cn-avt-0015_c8ee395f8bf214e81a21e98cc85f2e84", TextParsers.extractImageKey(IMAGE_NODES[3]));
+        assertEquals("tos-cn-i-0813c001_oUBXDf5PAEDDQJgJBApgFCi8IO9kAA1SCAfAwg", TextParsers.extractImageKey(IMAGE_NODES[4]));
+        assertEquals("o8zGIDs4tmqAGZeCQpyuD14Q349LgNAdHeBsHg", TextParsers.extractImageKey(IMAGE_NODES[5]));
+        assertEquals("o8zGIDs4tmqAGZeCQpyuD14Q349LgNAdHeBsHg", TextParsers.extractImageKey(IMAGE_NODES[6]));
+        assertNull(TextParsers.extractImageKey(IMAGE_NODES[7]));
+        assertNull(TextParsers.extractImageKey(IMAGE_NODES[8]));
+        assertNull(TextParsers.extractImageKey(IMAGE_NODES[9]));
+        assertNull(TextParsers.extractImageKey(IMAGE_NODES[10]));
+        assertNull(TextParsers.extractImageKey(null));
+    }
+
+    @Test
+    public void extractImageKey_prefersJpegThenWebpAndSkipsNonHex() {
+        String webp = "webp_m_0123456789abcdef0123456789abcdef_sx_1~tplv";
+        assertEquals("0123456789abcdef0123456789abcdef", TextParsers.extractImageKey(webp));
+        // jpeg_m_ 后不是32位小写十六进制时继续找下一个
+        String mixed = "jpeg_m_XYZ/jpeg_m_fedcba9876543210fedcba9876543210_sx";
+        assertEquals("fedcba9876543210fedcba9876543210", TextParsers.extractImageKey(mixed));
+    }
+
+    @Test
+    public void extractImageKey_matchesLegacyOnDumpNodes() {
+        for (String node : IMAGE_NODES) {
+            assertEquals(node, Legacy.extractImageKey(node), TextParsers.extractImageKey(node));
+        }
+    }
+
+    @Test
+    public void isWanCount_golden() {
+        // dump/近30日、带货达人近90日 的播放量/销量节点
+        for (String s : new String[]{"1.08万", "1.0万", "123.44万", "22.4万", "53.83万", "5万", "22万+", "22万＋"}) {
+            assertTrue(s, TextParsers.isWanCount(s));
+        }
+        for (String s : new String[]{"140万+人逛过", "1万-2.5万", "6.3万粉丝", "万", ".5万", "7500+", "销量1万+", "", null}) {
+            assertFalse(String.valueOf(s), TextParsers.isWanCount(s));
+        }
+    }
+
+    @Test
+    public void parseCount_golden() {
+        assertEquals(10800, TextParsers.parseCount("1.08万"));
+        assertEquals(3536600, TextParsers.parseCount("353.66万"));
+        assertEquals(1400000, TextParsers.parseCount("140万+人逛过"));
+        assertEquals(63000, TextParsers.parseCount("6.3万粉丝"));
+        assertEquals(9566000, TextParsers.parseCount("956.6万人在"));
+        assertEquals(10000, TextParsers.parseCount("1万-2.5万"));           // 区间取下限
+        assertEquals(230000000L, TextParsers.parseCount("2.3亿"));
+        assertEquals(1234, TextParsers.parseCount("1,234条评论"));
+        assertEquals(1234567, TextParsers.parseCount("1,234,567"));
+        assertEquals(300000, TextParsers.parseCount("销量30w+，支持7天无理由"));
+        assertEquals(-1, TextParsers.parseCount("销量"));
+        assertEquals(-1, TextParsers.parseCount(null));
+    }
+
+    @Test
+    public void parseSales_golden() {
+        // dump/商品卡片的销量文字
+        assertEquals(1000, TextParsers.parseSales("销量1000+"));
+        assertEquals(10000, TextParsers.parseSales("销量1万+"));
+        assertEquals(2500, TextParsers.parseSales("销量2500+"));
+        assertEquals(7500, TextParsers.parseSales("销量7500+"));
+        assertEquals(687000, TextParsers.parseSales("销量68.7万"));
+        assertEquals(15000, TextParsers.parseSales("销量1.5万＋"));
+        assertEquals(-1, TextParsers.parseSales("销量"));
+        assertEquals(-1, TextParsers.parseSales(""));
+        assertEquals(Integer.MAX_VALUE, TextParsers.parseSales("销量300亿+"));
+    }
+
+    @Test
+    public void parseSales_matchesLegacyOnDumpSales() {
+        for (String s : new String[]{"销量1000+", "销量1万+", "销量2500+", "销量5000+", "销量68.7万", "销量7500+", "销量"}) {
+            assertEquals(s, Legacy.parseSalesText(s), TextParsers.parseSales(s));
+        }
+    }
+
+    @Test
+    public void parsePlayCountWan_golden() {
+        assertEquals(53.83f, TextParsers.parsePlayCountWan("53.83万"), 0.0001f);
+        assertEquals(5f, TextParsers.parsePlayCountWan("5万"), 0.0001f);
+        assertEquals(1.08f, TextParsers.parsePlayCountWan("1.08万"), 0.0001f);
+        assertEquals(22f, TextParsers.parsePlayCountWan("22万+"), 0.0001f);
+        assertEquals(498.91f, TextParsers.parsePlayCountWan("498.91万"), 0.0001f);
+        assertEquals(12000f, TextParsers.parsePlayCountWan("1.2亿"), 0.01f);
+        assertEquals(-1f, TextParsers.parsePlayCountWan("7500"), 0f);
+        assertEquals(-1f, TextParsers.parsePlayCountWan(null), 0f);
+    }
+
+    @Test
+    public void parsePlayCountWan_matchesLegacyOnDumpCounts() {
+        for (String s : new String[]{"1.08万", "1.09万", "123.44万", "21.38万", "281.07万", "368.56万", "5.02万",
+                "53.83万", "9.64万", "22万+"}) {
+            assertEquals(s, Legacy.parsePlayCountFloat(s), TextParsers.parsePlayCountWan(s), 0.0001f);
+        }
+    }
+
+    @Test
+    public void parsePlaybackTime_golden() {
+        assertArrayEquals(new int[]{12, 45}, TextParsers.parsePlaybackTime("0:12 / 0:45"));
+        assertArrayEquals(new int[]{65, 200}, TextParsers.parsePlaybackTime("01:05/3:20"));
+        assertArrayEquals(new int[]{12, 45}, TextParsers.parsePlaybackTime("0：12 ／ 0：45"));
+        assertArrayEquals(new int[]{-1, 64}, TextParsers.parsePlaybackTime("01:04"));           // dump/详情页 视频时长角标
+        assertArrayEquals(new int[]{-1, 4}, TextParsers.parsePlaybackTime("00:04"));
+        assertArrayEquals(new int[]{-1, 45}, TextParsers.parsePlaybackTime("倍速 0:12 清晰度 0:45"));
+        assertArrayEquals(new int[]{-1, 530}, TextParsers.parsePlaybackTime("08:50:41"));        // 状态栏时钟
+        assertNull(TextParsers.parsePlaybackTime("123:45"));
+        assertNull(TextParsers.parsePlaybackTime("1:2"));
+        assertNull(TextParsers.parsePlaybackTime("暂无"));
+        assertNull(TextParsers.parsePlaybackTime(null));
+    }
+
+    @Test
+    public void parsePlaybackTime_matchesLegacyTotal() {
+        for (String s : new String[]{"0:12 / 0:45", "01:05/3:20", "01:04", "00:04", "倍速 0:12 清晰度 0:45", "08:50:41"}) {
+            assertEquals(s, Legacy.playbackTotalSec(s), TextParsers.parsePlaybackTime(s)[1]);
+        }
+    }
+
+    /**
+     * 改写前的实现（每次调用编译正则 / replace 链），只用于对照
+     */
+    static final class Legacy {
+
+        static String extractImageKey(String input) {
+            if (input == null || input.isEmpty()) return null;
+            Matcher md5Matcher = Pattern.compile("jpeg_m_([0-9a-f]{32})").matcher(input);
+            if (md5Matcher.find()) return md5Matcher.group(1);
+            Matcher webpMatcher = Pattern.compile("webp_m_([0-9a-f]{32})").matcher(input);
+            if (webpMatcher.find()) return webpMatcher.group(1);
+            String segment = input;
+            int slashIdx = input.lastIndexOf('/');
+            if (slashIdx >= 0 && slashIdx < input.length() - 1) {
+                segment = input.substring(slashIdx + 1);
+            }
+            int tildeIdx = segment.indexOf('~');
+            if (tildeIdx > 0) segment = segment.substring(0, tildeIdx);
+            int queryIdx = segment.indexOf('?');
+            if (queryIdx > 0) segment = segment.substring(0, queryIdx);
+            if (segment.length() >= 10 && !segment.contains(" ") && !segment.contains(".png")
+                    && !segment.contains(".jpg") && !segment.contains(".svg")) {
+                return segment;
+            }
+            return null;
+        }
+
+        static boolean isWanCount(String t) {
+            return t.contains("万") && t.matches("[0-9]+\\.?[0-9]*万[+]?");
+        }
+
+        static int parseSalesText(String salesText) {
+            if (salesText == null || salesText.isEmpty()) return -1;
+            String num = salesText.replace("销量", "").replaceAll("[+＋]", "").trim();
+            if (num.contains("万")) {
+                String[] parts = num.split("万");
+                try {
+                    return (int) (Double.parseDouble(parts[0]) * 10000);
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+            try {
+                return Integer.parseInt(num);
+            } catch (NumberFormatException e) {
+                String digits = num.replaceAll("[^0-9]", "");
+                if (digits.isEmpty()) return -1;
+                try {
+                    return Integer.parseInt(digits);
+                } catch (NumberFormatException e2) {
+                    return -1;
+                }
+            }
+        }
+
+        static float parsePlayCountFloat(String text) {
+            if (text == null || !text.contains("万")) return -1f;
+            try {
+                return Float.parseFloat(text.replace("万+", "").replace("万", "").trim());
+            } catch (NumberFormatException e) {
+                return -1f;
+            }
+        }
+
+        static int playbackTotalSec(String text) {
+            Matcher m = Pattern.compile("(\\d{1,2}):(\\d{2})\\s*/\\s*(\\d{1,2}):(\\d{2})").matcher(text);
+            if (m.find()) return Integer.parseInt(m.group(3)) * 60 + Integer.parseInt(m.group(4));
+            Matcher m2 = Pattern.compile("(\\d{1,2}):(\\d{2})").matcher(text);
+            String lastTime = null;
+            while (m2.find()) lastTime = m2.group();
+            if (lastTime == null) return -1;
+            String[] pts = lastTime.split(":");
+            return Integer.parseInt(pts[0]) * 60 + Integer.parseInt(pts[1]);
+        }
+    }
+}